@@ -0,0 +1,65 @@
+package benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of the benchmarks, which runs them just as the JMH command line does, but
+ * always with the garbage collection profiler, so that every result reports the bytes allocated
+ * per operation, as gc.alloc.rate.norm, next to the operations per second.
+ */
+public final class BenchmarkMain {
+
+  /**
+   * A constructor which is private, as this class only holds the entry point.
+   */
+  private BenchmarkMain() {
+  }
+
+  /**
+   * Runs the benchmarks selected by the arguments, which are the same as those of the JMH
+   * command line, such as a pattern of benchmarks to run or -p size=1024x1024 to only measure one
+   * size. Asking for help or a list of benchmarks or profilers prints it instead.
+   *
+   * @param args the JMH command line arguments
+   * @throws CommandLineOptionException if the arguments cannot be parsed
+   * @throws RunnerException            if a benchmark fails to run
+   * @throws IOException                if the help cannot be printed
+   */
+  public static void main(String[] args)
+          throws CommandLineOptionException, RunnerException, IOException {
+    CommandLineOptions cli = new CommandLineOptions(args);
+    if (cli.shouldHelp()) {
+      cli.showHelp();
+      return;
+    }
+    if (cli.shouldListProfilers()) {
+      cli.listProfilers();
+      return;
+    }
+    if (cli.shouldListResultFormats()) {
+      cli.listResultFormats();
+      return;
+    }
+
+    Options options = new OptionsBuilder()
+            .parent(cli)
+            .addProfiler(GCProfiler.class)
+            .build();
+    Runner runner = new Runner(options);
+    if (cli.shouldList()) {
+      runner.list();
+    } else if (cli.shouldListWithParams()) {
+      runner.listWithParams(cli);
+    } else {
+      runner.run();
+    }
+  }
+}
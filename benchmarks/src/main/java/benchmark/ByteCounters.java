@@ -0,0 +1,41 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A class representing the megabytes that a codec benchmark moves, reported by JMH next to the
+ * operations per second as megabytes per second. The pixel megabytes count three bytes per pixel
+ * whatever the format, so formats can be compared with each other, while the file megabytes
+ * count the bytes of the encoded file.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ByteCounters {
+
+  public double pixelMegabytes;
+  public double fileMegabytes;
+
+  /**
+   * Clears the counters before every iteration.
+   */
+  @Setup(Level.Iteration)
+  public void clear() {
+    this.pixelMegabytes = 0;
+    this.fileMegabytes = 0;
+  }
+
+  /**
+   * Counts one operation on an image with the specified numbers of bytes.
+   *
+   * @param pixelBytes the bytes of the pixels, at three bytes per pixel
+   * @param fileBytes  the bytes of the encoded file
+   */
+  void add(long pixelBytes, long fileBytes) {
+    this.pixelMegabytes += pixelBytes / 1e6;
+    this.fileMegabytes += fileBytes / 1e6;
+  }
+}
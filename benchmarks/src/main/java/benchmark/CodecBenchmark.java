@@ -0,0 +1,51 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.image.Image;
+
+/**
+ * Benchmarks of loading and saving a file through each codec, from the file on disk to the image
+ * in the model and back, which includes both decoding and moving the pixels.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CodecBenchmark {
+
+  /**
+   * Measures loading the fixture.
+   *
+   * @param state    the codec and the fixture to load
+   * @param counters the counters of the megabytes loaded
+   * @return the loaded image
+   */
+  @Benchmark
+  public Image load(CodecState state, ByteCounters counters) {
+    Image loaded = state.codec.load(state.fixture);
+    counters.add(state.pixelBytes, state.fileBytes);
+    return loaded;
+  }
+
+  /**
+   * Measures saving the image, overwriting the same file every time.
+   *
+   * @param state    the codec and the image to save
+   * @param counters the counters of the megabytes saved
+   */
+  @Benchmark
+  public void save(CodecState state, ByteCounters counters) {
+    state.codec.save(state.output, state.image);
+    counters.add(state.pixelBytes, state.fileBytes);
+  }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import controller.inputoutput.ImageInputOutput;
+import model.image.Image;
+
+/**
+ * A class representing a file in every format that the application loads and saves, in sizes
+ * from 256 by 256 up to 4K. Each trial generates its own image and saves it with the codec being
+ * measured into a temporary directory, so no fixtures need to be checked in and loading always
+ * reads a file that the same codec wrote.
+ */
+@State(Scope.Benchmark)
+public class CodecState {
+
+  @Param({"ppm", "ppm-binary", "png", "jpg", "bmp"})
+  public String format;
+
+  @Param({"256x256", "1024x1024", "1920x1080", "3840x2160"})
+  public String size;
+
+  ImageInputOutput codec;
+  Image image;
+  String fixture;
+  String output;
+  long fileBytes;
+  long pixelBytes;
+
+  private Path directory;
+
+  /**
+   * Generates the image of this trial and saves it as the fixture that loading reads.
+   *
+   * @throws IOException if the temporary directory cannot be created or the fixture measured
+   */
+  @Setup
+  public void writeFixture() throws IOException {
+    this.codec = Fixtures.codec(this.format);
+    this.image = Fixtures.photo(this.size);
+    this.directory = Files.createTempDirectory("codec-benchmark");
+    String extension = Fixtures.extension(this.format);
+    this.fixture = this.directory.resolve("fixture." + extension).toString();
+    this.output = this.directory.resolve("output." + extension).toString();
+
+    this.codec.save(this.fixture, this.image);
+    this.fileBytes = Files.size(Path.of(this.fixture));
+    this.pixelBytes = 3L * this.image.getWidth() * this.image.getHeight();
+  }
+
+  /**
+   * Deletes the fixture and everything saved next to it.
+   *
+   * @throws IOException if the files cannot be deleted
+   */
+  @TearDown
+  public void deleteFixture() throws IOException {
+    try (Stream<Path> files = Files.walk(this.directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+}
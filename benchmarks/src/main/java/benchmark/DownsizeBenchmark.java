@@ -0,0 +1,35 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.image.Image;
+
+/**
+ * Benchmarks of downsizing an image to half of its width and height.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DownsizeBenchmark {
+
+  /**
+   * Measures downsizing the image by half in both directions.
+   *
+   * @param state the image to downsize
+   * @return the downsized image
+   */
+  @Benchmark
+  public Image downsize(ImageState state) {
+    return state.image.downsize(50, 50);
+  }
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.image.Image;
+
+/**
+ * Benchmarks of filtering an image with the 3 by 3 blur kernel and the 5 by 5 sharpen kernel
+ * that the model uses.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilterBenchmark {
+
+  private static final double[][] BLUR = new double[][]
+      {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
+  private static final double[][] SHARPEN = new double[][]
+      {{-0.125, -0.125, -0.125, -0.125, -0.125},
+          {-0.125, 0.25, 0.25, 0.25, -0.125},
+          {-0.125, 0.25, 1, 0.25, -0.125},
+          {-0.125, 0.25, 0.25, 0.25, -0.125},
+          {-0.125, -0.125, -0.125, -0.125, -0.125}};
+
+  /**
+   * Measures blurring the image.
+   *
+   * @param state the image to blur
+   * @return the blurred image
+   */
+  @Benchmark
+  public Image blur(ImageState state) {
+    return state.image.filter(BLUR);
+  }
+
+  /**
+   * Measures sharpening the image.
+   *
+   * @param state the image to sharpen
+   * @return the sharpened image
+   */
+  @Benchmark
+  public Image sharpen(ImageState state) {
+    return state.image.filter(SHARPEN);
+  }
+}
@@ -0,0 +1,126 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+
+import controller.inputoutput.BMPImageInputOutput;
+import controller.inputoutput.ImageInputOutput;
+import controller.inputoutput.JPGImageInputOutput;
+import controller.inputoutput.PNGImageInputOutput;
+import controller.inputoutput.PPMImageInputOutput;
+import model.image.Image;
+import model.image.ImageImpl;
+
+/**
+ * A class holding the helpers that the benchmarks share to create their images and pick their
+ * codecs, so that every fixture is generated when a benchmark starts rather than read from files
+ * that have to be checked in.
+ */
+final class Fixtures {
+
+  /**
+   * A constructor which is private, as this class only holds static helpers.
+   */
+  private Fixtures() {
+  }
+
+  /**
+   * Parses a size given as a width and a height separated by an x, such as 1920x1080.
+   *
+   * @param size the size to parse
+   * @return the width and the height, in that order
+   * @throws IllegalArgumentException if the size is not a width and a height separated by an x
+   */
+  static int[] parseSize(String size) throws IllegalArgumentException {
+    String[] dimensions = size.split("x");
+    if (dimensions.length != 2) {
+      throw new IllegalArgumentException("Size must be a width and a height!");
+    }
+    return new int[]{Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1])};
+  }
+
+  /**
+   * Creates an image where every pixel is random, which no codec can compress.
+   *
+   * @param size the size of the image, as a width and a height separated by an x
+   * @return the image
+   */
+  static Image noise(String size) {
+    int[] dimensions = parseSize(size);
+    SplittableRandom random = new SplittableRandom(42);
+    int[][] rows = new int[dimensions[1]][dimensions[0]];
+    for (int[] row : rows) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] = random.nextInt(0x1000000);
+      }
+    }
+    return new ImageImpl(rows, 255);
+  }
+
+  /**
+   * Creates an image that compresses about as well as a photograph does, made of smooth
+   * gradients with a little noise on top of them.
+   *
+   * @param size the size of the image, as a width and a height separated by an x
+   * @return the image
+   */
+  static Image photo(String size) {
+    int[] dimensions = parseSize(size);
+    int width = dimensions[0];
+    int height = dimensions[1];
+    SplittableRandom random = new SplittableRandom(42);
+    int[][] rows = new int[height][width];
+    for (int j = 0; j < height; j++) {
+      for (int i = 0; i < width; i++) {
+        int red = clamp(255 * i / width + random.nextInt(-8, 9));
+        int green = clamp(255 * j / height + random.nextInt(-8, 9));
+        int blue = clamp(128 + (int) (100 * Math.sin((i + j) / 40.0)) + random.nextInt(-8, 9));
+        rows[j][i] = (red << 16) | (green << 8) | blue;
+      }
+    }
+    return new ImageImpl(rows, 255);
+  }
+
+  /**
+   * Clamps a component of a pixel to between 0 and 255.
+   *
+   * @param value the component
+   * @return the clamped component
+   */
+  private static int clamp(int value) {
+    return Math.max(0, Math.min(255, value));
+  }
+
+  /**
+   * Returns the codec for a format, which is one of ppm, ppm-binary, png, jpg, or bmp.
+   *
+   * @param format the format
+   * @return the codec which loads and saves that format
+   * @throws IllegalArgumentException if the format is unknown
+   */
+  static ImageInputOutput codec(String format) throws IllegalArgumentException {
+    switch (format) {
+      case "ppm":
+        return new PPMImageInputOutput();
+      case "ppm-binary":
+        return new PPMImageInputOutput(true);
+      case "png":
+        return new PNGImageInputOutput();
+      case "jpg":
+        return new JPGImageInputOutput();
+      case "bmp":
+        return new BMPImageInputOutput();
+      default:
+        throw new IllegalArgumentException("Unknown format: " + format);
+    }
+  }
+
+  /**
+   * Returns the extension of the files of a format.
+   *
+   * @param format the format
+   * @return the extension, without the dot
+   */
+  static String extension(String format) {
+    return format.startsWith("ppm") ? "ppm" : format;
+  }
+}
@@ -0,0 +1,44 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.enums.FlipType;
+import model.image.Image;
+
+/**
+ * Benchmarks of flipping an image both horizontally and vertically.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FlipBenchmark {
+
+  // with no values given, every type of the enum is measured
+  @Param
+  public FlipType type;
+
+  /**
+   * Measures flipping the image by the type of flip of this trial.
+   *
+   * @param state the image to flip
+   * @return the flipped image
+   */
+  @Benchmark
+  public Image flip(ImageState state) {
+    return state.image.flip(this.type);
+  }
+}
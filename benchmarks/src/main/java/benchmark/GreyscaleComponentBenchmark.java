@@ -0,0 +1,44 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.enums.GreyscaleComponentType;
+import model.image.Image;
+
+/**
+ * Benchmarks of greyscaling an image by every type of greyscale component.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class GreyscaleComponentBenchmark {
+
+  // with no values given, every type of the enum is measured
+  @Param
+  public GreyscaleComponentType type;
+
+  /**
+   * Measures greyscaling the image by the component of this trial.
+   *
+   * @param state the image to greyscale
+   * @return the greyscaled image
+   */
+  @Benchmark
+  public Image greyscaleComponent(ImageState state) {
+    return state.image.greyscaleComponent(this.type);
+  }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of only decoding and encoding the formats read and written through ImageIO, between
+ * the bytes of a file held in memory and a buffered image, leaving out both the disk and moving
+ * the pixels into or out of the model.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImageIOBenchmark {
+
+  /**
+   * Measures decoding the encoded image into a buffered image.
+   *
+   * @param state    the encoded image
+   * @param counters the counters of the megabytes decoded
+   * @return the decoded image
+   * @throws IOException if the image cannot be decoded
+   */
+  @Benchmark
+  public BufferedImage decode(ImageIOState state, ByteCounters counters) throws IOException {
+    BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(state.encoded));
+    counters.add(state.pixelBytes, state.encoded.length);
+    return decoded;
+  }
+
+  /**
+   * Measures encoding the buffered image that saving creates.
+   *
+   * @param state    the image to encode
+   * @param counters the counters of the megabytes encoded
+   * @return the encoded bytes
+   * @throws IOException if the image cannot be encoded
+   */
+  @Benchmark
+  public byte[] encode(ImageIOState state, ByteCounters counters) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(state.encoded.length);
+    ImageIO.write(state.toEncode, state.format, out);
+    counters.add(state.pixelBytes, state.encoded.length);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import controller.inputoutput.RasterTransfer;
+import model.image.Image;
+
+/**
+ * A class representing an image encoded in each format that is read and written through ImageIO,
+ * held in memory along with the buffered image it decodes to, so that decoding and moving the
+ * pixels between the buffered image and the model can be measured on their own. Each trial
+ * generates its own image, so no fixtures need to be checked in.
+ */
+@State(Scope.Benchmark)
+public class ImageIOState {
+
+  @Param({"png", "jpg", "bmp"})
+  public String format;
+
+  @Param({"256x256", "1024x1024", "1920x1080", "3840x2160"})
+  public String size;
+
+  Image image;
+  byte[] encoded;
+  BufferedImage decoded;
+  BufferedImage toEncode;
+  long pixelBytes;
+
+  /**
+   * Generates the image of this trial, encodes it, and decodes it again the way loading does.
+   *
+   * @throws IOException if the image cannot be encoded or decoded
+   */
+  @Setup
+  public void encodeFixture() throws IOException {
+    this.image = Fixtures.photo(this.size);
+    this.toEncode = RasterTransfer.toBufferedImage(this.image);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    if (!ImageIO.write(this.toEncode, this.format, out)) {
+      throw new IOException("No writer for " + this.format);
+    }
+    this.encoded = out.toByteArray();
+    this.decoded = ImageIO.read(new ByteArrayInputStream(this.encoded));
+    this.pixelBytes = 3L * this.image.getWidth() * this.image.getHeight();
+  }
+}
@@ -0,0 +1,32 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import model.image.Image;
+
+/**
+ * A class representing the image that a benchmark manipulates, filled with random pixels, in
+ * every size from 256 by 256 up to 8K. The image is created once per trial, so creating it is
+ * never part of what is measured.
+ */
+@State(Scope.Benchmark)
+public class ImageState {
+
+  @Param({"256x256", "1024x1024", "1920x1080", "3840x2160", "7680x4320"})
+  public String size;
+
+  Image image;
+
+  /**
+   * Creates the image of the size that this trial measures.
+   *
+   * @throws IllegalArgumentException if the size is not a width and a height separated by an x
+   */
+  @Setup
+  public void createImage() throws IllegalArgumentException {
+    this.image = Fixtures.noise(this.size);
+  }
+}
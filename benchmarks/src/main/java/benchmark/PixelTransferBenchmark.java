@@ -0,0 +1,55 @@
+package benchmark;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.inputoutput.RasterTransfer;
+
+/**
+ * Benchmarks of only moving the pixels between a buffered image and the rows of the model, in the
+ * layout that each format decodes to, leaving out decoding and encoding. No file is involved, so
+ * only the pixel megabytes are counted.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PixelTransferBenchmark {
+
+  /**
+   * Measures moving the pixels of a decoded image into rows of packed pixels, as loading does.
+   *
+   * @param state    the decoded image
+   * @param counters the counters of the megabytes moved
+   * @return the rows of packed pixels
+   */
+  @Benchmark
+  public int[][] toRows(ImageIOState state, ByteCounters counters) {
+    int[][] rows = RasterTransfer.toRows(state.decoded);
+    counters.add(state.pixelBytes, 0);
+    return rows;
+  }
+
+  /**
+   * Measures moving the pixels of an image into a buffered image, as saving does.
+   *
+   * @param state    the image to move
+   * @param counters the counters of the megabytes moved
+   * @return the buffered image
+   */
+  @Benchmark
+  public BufferedImage toBufferedImage(ImageIOState state, ByteCounters counters) {
+    BufferedImage image = RasterTransfer.toBufferedImage(state.image);
+    counters.add(state.pixelBytes, 0);
+    return image;
+  }
+}
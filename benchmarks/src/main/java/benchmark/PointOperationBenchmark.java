@@ -0,0 +1,61 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.image.Image;
+
+/**
+ * Benchmarks of the manipulations that change each pixel on its own: brightening, darkening, and
+ * color transformations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PointOperationBenchmark {
+
+  private static final double[][] SEPIA = new double[][]
+      {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
+
+  /**
+   * Measures brightening the image.
+   *
+   * @param state the image to brighten
+   * @return the brightened image
+   */
+  @Benchmark
+  public Image brighten(ImageState state) {
+    return state.image.brighten(10);
+  }
+
+  /**
+   * Measures darkening the image.
+   *
+   * @param state the image to darken
+   * @return the darkened image
+   */
+  @Benchmark
+  public Image darken(ImageState state) {
+    return state.image.darken(10);
+  }
+
+  /**
+   * Measures applying a sepia color transformation to the image.
+   *
+   * @param state the image to transform
+   * @return the transformed image
+   */
+  @Benchmark
+  public Image colorTransformation(ImageState state) {
+    return state.image.colorTransformation(SEPIA);
+  }
+}
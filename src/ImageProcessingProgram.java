@@ -3,13 +3,18 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 import controller.gui.ImageGUIController;
 import controller.gui.ImageGUIControllerImpl;
+import controller.text.CommandProfiler;
 import controller.text.ImageTextController;
 import controller.text.ImageTextControllerImpl;
 import model.ImageModel;
 import model.ImageModelImpl;
+import model.ImageStore;
+import model.metrics.MetricsRegistry;
 import view.gui.ImageGUIView;
 import view.gui.ImageGUIViewImpl;
 import view.text.ImageTextView;
@@ -27,48 +32,131 @@ public class ImageProcessingProgram {
    */
   public static void main(String[] args) {
 
-    ImageModel m = new ImageModelImpl();
+    // manipulations are only computed once their results are read when "image.lazy" is set, only
+    // the tiles of their results that are read are computed when "image.tiled" is set, and
+    // images past "image.budget" megabytes are spilled to "image.spill" or a temporary directory
+    long budget = Long.getLong("image.budget", -1L);
+    String spill = System.getProperty("image.spill");
+    ImageStore store = (budget < 0) ? new ImageStore()
+            : new ImageStore(budget * 1024 * 1024, (spill == null) ? null : Paths.get(spill));
+    ImageModel m = new ImageModelImpl(Boolean.getBoolean("image.lazy"),
+            Boolean.getBoolean("image.tiled"), store);
     Readable rd;
 
-    // if there are command-line arguments correctly specifying that a file should be taken in as
-    // input, then pass that file's contents to the controller as the readable, using the text
-    // view and the text controller
-    if (args.length == 2 && args[0].equals("-file")) {
-      File initialFile = new File(args[1]);
-      InputStream input;
+    // the metrics of the model and the image formats are written to "image.metrics.file" when the
+    // program exits, and served at http://localhost:"image.metrics.port"/metrics while it runs
+    store.registerMetrics(MetricsRegistry.getDefault());
+    MetricsRegistry.MetricsServer metricsServer = startMetrics();
 
-      try {
-        input = new FileInputStream(initialFile);
-      } catch (FileNotFoundException e) {
-        throw new IllegalArgumentException("File not found!");
+    // the GUI keeps serving the metrics for as long as it is open, while every other way of
+    // running the program stops serving them once it is done, even if it fails
+    boolean gui = false;
+    try {
+      // "-profile" before the other arguments measures every command of a text script, and
+      // "-profile-out" followed by a .json or .csv file also writes the measurements to that file,
+      // which is checked before the script runs so that its measurements are not lost at the end
+      CommandProfiler profiler = null;
+      String profileOut = null;
+      while (args.length > 0 && args[0].startsWith("-profile")) {
+        if (args[0].equals("-profile")) {
+          args = Arrays.copyOfRange(args, 1, args.length);
+        } else if (args[0].equals("-profile-out") && args.length > 1) {
+          CommandProfiler.checkFile(Paths.get(args[1]));
+          profileOut = args[1];
+          args = Arrays.copyOfRange(args, 2, args.length);
+        } else {
+          break;
+        }
+        profiler = new CommandProfiler();
+      }
+
+      // if there are command-line arguments correctly specifying that a file should be taken in as
+      // input, then pass that file's contents to the controller as the readable, using the text
+      // view and the text controller
+      if (args.length == 2 && args[0].equals("-file")) {
+        File initialFile = new File(args[1]);
+        InputStream input;
+
+        try {
+          input = new FileInputStream(initialFile);
+        } catch (FileNotFoundException e) {
+          throw new IllegalArgumentException("File not found!");
+        }
+        rd = new InputStreamReader(input);
+        ImageTextView v = new ImageTextViewImpl();
+        ImageTextController controller = new ImageTextControllerImpl(m, v, rd, profiler);
+        controller.start();
+        writeProfile(profiler, profileOut);
+      }
+
+      // if the command-line arguments are "text", then allow interactive text scripting using the
+      // text view and text controller
+      else if (args.length == 1 && args[0].equals("-text")) {
+        ImageTextView v = new ImageTextViewImpl();
+        rd = new InputStreamReader(System.in);
+        ImageTextController controller = new ImageTextControllerImpl(m, v, rd, profiler);
+        controller.start();
+        writeProfile(profiler, profileOut);
+      }
+
+      // if there are no command-line arguments, then run the program allowing interactive entry of
+      // script commands
+      else if (args.length == 0 && profiler == null) {
+        ImageGUIView viewGUI = new ImageGUIViewImpl();
+        ImageGUIController controllerGUI = new ImageGUIControllerImpl(m, viewGUI);
+        gui = true;
+      }
+
+      // display an error message when the command-line arguments don't specify one of the ways to
+      // use the program
+      else {
+        System.out.println("Invalid command-line arguments have been specified!");
+      }
+    } finally {
+      if (!gui) {
+        stopMetrics(metricsServer);
       }
-      rd = new InputStreamReader(input);
-      ImageTextView v = new ImageTextViewImpl();
-      ImageTextController controller = new ImageTextControllerImpl(m, v, rd);
-      controller.start();
     }
+  }
 
-    // if the command-line arguments are "text", then allow interactive text scripting using the
-    // text view and text controller
-    else if (args.length == 1 && args[0].equals("-text")) {
-      ImageTextView v = new ImageTextViewImpl();
-      rd = new InputStreamReader(System.in);
-      ImageTextController controller = new ImageTextControllerImpl(m, v, rd);
-      controller.start();
+  /**
+   * A helper method which arranges for the metrics to be written to a file when the program exits
+   * and starts serving them on a port, if the system properties ask for either.
+   *
+   * @return the server of the metrics, or null if they are not served
+   */
+  private static MetricsRegistry.MetricsServer startMetrics() {
+    String file = System.getProperty("image.metrics.file");
+    if (file != null) {
+      Runtime.getRuntime().addShutdownHook(new Thread(
+              () -> MetricsRegistry.getDefault().write(Paths.get(file))));
     }
+    Integer port = Integer.getInteger("image.metrics.port");
+    return (port == null) ? null : MetricsRegistry.getDefault().serve(port);
+  }
 
-    // if there are no command-line arguments, then run the program allowing interactive entry of
-    // script commands
-    else if (args.length == 0) {
-      ImageGUIView viewGUI = new ImageGUIViewImpl();
-      ImageGUIController controllerGUI = new ImageGUIControllerImpl(m, viewGUI);
+  /**
+   * A helper method which stops serving the metrics once a script has finished, so that the
+   * program can exit.
+   *
+   * @param server the server of the metrics, or null if they are not served
+   */
+  private static void stopMetrics(MetricsRegistry.MetricsServer server) {
+    if (server != null) {
+      server.close();
     }
+  }
 
-    // display an error message when the command-line arguments don't specify one of the ways to
-    // use the program
-    else {
-      System.out.println("Invalid command-line arguments have been specified!");
+  /**
+   * A helper method which writes the measurements of the commands of a script to a file, if the
+   * commands were measured and a file was given.
+   *
+   * @param profiler the profiler that measured the commands, or null if they were not measured
+   * @param file     the .json or .csv file to write to, or null to not write the measurements
+   */
+  private static void writeProfile(CommandProfiler profiler, String file) {
+    if (profiler != null && file != null) {
+      profiler.write(Paths.get(file));
     }
   }
 }
-
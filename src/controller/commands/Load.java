@@ -1,9 +1,7 @@
 package controller.commands;
 
-import controller.inputoutput.BMPImageInputOutput;
-import controller.inputoutput.JPGImageInputOutput;
-import controller.inputoutput.PNGImageInputOutput;
-import controller.inputoutput.PPMImageInputOutput;
+import controller.inputoutput.CodecRegistry;
+import controller.inputoutput.LoadOptions;
 import model.ImageModel;
 import model.image.Image;
 
@@ -12,6 +10,8 @@ import model.image.Image;
  */
 public class Load extends AbstractImageCommand {
 
+  private final LoadOptions options;
+
   /**
    * A constructor which initializes the fields of the load command object to the specified
    * values.
@@ -20,41 +20,31 @@ public class Load extends AbstractImageCommand {
    * @param out the name that we want to store the loaded image by
    */
   public Load(String in, String out) {
+    this(in, out, LoadOptions.NONE);
+  }
+
+  /**
+   * A constructor which initializes the fields of the load command object to the specified
+   * values, and sets the region, subsampling, and size that the image is loaded with.
+   *
+   * @param in      the filepath of the image that we want to load in
+   * @param out     the name that we want to store the loaded image by
+   * @param options the options to load the image with
+   * @throws IllegalArgumentException if the options are null
+   */
+  public Load(String in, String out, LoadOptions options) throws IllegalArgumentException {
     super(in, out);
+    if (options == null) {
+      throw new IllegalArgumentException("Options cannot be null!");
+    }
+    this.options = options;
   }
 
-  // determines the type of file that we are working on and delegates the loading task to another
-  // class
+  // finds the codec for the file by its contents, or its extension if they are not recognized,
+  // and delegates the loading task to it
   @Override
   public void execute(ImageModel model) {
-    Image img;
-
-    // determining if the filename has enough characters to be valid
-    int totalLength = in.length();
-    if (totalLength < 5) {
-      throw new IllegalArgumentException("Invalid file!");
-    }
-
-    String fileType = in.substring(totalLength - 3);
-    switch (fileType) {
-      case "ppm":
-        img = new PPMImageInputOutput().load(in);
-        break;
-      case "bmp":
-        img = new BMPImageInputOutput().load(in);
-        break;
-      case "jpg":
-        img = new JPGImageInputOutput().load(in);
-        break;
-      case "png":
-        img = new PNGImageInputOutput().load(in);
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid file!");
-    }
-
+    Image img = CodecRegistry.getDefault().forLoading(in).load(in, this.options);
     model.setImage(out, img);
   }
 }
-
-
@@ -0,0 +1,54 @@
+package controller.commands;
+
+import java.nio.file.Path;
+
+import controller.inputoutput.CodecRegistry;
+import controller.inputoutput.ImageInputOutput;
+import controller.inputoutput.PPMImageInputOutput;
+import model.ImageModel;
+
+/**
+ * A command which loads a binary .ppm file into the model as an image whose pixels stay in the
+ * file and are mapped into memory, so that images far larger than the heap can be manipulated.
+ */
+public class LoadMapped extends AbstractImageCommand {
+
+  private final Path resultDirectory;
+
+  /**
+   * A constructor which initializes the fields of the load mapped command object to the
+   * specified values, writing the results of manipulating the image to the default temporary
+   * directory.
+   *
+   * @param in  the filepath of the image that we want to load in
+   * @param out the name that we want to store the loaded image by
+   */
+  public LoadMapped(String in, String out) {
+    this(in, out, null);
+  }
+
+  /**
+   * A constructor which initializes the fields of the load mapped command object to the
+   * specified values.
+   *
+   * @param in              the filepath of the image that we want to load in
+   * @param out             the name that we want to store the loaded image by
+   * @param resultDirectory the directory that the results of manipulating the image are written
+   *                        to, or null for the default temporary directory
+   */
+  public LoadMapped(String in, String out, Path resultDirectory) {
+    super(in, out);
+    this.resultDirectory = resultDirectory;
+  }
+
+  // finds the codec for the file the same way as any other load, and maps the file in if it is a
+  // .ppm file, which must also be binary to be mapped
+  @Override
+  public void execute(ImageModel model) {
+    ImageInputOutput codec = CodecRegistry.getDefault().forLoading(in);
+    if (!(codec instanceof PPMImageInputOutput)) {
+      throw new IllegalArgumentException("Only binary .ppm files can be mapped!");
+    }
+    model.setImage(out, ((PPMImageInputOutput) codec).loadMapped(in, this.resultDirectory));
+  }
+}
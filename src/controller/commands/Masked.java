@@ -0,0 +1,178 @@
+package controller.commands;
+
+import model.ImageModel;
+import model.enums.FlipType;
+import model.enums.GreyscaleComponentType;
+import model.image.Image;
+import model.image.Mask;
+
+/**
+ * A command which limits another manipulation command to a region of the image, given either as
+ * a rectangle or as the name of a mask image whose pixels that are not black are manipulated.
+ */
+// INVARIANT: The command is never null, and exactly one of the mask and the mask name is null.
+public class Masked implements ImageCommand {
+
+  private final Mask mask;
+  private final String maskName;
+  private final ImageCommand command;
+
+  /**
+   * A constructor which limits the specified command to the pixels of the specified mask.
+   *
+   * @param mask    the pixels that the command manipulates
+   * @param command the manipulation to limit
+   * @throws IllegalArgumentException if the mask or the command are null
+   */
+  public Masked(Mask mask, ImageCommand command) throws IllegalArgumentException {
+    if (mask == null || command == null) {
+      throw new IllegalArgumentException("Mask and command cannot be null!");
+    }
+    this.mask = mask;
+    this.maskName = null;
+    this.command = command;
+  }
+
+  /**
+   * A constructor which limits the specified command to the pixels that are not black in the
+   * image stored by the specified name.
+   *
+   * @param maskName the name of the mask image
+   * @param command  the manipulation to limit
+   * @throws IllegalArgumentException if the mask name or the command are null
+   */
+  public Masked(String maskName, ImageCommand command) throws IllegalArgumentException {
+    if (maskName == null || command == null) {
+      throw new IllegalArgumentException("Mask name and command cannot be null!");
+    }
+    this.mask = null;
+    this.maskName = maskName;
+    this.command = command;
+  }
+
+  @Override
+  public void execute(ImageModel model) {
+    Mask m = (this.mask != null) ? this.mask : Mask.of(model.getImage(this.maskName));
+    this.command.execute(new MaskedModel(model, m));
+  }
+
+  /**
+   * A model which passes every manipulation on to the variant of it that is limited to a mask.
+   * Only manipulations can be limited to a mask, so anything else fails.
+   */
+  private static final class MaskedModel implements ImageModel {
+
+    private final ImageModel model;
+    private final Mask mask;
+
+    /**
+     * A constructor which limits every manipulation of the specified model to the specified mask.
+     *
+     * @param model the model to manipulate images in
+     * @param mask  the pixels to manipulate
+     */
+    private MaskedModel(ImageModel model, Mask mask) {
+      this.model = model;
+      this.mask = mask;
+    }
+
+    @Override
+    public Image getImage(String imageName) throws IllegalArgumentException {
+      throw new IllegalArgumentException("Only manipulations can be limited to a region!");
+    }
+
+    @Override
+    public void setImage(String name, Image img) throws IllegalArgumentException {
+      throw new IllegalArgumentException("Only manipulations can be limited to a region!");
+    }
+
+    @Override
+    public void brighten(int value, String oldFileName, String newFileName) {
+      this.model.brighten(this.mask, value, oldFileName, newFileName);
+    }
+
+    @Override
+    public void darken(int value, String oldFileName, String newFileName) {
+      this.model.darken(this.mask, value, oldFileName, newFileName);
+    }
+
+    @Override
+    public void greyscaleComponent(GreyscaleComponentType type, String oldFileName,
+                                   String newFileName) {
+      this.model.greyscaleComponent(this.mask, type, oldFileName, newFileName);
+    }
+
+    @Override
+    public void flip(FlipType type, String oldFileName, String newFileName) {
+      this.model.flip(this.mask, type, oldFileName, newFileName);
+    }
+
+    @Override
+    public void blur(String oldFileName, String newFileName) {
+      this.model.blur(this.mask, oldFileName, newFileName);
+    }
+
+    @Override
+    public void sharpen(String oldFileName, String newFileName) {
+      this.model.sharpen(this.mask, oldFileName, newFileName);
+    }
+
+    @Override
+    public void greyscaleColorTransformation(String oldFileName, String newFileName) {
+      this.model.greyscaleColorTransformation(this.mask, oldFileName, newFileName);
+    }
+
+    @Override
+    public void sepia(String oldFileName, String newFileName) {
+      this.model.sepia(this.mask, oldFileName, newFileName);
+    }
+
+    @Override
+    public void downsize(int widthPercent, int heightPercent, String oldFileName,
+                         String newFileName) throws IllegalArgumentException {
+      throw new IllegalArgumentException("Downsizing changes the size of the whole image, so it "
+              + "cannot be limited to a region!");
+    }
+
+    @Override
+    public void brighten(Mask mask, int value, String oldFileName, String newFileName) {
+      this.model.brighten(mask, value, oldFileName, newFileName);
+    }
+
+    @Override
+    public void darken(Mask mask, int value, String oldFileName, String newFileName) {
+      this.model.darken(mask, value, oldFileName, newFileName);
+    }
+
+    @Override
+    public void greyscaleComponent(Mask mask, GreyscaleComponentType type, String oldFileName,
+                                   String newFileName) {
+      this.model.greyscaleComponent(mask, type, oldFileName, newFileName);
+    }
+
+    @Override
+    public void flip(Mask mask, FlipType type, String oldFileName, String newFileName) {
+      this.model.flip(mask, type, oldFileName, newFileName);
+    }
+
+    @Override
+    public void blur(Mask mask, String oldFileName, String newFileName) {
+      this.model.blur(mask, oldFileName, newFileName);
+    }
+
+    @Override
+    public void sharpen(Mask mask, String oldFileName, String newFileName) {
+      this.model.sharpen(mask, oldFileName, newFileName);
+    }
+
+    @Override
+    public void greyscaleColorTransformation(Mask mask, String oldFileName, String newFileName) {
+      this.model.greyscaleColorTransformation(mask, oldFileName, newFileName);
+    }
+
+    @Override
+    public void sepia(Mask mask, String oldFileName, String newFileName) {
+      this.model.sepia(mask, oldFileName, newFileName);
+    }
+  }
+}
@@ -1,8 +1,7 @@
 package controller.commands;
 
-import controller.inputoutput.BMPImageInputOutput;
-import controller.inputoutput.JPGImageInputOutput;
-import controller.inputoutput.PNGImageInputOutput;
+import controller.inputoutput.CodecRegistry;
+import controller.inputoutput.ImageInputOutput;
 import controller.inputoutput.PPMImageInputOutput;
 import model.ImageModel;
 import model.image.Image;
@@ -12,6 +11,10 @@ import model.image.Image;
  */
 public class Save extends AbstractImageCommand {
 
+  private static final ImageInputOutput BINARY_PPM = new PPMImageInputOutput(true);
+
+  private final boolean binary;
+
   /**
    * A constructor which initializes the fields of the save command object to the specified
    * values.
@@ -20,38 +23,31 @@ public class Save extends AbstractImageCommand {
    * @param imageName the name of the image that we want to save
    */
   public Save(String fileName, String imageName) {
+    this(fileName, imageName, false);
+  }
+
+  /**
+   * A constructor which initializes the fields of the save command object to the specified
+   * values, and sets whether .ppm files are saved in the binary P6 form rather than the plain P3
+   * form.
+   *
+   * @param fileName  the filepath that we want to save the image to
+   * @param imageName the name of the image that we want to save
+   * @param binary    whether a .ppm file is saved in the binary form
+   */
+  public Save(String fileName, String imageName, boolean binary) {
     super(fileName, imageName);
+    this.binary = binary;
   }
 
-  // determines the type of file that we are working on and delegates the saving task to another
-  // class
+  // finds the codec for the file by its extension and delegates the saving task to it
   @Override
   public void execute(ImageModel model) {
     Image img = model.getImage(out);
-
-    // determining if the filename has enough characters to be valid
-    int totalLength = in.length();
-    if (totalLength < 5) {
-      throw new IllegalArgumentException("Invalid file!");
-    }
-
-    String fileType = in.substring(totalLength - 3);
-    switch (fileType) {
-      case "ppm":
-        new PPMImageInputOutput().save(in, img);
-        break;
-      case "bmp":
-        new BMPImageInputOutput().save(in, img);
-        break;
-      case "jpg":
-        new JPGImageInputOutput().save(in, img);
-        break;
-      case "png":
-        new PNGImageInputOutput().save(in, img);
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid filename!");
+    ImageInputOutput io = CodecRegistry.getDefault().forSaving(in);
+    if (this.binary && io instanceof PPMImageInputOutput) {
+      io = BINARY_PPM;
     }
+    io.save(in, img);
   }
 }
-
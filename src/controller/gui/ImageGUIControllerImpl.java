@@ -12,6 +12,7 @@ import controller.commands.Save;
 import model.ImageModel;
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
+import model.image.Image;
 import view.gui.ImageGUIView;
 
 /**
@@ -119,9 +120,13 @@ public class ImageGUIControllerImpl implements ActionListener, ImageGUIControlle
    * manipulated.
    */
   private void updateView() {
-    view.updateImage(model.getImage("guiImage"));
-    view.updateHistogram(model.getImage("guiImage"));
+    ViewUpdateEvent event = new ViewUpdateEvent();
+    event.begin();
+    Image img = model.getImage("guiImage");
+    view.updateImage(img);
+    view.updateHistogram(img);
     view.refresh();
+    event.finish(img);
   }
 
   /**
@@ -0,0 +1,55 @@
+package controller.gui;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import model.image.Image;
+
+/**
+ * A class representing a flight recorder event for the GUI drawing an image and its histogram
+ * after the image has been loaded or manipulated, which includes computing any of its pixels that
+ * were waiting to be read. The flight recorder stamps each event with its thread.
+ */
+@Name("imagemanipulator.ViewUpdate")
+@Label("GUI View Update")
+@Category({"Image Manipulator", "GUI"})
+@Description("The GUI drawing an image and its histogram")
+@StackTrace(false)
+final class ViewUpdateEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Width")
+  int width;
+
+  @Label("Height")
+  int height;
+
+  @Label("Bytes Processed")
+  @DataAmount
+  long bytes;
+
+  /**
+   * Ends this event and commits it with the image that was drawn, if the flight recorder is
+   * recording it.
+   *
+   * @param img the image that was drawn, or null if there was none
+   */
+  void finish(Image img) {
+    this.end();
+    if (!this.shouldCommit()) {
+      return;
+    }
+    this.operation = "update-view";
+    this.width = (img == null) ? -1 : img.getWidth();
+    this.height = (img == null) ? -1 : img.getHeight();
+    this.bytes = (img == null) ? -1 : 4L * this.width * this.height;
+    this.commit();
+  }
+}
@@ -1,17 +1,24 @@
 package controller.inputoutput;
 
 
-import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import model.image.Image;
 import model.image.ImageImpl;
-import model.image.Pixel;
-import model.image.RGBPixel;
+import model.metrics.Counter;
+import model.metrics.Histogram;
+import model.metrics.MetricHandles;
+import model.metrics.MetricsRegistry;
 
 /**
  * An abstract class that contains implementations of methods similar to all ImageReaderWriters.
@@ -20,8 +27,40 @@ import model.image.RGBPixel;
  */
 public abstract class AbstractImageInputOutput implements ImageInputOutput {
 
+  private static final MetricHandles<List<String>, IOMetrics> METRICS =
+          new MetricHandles<>(IOMetrics::new);
+
+  /**
+   * A class representing the series of the metrics that one kind of load or save of one format is
+   * counted and timed in.
+   */
+  private static final class IOMetrics {
+    private final Counter count;
+    private final Counter bytes;
+    private final Histogram duration;
+
+    /**
+     * A constructor which looks up the series of the specified registry for an operation and a
+     * format.
+     *
+     * @param metrics the registry to look the series up in
+     * @param key     the name of the operation followed by the format
+     */
+    private IOMetrics(MetricsRegistry metrics, List<String> key) {
+      String[] labels = new String[]{"operation", key.get(0), "format", key.get(1)};
+      this.count = metrics.counter("image_io_operations_total",
+              "Images loaded from or saved to files", labels);
+      this.bytes = metrics.counter("image_io_bytes_total",
+              "Bytes of files read or written by loads and saves", labels);
+      this.duration = metrics.histogram("image_io_duration_seconds",
+              "Time taken by loads and saves", MetricsRegistry.LATENCY_BUCKETS, labels);
+    }
+  }
+
   @Override
   public Image load(String imagePath) throws IllegalArgumentException {
+    ImageIOEvent event = ImageIOEvent.start();
+    long start = System.nanoTime();
     BufferedImage buffImg;
     Image img;
 
@@ -31,57 +70,116 @@ public abstract class AbstractImageInputOutput implements ImageInputOutput {
       throw new IllegalArgumentException("Unable to read image");
     }
 
-    int height = buffImg.getHeight();
-    int width = buffImg.getWidth();
-    int maxValue = 255;
-
-    Pixel[][] pixels = new RGBPixel[width][height];
+    if (buffImg == null) {
+      throw new IllegalArgumentException("Unable to read image");
+    }
 
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
+    // moving the whole raster into rows of packed pixels at once
+    img = new ImageImpl(RasterTransfer.toRows(buffImg), 255);
+    this.record(event, start, "load", imagePath, img);
+    return img;
+  }
 
-        //Retrieving contents of a pixel
-        int pixel = buffImg.getRGB(j, i);
+  // decodes only the region and subsampled pixels that the options ask for, rather than the whole
+  // image
+  @Override
+  public Image load(String imagePath, LoadOptions options) throws IllegalArgumentException {
+    if (options == null) {
+      throw new IllegalArgumentException("Options cannot be null!");
+    }
+    if (options.isNone()) {
+      return this.load(imagePath);
+    }
 
-        //Creating a Color object from pixel value
-        Color color = new Color(pixel);
+    ImageIOEvent event = ImageIOEvent.start();
+    long start = System.nanoTime();
+    try (ImageInputStream in = ImageIO.createImageInputStream(new File(imagePath))) {
+      if (in == null) {
+        throw new IllegalArgumentException("Unable to read image");
+      }
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+      if (!readers.hasNext()) {
+        throw new IllegalArgumentException("Unable to read image");
+      }
 
-        //Retrieving the R G B values
-        int r = color.getRed();
-        int g = color.getGreen();
-        int b = color.getBlue();
-        pixels[j][i] = new RGBPixel(r, g, b);
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in, true, true);
+        Rectangle area = options.regionWithin(reader.getWidth(0), reader.getHeight(0));
+        int step = options.subsamplingFor(area.width, area.height);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(area);
+        param.setSourceSubsampling(step, step, 0, 0);
+        BufferedImage buffImg = reader.read(0, param);
+        Image img = new ImageImpl(options.finish(RasterTransfer.toRows(buffImg)), 255);
+        this.record(event, start, "load", imagePath, img);
+        return img;
+      } finally {
+        reader.dispose();
       }
+    } catch (IOException ioe) {
+      throw new IllegalArgumentException("Unable to read image");
     }
-
-    img = new ImageImpl(width, height, maxValue, pixels);
-    return img;
   }
 
   @Override
   public void save(String filePath, Image img) throws IllegalArgumentException {
-    Pixel[][] pixels = img.getPixels();
+    ImageIOEvent event = ImageIOEvent.start();
+    long start = System.nanoTime();
+    BufferedImage image = RasterTransfer.toBufferedImage(img);
+    try {
+      if (!ImageIO.write(image, this.getFileType(), new File(filePath))) {
+        throw new IllegalArgumentException("Unable to write to a file!");
+      }
+    } catch (IOException ioe) {
+      throw new IllegalArgumentException("Unable to write to a file!");
+    }
+    this.record(event, start, "save", filePath, img);
+  }
 
-    BufferedImage image =
-            new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_RGB);
-    for (int i = 0; i < img.getHeight(); i++) {
-      for (int j = 0; j < img.getWidth(); j++) {
-        Pixel p = pixels[j][i];
-        int r = p.getRed();
-        int g = p.getGreen();
-        int b = p.getBlue();
+  /**
+   * A helper method which counts and times a load or save that succeeded in the default metrics
+   * registry, and ends its flight recorder event.
+   *
+   * @param event      the flight recorder event of the load or save
+   * @param startNanos the time the load or save started, from {@link System#nanoTime()}
+   * @param operation  the name of what was done to the file
+   * @param path       the path of the file
+   * @param img        the image that was loaded or saved
+   */
+  void record(ImageIOEvent event, long startNanos, String operation, String path, Image img) {
+    long nanos = System.nanoTime() - startNanos;
+    long fileBytes = new File(path).length();
+    IOMetrics metrics = METRICS.get(List.of(operation, this.getFileType()));
+    metrics.count.inc();
+    metrics.bytes.inc(fileBytes);
+    metrics.duration.observe(nanos / 1e9);
+    event.finish(operation, this.getFileType(), path, img, fileBytes);
+  }
 
-        Color c = new Color(r, g, b);
-        int color = c.getRGB();
+  @Override
+  public List<String> getExtensions() {
+    return List.of(this.getFileType());
+  }
 
-        image.setRGB(j, i, color);
-      }
+  /**
+   * A helper method which determines whether a header starts with the specified magic bytes.
+   *
+   * @param header the first bytes of a file
+   * @param length the number of bytes of the header that were read
+   * @param magic  the magic bytes of a format
+   * @return true if the header starts with the magic bytes, false otherwise
+   */
+  protected static boolean startsWith(byte[] header, int length, int... magic) {
+    if (length < magic.length) {
+      return false;
     }
-    try {
-      ImageIO.write(image, this.getFileType(), new File(filePath));
-    } catch (IOException ioe) {
-      throw new IllegalArgumentException("Unable to write to a file!");
+    for (int i = 0; i < magic.length; i++) {
+      if ((header[i] & 0xFF) != magic[i]) {
+        return false;
+      }
     }
+    return true;
   }
 
   /**
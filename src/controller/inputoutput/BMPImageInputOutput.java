@@ -5,6 +5,12 @@ package controller.inputoutput;
  */
 public class BMPImageInputOutput extends AbstractImageInputOutput {
 
+  // every bmp file starts with "BM"
+  @Override
+  public boolean matches(byte[] header, int length) {
+    return startsWith(header, length, 'B', 'M');
+  }
+
   @Override
   protected String getFileType() {
     return "bmp";
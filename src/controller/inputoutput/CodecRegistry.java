@@ -0,0 +1,158 @@
+package controller.inputoutput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A class representing the image formats that the program can load and save. Each format is
+ * handled by a single shared {@link ImageInputOutput}, which is chosen for a file being loaded by
+ * the magic bytes at the start of the file, and only by its extension when no format recognizes
+ * those bytes. Files being saved are matched by their extension alone.
+ *
+ * <p>The default registry holds the .ppm, .png, .jpg, and .bmp formats, along with every
+ * implementation of {@link ImageInputOutput} listed on the class path in a
+ * META-INF/services/controller.inputoutput.ImageInputOutput file, so new formats register
+ * themselves just by being added to the program. Formats registered later take precedence over
+ * those registered before them.
+ */
+// INVARIANT: The list of codecs and the map of extensions are never null and never hold null,
+//            and every codec in the map is also in the list.
+public final class CodecRegistry {
+
+  private static final int HEADER_BYTES = 16;
+
+  private static volatile CodecRegistry defaultRegistry;
+
+  private final List<ImageInputOutput> codecs;
+  private final Map<String, ImageInputOutput> extensions;
+
+  /**
+   * A constructor which creates a registry that has no formats in it.
+   */
+  public CodecRegistry() {
+    this.codecs = new CopyOnWriteArrayList<>();
+    this.extensions = new HashMap<>();
+  }
+
+  /**
+   * Returns the registry of the formats built into the program and those found on the class path.
+   *
+   * @return the default registry
+   */
+  public static CodecRegistry getDefault() {
+    CodecRegistry registry = defaultRegistry;
+    if (registry == null) {
+      synchronized (CodecRegistry.class) {
+        registry = defaultRegistry;
+        if (registry == null) {
+          registry = new CodecRegistry();
+          registry.register(new PPMImageInputOutput());
+          registry.register(new PNGImageInputOutput());
+          registry.register(new JPGImageInputOutput());
+          registry.register(new BMPImageInputOutput());
+          for (ImageInputOutput codec : ServiceLoader.load(ImageInputOutput.class)) {
+            registry.register(codec);
+          }
+          defaultRegistry = registry;
+        }
+      }
+    }
+    return registry;
+  }
+
+  /**
+   * Adds a format to this registry, replacing any format already registered for the same
+   * extensions.
+   *
+   * @param codec the codec which loads and saves the format
+   * @throws IllegalArgumentException if the codec is null
+   */
+  public void register(ImageInputOutput codec) throws IllegalArgumentException {
+    if (codec == null) {
+      throw new IllegalArgumentException("Codec cannot be null!");
+    }
+    synchronized (this.extensions) {
+      this.codecs.add(0, codec);
+      for (String extension : codec.getExtensions()) {
+        this.extensions.put(extension.toLowerCase(Locale.ROOT), codec);
+      }
+    }
+  }
+
+  /**
+   * Returns the codec which loads the file at the specified path, chosen by the magic bytes at
+   * the start of the file, or by its extension if no format recognizes them.
+   *
+   * @param path the path of the file to load
+   * @return the codec to load the file with
+   * @throws IllegalArgumentException if the file cannot be read or is in no registered format
+   */
+  public ImageInputOutput forLoading(String path) throws IllegalArgumentException {
+    byte[] header = new byte[HEADER_BYTES];
+    int length = 0;
+    try (InputStream in = Files.newInputStream(Paths.get(path))) {
+      int n = 0;
+      while (length < HEADER_BYTES && n >= 0) {
+        n = in.read(header, length, HEADER_BYTES - length);
+        length += Math.max(0, n);
+      }
+    } catch (IOException | RuntimeException e) {
+      throw new IllegalArgumentException("Unable to read image");
+    }
+
+    for (ImageInputOutput codec : this.codecs) {
+      if (codec.matches(header, length)) {
+        return codec;
+      }
+    }
+    return this.byExtension(path);
+  }
+
+  /**
+   * Returns the codec which saves the file at the specified path, chosen by its extension.
+   *
+   * @param path the path of the file to save
+   * @return the codec to save the file with
+   * @throws IllegalArgumentException if the extension is in no registered format
+   */
+  public ImageInputOutput forSaving(String path) throws IllegalArgumentException {
+    return this.byExtension(path);
+  }
+
+  /**
+   * A helper method which finds the codec registered for the extension of a path, ignoring case.
+   *
+   * @param path the path whose extension is used
+   * @return the codec for the extension
+   * @throws IllegalArgumentException if the path has no name or extension, or no codec is
+   *                                  registered for its extension
+   */
+  private ImageInputOutput byExtension(String path) throws IllegalArgumentException {
+    if (path == null) {
+      throw new IllegalArgumentException("Invalid file!");
+    }
+    // the name of the file must come before its extension
+    int dot = path.lastIndexOf('.');
+    int name = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1;
+    if (dot <= name) {
+      throw new IllegalArgumentException("Invalid file!");
+    }
+
+    ImageInputOutput codec;
+    synchronized (this.extensions) {
+      codec = this.extensions.get(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+    if (codec == null) {
+      throw new IllegalArgumentException("Invalid file!");
+    }
+    return codec;
+  }
+}
@@ -0,0 +1,79 @@
+package controller.inputoutput;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import model.image.Image;
+
+/**
+ * A class representing a flight recorder event for loading an image from a file or saving one to
+ * a file. The flight recorder stamps each event with its thread. Loads and saves that fail are
+ * not recorded.
+ */
+@Name("imagemanipulator.ImageIO")
+@Label("Image Load or Save")
+@Category({"Image Manipulator", "Input and Output"})
+@Description("An image loaded from or saved to a file")
+@StackTrace(false)
+final class ImageIOEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Format")
+  String format;
+
+  @Label("Path")
+  String path;
+
+  @Label("Width")
+  int width;
+
+  @Label("Height")
+  int height;
+
+  @Label("Bytes Processed")
+  @Description("The size of the file that was read or written")
+  @DataAmount
+  long bytes;
+
+  /**
+   * Creates an event and begins timing it.
+   *
+   * @return the event
+   */
+  static ImageIOEvent start() {
+    ImageIOEvent event = new ImageIOEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends this event and commits it with the specified file and image if the flight recorder is
+   * recording it.
+   *
+   * @param operation the name of what was done to the file
+   * @param format    the format of the file
+   * @param path      the path of the file
+   * @param img       the image that was loaded or saved
+   * @param fileBytes the size of the file
+   */
+  void finish(String operation, String format, String path, Image img, long fileBytes) {
+    this.end();
+    if (!this.shouldCommit()) {
+      return;
+    }
+    this.operation = operation;
+    this.format = format;
+    this.path = path;
+    this.width = img.getWidth();
+    this.height = img.getHeight();
+    this.bytes = fileBytes;
+    this.commit();
+  }
+}
@@ -1,11 +1,16 @@
 package controller.inputoutput;
 
+import java.util.Collections;
+import java.util.List;
+
 import model.image.Image;
 
 /**
  * An interface which contains functionality to deal with input and output, more specifically, in
  * terms of reading an image file and writing an image to a file. Each implementation represents
- * loading and saving a different image type (.png, .jpg. etc).
+ * loading and saving a different image type (.png, .jpg. etc). Implementations hold no state
+ * that changes between calls, so a single instance can be shared by everything that loads or
+ * saves its format, and they are found through a {@link CodecRegistry}.
  */
 public interface ImageInputOutput {
 
@@ -20,6 +25,26 @@ public interface ImageInputOutput {
    */
   Image load(String imagePath) throws IllegalArgumentException;
 
+  /**
+   * Loads an image to the program based on the given file path, reading only what the specified
+   * options ask for. By default the whole image is loaded and the options are applied afterwards,
+   * so formats which can decode only part of a file should override this method.
+   *
+   * @param imagePath the filepath to load the image from
+   * @param options   the region, subsampling, and size to load the image with
+   * @return an image that has been loaded
+   * @throws IllegalArgumentException if the filepath doesn't exist or is of incorrect format, if
+   *                                  the options are null or ask for a region outside of the
+   *                                  image, or if there are any other issues encountered when
+   *                                  loading the image
+   */
+  default Image load(String imagePath, LoadOptions options) throws IllegalArgumentException {
+    if (options == null) {
+      throw new IllegalArgumentException("Options cannot be null!");
+    }
+    return options.apply(this.load(imagePath));
+  }
+
   /**
    * Saves a specified image to the specified file path.
    *
@@ -29,4 +54,25 @@ public interface ImageInputOutput {
    *                                  exist
    */
   void save(String filePath, Image img) throws IllegalArgumentException;
+
+  /**
+   * Determines whether the first bytes of a file are the magic bytes of the format this loads.
+   *
+   * @param header the first bytes of the file
+   * @param length the number of bytes of the header that were read, which is less than its length
+   *               if the file is shorter
+   * @return true if this recognizes the file, false otherwise
+   */
+  default boolean matches(byte[] header, int length) {
+    return false;
+  }
+
+  /**
+   * Returns the file extensions of the format this loads and saves, without the leading dot.
+   *
+   * @return the extensions of the format
+   */
+  default List<String> getExtensions() {
+    return Collections.emptyList();
+  }
 }
@@ -1,10 +1,23 @@
 package controller.inputoutput;
 
+import java.util.List;
+
 /**
  * A class representing image IO on .jpg images.
  */
 public class JPGImageInputOutput extends AbstractImageInputOutput {
 
+  // every jpg file starts with a start of image marker followed by another marker
+  @Override
+  public boolean matches(byte[] header, int length) {
+    return startsWith(header, length, 0xFF, 0xD8, 0xFF);
+  }
+
+  @Override
+  public List<String> getExtensions() {
+    return List.of("jpg", "jpeg");
+  }
+
   @Override
   protected String getFileType() {
     return "jpg";
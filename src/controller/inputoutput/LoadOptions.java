@@ -0,0 +1,208 @@
+package controller.inputoutput;
+
+import java.awt.Rectangle;
+
+import model.image.Image;
+import model.image.ImageImpl;
+
+/**
+ * A class representing the options that an image is loaded with: the region of the file to read,
+ * how many pixels to skip between each pixel that is read, and a size that the loaded image should
+ * be scaled to. Formats which can decode only part of a file use these options to avoid decoding
+ * pixels that would be thrown away, and every other format applies them after loading.
+ *
+ * <p>Subsampling keeps every nth pixel of every nth row of the region, starting with its first.
+ * When a target size is set, the subsampling is instead chosen as the largest that still leaves
+ * at least the target size, and what is left is then scaled to exactly the target size.
+ */
+// INVARIANT: The subsampling is at least 1, the region is either null or not empty, and the
+//            target width and height are either both 0 or both positive. A subsampling other
+//            than 1 and a target size are never both set.
+public final class LoadOptions {
+
+  /**
+   * The options which load the whole image as it is in the file.
+   */
+  public static final LoadOptions NONE = new LoadOptions(1, null, 0, 0);
+
+  private final int subsampling;
+  private final Rectangle region;
+  private final int targetWidth;
+  private final int targetHeight;
+
+  /**
+   * A constructor which creates a set of load options.
+   *
+   * @param subsampling  the distance between each pixel that is read, 1 to read every pixel
+   * @param region       the region of the file to read, or null to read the whole file
+   * @param targetWidth  the width to scale the loaded image to, or 0 to keep its width
+   * @param targetHeight the height to scale the loaded image to, or 0 to keep its height
+   * @throws IllegalArgumentException if the subsampling is less than 1, if the region is empty or
+   *                                  starts at a negative position, if only one of the target
+   *                                  width and height is set or either is negative, or if both
+   *                                  a subsampling and a target size are set
+   */
+  public LoadOptions(int subsampling, Rectangle region, int targetWidth, int targetHeight)
+          throws IllegalArgumentException {
+    if (subsampling < 1) {
+      throw new IllegalArgumentException("Subsampling must be at least 1!");
+    }
+    if (region != null && (region.isEmpty() || region.x < 0 || region.y < 0)) {
+      throw new IllegalArgumentException("Invalid region!");
+    }
+    if (targetWidth < 0 || targetHeight < 0 || (targetWidth == 0) != (targetHeight == 0)) {
+      throw new IllegalArgumentException("Invalid target size!");
+    }
+    if (subsampling != 1 && targetWidth != 0) {
+      throw new IllegalArgumentException("Cannot set both a subsampling and a target size!");
+    }
+    this.subsampling = subsampling;
+    this.region = (region == null) ? null : new Rectangle(region);
+    this.targetWidth = targetWidth;
+    this.targetHeight = targetHeight;
+  }
+
+  /**
+   * Creates the options which read every nth pixel of every nth row of the file.
+   *
+   * @param subsampling the distance between each pixel that is read
+   * @return the load options
+   * @throws IllegalArgumentException if the subsampling is less than 1
+   */
+  public static LoadOptions subsampled(int subsampling) throws IllegalArgumentException {
+    return new LoadOptions(subsampling, null, 0, 0);
+  }
+
+  /**
+   * Creates the options which read only a region of the file.
+   *
+   * @param x      the column of the top left corner of the region
+   * @param y      the row of the top left corner of the region
+   * @param width  the width of the region
+   * @param height the height of the region
+   * @return the load options
+   * @throws IllegalArgumentException if the region is empty or starts at a negative position
+   */
+  public static LoadOptions region(int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    return new LoadOptions(1, new Rectangle(x, y, width, height), 0, 0);
+  }
+
+  /**
+   * Creates the options which scale the file to the specified size as it is read.
+   *
+   * @param width  the width of the loaded image
+   * @param height the height of the loaded image
+   * @return the load options
+   * @throws IllegalArgumentException if the width or height is not positive
+   */
+  public static LoadOptions size(int width, int height) throws IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Invalid target size!");
+    }
+    return new LoadOptions(1, null, width, height);
+  }
+
+  /**
+   * Determines whether these options load the whole image as it is in the file.
+   *
+   * @return true if nothing is cropped, skipped, or scaled, false otherwise
+   */
+  public boolean isNone() {
+    return this.subsampling == 1 && this.region == null && this.targetWidth == 0;
+  }
+
+  /**
+   * Returns the part of an image of the specified size that these options read.
+   *
+   * @param width  the width of the whole image
+   * @param height the height of the whole image
+   * @return the region to read
+   * @throws IllegalArgumentException if the region of these options lies outside of the image
+   */
+  public Rectangle regionWithin(int width, int height) throws IllegalArgumentException {
+    Rectangle bounds = new Rectangle(0, 0, width, height);
+    if (this.region == null) {
+      return bounds;
+    }
+    Rectangle clipped = this.region.intersection(bounds);
+    if (clipped.isEmpty()) {
+      throw new IllegalArgumentException("Region lies outside of the image!");
+    }
+    return clipped;
+  }
+
+  /**
+   * Returns the subsampling to read a region of the specified size with, which is the largest
+   * that still leaves at least the target size when one is set.
+   *
+   * @param regionWidth  the width of the region that is read
+   * @param regionHeight the height of the region that is read
+   * @return the distance between each pixel that is read
+   */
+  public int subsamplingFor(int regionWidth, int regionHeight) {
+    if (this.targetWidth == 0) {
+      return this.subsampling;
+    }
+    return Math.max(1, Math.min(regionWidth / this.targetWidth,
+            regionHeight / this.targetHeight));
+  }
+
+  /**
+   * Scales rows of packed pixels that were read with these options to the target size, if one is
+   * set, by taking the nearest pixel.
+   *
+   * @param rows the rows that were read
+   * @return rows of the target size, or the same rows if no target size is set or they already
+   *         have that size
+   */
+  public int[][] finish(int[][] rows) {
+    int height = rows.length;
+    int width = rows[0].length;
+    if (this.targetWidth == 0 || (width == this.targetWidth && height == this.targetHeight)) {
+      return rows;
+    }
+
+    int[] columns = new int[this.targetWidth];
+    for (int i = 0; i < this.targetWidth; i++) {
+      columns[i] = (int) ((long) i * width / this.targetWidth);
+    }
+    int[][] scaled = new int[this.targetHeight][this.targetWidth];
+    for (int j = 0; j < this.targetHeight; j++) {
+      int[] from = rows[(int) ((long) j * height / this.targetHeight)];
+      int[] to = scaled[j];
+      for (int i = 0; i < this.targetWidth; i++) {
+        to[i] = from[columns[i]];
+      }
+    }
+    return scaled;
+  }
+
+  /**
+   * Applies these options to an image that has already been loaded whole, for formats which
+   * cannot decode only part of a file.
+   *
+   * @param img the image that was loaded
+   * @return the image with these options applied, or the same image if there are none
+   * @throws IllegalArgumentException if the region of these options lies outside of the image
+   */
+  public Image apply(Image img) throws IllegalArgumentException {
+    if (this.isNone()) {
+      return img;
+    }
+    Rectangle area = this.regionWithin(img.getWidth(), img.getHeight());
+    int step = this.subsamplingFor(area.width, area.height);
+    int width = (area.width + step - 1) / step;
+    int height = (area.height + step - 1) / step;
+
+    int[][] rows = new int[height][width];
+    int[] line = new int[area.width];
+    for (int j = 0; j < height; j++) {
+      img.getRGB(area.x, area.y + j * step, area.width, 1, line, 0, area.width);
+      for (int i = 0; i < width; i++) {
+        rows[j][i] = line[i * step];
+      }
+    }
+    return new ImageImpl(this.finish(rows), img.getMaxValue());
+  }
+}
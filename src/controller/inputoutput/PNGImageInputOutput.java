@@ -5,6 +5,12 @@ package controller.inputoutput;
  */
 public class PNGImageInputOutput extends AbstractImageInputOutput {
 
+  // every png file starts with the same eight bytes
+  @Override
+  public boolean matches(byte[] header, int length) {
+    return startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A);
+  }
+
   @Override
   protected String getFileType() {
     return "png";
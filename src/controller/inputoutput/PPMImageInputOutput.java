@@ -1,99 +1,431 @@
 package controller.inputoutput;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Scanner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import model.image.Image;
 import model.image.ImageImpl;
-import model.image.Pixel;
-import model.image.RGBPixel;
+import model.image.MappedImage;
 
 /**
  * A class representing image IO on .ppm images. A .ppm file is a different type of image than
  * the other three that this application supports so far, so it has a different implementation
- * for loading and saving, and thus overrides the implementation in the abstract class.
+ * for loading and saving, and thus overrides the implementation in the abstract class. Both the
+ * plain P3 form, which holds its samples as text, and the binary P6 form are loaded, and images
+ * are saved in whichever of the two this was created for. Files with a max value above 255 hold
+ * 16 bit samples, which are scaled down to 8 bits when loaded and back up when saved.
  */
+// INVARIANT: Whether images are saved in the binary form never changes.
 public class PPMImageInputOutput extends AbstractImageInputOutput {
 
+  private static final int ROW_CHUNK_BYTES = 1 << 16;
+
+  private final boolean binary;
+
+  /**
+   * A constructor which creates IO that saves images in the plain P3 form.
+   */
+  public PPMImageInputOutput() {
+    this(false);
+  }
+
+  /**
+   * A constructor which creates IO that saves images in either the plain P3 form or the binary
+   * P6 form.
+   *
+   * @param binary whether images are saved in the binary P6 form
+   */
+  public PPMImageInputOutput(boolean binary) {
+    this.binary = binary;
+  }
+
   @Override
   public Image load(String imagePath) throws IllegalArgumentException {
-    Scanner sc;
+    ImageIOEvent event = ImageIOEvent.start();
+    long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(Paths.get(imagePath), StandardOpenOption.READ)) {
+      PPMTokenizer tokens = new PPMTokenizer(channel);
+
+      String magic = tokens.next();
+      if (!magic.equals("P3") && !magic.equals("P6")) {
+        throw new IllegalArgumentException("Invalid PPM file: file should begin with P3 or P6!");
+      }
 
-    try {
-      sc = new Scanner(new FileInputStream(imagePath));
-    } catch (FileNotFoundException e) {
+      int width = tokens.nextInt();
+      int height = tokens.nextInt();
+      int maxValue = tokens.nextInt();
+      if (width <= 0 || height <= 0 || maxValue <= 0) {
+        throw new IllegalArgumentException("Width and height must both be positive!");
+      }
+      if (maxValue > 65535) {
+        throw new IllegalArgumentException("Invalid PPM file: max value cannot be above 65535!");
+      }
+
+      int[][] rows = (magic.equals("P3"))
+              ? this.readPlainRows(tokens, width, height, maxValue)
+              : this.readBinaryRows(tokens, width, height, maxValue);
+      Image img = new ImageImpl(rows, maxValue);
+      this.record(event, start, "load", imagePath, img);
+      return img;
+    } catch (IOException e) {
       throw new IllegalArgumentException("Invalid file contents!");
     }
+  }
 
-    StringBuilder builder = new StringBuilder();
-
-    //read the file line by line, and populate a string. This will throw away any comment lines
-    while (sc.hasNextLine()) {
-      String s = sc.nextLine();
-      if (s.charAt(0) != '#') {
-        builder.append(s + System.lineSeparator());
+  /**
+   * Loads a binary P6 .ppm file with 8 bit samples as an image whose pixels stay in the file and
+   * are mapped into memory instead of being read onto the heap, so that the file can be far larger
+   * than the heap. The results of manipulating the image are written to new mapped files in the
+   * specified directory. Unlike {@link #load(String)}, the samples are not checked against the
+   * max value, since that would mean reading the whole file.
+   *
+   * @param imagePath       the filepath to load the image from
+   * @param resultDirectory the directory that the results of manipulations are written to, or
+   *                        null for the default temporary directory
+   * @return the mapped image
+   * @throws IllegalArgumentException if the file doesn't exist, is not a binary P6 file, has a
+   *                                  max value above 255, or is too short for its size
+   */
+  public Image loadMapped(String imagePath, Path resultDirectory)
+          throws IllegalArgumentException {
+    ImageIOEvent event = ImageIOEvent.start();
+    long start = System.nanoTime();
+    Path file = Paths.get(imagePath);
+    long offset;
+    int width;
+    int height;
+    int maxValue;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      PPMTokenizer tokens = new PPMTokenizer(channel);
+      if (!tokens.next().equals("P6")) {
+        throw new IllegalArgumentException("Only binary P6 files can be mapped!");
       }
+      width = tokens.nextInt();
+      height = tokens.nextInt();
+      maxValue = tokens.nextInt();
+      if (!PPMTokenizer.isWhitespace(tokens.read())) {
+        throw new IllegalArgumentException("Invalid PPM file: header must end with whitespace!");
+      }
+      offset = tokens.offset();
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid file contents!");
     }
+    Image img = MappedImage.open(file, offset, width, height, maxValue, resultDirectory);
+    this.record(event, start, "load-mapped", imagePath, img);
+    return img;
+  }
 
-    //now set up the scanner to read from the string we just built
-    sc = new Scanner(builder.toString());
-
-    String token;
-
-    token = sc.next();
-    if (!token.equals("P3")) {
-      throw new IllegalArgumentException("Invalid PPM file: plain RAW file should begin with P3!");
+  /**
+   * A helper method which reads the samples of a plain P3 file straight into rows of packed
+   * pixels.
+   *
+   * @param tokens   the tokens of the file, positioned after the header
+   * @param width    the width of the image
+   * @param height   the height of the image
+   * @param maxValue the max value of the samples
+   * @return the rows of packed pixels
+   * @throws IllegalArgumentException if a sample is missing or is not a valid number
+   */
+  private int[][] readPlainRows(PPMTokenizer tokens, int width, int height, int maxValue)
+          throws IllegalArgumentException {
+    int[][] rows = new int[height][width];
+    for (int i = 0; i < height; i++) {
+      int[] row = rows[i];
+      for (int j = 0; j < width; j++) {
+        int r = this.sample(tokens.nextInt(), maxValue);
+        int g = this.sample(tokens.nextInt(), maxValue);
+        int b = this.sample(tokens.nextInt(), maxValue);
+        row[j] = (r << 16) | (g << 8) | b;
+      }
     }
+    return rows;
+  }
 
-    int width = sc.nextInt();
-    int height = sc.nextInt();
-    int maxValue = sc.nextInt();
+  /**
+   * A helper method which reads the samples of a binary P6 file into rows of packed pixels, a
+   * whole row at a time. Samples are one byte each, or two bytes with the most significant byte
+   * first if the max value is above 255.
+   *
+   * @param tokens   the tokens of the file, positioned after the max value
+   * @param width    the width of the image
+   * @param height   the height of the image
+   * @param maxValue the max value of the samples
+   * @return the rows of packed pixels
+   * @throws IllegalArgumentException if the header isn't followed by a single whitespace
+   *                                  character, if the file ends too early, or if a sample is
+   *                                  above the max value
+   */
+  private int[][] readBinaryRows(PPMTokenizer tokens, int width, int height, int maxValue)
+          throws IllegalArgumentException {
+    if (!PPMTokenizer.isWhitespace(tokens.read())) {
+      throw new IllegalArgumentException("Invalid PPM file: header must end with whitespace!");
+    }
 
-    Pixel[][] pixels = new RGBPixel[width][height];
+    boolean wide = maxValue > 255;
+    ByteBuffer buffer = ByteBuffer.allocate(width * (wide ? 6 : 3));
+    byte[] bytes = buffer.array();
+    int[][] rows = new int[height][width];
 
     for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int r = sc.nextInt();
-        int g = sc.nextInt();
-        int b = sc.nextInt();
-        pixels[j][i] = new RGBPixel(r, g, b);
+      buffer.clear();
+      tokens.readFully(buffer);
+      int[] row = rows[i];
+      if (wide) {
+        for (int j = 0, k = 0; j < width; j++, k += 6) {
+          int r = this.sample(((bytes[k] & 0xFF) << 8) | (bytes[k + 1] & 0xFF), maxValue);
+          int g = this.sample(((bytes[k + 2] & 0xFF) << 8) | (bytes[k + 3] & 0xFF), maxValue);
+          int b = this.sample(((bytes[k + 4] & 0xFF) << 8) | (bytes[k + 5] & 0xFF), maxValue);
+          row[j] = (r << 16) | (g << 8) | b;
+        }
+      } else {
+        for (int j = 0, k = 0; j < width; j++, k += 3) {
+          int r = this.sample(bytes[k] & 0xFF, maxValue);
+          int g = this.sample(bytes[k + 1] & 0xFF, maxValue);
+          int b = this.sample(bytes[k + 2] & 0xFF, maxValue);
+          row[j] = (r << 16) | (g << 8) | b;
+        }
       }
     }
+    return rows;
+  }
 
-    Image img = new ImageImpl(width, height, maxValue, pixels);
-    return img;
+  /**
+   * A helper method which turns a sample from a file into a component of a pixel. Samples of
+   * files with a max value above 255 are scaled down to between 0 and 255.
+   *
+   * @param value    the sample from the file
+   * @param maxValue the max value of the file
+   * @return the component of the pixel
+   * @throws IllegalArgumentException if the sample cannot be stored as a component of a pixel
+   */
+  private int sample(int value, int maxValue) throws IllegalArgumentException {
+    if (maxValue > 255) {
+      if (value > maxValue) {
+        throw new IllegalArgumentException("RGB values cannot be above the max value!");
+      }
+      return (value * 255 + maxValue / 2) / maxValue;
+    }
+    if (value > 255) {
+      throw new IllegalArgumentException("RGB values must be between 0 and 255!");
+    }
+    return value;
   }
 
+  /**
+   * A helper method which turns a component of a pixel into the sample that is saved for it,
+   * scaling it back up for images with a max value above 255.
+   *
+   * @param value    the component of the pixel
+   * @param maxValue the max value of the image
+   * @return the sample to save
+   */
+  private static int toSample(int value, int maxValue) {
+    if (maxValue > 255) {
+      return (int) ((value * (long) maxValue + 127) / 255);
+    }
+    return value;
+  }
+
+  // ImageIO cannot read .ppm files, so the options are applied after the whole file is loaded
+  @Override
+  public Image load(String imagePath, LoadOptions options) throws IllegalArgumentException {
+    if (options == null) {
+      throw new IllegalArgumentException("Options cannot be null!");
+    }
+    return options.apply(this.load(imagePath));
+  }
 
   @Override
   public void save(String filePath, Image img) throws IllegalArgumentException {
-    StringBuilder content = new StringBuilder();
-    Pixel[][] pixels = img.getPixels();
-
-    content.append("P3" + System.lineSeparator());
-    content.append(img.getWidth() + " " + img.getHeight() + System.lineSeparator());
-    content.append(img.getMaxValue() + System.lineSeparator());
-
-    for (int i = 0; i < img.getHeight(); i++) {
-      for (int j = 0; j < img.getWidth(); j++) {
-        content.append(pixels[j][i].getRed() + System.lineSeparator());
-        content.append(pixels[j][i].getGreen() + System.lineSeparator());
-        content.append(pixels[j][i].getBlue() + System.lineSeparator());
+    ImageIOEvent event = ImageIOEvent.start();
+    long start = System.nanoTime();
+    if (this.binary) {
+      this.saveBinary(filePath, img);
+    } else {
+      this.savePlain(filePath, img);
+    }
+    this.record(event, start, "save", filePath, img);
+  }
+
+  /**
+   * A helper method which saves an image in the plain P3 form, one sample per line. The text of
+   * each sample is written straight into a fixed size buffer, which is written through a channel
+   * whenever it fills up, so saving takes the same small amount of memory for any size of image.
+   *
+   * @param filePath the file path that we are saving the image to
+   * @param img      the image that we are saving
+   * @throws IllegalArgumentException if the image could not be written to the file
+   */
+  private void savePlain(String filePath, Image img) throws IllegalArgumentException {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    // a .ppm file cannot have a max value above 65535, as it could not be loaded back
+    int maxValue = Math.min(img.getMaxValue(), 65535);
+    byte[] newline = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    // the most bytes one sample can take: up to 5 digits and a line separator
+    int sampleBytes = 5 + newline.length;
+
+    try (FileChannel channel = this.openForWriting(filePath)) {
+      String header = "P3" + System.lineSeparator()
+              + width + " " + height + System.lineSeparator()
+              + maxValue + System.lineSeparator();
+      writeFully(channel, ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)));
+
+      ByteBuffer buffer = ByteBuffer.allocate(ROW_CHUNK_BYTES);
+      byte[] bytes = buffer.array();
+      int k = 0;
+      int[] row = new int[width];
+      for (int i = 0; i < height; i++) {
+        img.getRGB(0, i, width, 1, row, 0, width);
+        for (int j = 0; j < width; j++) {
+          if (k + 3 * sampleBytes > bytes.length) {
+            buffer.clear().limit(k);
+            writeFully(channel, buffer);
+            k = 0;
+          }
+          int p = row[j];
+          k = putDecimal(bytes, k, toSample((p >> 16) & 0xFF, maxValue), newline);
+          k = putDecimal(bytes, k, toSample((p >> 8) & 0xFF, maxValue), newline);
+          k = putDecimal(bytes, k, toSample(p & 0xFF, maxValue), newline);
+        }
       }
+      buffer.clear().limit(k);
+      writeFully(channel, buffer);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to write to a file!");
+    }
+  }
+
+  /**
+   * A helper method which puts the decimal digits of a sample into an array, followed by a line
+   * separator.
+   *
+   * @param bytes   the array to put the sample into
+   * @param offset  the index to put the first digit at
+   * @param value   the sample, which is never negative
+   * @param newline the bytes of the line separator
+   * @return the index after the line separator
+   */
+  private static int putDecimal(byte[] bytes, int offset, int value, byte[] newline) {
+    int digits = 1;
+    for (int v = value; v >= 10; v /= 10) {
+      digits++;
     }
+    for (int d = offset + digits - 1; d >= offset; d--) {
+      bytes[d] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    offset += digits;
+    for (byte b : newline) {
+      bytes[offset++] = b;
+    }
+    return offset;
+  }
+
+  /**
+   * A helper method which opens a file to save an image to, creating it if it doesn't exist and
+   * replacing anything that was in it.
+   *
+   * @param filePath the file path that we are saving the image to
+   * @return the channel to write the image through
+   * @throws IOException if the file could not be opened
+   */
+  private FileChannel openForWriting(String filePath) throws IOException {
+    return FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /**
+   * A helper method which saves an image in the binary P6 form, writing its samples through a
+   * channel a chunk of rows at a time. Images with a max value above 255 are saved with two
+   * bytes per sample, the most significant byte first.
+   *
+   * @param filePath the file path that we are saving the image to
+   * @param img      the image that we are saving
+   * @throws IllegalArgumentException if the image could not be written to the file
+   */
+  private void saveBinary(String filePath, Image img) throws IllegalArgumentException {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    int maxValue = Math.min(img.getMaxValue(), 65535);
+    boolean wide = maxValue > 255;
+    int rowBytes = width * (wide ? 6 : 3);
+    int rowsPerChunk = Math.max(1, ROW_CHUNK_BYTES / rowBytes);
 
-    try {
-      FileWriter myWriter = new FileWriter(filePath);
-      myWriter.write(content.toString());
-      myWriter.close();
+    try (FileChannel channel = this.openForWriting(filePath)) {
+      byte[] header = ("P6\n" + width + " " + height + "\n" + maxValue + "\n")
+              .getBytes(StandardCharsets.US_ASCII);
+      writeFully(channel, ByteBuffer.wrap(header));
+
+      ByteBuffer buffer = ByteBuffer.allocate(rowBytes * rowsPerChunk);
+      byte[] bytes = buffer.array();
+      int[] row = new int[width];
+      for (int start = 0; start < height; start += rowsPerChunk) {
+        int end = Math.min(height, start + rowsPerChunk);
+        int k = 0;
+        for (int i = start; i < end; i++) {
+          img.getRGB(0, i, width, 1, row, 0, width);
+          for (int j = 0; j < width; j++) {
+            int p = row[j];
+            if (wide) {
+              k = putWide(bytes, k, toSample((p >> 16) & 0xFF, maxValue));
+              k = putWide(bytes, k, toSample((p >> 8) & 0xFF, maxValue));
+              k = putWide(bytes, k, toSample(p & 0xFF, maxValue));
+            } else {
+              bytes[k++] = (byte) (p >> 16);
+              bytes[k++] = (byte) (p >> 8);
+              bytes[k++] = (byte) p;
+            }
+          }
+        }
+        buffer.clear().limit(k);
+        writeFully(channel, buffer);
+      }
     } catch (IOException e) {
-      System.out.println("An error occurred while trying to save the code.");
+      throw new IllegalArgumentException("Unable to write to a file!");
     }
   }
 
+  /**
+   * A helper method which puts a two byte sample into an array, the most significant byte first.
+   *
+   * @param bytes  the array to put the sample into
+   * @param offset the index to put the first byte at
+   * @param value  the sample
+   * @return the index after the sample
+   */
+  private static int putWide(byte[] bytes, int offset, int value) {
+    bytes[offset] = (byte) (value >> 8);
+    bytes[offset + 1] = (byte) value;
+    return offset + 2;
+  }
+
+  /**
+   * A helper method which writes everything left in a buffer to a channel.
+   *
+   * @param channel the channel to write to
+   * @param buffer  the buffer to write
+   * @throws IOException if the write fails
+   */
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  // a ppm file starts with "P3" or "P6" followed by whitespace or a comment
+  @Override
+  public boolean matches(byte[] header, int length) {
+    return length >= 3 && header[0] == 'P' && (header[1] == '3' || header[1] == '6')
+            && (PPMTokenizer.isWhitespace(header[2]) || header[2] == '#');
+  }
+
   @Override
   protected String getFileType() {
     return "ppm";
@@ -0,0 +1,200 @@
+package controller.inputoutput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A class which reads the tokens of a .ppm file straight from its bytes, a buffer at a time,
+ * without ever holding the whole file in memory. Tokens are separated by whitespace, and a '#'
+ * anywhere outside of a token starts a comment that runs to the end of its line. Binary samples
+ * that follow the header can be read in bulk, straight from the channel.
+ */
+// INVARIANT: The buffer is never null, and the position and limit always satisfy
+//            0 <= position <= limit <= buffer.length.
+final class PPMTokenizer {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final ReadableByteChannel in;
+  private final byte[] buffer;
+  private final ByteBuffer wrapped;
+  private int position;
+  private int limit;
+  private long consumed;
+
+  /**
+   * A constructor which creates a tokenizer reading from the specified channel.
+   *
+   * @param in the channel to read the file from
+   */
+  PPMTokenizer(ReadableByteChannel in) {
+    this.in = in;
+    this.buffer = new byte[BUFFER_SIZE];
+    this.wrapped = ByteBuffer.wrap(this.buffer);
+  }
+
+  /**
+   * Reads the next byte of the file.
+   *
+   * @return the next byte as a value between 0 and 255, or -1 at the end of the file
+   * @throws IllegalArgumentException if the file could not be read
+   */
+  int read() throws IllegalArgumentException {
+    if (this.position == this.limit && !this.fill()) {
+      return -1;
+    }
+    return this.buffer[this.position++] & 0xFF;
+  }
+
+  /**
+   * A helper method which refills the buffer from the channel.
+   *
+   * @return true if any bytes were read, false at the end of the file
+   * @throws IllegalArgumentException if the file could not be read
+   */
+  private boolean fill() throws IllegalArgumentException {
+    try {
+      this.consumed += this.limit;
+      this.wrapped.clear();
+      int n = this.in.read(this.wrapped);
+      while (n == 0) {
+        n = this.in.read(this.wrapped);
+      }
+      this.position = 0;
+      this.limit = Math.max(0, n);
+      return n > 0;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid file contents!");
+    }
+  }
+
+  /**
+   * Fills the specified buffer with the next bytes of the file, first with any bytes that have
+   * already been buffered and then straight from the channel.
+   *
+   * @param dst the buffer to fill up to its limit
+   * @throws IllegalArgumentException if the file ends before the buffer is full or could not be
+   *                                  read
+   */
+  void readFully(ByteBuffer dst) throws IllegalArgumentException {
+    int buffered = Math.min(this.limit - this.position, dst.remaining());
+    dst.put(this.buffer, this.position, buffered);
+    this.position += buffered;
+
+    try {
+      while (dst.hasRemaining()) {
+        int n = this.in.read(dst);
+        if (n < 0) {
+          throw new IllegalArgumentException("Invalid PPM file: the file ended too early!");
+        }
+        this.consumed += n;
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid file contents!");
+    }
+  }
+
+  /**
+   * Returns the position in the file of the next byte that will be read.
+   *
+   * @return the number of bytes of the file read so far
+   */
+  long offset() {
+    return this.consumed + this.position;
+  }
+
+  /**
+   * A helper method which skips over whitespace and comments.
+   *
+   * @return the first byte of the next token, or -1 at the end of the file
+   * @throws IllegalArgumentException if the file could not be read
+   */
+  private int skipToToken() throws IllegalArgumentException {
+    int c = this.read();
+    while (c != -1) {
+      if (c == '#') {
+        while (c != -1 && c != '\n' && c != '\r') {
+          c = this.read();
+        }
+      } else if (!isWhitespace(c)) {
+        return c;
+      } else {
+        c = this.read();
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Reads the next token of the file as a string.
+   *
+   * @return the next token
+   * @throws IllegalArgumentException if there are no tokens left or the file could not be read
+   */
+  String next() throws IllegalArgumentException {
+    int c = this.skipToToken();
+    if (c == -1) {
+      throw new IllegalArgumentException("Invalid PPM file: the file ended too early!");
+    }
+    StringBuilder token = new StringBuilder();
+    while (c != -1 && !isWhitespace(c) && c != '#') {
+      token.append((char) c);
+      c = this.read();
+    }
+    this.unread(c);
+    return token.toString();
+  }
+
+  /**
+   * Reads the next token of the file as a non-negative decimal integer.
+   *
+   * @return the value of the next token
+   * @throws IllegalArgumentException if there are no tokens left, if the next token is not a
+   *                                  non-negative integer that fits in an int, or if the file
+   *                                  could not be read
+   */
+  int nextInt() throws IllegalArgumentException {
+    int c = this.skipToToken();
+    if (c == -1) {
+      throw new IllegalArgumentException("Invalid PPM file: the file ended too early!");
+    }
+    long value = 0;
+    int digits = 0;
+    while (c >= '0' && c <= '9') {
+      value = value * 10 + (c - '0');
+      if (value > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid PPM file: number is too large!");
+      }
+      digits++;
+      c = this.read();
+    }
+    if (digits == 0 || (c != -1 && !isWhitespace(c) && c != '#')) {
+      throw new IllegalArgumentException("Invalid PPM file: expected a number!");
+    }
+    this.unread(c);
+    return (int) value;
+  }
+
+  /**
+   * A helper method which puts back the byte that ended a token, so that a comment that starts
+   * right after a token is still skipped.
+   *
+   * @param c the byte that was read after the token, or -1 at the end of the file
+   */
+  private void unread(int c) {
+    if (c != -1) {
+      this.position--;
+    }
+  }
+
+  /**
+   * Determines whether a byte is whitespace in a .ppm file.
+   *
+   * @param c the byte to check
+   * @return true if the byte is whitespace, false otherwise
+   */
+  static boolean isWhitespace(int c) {
+    return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == 0x0B || c == '\f';
+  }
+}
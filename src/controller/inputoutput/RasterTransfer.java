@@ -0,0 +1,137 @@
+package controller.inputoutput;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+import model.image.Image;
+
+/**
+ * A class which moves pixels between buffered images and rows of packed pixels in bulk, reading
+ * and writing the data buffers of the most common layouts directly instead of going through the
+ * color model for every pixel. Images in any other layout, or whose raster is only a part of a
+ * bigger one, are converted a whole row at a time. The alpha component of images that have one is
+ * ignored.
+ */
+public final class RasterTransfer {
+
+  /**
+   * A constructor which is private, since this class only has static methods.
+   */
+  private RasterTransfer() {
+  }
+
+  /**
+   * Copies the pixels of a buffered image into new rows of packed pixels.
+   *
+   * @param image the buffered image to copy
+   * @return the rows of the image, each pixel packed as 0xRRGGBB
+   * @throws IllegalArgumentException if the image is null
+   */
+  public static int[][] toRows(BufferedImage image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null!");
+    }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[][] rows = new int[height][width];
+    WritableRaster raster = image.getRaster();
+    boolean whole = raster.getSampleModelTranslateX() == 0
+            && raster.getSampleModelTranslateY() == 0;
+
+    switch (whole ? image.getType() : BufferedImage.TYPE_CUSTOM) {
+      case BufferedImage.TYPE_INT_RGB:
+      case BufferedImage.TYPE_INT_ARGB:
+        readInts(raster, rows);
+        break;
+      case BufferedImage.TYPE_3BYTE_BGR:
+      case BufferedImage.TYPE_4BYTE_ABGR:
+        readBytes(raster, rows);
+        break;
+      default:
+        for (int j = 0; j < height; j++) {
+          int[] row = rows[j];
+          image.getRGB(0, j, width, 1, row, 0, width);
+          for (int i = 0; i < width; i++) {
+            row[i] &= 0xFFFFFF;
+          }
+        }
+        break;
+    }
+    return rows;
+  }
+
+  /**
+   * A helper method which copies pixels out of a raster that holds one int per pixel, with the
+   * red, green, and blue components in the low three bytes.
+   *
+   * @param raster the raster to copy from
+   * @param rows   the rows to copy into
+   */
+  private static void readInts(WritableRaster raster, int[][] rows) {
+    DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+    int[] data = buffer.getData();
+    int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+    int offset = buffer.getOffset();
+    for (int j = 0; j < rows.length; j++) {
+      int[] row = rows[j];
+      int start = offset + j * stride;
+      for (int i = 0; i < row.length; i++) {
+        row[i] = data[start + i] & 0xFFFFFF;
+      }
+    }
+  }
+
+  /**
+   * A helper method which copies pixels out of a raster that holds one byte per component, using
+   * the sample model to find where the red, green, and blue bytes of each pixel are.
+   *
+   * @param raster the raster to copy from
+   * @param rows   the rows to copy into
+   */
+  private static void readBytes(WritableRaster raster, int[][] rows) {
+    DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+    byte[] data = buffer.getData();
+    ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+    int stride = model.getScanlineStride();
+    int pixelStride = model.getPixelStride();
+    int[] bands = model.getBandOffsets();
+    int offset = buffer.getOffset();
+    for (int j = 0; j < rows.length; j++) {
+      int[] row = rows[j];
+      int p = offset + j * stride;
+      for (int i = 0; i < row.length; i++, p += pixelStride) {
+        row[i] = ((data[p + bands[0]] & 0xFF) << 16)
+                | ((data[p + bands[1]] & 0xFF) << 8)
+                | (data[p + bands[2]] & 0xFF);
+      }
+    }
+  }
+
+  /**
+   * Copies the pixels of an image into a new buffered image of type TYPE_INT_RGB, writing each
+   * row straight into the data buffer of the buffered image.
+   *
+   * @param img the image to copy
+   * @return the buffered image holding the pixels of the image
+   * @throws IllegalArgumentException if the image is null
+   */
+  public static BufferedImage toBufferedImage(Image img) throws IllegalArgumentException {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null!");
+    }
+    int width = img.getWidth();
+    int height = img.getHeight();
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    WritableRaster raster = image.getRaster();
+    DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+    SampleModel model = raster.getSampleModel();
+    int stride = ((SinglePixelPackedSampleModel) model).getScanlineStride();
+    img.getRGB(0, 0, width, height, buffer.getData(), buffer.getOffset(), stride);
+    return image;
+  }
+}
@@ -0,0 +1,280 @@
+package controller.text;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A class representing a profiler which measures how long each command of a script takes and how
+ * much memory it allocates, so that the commands responsible for a slow script can be found. For
+ * every command, it records the wall time, the CPU time, and the bytes allocated, and sums them up
+ * by the name of the command, in the order the commands first ran. CPU time and allocation are
+ * read from every live thread through the {@link ThreadMXBean}, so the work of manipulations that
+ * are split across threads is counted too. Where the JVM cannot measure CPU time or allocation,
+ * they are reported as -1.
+ */
+// INVARIANT: The map of totals is never null and holds one entry per command name that has been
+//            measured, in the order they were first measured.
+public final class CommandProfiler {
+
+  private final ThreadMXBean threads;
+  private final boolean cpuSupported;
+  private final boolean allocationSupported;
+  private final Map<String, Totals> totals;
+
+  /**
+   * A class representing the sums of the measurements of every run of one command.
+   */
+  private static final class Totals {
+    private long count;
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+    private long maxWallNanos;
+  }
+
+  /**
+   * A constructor which creates a profiler that has not measured anything, turning on CPU time
+   * and allocation measurement where the JVM supports them.
+   */
+  public CommandProfiler() {
+    this.threads = ManagementFactory.getThreadMXBean();
+    boolean cpu = this.threads.isThreadCpuTimeSupported();
+    if (cpu && !this.threads.isThreadCpuTimeEnabled()) {
+      this.threads.setThreadCpuTimeEnabled(true);
+    }
+    boolean allocation = false;
+    if (this.threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) this.threads;
+      allocation = sun.isThreadAllocatedMemorySupported();
+      if (allocation && !sun.isThreadAllocatedMemoryEnabled()) {
+        sun.setThreadAllocatedMemoryEnabled(true);
+      }
+    }
+    this.cpuSupported = cpu;
+    this.allocationSupported = allocation;
+    this.totals = new LinkedHashMap<>();
+  }
+
+  /**
+   * Runs the specified command, measuring it and adding the measurements to those of every other
+   * run of a command by the same name. A command that fails is not counted.
+   *
+   * @param name    the name of the command
+   * @param command the command to run
+   * @throws IllegalArgumentException if the name or the command are null
+   */
+  public void measure(String name, Runnable command) throws IllegalArgumentException {
+    if (name == null || command == null) {
+      throw new IllegalArgumentException("Name and command cannot be null!");
+    }
+    Map<Long, long[]> before = this.snapshot();
+    long start = System.nanoTime();
+    command.run();
+    long wall = System.nanoTime() - start;
+    Map<Long, long[]> after = this.snapshot();
+
+    long cpu = 0;
+    long allocated = 0;
+    for (Map.Entry<Long, long[]> entry : after.entrySet()) {
+      long[] now = entry.getValue();
+      long[] then = before.getOrDefault(entry.getKey(), new long[2]);
+      cpu += Math.max(0, now[0] - then[0]);
+      allocated += Math.max(0, now[1] - then[1]);
+    }
+    this.record(name, wall, this.cpuSupported ? cpu : -1,
+            this.allocationSupported ? allocated : -1);
+  }
+
+  /**
+   * Adds a measurement of a command to those of every other run of a command by the same name.
+   *
+   * @param name           the name of the command
+   * @param wallNanos      the wall time the command took, in nanoseconds
+   * @param cpuNanos       the CPU time the command took, in nanoseconds, or -1 if it is unknown
+   * @param allocatedBytes the bytes the command allocated, or -1 if it is unknown
+   * @throws IllegalArgumentException if the name is null or the wall time is negative
+   */
+  public void record(String name, long wallNanos, long cpuNanos, long allocatedBytes)
+          throws IllegalArgumentException {
+    if (name == null || wallNanos < 0) {
+      throw new IllegalArgumentException("Name cannot be null and wall time cannot be negative!");
+    }
+    Totals total = this.totals.computeIfAbsent(name, n -> new Totals());
+    total.count++;
+    total.wallNanos += wallNanos;
+    total.maxWallNanos = Math.max(total.maxWallNanos, wallNanos);
+    total.cpuNanos = (cpuNanos < 0 || total.cpuNanos < 0) ? -1 : total.cpuNanos + cpuNanos;
+    total.allocatedBytes = (allocatedBytes < 0 || total.allocatedBytes < 0) ? -1
+            : total.allocatedBytes + allocatedBytes;
+  }
+
+  /**
+   * A helper method which reads the CPU time and the bytes allocated so far by every live thread.
+   *
+   * @return the CPU time and allocated bytes of each thread, by the id of the thread
+   */
+  private Map<Long, long[]> snapshot() {
+    long[] ids = this.threads.getAllThreadIds();
+    long[] allocated = null;
+    if (this.allocationSupported) {
+      allocated = ((com.sun.management.ThreadMXBean) this.threads).getThreadAllocatedBytes(ids);
+    }
+    Map<Long, long[]> values = new HashMap<>();
+    for (int i = 0; i < ids.length; i++) {
+      long cpu = this.cpuSupported ? this.threads.getThreadCpuTime(ids[i]) : 0;
+      long bytes = (allocated == null) ? 0 : allocated[i];
+      // a thread that has died since its id was read reports -1, and is left out
+      if (cpu >= 0 && bytes >= 0) {
+        values.put(ids[i], new long[]{cpu, bytes});
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns a table of the measurements summed up by command, with one row per command in the
+   * order the commands first ran, followed by a row of the totals of every command.
+   *
+   * @return the summary table, with a line separator after every row
+   */
+  public String summaryTable() {
+    StringBuilder table = new StringBuilder();
+    String format = "%-20s %7s %12s %12s %14s %12s%n";
+    table.append(String.format(Locale.ROOT, format, "Command", "Count", "Wall ms", "CPU ms",
+            "Allocated MB", "Max wall ms"));
+
+    Totals sum = new Totals();
+    for (Map.Entry<String, Totals> entry : this.totals.entrySet()) {
+      Totals total = entry.getValue();
+      this.appendRow(table, format, entry.getKey(), total);
+      sum.count += total.count;
+      sum.wallNanos += total.wallNanos;
+      sum.maxWallNanos = Math.max(sum.maxWallNanos, total.maxWallNanos);
+      sum.cpuNanos = (total.cpuNanos < 0 || sum.cpuNanos < 0) ? -1 : sum.cpuNanos + total.cpuNanos;
+      sum.allocatedBytes = (total.allocatedBytes < 0 || sum.allocatedBytes < 0) ? -1
+              : sum.allocatedBytes + total.allocatedBytes;
+    }
+    this.appendRow(table, format, "total", sum);
+    return table.toString();
+  }
+
+  /**
+   * A helper method which adds one row of measurements to the summary table.
+   *
+   * @param table  the table being built
+   * @param format the format of each row
+   * @param name   the name of the row
+   * @param total  the measurements of the row
+   */
+  private void appendRow(StringBuilder table, String format, String name, Totals total) {
+    table.append(String.format(Locale.ROOT, format, name, total.count,
+            millis(total.wallNanos), (total.cpuNanos < 0) ? "-1" : millis(total.cpuNanos),
+            (total.allocatedBytes < 0) ? "-1"
+                    : String.format(Locale.ROOT, "%.3f", total.allocatedBytes / 1e6),
+            millis(total.maxWallNanos)));
+  }
+
+  /**
+   * A helper method which formats a time in nanoseconds as milliseconds.
+   *
+   * @param nanos the time in nanoseconds
+   * @return the time in milliseconds, to three decimal places
+   */
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+  }
+
+  /**
+   * Writes the measurements summed up by command to the specified file, as JSON if its name ends
+   * in .json and as CSV if its name ends in .csv. Times are written in nanoseconds and
+   * allocations in bytes, so nothing is rounded.
+   *
+   * @param file the file to write to
+   * @throws IllegalArgumentException if the file is null, is neither a JSON nor a CSV file, or
+   *                                  cannot be written
+   */
+  public void write(Path file) throws IllegalArgumentException {
+    String contents = isJson(file) ? this.toJson() : this.toCsv();
+    try {
+      Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to write to a file!");
+    }
+  }
+
+  /**
+   * Checks that the measurements can be written to the specified file, so that a file of the
+   * wrong kind can be reported before any command is run rather than after all of them.
+   *
+   * @param file the file the measurements will be written to
+   * @throws IllegalArgumentException if the file is null or is neither a JSON nor a CSV file
+   */
+  public static void checkFile(Path file) throws IllegalArgumentException {
+    isJson(file);
+  }
+
+  /**
+   * A helper method which determines whether the measurements are written to a file as JSON or
+   * as CSV, by the extension of its name.
+   *
+   * @param file the file the measurements are written to
+   * @return true if the file is a JSON file, false if it is a CSV file
+   * @throws IllegalArgumentException if the file is null or is neither a JSON nor a CSV file
+   */
+  private static boolean isJson(Path file) throws IllegalArgumentException {
+    if (file == null || file.getFileName() == null) {
+      throw new IllegalArgumentException("File cannot be null!");
+    }
+    String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+    if (!name.endsWith(".json") && !name.endsWith(".csv")) {
+      throw new IllegalArgumentException("Profile must be written to a .json or .csv file!");
+    }
+    return name.endsWith(".json");
+  }
+
+  /**
+   * Returns the measurements summed up by command as CSV, with a header row.
+   *
+   * @return the CSV
+   */
+  public String toCsv() {
+    StringBuilder csv = new StringBuilder(
+            "command,count,wall_nanos,cpu_nanos,allocated_bytes,max_wall_nanos\n");
+    for (Map.Entry<String, Totals> entry : this.totals.entrySet()) {
+      Totals total = entry.getValue();
+      csv.append(entry.getKey()).append(',').append(total.count).append(',')
+              .append(total.wallNanos).append(',').append(total.cpuNanos).append(',')
+              .append(total.allocatedBytes).append(',').append(total.maxWallNanos).append('\n');
+    }
+    return csv.toString();
+  }
+
+  /**
+   * Returns the measurements summed up by command as a JSON array with one object per command.
+   *
+   * @return the JSON
+   */
+  public String toJson() {
+    StringBuilder json = new StringBuilder("[");
+    String separator = "\n";
+    for (Map.Entry<String, Totals> entry : this.totals.entrySet()) {
+      Totals total = entry.getValue();
+      json.append(separator).append("  {\"command\": \"").append(entry.getKey())
+              .append("\", \"count\": ").append(total.count)
+              .append(", \"wallNanos\": ").append(total.wallNanos)
+              .append(", \"cpuNanos\": ").append(total.cpuNanos)
+              .append(", \"allocatedBytes\": ").append(total.allocatedBytes)
+              .append(", \"maxWallNanos\": ").append(total.maxWallNanos).append('}');
+      separator = ",\n";
+    }
+    return json.append("\n]\n").toString();
+  }
+}
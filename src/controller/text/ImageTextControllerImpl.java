@@ -14,12 +14,16 @@ import controller.commands.GreyscaleColorTransformation;
 import controller.commands.GreyscaleComponent;
 import controller.commands.ImageCommand;
 import controller.commands.Load;
+import controller.commands.LoadMapped;
+import controller.commands.Masked;
 import controller.commands.Save;
 import controller.commands.Sepia;
 import controller.commands.Sharpen;
+import controller.inputoutput.LoadOptions;
 import model.ImageModel;
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
+import model.image.Mask;
 import view.text.ImageTextView;
 
 /**
@@ -32,6 +36,7 @@ public class ImageTextControllerImpl implements ImageTextController {
   private final ImageModel model;
   private final ImageTextView view;
   private final Readable rd;
+  private final CommandProfiler profiler;
   private final Map<String, Function<Scanner, ImageCommand>> knownCommands;
 
   /**
@@ -45,6 +50,22 @@ public class ImageTextControllerImpl implements ImageTextController {
    */
   public ImageTextControllerImpl(ImageModel model, ImageTextView view, Readable rd)
           throws IllegalArgumentException {
+    this(model, view, rd, null);
+  }
+
+  /**
+   * A constructor which initializes the field of the simple controller and ensures that none of
+   * the fields are null, measuring every command that runs with the specified profiler and
+   * displaying a summary of the measurements once the script ends.
+   *
+   * @param model    the model for the controller for performing operations
+   * @param view     the view for the controller for displaying information to the user
+   * @param rd       the readable to interpret input from
+   * @param profiler the profiler to measure the commands with, or null to not measure them
+   * @throws IllegalArgumentException if the model, view, or readable are null.
+   */
+  public ImageTextControllerImpl(ImageModel model, ImageTextView view, Readable rd,
+                                 CommandProfiler profiler) throws IllegalArgumentException {
 
     if (model == null || view == null || rd == null) {
       throw new IllegalArgumentException("Model, view, or readable cannot be null!");
@@ -53,6 +74,7 @@ public class ImageTextControllerImpl implements ImageTextController {
     this.model = model;
     this.view = view;
     this.rd = rd;
+    this.profiler = profiler;
     this.knownCommands = new HashMap<>();
 
     this.setCommands();
@@ -63,7 +85,21 @@ public class ImageTextControllerImpl implements ImageTextController {
    */
   private void setCommands() {
     knownCommands.put("load", s -> new Load(s.next(), s.next()));
+    knownCommands.put("load-region", s -> {
+      LoadOptions options = LoadOptions.region(s.nextInt(), s.nextInt(), s.nextInt(), s.nextInt());
+      return new Load(s.next(), s.next(), options);
+    });
+    knownCommands.put("load-subsampled", s -> {
+      LoadOptions options = LoadOptions.subsampled(s.nextInt());
+      return new Load(s.next(), s.next(), options);
+    });
+    knownCommands.put("load-size", s -> {
+      LoadOptions options = LoadOptions.size(s.nextInt(), s.nextInt());
+      return new Load(s.next(), s.next(), options);
+    });
+    knownCommands.put("load-mapped", s -> new LoadMapped(s.next(), s.next()));
     knownCommands.put("save", s -> new Save(s.next(), s.next()));
+    knownCommands.put("save-binary", s -> new Save(s.next(), s.next(), true));
     knownCommands.put("red-component",
         s -> new GreyscaleComponent(GreyscaleComponentType.RED, s.next(), s.next()));
     knownCommands.put("green-component",
@@ -84,6 +120,27 @@ public class ImageTextControllerImpl implements ImageTextController {
     knownCommands.put("sharpen", s -> new Sharpen(s.next(), s.next()));
     knownCommands.put("greyscale", s -> new GreyscaleColorTransformation(s.next(), s.next()));
     knownCommands.put("sepia", s -> new Sepia(s.next(), s.next()));
+    knownCommands.put("region", s -> {
+      Mask mask = Mask.rectangle(s.nextInt(), s.nextInt(), s.nextInt(), s.nextInt());
+      return new Masked(mask, this.nextCommand(s));
+    });
+    knownCommands.put("mask", s -> new Masked(s.next(), this.nextCommand(s)));
+  }
+
+  /**
+   * A helper method which reads the command that follows a region or mask, so that it can be
+   * limited to that region.
+   *
+   * @param s the scanner to read the command from
+   * @return the command that was read
+   * @throws IllegalArgumentException if the next word is not a known command
+   */
+  private ImageCommand nextCommand(Scanner s) throws IllegalArgumentException {
+    Function<Scanner, ImageCommand> cmd = knownCommands.get(s.next());
+    if (cmd == null) {
+      throw new IllegalArgumentException("Unknown command!");
+    }
+    return cmd.apply(s);
   }
 
   @Override
@@ -103,6 +160,7 @@ public class ImageTextControllerImpl implements ImageTextController {
 
       // dealing with quitting the application
       if (next.equalsIgnoreCase("q") || next.equalsIgnoreCase("quit")) {
+        this.displayProfile();
         this.quit();
         return;
       }
@@ -119,12 +177,35 @@ public class ImageTextControllerImpl implements ImageTextController {
       else {
         try {
           c = cmd.apply(sc);
-          c.execute(model);
+          if (this.profiler == null) {
+            c.execute(model);
+          } else {
+            ImageCommand command = c;
+            this.profiler.measure(next, () -> command.execute(model));
+          }
         } catch (Exception e) {
           this.renderInvalidMessageAndSkipLine(next + " " + sc.nextLine());
         }
       }
     }
+    this.displayProfile();
+  }
+
+  /**
+   * A helper method which displays the summary of the measurements of every command that ran, if
+   * the commands were being measured.
+   *
+   * @throws IllegalStateException if transmission of the summary fails
+   */
+  private void displayProfile() throws IllegalStateException {
+    if (this.profiler == null) {
+      return;
+    }
+    try {
+      this.view.renderMessage(this.profiler.summaryTable());
+    } catch (IOException e) {
+      throw new IllegalStateException("Transmission of the profile to the view failed!");
+    }
   }
 
   /**
@@ -3,6 +3,7 @@ package model;
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
 import model.image.Image;
+import model.image.Mask;
 
 /**
  * An interface representing the model for this image application which is able to store multiple
@@ -13,10 +14,11 @@ import model.image.Image;
 public interface ImageModel {
 
   /**
-   * Returns a deep copy of the image represented by the given name.
+   * Returns the image represented by the given name. Images are immutable, so the stored image
+   * itself is returned rather than a copy of it.
    *
    * @param imageName the specified name that refers to the image desired
-   * @return a deep copy of the image represented by this string name
+   * @return the image represented by this string name
    * @throws IllegalArgumentException if there is no image in the application stored by the
    *                                  specified name when this method is called
    */
@@ -131,4 +133,106 @@ public interface ImageModel {
   void downsize(int widthPercent, int heightPercent, String oldFileName, String newFileName)
           throws IllegalArgumentException;
 
+  /**
+   * Creates a new image which is the old image with only the pixels the mask selects brightened
+   * by the specified value, and stores it by the specified name. Every other pixel is the same as
+   * in the old image.
+   * @param mask        the pixels to brighten
+   * @param value       how much to brighten the image by
+   * @param oldFileName the name of the image that we want to brighten
+   * @param newFileName the name that we store the newly brightened image by
+   * @throws IllegalArgumentException if the image that we want to brighten doesn't exist, or if
+   *                                  the mask is null or reaches outside of the image
+   */
+  void brighten(Mask mask, int value, String oldFileName, String newFileName)
+          throws IllegalArgumentException;
+
+  /**
+   * Creates a new image which is the old image with only the pixels the mask selects darkened by
+   * the specified value, and stores it by the specified name. Every other pixel is the same as in
+   * the old image.
+   * @param mask        the pixels to darken
+   * @param value       how much to darken the image by
+   * @param oldFileName the name of the image that we want to darken
+   * @param newFileName the name that we store the newly darkened image by
+   * @throws IllegalArgumentException if the image that we want to darken doesn't exist, or if
+   *                                  the mask is null or reaches outside of the image
+   */
+  void darken(Mask mask, int value, String oldFileName, String newFileName)
+          throws IllegalArgumentException;
+
+  /**
+   * Creates a new image which is the old image with the specified greyscale applied to only the
+   * pixels the mask selects. This new image is then stored in the model.
+   * @param mask        the pixels to apply the greyscale to
+   * @param type        the type of greyscale transformation to apply
+   * @param oldFileName the name of the image that we want to apply the greyscale to
+   * @param newFileName the name that we store the new greyscale image by
+   * @throws IllegalArgumentException if the image that we want to greyscale doesn't exist, or if
+   *                                  the mask is null or reaches outside of the image
+   */
+  void greyscaleComponent(Mask mask, GreyscaleComponentType type, String oldFileName,
+                          String newFileName) throws IllegalArgumentException;
+
+  /**
+   * Creates a new image which is the old image with the pixels within the bounds of the mask
+   * flipped in place. Only the pixels the mask selects take their flipped values. This new image
+   * is then stored in the model.
+   * @param mask        the pixels to flip
+   * @param type        the type of flip to apply
+   * @param oldFileName the name of the image that we want to apply the flip to
+   * @param newFileName the name that we store the new flipped image by
+   * @throws IllegalArgumentException if the image that we want to flip doesn't exist, or if the
+   *                                  mask is null or reaches outside of the image
+   */
+  void flip(Mask mask, FlipType type, String oldFileName, String newFileName)
+          throws IllegalArgumentException;
+
+  /**
+   * Creates a new image which is the old image with only the pixels the mask selects blurred.
+   * Pixels around the mask are still read by the blur. This new image is then stored in the
+   * model.
+   * @param mask        the pixels to blur
+   * @param oldFileName the name of the image that we want to apply the filter to
+   * @param newFileName the name that we store the new filtered image by
+   * @throws IllegalArgumentException if the image that we want to blur doesn't exist, or if the
+   *                                  mask is null or reaches outside of the image
+   */
+  void blur(Mask mask, String oldFileName, String newFileName) throws IllegalArgumentException;
+
+  /**
+   * Creates a new image which is the old image with only the pixels the mask selects sharpened.
+   * Pixels around the mask are still read by the sharpen. This new image is then stored in the
+   * model.
+   * @param mask        the pixels to sharpen
+   * @param oldFileName the name of the image that we want to apply the filter to
+   * @param newFileName the name that we store the new filtered image by
+   * @throws IllegalArgumentException if the image that we want to sharpen doesn't exist, or if
+   *                                  the mask is null or reaches outside of the image
+   */
+  void sharpen(Mask mask, String oldFileName, String newFileName) throws IllegalArgumentException;
+
+  /**
+   * Creates a new image which is the old image with a greyscale color transformation applied to
+   * only the pixels the mask selects. This new image is stored in the model.
+   * @param mask        the pixels to apply the greyscale to
+   * @param oldFileName the name of the image that we want to apply the greyscale to
+   * @param newFileName the name that we store the new greyscale image by
+   * @throws IllegalArgumentException if the image that we want to greyscale doesn't exist, or if
+   *                                  the mask is null or reaches outside of the image
+   */
+  void greyscaleColorTransformation(Mask mask, String oldFileName, String newFileName)
+          throws IllegalArgumentException;
+
+  /**
+   * Creates a new image which is the old image with a sepia color transformation applied to only
+   * the pixels the mask selects. This new image is stored in the model.
+   * @param mask        the pixels to apply the sepia to
+   * @param oldFileName the name of the image that we want to apply the sepia to
+   * @param newFileName the name that we store the new sepia image by
+   * @throws IllegalArgumentException if the image that we want to sepia doesn't exist, or if the
+   *                                  mask is null or reaches outside of the image
+   */
+  void sepia(Mask mask, String oldFileName, String newFileName) throws IllegalArgumentException;
+
 }
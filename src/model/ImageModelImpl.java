@@ -1,39 +1,156 @@
 package model;
 
-import java.util.HashMap;
+import java.util.function.UnaryOperator;
 
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
+import model.image.AbstractDerivedImage;
+import model.image.ColorMatrix;
+import model.image.DeferredImage;
+import model.image.GreyscaleOperation;
 import model.image.Image;
-import model.image.ImageImpl;
+import model.image.LazyImage;
+import model.image.LookupTable;
+import model.image.MappedImage;
+import model.image.Mask;
+import model.image.PointOperation;
+import model.image.RegionImage;
+import model.image.TiledImage;
+import model.metrics.Counter;
+import model.metrics.Histogram;
+import model.metrics.MetricHandles;
+import model.metrics.MetricsRegistry;
 
 /**
- * A class representing an implementation of the model which uses a hashmap to store a map of
- * image names to the images themselves.
+ * A class representing an implementation of the model which uses an image store to map image
+ * names to the images themselves, keeping them in memory within the budget of the store and
+ * spilling the rest to disk. Manipulations that only change each pixel on its own,
+ * namely greyscaling, brightening, darkening, and color transformations, are stored as deferred
+ * images, so a chain of them is fused and applied in a single pass the first time the result is
+ * read, and images in the chain that are never read are never created. In lazy mode, every
+ * other manipulation is also only recorded as a node in a graph of images, and its pixels are
+ * only computed once something such as saving, the GUI, or the histogram reads them. In tiled
+ * mode, images are split into tiles and every manipulation only computes the tiles of its result
+ * that are read, so reading part of an image only pays for that part. Every manipulation but
+ * downsizing can also be limited to a mask, in which case only the bounds of the mask are
+ * manipulated and every other pixel is shared with the old image. Every manipulation is counted
+ * and timed in the default metrics registry. A manipulation whose pixels are computed later is
+ * timed once they are computed, by the time spent computing them, and is not timed at all if
+ * they never are.
  */
-// INVARIANT: The hashmap contained within this model implementation cannot ever be null.
+// INVARIANT: The image store contained within this model implementation cannot ever be null.
 public class ImageModelImpl implements ImageModel {
 
-  private final HashMap<String, Image> images;
+  private static final double[][] BLUR = new double[][]
+      {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
+  private static final double[][] SHARPEN = new double[][]
+      {{-0.125, -0.125, -0.125, -0.125, -0.125},
+              {-0.125, 0.25, 0.25, 0.25, -0.125},
+              {-0.125, 0.25, 1, 0.25, -0.125},
+              {-0.125, 0.25, 0.25, 0.25, -0.125},
+              {-0.125, -0.125, -0.125, -0.125, -0.125}};
+  private static final double[][] GREYSCALE = new double[][]
+      {{0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722}};
+  private static final double[][] SEPIA = new double[][]
+      {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
+
+  private static final MetricHandles<String, OperationMetrics> METRICS =
+          new MetricHandles<>(OperationMetrics::new);
+
+  private final ImageStore images;
+  private final boolean lazy;
+  private final boolean tiled;
+
+  /**
+   * A class representing the series of the metrics that one manipulation is counted and timed in.
+   */
+  private static final class OperationMetrics {
+    private final Counter count;
+    private final Histogram duration;
+
+    /**
+     * A constructor which looks up the series of the specified registry for a manipulation.
+     *
+     * @param metrics   the registry to look the series up in
+     * @param operation the name of the manipulation
+     */
+    private OperationMetrics(MetricsRegistry metrics, String operation) {
+      this.count = metrics.counter("image_operations_total",
+              "Manipulations of images in the model", "operation", operation);
+      this.duration = metrics.histogram("image_operation_duration_seconds",
+              "Time taken by manipulations of images in the model",
+              MetricsRegistry.LATENCY_BUCKETS, "operation", operation);
+    }
+  }
 
   /**
-   * A constructor which takes in no arguments and instantiates the hashmap to an empty one.
+   * A constructor which takes in no arguments and instantiates the store to an empty one with no
+   * budget, with lazy mode turned off.
    */
   public ImageModelImpl() {
-    this.images = new HashMap<String, Image>();
+    this(false);
+  }
+
+  /**
+   * A constructor which instantiates the store to an empty one with no budget and sets whether
+   * manipulations are only computed once their results are read.
+   *
+   * @param lazy whether to run in lazy mode
+   */
+  public ImageModelImpl(boolean lazy) {
+    this(lazy, new ImageStore());
+  }
+
+  /**
+   * A constructor which uses the specified store to hold the images and sets whether
+   * manipulations are only computed once their results are read.
+   *
+   * @param lazy  whether to run in lazy mode
+   * @param store the store to keep the images in
+   * @throws IllegalArgumentException if the store is null
+   */
+  public ImageModelImpl(boolean lazy, ImageStore store) throws IllegalArgumentException {
+    this(lazy, false, store);
+  }
+
+  /**
+   * A constructor which uses the specified store to hold the images, sets whether manipulations
+   * are only computed once their results are read, and sets whether images are split into tiles
+   * that are each only computed once something reads them.
+   *
+   * @param lazy  whether to run in lazy mode
+   * @param tiled whether to run in tiled mode
+   * @param store the store to keep the images in
+   * @throws IllegalArgumentException if the store is null
+   */
+  public ImageModelImpl(boolean lazy, boolean tiled, ImageStore store)
+          throws IllegalArgumentException {
+    if (store == null) {
+      throw new IllegalArgumentException("Store cannot be null!");
+    }
+    this.images = store;
+    this.lazy = lazy;
+    this.tiled = tiled;
+  }
+
+  /**
+   * Returns the store that this model keeps its images in, so that its hits, misses, and spills
+   * can be reported.
+   *
+   * @return the image store of this model
+   */
+  public ImageStore getStore() {
+    return this.images;
   }
 
   @Override
   public Image getImage(String s) throws IllegalArgumentException {
     Image img = this.images.get(s);
-    Image imgCopy;
 
     if (img == null) {
       throw new IllegalArgumentException("This image doesn't exist!");
-    } else {
-      imgCopy = new ImageImpl(img.getWidth(), img.getHeight(), img.getMaxValue(), img.getPixels());
     }
-    return imgCopy;
+    return img;
   }
 
   @Override
@@ -41,86 +158,260 @@ public class ImageModelImpl implements ImageModel {
     if (img == null) {
       throw new IllegalArgumentException("Null image!");
     }
+    // images that are not already tiled or derived from another image are wrapped in tiles, and
+    // the results of manipulating them are then tiled as well, except for mapped images, whose
+    // pixels would otherwise be copied onto the heap one tile at a time
+    if (this.tiled && !(img instanceof TiledImage || img instanceof AbstractDerivedImage
+            || img instanceof MappedImage)) {
+      img = TiledImage.of(img);
+    }
     this.images.put(name, img);
   }
 
   @Override
   public void greyscaleComponent(GreyscaleComponentType type, String oldFileName,
                                  String newFileName) throws IllegalArgumentException {
-    Image img = this.getImage(oldFileName);
-    Image newImg = img.greyscaleComponent(type);
-    this.setImage(newFileName, newImg);
+    this.deferPointOperation("greyscale-component", new GreyscaleOperation(type),
+            this.getImage(oldFileName), newFileName);
   }
 
   @Override
   public void brighten(int value, String oldFileName, String newFileName)
           throws IllegalArgumentException {
     Image img = this.getImage(oldFileName);
-    Image newImg = img.brighten(value);
-    this.setImage(newFileName, newImg);
+    this.deferPointOperation("brighten", LookupTable.brighten(value, img.getMaxValue()), img,
+            newFileName);
   }
 
   @Override
   public void darken(int value, String oldFileName, String newFileName)
           throws IllegalArgumentException {
-    Image img = this.getImage(oldFileName);
-    Image newImg = img.darken(value);
-    this.setImage(newFileName, newImg);
+    this.deferPointOperation("darken", LookupTable.darken(value), this.getImage(oldFileName),
+            newFileName);
   }
 
   @Override
   public void flip(FlipType type, String oldFileName, String newFileName)
           throws IllegalArgumentException {
-    Image img = this.getImage(oldFileName);
-    Image newImg = img.flip(type);
-    this.setImage(newFileName, newImg);
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null!");
+    }
+    this.manipulate("flip", this.getImage(oldFileName), newFileName, i -> i.flip(type));
   }
 
   @Override
   public void blur(String oldFileName, String newFileName) throws IllegalArgumentException {
-    Image img = this.getImage(oldFileName);
-    double[][] kernel = new double[][]
-        {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
-    Image newImg = img.filter(kernel);
-    this.setImage(newFileName, newImg);
+    this.manipulate("blur", this.getImage(oldFileName), newFileName, i -> i.filter(BLUR));
   }
 
   @Override
   public void sharpen(String oldFileName, String newFileName) throws IllegalArgumentException {
-    Image img = this.getImage(oldFileName);
-    double[][] kernel = new double[][]
-        {{-0.125, -0.125, -0.125, -0.125, -0.125},
-                {-0.125, 0.25, 0.25, 0.25, -0.125},
-                {-0.125, 0.25, 1, 0.25, -0.125},
-                {-0.125, 0.25, 0.25, 0.25, -0.125},
-                {-0.125, -0.125, -0.125, -0.125, -0.125}};
-    Image newImg = img.filter(kernel);
-    this.setImage(newFileName, newImg);
+    this.manipulate("sharpen", this.getImage(oldFileName), newFileName,
+            i -> i.filter(SHARPEN));
   }
 
   @Override
   public void greyscaleColorTransformation(String oldFileName, String newFileName) {
     Image img = this.getImage(oldFileName);
-    double[][] matrix = new double[][]
-        {{0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722}};
-    Image newImg = img.colorTransformation(matrix);
-    this.setImage(newFileName, newImg);
+    this.deferPointOperation("greyscale", new ColorMatrix(GREYSCALE, img.getMaxValue()), img,
+            newFileName);
   }
 
   @Override
   public void sepia(String oldFileName, String newFileName) {
     Image img = this.getImage(oldFileName);
-    double[][] matrix = new double[][]
-        {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
-    Image newImg = img.colorTransformation(matrix);
-    this.setImage(newFileName, newImg);
+    this.deferPointOperation("sepia", new ColorMatrix(SEPIA, img.getMaxValue()), img,
+            newFileName);
   }
 
   @Override
   public void downsize(int widthPercent, int heightPercent, String oldFileName,
                        String newFileName) throws IllegalArgumentException {
+    if (widthPercent < 0 || widthPercent >= 100 || heightPercent < 0 || heightPercent >= 100) {
+      throw new IllegalArgumentException("Percent must be between 0 - 100");
+    }
+    this.manipulate("downsize", this.getImage(oldFileName), newFileName,
+            i -> i.downsize(widthPercent, heightPercent));
+  }
+
+  @Override
+  public void brighten(Mask mask, int value, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
     Image img = this.getImage(oldFileName);
-    Image newImg = img.downsize(widthPercent, heightPercent);
+    PointOperation operation = LookupTable.brighten(value, img.getMaxValue());
+    this.manipulateRegion("brighten", mask, img, newFileName,
+            i -> i.applyPointOperation(operation), 0);
+  }
+
+  @Override
+  public void darken(Mask mask, int value, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
+    PointOperation operation = LookupTable.darken(value);
+    this.manipulateRegion("darken", mask, this.getImage(oldFileName), newFileName,
+            i -> i.applyPointOperation(operation), 0);
+  }
+
+  @Override
+  public void greyscaleComponent(Mask mask, GreyscaleComponentType type, String oldFileName,
+                                 String newFileName) throws IllegalArgumentException {
+    PointOperation operation = new GreyscaleOperation(type);
+    this.manipulateRegion("greyscale-component", mask, this.getImage(oldFileName), newFileName,
+            i -> i.applyPointOperation(operation), 0);
+  }
+
+  @Override
+  public void flip(Mask mask, FlipType type, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null!");
+    }
+    this.manipulateRegion("flip", mask, this.getImage(oldFileName), newFileName,
+            i -> i.flip(type), 0);
+  }
+
+  @Override
+  public void blur(Mask mask, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
+    this.manipulateRegion("blur", mask, this.getImage(oldFileName), newFileName,
+            i -> i.filter(BLUR), BLUR.length / 2);
+  }
+
+  @Override
+  public void sharpen(Mask mask, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
+    this.manipulateRegion("sharpen", mask, this.getImage(oldFileName), newFileName,
+            i -> i.filter(SHARPEN), SHARPEN.length / 2);
+  }
+
+  @Override
+  public void greyscaleColorTransformation(Mask mask, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
+    Image img = this.getImage(oldFileName);
+    PointOperation operation = new ColorMatrix(GREYSCALE, img.getMaxValue());
+    this.manipulateRegion("greyscale", mask, img, newFileName,
+            i -> i.applyPointOperation(operation), 0);
+  }
+
+  @Override
+  public void sepia(Mask mask, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
+    Image img = this.getImage(oldFileName);
+    PointOperation operation = new ColorMatrix(SEPIA, img.getMaxValue());
+    this.manipulateRegion("sepia", mask, img, newFileName,
+            i -> i.applyPointOperation(operation), 0);
+  }
+
+  /**
+   * A helper method which stores an image with a manipulation applied to only the pixels the
+   * mask selects, or in lazy mode records it to be applied once the result is read. The image is
+   * passed in rather than looked up again, so that a manipulation only asks the store for it
+   * once.
+   *
+   * @param name        the name of the manipulation, as recorded by the flight recorder
+   * @param mask        the pixels to manipulate
+   * @param img         the image that we want to manipulate
+   * @param newFileName the name that we store the new image by
+   * @param operation   the manipulation, which keeps the size of the image
+   * @param margin      the number of pixels around each pixel that the manipulation reads
+   * @throws IllegalArgumentException if the mask is null or reaches outside of the image
+   */
+  private void manipulateRegion(String name, Mask mask, Image img, String newFileName,
+                                UnaryOperator<Image> operation, int margin)
+          throws IllegalArgumentException {
+    if (mask == null) {
+      throw new IllegalArgumentException("Mask cannot be null!");
+    }
+    // in lazy mode the size of the image may not be known until it is computed, so the region is
+    // only checked once the manipulation is run
+    if (!this.lazy && ((long) mask.getX() + mask.getWidth() > img.getWidth()
+            || (long) mask.getY() + mask.getHeight() > img.getHeight())) {
+      throw new IllegalArgumentException("Region is outside of the image!");
+    }
+    this.manipulate(name, img, newFileName, i -> RegionImage.apply(i, mask, operation, margin));
+  }
+
+  /**
+   * A helper method which stores an image with a point operation applied, without applying it
+   * yet. If that image is itself waiting on point operations, the new operation is fused onto the
+   * end of them.
+   *
+   * @param name        the name of the manipulation, as recorded by the flight recorder
+   * @param operation   the point operation to apply
+   * @param img         the image that we want to apply the operation to
+   * @param newFileName the name that we store the new image by
+   */
+  private void deferPointOperation(String name, PointOperation operation, Image img,
+                                   String newFileName) {
+    ImageOperationEvent event = ImageOperationEvent.start();
+    long start = System.nanoTime();
+    long computing = AbstractDerivedImage.getComputingNanos();
+    Image newImg;
+    if (img instanceof DeferredImage) {
+      newImg = ((DeferredImage) img).andThen(operation);
+    } else {
+      newImg = new DeferredImage(img, operation);
+    }
+    this.record(name, newImg, start, computing);
+    this.setImage(newFileName, newImg);
+    event.finish(name, img, newImg);
+  }
+
+  /**
+   * A helper method which stores an image with a manipulation applied, or in lazy mode records
+   * it to be applied once the result is read.
+   *
+   * @param name        the name of the manipulation, as recorded by the flight recorder
+   * @param img         the image that we want to manipulate
+   * @param newFileName the name that we store the new image by
+   * @param operation   the manipulation to apply to the image
+   */
+  private void manipulate(String name, Image img, String newFileName,
+                          UnaryOperator<Image> operation) {
+    ImageOperationEvent event = ImageOperationEvent.start();
+    long start = System.nanoTime();
+    long computing = AbstractDerivedImage.getComputingNanos();
+    Image newImg = this.derive(img, operation);
+    this.record(name, newImg, start, computing);
     this.setImage(newFileName, newImg);
+    event.finish(name, img, newImg);
+  }
+
+  /**
+   * A helper method which counts a manipulation in the default metrics registry and times it, by
+   * the time it took if its result has been computed, leaving out the time spent computing the
+   * derived images it read, or else by the time computing its result takes once it is computed.
+   *
+   * @param name      the name of the manipulation
+   * @param result    the result of the manipulation
+   * @param start     the time the manipulation started, from {@link System#nanoTime()}
+   * @param computing the nanoseconds spent computing derived images on this thread by the time
+   *                  the manipulation started
+   */
+  private void record(String name, Image result, long start, long computing) {
+    OperationMetrics metrics = METRICS.get(name);
+    metrics.count.inc();
+    if (result instanceof AbstractDerivedImage
+            && !((AbstractDerivedImage) result).isComputed()) {
+      ((AbstractDerivedImage) result).setTimer(nanos -> metrics.duration.observe(nanos / 1e9));
+    } else {
+      long nanos = System.nanoTime() - start
+              - (AbstractDerivedImage.getComputingNanos() - computing);
+      metrics.duration.observe(nanos / 1e9);
+    }
+  }
+
+  /**
+   * A helper method which applies a manipulation to an image, or in lazy mode records it to be
+   * applied once the result is read.
+   *
+   * @param img       the image to manipulate
+   * @param operation the manipulation to apply to the image
+   * @return the manipulated image, or the lazy image that will compute it
+   */
+  private Image derive(Image img, UnaryOperator<Image> operation) {
+    if (this.lazy) {
+      return new LazyImage(img, operation);
+    }
+    return operation.apply(img);
   }
 }
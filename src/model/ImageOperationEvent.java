@@ -0,0 +1,78 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import model.image.AbstractDerivedImage;
+import model.image.Image;
+
+/**
+ * A class representing a flight recorder event for one manipulation of the model, from reading
+ * the old image to storing the new one. The flight recorder stamps each event with its thread.
+ * The size of an image whose pixels have not been computed yet is not known without computing
+ * them, so it is recorded as -1 rather than changing when the manipulation is computed.
+ */
+@Name("imagemanipulator.ImageOperation")
+@Label("Image Operation")
+@Category({"Image Manipulator", "Model"})
+@Description("A manipulation of an image stored in the model")
+@StackTrace(false)
+final class ImageOperationEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Width")
+  int width;
+
+  @Label("Height")
+  int height;
+
+  @Label("Bytes Processed")
+  @DataAmount
+  long bytes;
+
+  @Label("Deferred")
+  @Description("Whether the pixels of the result are only computed once they are read")
+  boolean deferred;
+
+  /**
+   * Creates an event and begins timing it.
+   *
+   * @return the event
+   */
+  static ImageOperationEvent start() {
+    ImageOperationEvent event = new ImageOperationEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends this event and commits it with the specified operation and images if the flight
+   * recorder is recording it.
+   *
+   * @param operation the name of the manipulation
+   * @param source    the image that was manipulated
+   * @param result    the image that was stored
+   */
+  void finish(String operation, Image source, Image result) {
+    this.end();
+    if (!this.shouldCommit()) {
+      return;
+    }
+    this.operation = operation;
+    boolean known = !(source instanceof AbstractDerivedImage)
+            || ((AbstractDerivedImage) source).isComputed();
+    this.width = known ? source.getWidth() : -1;
+    this.height = known ? source.getHeight() : -1;
+    this.bytes = known ? 4L * this.width * this.height : -1;
+    this.deferred = result instanceof AbstractDerivedImage
+            && !((AbstractDerivedImage) result).isComputed();
+    this.commit();
+  }
+}
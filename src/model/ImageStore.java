@@ -0,0 +1,816 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import model.image.AbstractDerivedImage;
+import model.image.DeferredImage;
+import model.image.Image;
+import model.image.ImageImpl;
+import model.image.LazyImage;
+import model.image.MappedImage;
+import model.image.RegionImage;
+import model.image.TiledImage;
+import model.metrics.MetricsRegistry;
+
+/**
+ * A class representing a store of named images which keeps the pixels it holds in memory within a
+ * budget of bytes. When the budget is exceeded, the images that were used least recently are
+ * spilled to files on disk, and are read back in the next time they are asked for. The store
+ * counts its hits, the images it found in memory, its misses, the images it had to read back from
+ * disk, and how many images and bytes it has spilled. Images mapped from files take no space.
+ * Tiled images drop the tiles they have computed before they are spilled. Rows of pixels that
+ * several images share are only counted once, against the image that was used most recently, so
+ * an image derived from another without changing most of it barely counts against the budget.
+ *
+ * <p>An image whose pixels have not been computed yet, or which reads some of them from another
+ * image, keeps that other image in memory for as long as it is kept itself. It is therefore
+ * charged for every image it keeps, and the images it keeps are charged nothing on their own,
+ * since spilling them would free nothing while it still holds on to them. Spilling it writes its
+ * pixels out, which lets go of everything it kept. If an image cannot be written to disk, it is
+ * kept in memory even though that goes over the budget.</p>
+ *
+ * <p>Images are measured when they are stored or read back, and measured again only once a
+ * derived image they hold has computed its pixels, or a tiled image they hold has computed or
+ * dropped tiles. A store whose budget cannot be exceeded measures nothing until it is asked how
+ * many bytes it holds.</p>
+ *
+ * <p>When an image is replaced or spilled, the files of the mapped results of manipulations that
+ * nothing in memory keeps any more are deleted.</p>
+ */
+// INVARIANT: The map of entries is never null and is kept in order of least to most recent use.
+//            Every entry holds either an image or the file it was spilled to. If the store is
+//            bounded, every image and row kept by an entry in memory has exactly one holding,
+//            which lists the entries keeping it and is charged to the most recently used of
+//            those whose image no other entry keeps, the resident bytes are always the sum of
+//            the bytes of the holdings, and the set of unsettled entries holds those which hold
+//            an uncomputed derived image or a tiled image; otherwise, there are no holdings and
+//            nothing is charged. The set of released images is never null and holds the mapped images that were dropped from
+//            the store but were still kept by an image in memory when last checked.
+public final class ImageStore {
+
+  private static final int MAGIC = 0x494D4753;
+  private static final int HEADER_BYTES = 16;
+
+  private final long budget;
+  private final boolean bounded;
+  private final Path spillDirectory;
+  private final LinkedHashMap<String, Entry> entries;
+  private final Set<MappedImage> released;
+  private final Map<Object, Holding> holdings;
+  private final Set<Entry> unsettled;
+
+  private Path directory;
+  private long residentBytes;
+  private long clock;
+  private long hits;
+  private long misses;
+  private long spills;
+  private long spilledBytes;
+
+  /**
+   * A class representing a single named image in the store, which is either in memory or in a
+   * file on disk.
+   */
+  private static final class Entry {
+    private final List<Holding> held = new ArrayList<>();
+    private final List<Image> pending = new ArrayList<>();
+    private Image image;
+    private long bytes;
+    private long used;
+    private Path file;
+  }
+
+  /**
+   * A class representing an image or row of pixels kept in memory by the images of one or more
+   * entries, which is charged to exactly one of them.
+   */
+  private static final class Holding {
+    private final Object object;
+    private final List<Entry> holders = new ArrayList<>(2);
+    private long bytes;
+    private int named;
+    private Entry owner;
+
+    /**
+     * A constructor which creates a holding of an image or row that no entry holds yet.
+     *
+     * @param object the image or row held
+     */
+    private Holding(Object object) {
+      this.object = object;
+    }
+  }
+
+  /**
+   * A constructor which creates a store that never spills anything to disk.
+   */
+  public ImageStore() {
+    this(Long.MAX_VALUE, null);
+  }
+
+  /**
+   * A constructor which creates a store that keeps at most the specified number of bytes of
+   * pixels in memory, spilling the rest into the specified directory.
+   *
+   * @param budget         the most bytes of pixels to keep in memory
+   * @param spillDirectory the directory to spill images into, or null to use a new temporary
+   *                       directory the first time something is spilled
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public ImageStore(long budget, Path spillDirectory) throws IllegalArgumentException {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Budget cannot be negative!");
+    }
+    this.budget = budget;
+    this.bounded = budget != Long.MAX_VALUE;
+    this.spillDirectory = spillDirectory;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.released = newIdentitySet();
+    this.holdings = new IdentityHashMap<>();
+    this.unsettled = newIdentitySet();
+  }
+
+  /**
+   * Returns the image stored by the specified name, reading it back from disk if it was spilled.
+   *
+   * @param name the name of the image
+   * @return the image stored by that name, or null if there is none
+   * @throws IllegalStateException if the image was spilled and could not be read back
+   */
+  public synchronized Image get(String name) throws IllegalStateException {
+    Entry entry = this.entries.get(name);
+    if (entry == null) {
+      return null;
+    }
+
+    if (entry.image == null) {
+      this.misses++;
+      entry.image = this.readSpill(entry.file);
+      entry.used = ++this.clock;
+      this.deleteSpill(entry);
+      if (this.bounded) {
+        this.measure(entry);
+      }
+    } else {
+      this.hits++;
+      entry.used = ++this.clock;
+      if (this.bounded) {
+        this.use(entry);
+      }
+    }
+
+    this.evict(entry);
+    return entry.image;
+  }
+
+  /**
+   * Stores the image by the specified name, replacing any image already stored by that name.
+   *
+   * @param name  the name to store the image by
+   * @param image the image to store
+   * @throws IllegalArgumentException if the image is null
+   */
+  public synchronized void put(String name, Image image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Null image!");
+    }
+    Entry entry = this.entries.get(name);
+    if (entry == null) {
+      entry = new Entry();
+      this.entries.put(name, entry);
+    }
+    this.deleteSpill(entry);
+    Image replaced = entry.image;
+    entry.used = ++this.clock;
+    if (this.bounded) {
+      this.unmeasure(entry);
+      entry.image = image;
+      this.measure(entry);
+    } else {
+      entry.image = image;
+    }
+    this.release((replaced == image) ? null : replaced);
+    this.evict(entry);
+  }
+
+  /**
+   * Returns the number of images in the store, whether they are in memory or on disk.
+   *
+   * @return the number of images stored
+   */
+  public synchronized int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Returns the most bytes of pixels this store keeps in memory.
+   *
+   * @return the budget of this store
+   */
+  public long getBudget() {
+    return this.budget;
+  }
+
+  /**
+   * Returns the bytes of pixels that this store currently holds in memory.
+   *
+   * @return the resident bytes
+   */
+  public synchronized long getResidentBytes() {
+    if (this.bounded) {
+      this.settle();
+      return this.residentBytes;
+    }
+
+    // a store whose budget cannot be exceeded only measures its images when asked to, and then
+    // lets go of the measurements so that they keep nothing in memory
+    for (Entry entry : this.entries.values()) {
+      if (entry.image != null) {
+        this.measure(entry);
+      }
+    }
+    long bytes = this.residentBytes;
+    for (Entry entry : this.entries.values()) {
+      entry.held.clear();
+      entry.pending.clear();
+      entry.bytes = 0;
+    }
+    this.holdings.clear();
+    this.unsettled.clear();
+    this.residentBytes = 0;
+    return bytes;
+  }
+
+  /**
+   * Returns the number of times an image was asked for and found in memory.
+   *
+   * @return the number of hits
+   */
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Returns the number of times an image was asked for and had to be read back from disk.
+   *
+   * @return the number of misses
+   */
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Returns the number of times an image was spilled to disk.
+   *
+   * @return the number of spills
+   */
+  public synchronized long getSpills() {
+    return this.spills;
+  }
+
+  /**
+   * Returns the total number of bytes written to disk by spilling images.
+   *
+   * @return the spilled bytes
+   */
+  public synchronized long getSpilledBytes() {
+    return this.spilledBytes;
+  }
+
+  /**
+   * Reports the images held by this store in the specified metrics, in place of those of any
+   * store reported in them before. The metrics read this store whenever they are written, so it
+   * is kept for as long as they are, and only the store that lives as long as the program should
+   * be reported in the default metrics.
+   *
+   * @param metrics the metrics to report in
+   * @throws IllegalArgumentException if the metrics are null
+   */
+  public void registerMetrics(MetricsRegistry metrics) throws IllegalArgumentException {
+    if (metrics == null) {
+      throw new IllegalArgumentException("Metrics cannot be null!");
+    }
+    metrics.gauge("image_store_images", "Images held by the model", this::size);
+    metrics.gauge("image_store_resident_bytes", "Bytes of pixels held in memory by the model",
+            this::getResidentBytes);
+    metrics.counter("image_store_hits_total", "Images asked for and found in memory",
+            this::getHits);
+    metrics.counter("image_store_misses_total", "Images asked for and read back from disk",
+            this::getMisses);
+    metrics.counter("image_store_spills_total", "Images spilled to disk", this::getSpills);
+    metrics.counter("image_store_spilled_bytes_total", "Bytes written to disk by spilling images",
+            this::getSpilledBytes);
+  }
+
+  /**
+   * A helper method which finds everything that an image keeps in memory: the image itself, every
+   * image it keeps in turn, and the rows of pixels of those held on the heap, along with the bytes
+   * each one holds. Images whose pixels are mapped from a file rather than held on the heap hold
+   * nothing, tiled images hold the tiles they have computed, and images manipulated only within a
+   * region hold the pixels of that region.
+   *
+   * @param image the image whose references are followed
+   * @param found the images and rows found so far, compared by identity, with their bytes
+   */
+  private static void footprint(Image image, Map<Object, Long> found) {
+    if (found.containsKey(image)) {
+      return;
+    }
+    long bytes;
+    if (image instanceof RegionImage) {
+      // the pixels outside of the region are shared with the source, which is found below
+      bytes = ((RegionImage) image).getPatchBytes();
+    } else if (image instanceof AbstractDerivedImage || image instanceof MappedImage) {
+      bytes = 0;
+    } else if (image instanceof TiledImage) {
+      bytes = ((TiledImage) image).getCachedBytes();
+    } else if (image instanceof ImageImpl) {
+      bytes = 0;
+      Set<Object> rows = newIdentitySet();
+      ((ImageImpl) image).countBytes(rows);
+      for (Object row : rows) {
+        found.putIfAbsent(row, 4L * ((int[]) row).length);
+      }
+    } else {
+      bytes = 4L * image.getWidth() * image.getHeight();
+    }
+    found.put(image, bytes);
+
+    for (Image kept : keptBy(image)) {
+      footprint(kept, found);
+    }
+  }
+
+  /**
+   * A helper method which returns the images that an image holds on to directly: the pixels a
+   * derived image has computed, the image it is derived from until then, and the image a tiled
+   * image wraps or computes its tiles from.
+   *
+   * @param image the image whose references are followed
+   * @return the images it keeps in memory, which may be empty
+   */
+  private static List<Image> keptBy(Image image) {
+    List<Image> kept = new ArrayList<>(2);
+    if (image instanceof AbstractDerivedImage) {
+      kept.add(((AbstractDerivedImage) image).getComputedImage());
+    }
+    if (image instanceof DeferredImage) {
+      kept.add(((DeferredImage) image).getSource());
+    } else if (image instanceof LazyImage) {
+      kept.add(((LazyImage) image).getParent());
+    } else if (image instanceof RegionImage) {
+      kept.add(((RegionImage) image).getSource());
+    } else if (image instanceof TiledImage) {
+      kept.add(((TiledImage) image).getSource());
+      kept.add(((TiledImage) image).getParent());
+    }
+    kept.removeIf(Objects::isNull);
+    return kept;
+  }
+
+  /**
+   * A helper method which adds every image that an image keeps in memory, directly or through
+   * other images, to a set, not counting the image itself.
+   *
+   * @param image the image whose references are followed
+   * @param kept  the images found so far, compared by identity
+   */
+  private static void collectKept(Image image, Set<Object> kept) {
+    for (Image next : keptBy(image)) {
+      if (kept.add(next)) {
+        collectKept(next, kept);
+      }
+    }
+  }
+
+  /**
+   * A helper method which creates an empty set which compares what it holds by identity.
+   *
+   * @param <T> the type of what the set holds
+   * @return the empty set
+   */
+  private static <T> Set<T> newIdentitySet() {
+    return Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * A helper method which returns whether the image of an entry is kept in memory by the image of
+   * another entry, in which case it is charged nothing, since spilling it would free nothing.
+   *
+   * @param entry the entry to check, which must be measured
+   * @return true if another entry keeps its image, false otherwise
+   */
+  private boolean isKept(Entry entry) {
+    Holding holding = this.holdings.get(entry.image);
+    return holding != null && holding.holders.size() > holding.named;
+  }
+
+  /**
+   * A helper method which charges what a holding holds to the specified entry in place of the
+   * entry it was charged to before, if any.
+   *
+   * @param holding the holding being charged
+   * @param owner   the entry to charge it to
+   */
+  private void own(Holding holding, Entry owner) {
+    if (holding.owner == owner) {
+      return;
+    }
+    if (holding.owner == null) {
+      this.residentBytes += holding.bytes;
+    } else {
+      holding.owner.bytes -= holding.bytes;
+    }
+    holding.owner = owner;
+    owner.bytes += holding.bytes;
+  }
+
+  /**
+   * A helper method which charges what a holding holds to the entry that was used most recently
+   * out of those which hold it and are not kept by another entry.
+   *
+   * @param holding the holding being charged
+   */
+  private void assign(Holding holding) {
+    Entry owner = null;
+    for (Entry entry : holding.holders) {
+      if (!this.isKept(entry) && (owner == null || entry.used > owner.used)) {
+        owner = entry;
+      }
+    }
+    this.own(holding, (owner == null) ? holding.holders.get(0) : owner);
+  }
+
+  /**
+   * A helper method which returns the entries named by an image that another entry holds, whose
+   * images are therefore kept by that entry.
+   *
+   * @param holding the holding of the image
+   * @param entry   the entry that holds it
+   * @param named   the set to add the entries to
+   */
+  private static void collectNamed(Holding holding, Entry entry, Set<Entry> named) {
+    if (holding.named > 0 && holding.object != entry.image) {
+      for (Entry holder : holding.holders) {
+        if (holder.image == holding.object) {
+          named.add(holder);
+        }
+      }
+    }
+  }
+
+  /**
+   * A helper method which measures what the image of an entry keeps in memory and charges it
+   * everything it holds that it was used more recently than the entry charged for it so far.
+   * The entries whose images it keeps stop being charged for anything.
+   *
+   * @param entry the entry to measure, which holds an image and is not measured
+   */
+  private void measure(Entry entry) {
+    Map<Object, Long> found = new IdentityHashMap<>();
+    footprint(entry.image, found);
+
+    Set<Entry> kept = newIdentitySet();
+    for (Map.Entry<Object, Long> object : found.entrySet()) {
+      Holding holding = this.holdings.computeIfAbsent(object.getKey(), Holding::new);
+      long bytes = object.getValue();
+      if (holding.owner != null && holding.bytes != bytes) {
+        // a tiled image has computed or dropped tiles since another entry measured it
+        holding.owner.bytes += bytes - holding.bytes;
+        this.residentBytes += bytes - holding.bytes;
+      }
+      holding.bytes = bytes;
+      holding.holders.add(entry);
+      if (holding.object == entry.image) {
+        holding.named++;
+      }
+      entry.held.add(holding);
+      collectNamed(holding, entry, kept);
+
+      if (holding.object instanceof TiledImage
+              || holding.object instanceof AbstractDerivedImage
+              && !((AbstractDerivedImage) holding.object).isComputed()) {
+        entry.pending.add((Image) holding.object);
+      }
+    }
+    if (!entry.pending.isEmpty()) {
+      this.unsettled.add(entry);
+    }
+
+    boolean owning = !this.isKept(entry);
+    for (Holding holding : entry.held) {
+      if (holding.owner == null || owning && entry.used > holding.owner.used) {
+        this.own(holding, entry);
+      }
+    }
+    for (Entry other : kept) {
+      for (Holding holding : other.held) {
+        if (holding.owner == other) {
+          this.assign(holding);
+        }
+      }
+    }
+  }
+
+  /**
+   * A helper method which stops charging an entry for anything, charging what else still holds
+   * to the entries that hold it. The entries whose images it kept are charged again.
+   *
+   * @param entry the entry to stop measuring
+   */
+  private void unmeasure(Entry entry) {
+    Set<Entry> released = newIdentitySet();
+    for (Holding holding : entry.held) {
+      holding.holders.remove(entry);
+      if (holding.object == entry.image) {
+        holding.named--;
+      }
+      collectNamed(holding, entry, released);
+    }
+    for (Holding holding : entry.held) {
+      if (holding.holders.isEmpty()) {
+        this.holdings.remove(holding.object);
+        this.residentBytes -= holding.bytes;
+        entry.bytes -= holding.bytes;
+        holding.owner = null;
+      } else if (holding.owner == entry) {
+        this.assign(holding);
+      }
+    }
+    entry.held.clear();
+    entry.pending.clear();
+    this.unsettled.remove(entry);
+
+    for (Entry other : released) {
+      for (Holding holding : other.held) {
+        this.assign(holding);
+      }
+    }
+  }
+
+  /**
+   * A helper method which charges an entry that was just used for everything it holds, unless
+   * another entry keeps its image.
+   *
+   * @param entry the entry that was used, which must be measured
+   */
+  private void use(Entry entry) {
+    if (!this.isKept(entry)) {
+      for (Holding holding : entry.held) {
+        this.own(holding, entry);
+      }
+    }
+  }
+
+  /**
+   * A helper method which measures again the entries holding a derived image whose pixels have
+   * been computed, or a tiled image whose tiles have changed, since they were last measured.
+   * Computing the pixels of a derived image lets go of the images it was derived from.
+   */
+  private void settle() {
+    for (Entry entry : new ArrayList<>(this.unsettled)) {
+      boolean changed = false;
+      for (Image image : entry.pending) {
+        if (image instanceof TiledImage) {
+          Holding holding = this.holdings.get(image);
+          changed = holding == null || holding.bytes != ((TiledImage) image).getCachedBytes();
+        } else {
+          changed = ((AbstractDerivedImage) image).isComputed();
+        }
+        if (changed) {
+          break;
+        }
+      }
+      if (changed) {
+        this.unmeasure(entry);
+        this.measure(entry);
+      }
+    }
+  }
+
+  /**
+   * A helper method which spills the least recently used images until the store is within its
+   * budget, never spilling the entry that was just used. A store whose budget cannot be exceeded
+   * measures nothing.
+   *
+   * @param current the entry that was just used
+   */
+  private void evict(Entry current) {
+    if (!this.bounded) {
+      return;
+    }
+    Set<Entry> failed = newIdentitySet();
+    this.settle();
+    while (this.residentBytes > this.budget) {
+      // the tiles a tiled image has computed can be computed again, so they are dropped before
+      // it is written to disk, even when another image keeps it and it is charged nothing
+      Entry victim = null;
+      for (Entry entry : this.entries.values()) {
+        if (entry != current && !failed.contains(entry) && (entry.bytes > 0
+                || entry.image instanceof TiledImage
+                && ((TiledImage) entry.image).getCachedBytes() > 0)) {
+          victim = entry;
+          break;
+        }
+      }
+      if (victim == null) {
+        return;
+      }
+      if (victim.image instanceof TiledImage && ((TiledImage) victim.image).discardTiles() > 0) {
+        this.unmeasure(victim);
+        this.measure(victim);
+        continue;
+      }
+      try {
+        victim.file = this.writeSpill(victim.image);
+      } catch (IOException e) {
+        failed.add(victim);
+        continue;
+      }
+      this.spills++;
+      this.spilledBytes += HEADER_BYTES + 4L * victim.image.getWidth() * victim.image.getHeight();
+      Image spilled = victim.image;
+      this.unmeasure(victim);
+      victim.image = null;
+      this.release(spilled);
+      // writing the pixels out may have computed derived images that other entries hold
+      this.settle();
+    }
+  }
+
+  /**
+   * A helper method which deletes the files of the mapped images that an image no longer in
+   * memory kept, directly or through other images, unless an image still in memory keeps them
+   * too, so that the results of manipulations do not pile up on disk until the program exits.
+   * Mapped images that are still kept are remembered, and deleted by a later call once nothing
+   * keeps them any more, such as when the image keeping them has been computed.
+   *
+   * @param dropped the image that was replaced or spilled, or null if none was
+   */
+  private void release(Image dropped) {
+    if (dropped != null) {
+      Set<Object> dropping = newIdentitySet();
+      dropping.add(dropped);
+      collectKept(dropped, dropping);
+      for (Object image : dropping) {
+        if (image instanceof MappedImage) {
+          this.released.add((MappedImage) image);
+        }
+      }
+    }
+    if (this.released.isEmpty()) {
+      return;
+    }
+
+    Set<Object> held = newIdentitySet();
+    for (Entry entry : this.entries.values()) {
+      if (entry.image != null && held.add(entry.image)) {
+        collectKept(entry.image, held);
+      }
+    }
+    Iterator<MappedImage> it = this.released.iterator();
+    while (it.hasNext()) {
+      MappedImage image = it.next();
+      if (!held.contains(image)) {
+        image.delete();
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * A helper method which writes the pixels of an image to a new spill file, as a header of four
+   * ints holding a magic number, the width, the height, and the max value, followed by every
+   * packed pixel row by row.
+   *
+   * @param image the image to spill
+   * @return the file the image was written to
+   * @throws IOException if the file could not be written
+   */
+  private Path writeSpill(Image image) throws IOException {
+    if (this.directory == null) {
+      this.directory = (this.spillDirectory == null)
+              ? Files.createTempDirectory("image-store") : this.spillDirectory;
+      this.directory.toFile().deleteOnExit();
+    }
+    Path file = Files.createTempFile(this.directory, "spill", ".bin");
+    file.toFile().deleteOnExit();
+
+    int width = image.getWidth();
+    int height = image.getHeight();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(HEADER_BYTES, 4 * width));
+      IntBuffer ints = buffer.asIntBuffer();
+      buffer.putInt(MAGIC).putInt(width).putInt(height).putInt(image.getMaxValue()).flip();
+      writeFully(channel, buffer);
+
+      int[] row = new int[width];
+      for (int j = 0; j < height; j++) {
+        image.getRGB(0, j, width, 1, row, 0, width);
+        buffer.clear();
+        ints.clear();
+        ints.put(row);
+        buffer.limit(4 * width);
+        writeFully(channel, buffer);
+      }
+    } catch (IOException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+    return file;
+  }
+
+  /**
+   * A helper method which writes everything left in a buffer to a channel.
+   *
+   * @param channel the channel to write to
+   * @param buffer  the buffer to write
+   * @throws IOException if the write fails
+   */
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * A helper method which reads an image back from a spill file.
+   *
+   * @param file the spill file to read
+   * @return the image that was spilled to the file
+   * @throws IllegalStateException if the file could not be read or is not a spill file
+   */
+  private Image readSpill(Path file) throws IllegalStateException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      readFully(channel, header);
+      header.flip();
+      if (header.getInt() != MAGIC) {
+        throw new IllegalStateException("Spilled image is corrupted!");
+      }
+      int width = header.getInt();
+      int height = header.getInt();
+      int maxValue = header.getInt();
+
+      int[][] rows = new int[height][width];
+      ByteBuffer buffer = ByteBuffer.allocateDirect(4 * width);
+      IntBuffer ints = buffer.asIntBuffer();
+      for (int j = 0; j < height; j++) {
+        buffer.clear();
+        readFully(channel, buffer);
+        ints.clear();
+        ints.get(rows[j]);
+      }
+      return new ImageImpl(rows, maxValue);
+    } catch (IOException e) {
+      throw new IllegalStateException("Spilled image could not be read back!");
+    }
+  }
+
+  /**
+   * A helper method which fills a buffer from a channel.
+   *
+   * @param channel the channel to read from
+   * @param buffer  the buffer to fill
+   * @throws IOException if the read fails or the channel ends before the buffer is full
+   */
+  private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new IOException("Spill file ended early!");
+      }
+    }
+  }
+
+  /**
+   * A helper method which deletes the spill file of an entry, if it has one.
+   *
+   * @param entry the entry whose spill file is deleted
+   */
+  private void deleteSpill(Entry entry) {
+    if (entry.file != null) {
+      try {
+        Files.deleteIfExists(entry.file);
+      } catch (IOException e) {
+        // the file is deleted when the program exits anyway
+      }
+      entry.file = null;
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package model.enums;
+
+/**
+ * An enumeration representing the different ways that a kernel treats the pixels past the edges
+ * of an image: as black, as the nearest edge pixel, as the image reflected about its edge pixels,
+ * or as the image repeated from the opposite edge.
+ */
+public enum BorderMode { ZERO, CLAMP, MIRROR, WRAP }
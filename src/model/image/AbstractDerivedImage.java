@@ -0,0 +1,177 @@
+package model.image;
+
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import model.enums.BorderMode;
+import model.enums.FlipType;
+import model.enums.GreyscaleComponentType;
+
+/**
+ * An abstract class representing an image which is derived from other images, but whose pixels
+ * are not computed until something first reads them. Every method that needs the pixels computes
+ * them once and then works on the computed image from then on. How long computing them takes can
+ * be reported once they are computed, not counting the time spent computing the other derived
+ * images that they are computed from.
+ */
+public abstract class AbstractDerivedImage implements Image {
+
+  // the total time that each thread has spent computing derived images, so that a computation
+  // can leave out the time spent computing the images it reads
+  private static final ThreadLocal<long[]> COMPUTING_NANOS =
+          ThreadLocal.withInitial(() -> new long[1]);
+
+  private volatile LongConsumer timer;
+
+  /**
+   * Returns the image holding the pixels of this image, computing it the first time this is
+   * called.
+   *
+   * @return the computed image
+   */
+  protected abstract Image computed();
+
+  /**
+   * Returns whether the pixels of this image have been computed yet.
+   *
+   * @return true if the pixels have been computed, false otherwise
+   */
+  public abstract boolean isComputed();
+
+  /**
+   * Sets what is told how many nanoseconds computing the pixels of this image took, once they are
+   * computed, not counting the time spent computing the derived images they were computed from.
+   * It is never told anything if the pixels have already been computed.
+   *
+   * @param timer what is told how long computing the pixels took, or null to tell nothing
+   */
+  public final void setTimer(LongConsumer timer) {
+    this.timer = timer;
+  }
+
+  /**
+   * Returns the total number of nanoseconds that the current thread has spent computing the
+   * pixels of derived images, so that timing some work can leave out the time spent computing the
+   * derived images it reads, which are timed on their own.
+   *
+   * @return the nanoseconds spent computing derived images on this thread
+   */
+  public static long getComputingNanos() {
+    return COMPUTING_NANOS.get()[0];
+  }
+
+  /**
+   * Computes the image holding the pixels of this image, and tells the timer of this image how
+   * long that took, not counting the time spent computing other derived images meanwhile.
+   *
+   * @param computation the computation of the pixels
+   * @return the computed image
+   */
+  protected final Image time(Supplier<Image> computation) {
+    long[] computing = COMPUTING_NANOS.get();
+    long before = computing[0];
+    long start = System.nanoTime();
+    Image computed = computation.get();
+    long elapsed = System.nanoTime() - start;
+    long nested = computing[0] - before;
+    computing[0] = before + elapsed;
+
+    LongConsumer timer = this.timer;
+    if (timer != null) {
+      this.timer = null;
+      timer.accept(elapsed - nested);
+    }
+    return computed;
+  }
+
+  /**
+   * Returns the image holding the pixels of this image if they have been computed, without
+   * computing them otherwise.
+   *
+   * @return the computed image, or null if the pixels have not been computed yet
+   */
+  public final Image getComputedImage() {
+    return this.isComputed() ? this.computed() : null;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.computed().getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return this.computed().getHeight();
+  }
+
+  @Override
+  public int getMaxValue() {
+    return this.computed().getMaxValue();
+  }
+
+  @Override
+  public Pixel[][] getPixels() {
+    return this.computed().getPixels();
+  }
+
+  @Override
+  public int getRGB(int x, int y) throws IllegalArgumentException {
+    return this.computed().getRGB(x, y);
+  }
+
+  @Override
+  public void getRGB(int x, int y, int w, int h, int[] dst, int offset, int scansize)
+          throws IllegalArgumentException {
+    this.computed().getRGB(x, y, w, h, dst, offset, scansize);
+  }
+
+  @Override
+  public Image greyscaleComponent(GreyscaleComponentType type) throws IllegalArgumentException {
+    return this.computed().greyscaleComponent(type);
+  }
+
+  @Override
+  public Image flip(FlipType type) throws IllegalArgumentException {
+    return this.computed().flip(type);
+  }
+
+  @Override
+  public Image brighten(int value) throws IllegalArgumentException {
+    return this.computed().brighten(value);
+  }
+
+  @Override
+  public Image darken(int value) throws IllegalArgumentException {
+    return this.computed().darken(value);
+  }
+
+  @Override
+  public Image applyLookupTable(LookupTable table) throws IllegalArgumentException {
+    return this.computed().applyLookupTable(table);
+  }
+
+  @Override
+  public Image applyPointOperation(PointOperation operation) throws IllegalArgumentException {
+    return this.computed().applyPointOperation(operation);
+  }
+
+  @Override
+  public Image filter(double[][] kernel) throws IllegalArgumentException {
+    return this.computed().filter(kernel);
+  }
+
+  @Override
+  public Image filter(double[][] kernel, BorderMode mode) throws IllegalArgumentException {
+    return this.computed().filter(kernel, mode);
+  }
+
+  @Override
+  public Image colorTransformation(double[][] matrix) throws IllegalArgumentException {
+    return this.computed().colorTransformation(matrix);
+  }
+
+  @Override
+  public Image downsize(int widthPercent, int heightPercent) throws IllegalArgumentException {
+    return this.computed().downsize(widthPercent, heightPercent);
+  }
+}
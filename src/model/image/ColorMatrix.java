@@ -0,0 +1,97 @@
+package model.image;
+
+/**
+ * A class representing a color transformation, which computes each component of a pixel as a
+ * weighted sum of the red, green, and blue components of the original pixel, using the rows of a
+ * 3 by 3 matrix as the weights. The resulting components are capped between 0 and the max value.
+ */
+// INVARIANT: The weights are copied out of the matrix on construction and are never changed, and
+//            the limit is always between 1 and 255.
+public final class ColorMatrix implements PointOperation {
+
+  private final double m00;
+  private final double m01;
+  private final double m02;
+  private final double m10;
+  private final double m11;
+  private final double m12;
+  private final double m20;
+  private final double m21;
+  private final double m22;
+  private final int limit;
+
+  /**
+   * A constructor which creates a color transformation from the specified matrix, for images
+   * with the specified max value.
+   *
+   * @param matrix   the 3 by 3 matrix whose rows are the weights for the red, green, and blue
+   *                 components of the result
+   * @param maxValue the max value that a component can go up to
+   * @throws IllegalArgumentException if the matrix is null or not 3 by 3, or if the max value is
+   *                                  not a positive integer
+   */
+  public ColorMatrix(double[][] matrix, int maxValue) throws IllegalArgumentException {
+    if (matrix == null) {
+      throw new IllegalArgumentException("Kernel is null!");
+    }
+
+    // ensuring that the matrix 3 by 3
+    if (matrix.length != 3 || matrix[0] == null || matrix[1] == null || matrix[2] == null
+            || matrix[0].length != 3 || matrix[1].length != 3 || matrix[2].length != 3) {
+      throw new IllegalArgumentException("Kernel must be a square matrix and must have an odd " +
+              "length!");
+    }
+    if (maxValue <= 0) {
+      throw new IllegalArgumentException("Max value must be positive!");
+    }
+
+    this.m00 = matrix[0][0];
+    this.m01 = matrix[0][1];
+    this.m02 = matrix[0][2];
+    this.m10 = matrix[1][0];
+    this.m11 = matrix[1][1];
+    this.m12 = matrix[1][2];
+    this.m20 = matrix[2][0];
+    this.m21 = matrix[2][1];
+    this.m22 = matrix[2][2];
+    this.limit = Math.min(maxValue, 255);
+  }
+
+  // only the identity matrix leaves every component as it was, since the components are already
+  // within the limits they are clamped to
+  @Override
+  public boolean isIdentity() {
+    return this.m00 == 1 && this.m11 == 1 && this.m22 == 1 && this.m01 == 0 && this.m02 == 0
+            && this.m10 == 0 && this.m12 == 0 && this.m20 == 0 && this.m21 == 0;
+  }
+
+  @Override
+  public int apply(int rgb) {
+    int r = (rgb >> 16) & 0xFF;
+    int g = (rgb >> 8) & 0xFF;
+    int b = rgb & 0xFF;
+
+    int red = (int) (Math.round(r * this.m00) + (g * this.m01) + (b * this.m02));
+    int green = (int) (Math.round(r * this.m10) + (g * this.m11) + (b * this.m12));
+    int blue = (int) (Math.round(r * this.m20) + (g * this.m21) + (b * this.m22));
+    return (this.enforceConstraints(red) << 16) | (this.enforceConstraints(green) << 8)
+            | this.enforceConstraints(blue);
+  }
+
+  /**
+   * Ensures that a component of a pixel is within the acceptable range by capping its upper
+   * and lower limits based on the max value.
+   *
+   * @param i the value of one of the components of a pixel
+   * @return the value to use for the component based on the constraints
+   */
+  private int enforceConstraints(int i) {
+    if (i < 0) {
+      return 0;
+    } else if (i > this.limit) {
+      return this.limit;
+    } else {
+      return i;
+    }
+  }
+}
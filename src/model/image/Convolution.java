@@ -0,0 +1,593 @@
+package model.image;
+
+import java.util.Arrays;
+
+import model.enums.BorderMode;
+
+/**
+ * A class containing the ways that a kernel can be applied to the packed rows of an image. How
+ * the pixels past the edges of the image are treated is chosen by a {@link BorderMode}. Pixels
+ * whose whole neighborhood lies inside the image are filtered by a loop with no bounds checks at
+ * all, and only the pixels near the edges look up where each of their neighbors comes from.
+ *
+ * <p>Kernels that are at most {@link #LEGACY_KERNEL_SIZE} wide, such as the blur and sharpen
+ * kernels, keep the original behavior of truncating each component to an int after every
+ * multiply-add, so their results are unchanged. Wider kernels are accumulated at full precision
+ * and rounded once, which lets a separable kernel be applied as two one dimensional passes that
+ * cost O(k) per pixel instead of O(k^2). Kernels that are at least {@link #FOURIER_KERNEL_SIZE}
+ * wide and not separable are instead applied by multiplying Fourier transforms, one block of the
+ * image at a time, which gives the same result to within rounding.</p>
+ */
+final class Convolution {
+
+  /**
+   * The widest kernel that is applied with the original per multiply-add truncation.
+   */
+  static final int LEGACY_KERNEL_SIZE = 5;
+
+  /**
+   * The narrowest kernel that is applied using Fourier transforms when it is not separable.
+   */
+  static final int FOURIER_KERNEL_SIZE = 9;
+
+  /**
+   * The number of rows of a band that a separable kernel is applied to at a time, which bounds
+   * the memory used for the intermediate results.
+   */
+  private static final int CHUNK_ROWS = 64;
+
+  private final int[][] rows;
+  private final int width;
+  private final int height;
+  private final int limit;
+
+  /**
+   * A constructor which sets up a convolution over the specified rows of packed pixels.
+   *
+   * @param rows   the rows of packed pixels being filtered
+   * @param width  the width of the image
+   * @param height the height of the image
+   * @param limit  the maximum value that a component of a filtered pixel is capped to
+   */
+  Convolution(int[][] rows, int width, int height, int limit) {
+    this.rows = rows;
+    this.width = width;
+    this.height = height;
+    this.limit = limit;
+  }
+
+  /**
+   * Checks that a kernel and border mode can be applied to an image.
+   *
+   * @param kernel the kernel to check
+   * @param mode   the border mode to check
+   * @throws IllegalArgumentException if the kernel or border mode is null, or if the kernel is
+   *                                  not a square matrix with an odd length
+   */
+  static void checkKernel(double[][] kernel, BorderMode mode) throws IllegalArgumentException {
+    if (mode == null) {
+      throw new IllegalArgumentException("Border mode is null!");
+    }
+    if (kernel == null) {
+      throw new IllegalArgumentException("Kernel is null!");
+    }
+    if ((kernel.length != kernel[0].length) || (kernel.length % 2 != 1)) {
+      throw new IllegalArgumentException("Kernel must be a square matrix and must have an odd " +
+              "length!");
+    }
+
+    for (double[] row : kernel) {
+      if (row == null || row.length != kernel.length) {
+        throw new IllegalArgumentException("Kernel must be a square matrix and must have an odd " +
+                "length!");
+      }
+    }
+  }
+
+  /**
+   * Applies the kernel to every pixel of the image, choosing the fastest way of doing so that
+   * gives the expected result for a kernel of its size.
+   *
+   * @param kernel the square, odd sized kernel to apply
+   * @param mode   how the pixels past the edges of the image are treated
+   * @return the rows of packed pixels of the filtered image
+   */
+  int[][] apply(double[][] kernel, BorderMode mode) {
+    int[][] newRows = new int[this.height][this.width];
+    int half = kernel.length / 2;
+    int[] columns = borderMap(this.width, half, mode);
+    int[] rowMap = borderMap(this.height, half, mode);
+    boolean legacy = kernel.length <= LEGACY_KERNEL_SIZE;
+
+    double[][] factors = legacy ? null : separate(kernel);
+    if (factors != null) {
+      this.applySeparable(factors[0], factors[1], columns, rowMap, newRows);
+      return newRows;
+    }
+    if (!legacy && kernel.length >= FOURIER_KERNEL_SIZE) {
+      this.applyFourier(kernel, columns, rowMap, newRows);
+      return newRows;
+    }
+
+    RowExecutor.getDefault().forEachRow(this.width, this.height, (start, end) -> {
+      for (int j = start; j < end; j++) {
+        int[] newRow = newRows[j];
+        boolean interiorRow = j >= half && j < this.height - half;
+        for (int i = 0; i < this.width; i++) {
+          boolean interior = interiorRow && i >= half && i < this.width - half;
+          if (legacy) {
+            newRow[i] = interior ? this.applyKernelToInteriorPixel(i, j, kernel)
+                    : this.applyKernelToEdgePixel(i, j, kernel, columns, rowMap);
+          } else {
+            newRow[i] = interior ? this.applyWideKernelToInteriorPixel(i, j, kernel)
+                    : this.applyWideKernelToEdgePixel(i, j, kernel, columns, rowMap);
+          }
+        }
+      }
+    });
+    return newRows;
+  }
+
+  /**
+   * Builds a table of where each position along one side of the image, including the positions
+   * that lie past either edge by up to the specified margin, takes its pixel from. The entry for
+   * position p is at index p + margin, and is -1 if that position contributes nothing.
+   *
+   * @param length the number of pixels along this side of the image
+   * @param margin how far past each edge the table reaches
+   * @param mode   how the positions past the edges of the image are treated
+   * @return the table mapping every position to the position it takes its pixel from
+   */
+  static int[] borderMap(int length, int margin, BorderMode mode) {
+    int[] map = new int[length + 2 * margin];
+    for (int index = 0; index < map.length; index++) {
+      int p = index - margin;
+      if (p >= 0 && p < length) {
+        map[index] = p;
+        continue;
+      }
+      switch (mode) {
+        case ZERO:
+          map[index] = -1;
+          break;
+        case CLAMP:
+          map[index] = (p < 0) ? 0 : length - 1;
+          break;
+        case MIRROR:
+          // reflecting about the edge pixels, so that the edge pixel itself is not repeated
+          if (length == 1) {
+            map[index] = 0;
+          } else {
+            int period = 2 * (length - 1);
+            int q = Math.abs(p) % period;
+            map[index] = (q < length) ? q : period - q;
+          }
+          break;
+        case WRAP:
+          map[index] = ((p % length) + length) % length;
+          break;
+        default:
+          throw new IllegalArgumentException("Invalid border mode!");
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Applies a small kernel to a pixel whose whole neighborhood lies inside the image. Each
+   * component is truncated to an int after every multiply-add, exactly as it always has been for
+   * small kernels.
+   *
+   * @param i      the column of the pixel we are filtering
+   * @param j      the row of the pixel we are filtering
+   * @param kernel the matrix that provides us with the math necessary to apply the filter
+   * @return the new packed pixel at the specified location after the filter has been applied
+   */
+  private int applyKernelToInteriorPixel(int i, int j, double[][] kernel) {
+    int red = 0;
+    int green = 0;
+    int blue = 0;
+
+    int half = kernel.length / 2;
+    for (int r = 0; r < kernel.length; r++) {
+      int x = i + r - half;
+      double[] weights = kernel[r];
+      for (int c = 0; c < kernel.length; c++) {
+        int p = this.rows[j + c - half][x];
+        red += weights[c] * ((p >> 16) & 0xFF);
+        green += weights[c] * ((p >> 8) & 0xFF);
+        blue += weights[c] * (p & 0xFF);
+      }
+    }
+    return this.pack(red, green, blue);
+  }
+
+  /**
+   * Applies a small kernel to a pixel near the edges of the image, looking up where each of its
+   * neighbors comes from. Neighbors that contribute nothing are skipped, which gives the same
+   * result as adding zero to each component.
+   *
+   * @param i       the column of the pixel we are filtering
+   * @param j       the row of the pixel we are filtering
+   * @param kernel  the matrix that provides us with the math necessary to apply the filter
+   * @param columns the table of where each column takes its pixels from
+   * @param rowMap  the table of where each row takes its pixels from
+   * @return the new packed pixel at the specified location after the filter has been applied
+   */
+  private int applyKernelToEdgePixel(int i, int j, double[][] kernel, int[] columns,
+                                     int[] rowMap) {
+    int red = 0;
+    int green = 0;
+    int blue = 0;
+
+    for (int r = 0; r < kernel.length; r++) {
+      int x = columns[i + r];
+      if (x < 0) {
+        continue;
+      }
+      double[] weights = kernel[r];
+      for (int c = 0; c < kernel.length; c++) {
+        int y = rowMap[j + c];
+        if (y < 0) {
+          continue;
+        }
+        int p = this.rows[y][x];
+        red += weights[c] * ((p >> 16) & 0xFF);
+        green += weights[c] * ((p >> 8) & 0xFF);
+        blue += weights[c] * (p & 0xFF);
+      }
+    }
+    return this.pack(red, green, blue);
+  }
+
+  /**
+   * Applies a wide kernel to a pixel whose whole neighborhood lies inside the image, accumulating
+   * each component at full precision and rounding it once at the end.
+   *
+   * @param i      the column of the pixel we are filtering
+   * @param j      the row of the pixel we are filtering
+   * @param kernel the matrix that provides us with the math necessary to apply the filter
+   * @return the new packed pixel at the specified location after the filter has been applied
+   */
+  private int applyWideKernelToInteriorPixel(int i, int j, double[][] kernel) {
+    double red = 0;
+    double green = 0;
+    double blue = 0;
+
+    int half = kernel.length / 2;
+    for (int r = 0; r < kernel.length; r++) {
+      int x = i + r - half;
+      double[] weights = kernel[r];
+      for (int c = 0; c < kernel.length; c++) {
+        int p = this.rows[j + c - half][x];
+        red += weights[c] * ((p >> 16) & 0xFF);
+        green += weights[c] * ((p >> 8) & 0xFF);
+        blue += weights[c] * (p & 0xFF);
+      }
+    }
+    return this.pack(this.round(red), this.round(green), this.round(blue));
+  }
+
+  /**
+   * Applies a wide kernel to a pixel near the edges of the image, looking up where each of its
+   * neighbors comes from, accumulating each component at full precision and rounding it once.
+   *
+   * @param i       the column of the pixel we are filtering
+   * @param j       the row of the pixel we are filtering
+   * @param kernel  the matrix that provides us with the math necessary to apply the filter
+   * @param columns the table of where each column takes its pixels from
+   * @param rowMap  the table of where each row takes its pixels from
+   * @return the new packed pixel at the specified location after the filter has been applied
+   */
+  private int applyWideKernelToEdgePixel(int i, int j, double[][] kernel, int[] columns,
+                                         int[] rowMap) {
+    double red = 0;
+    double green = 0;
+    double blue = 0;
+
+    for (int r = 0; r < kernel.length; r++) {
+      int x = columns[i + r];
+      if (x < 0) {
+        continue;
+      }
+      double[] weights = kernel[r];
+      for (int c = 0; c < kernel.length; c++) {
+        int y = rowMap[j + c];
+        if (y < 0) {
+          continue;
+        }
+        int p = this.rows[y][x];
+        red += weights[c] * ((p >> 16) & 0xFF);
+        green += weights[c] * ((p >> 8) & 0xFF);
+        blue += weights[c] * (p & 0xFF);
+      }
+    }
+    return this.pack(this.round(red), this.round(green), this.round(blue));
+  }
+
+  /**
+   * Applies a separable kernel as two one dimensional passes, first across each row using the
+   * horizontal weights and then down each column using the vertical weights. The rows are worked
+   * through in small chunks, each with enough rows above and below it for the second pass, so the
+   * intermediate results never take up more than a few rows of memory.
+   *
+   * @param horizontal the weights applied across a row, indexed like the rows of the kernel
+   * @param vertical   the weights applied down a column, indexed like the columns of the kernel
+   * @param columns    the table of where each column takes its pixels from
+   * @param rowMap     the table of where each row takes its pixels from
+   * @param newRows    the rows that the packed filtered pixels are written to
+   */
+  private void applySeparable(double[] horizontal, double[] vertical, int[] columns,
+                              int[] rowMap, int[][] newRows) {
+    int size = horizontal.length;
+    int half = size / 2;
+
+    RowExecutor.getDefault().forEachRow(this.width, this.height, (start, end) -> {
+      for (int chunkStart = start; chunkStart < end; chunkStart += CHUNK_ROWS) {
+        int chunkEnd = Math.min(end, chunkStart + CHUNK_ROWS);
+        int top = chunkStart - half;
+        int bottom = chunkEnd + half;
+
+        // the first pass, across every row that the second pass needs, where a row that
+        // contributes nothing is left as zeros
+        double[] red = new double[(bottom - top) * this.width];
+        double[] green = new double[red.length];
+        double[] blue = new double[red.length];
+        for (int v = top; v < bottom; v++) {
+          int y = rowMap[v + half];
+          if (y < 0) {
+            continue;
+          }
+          this.applyHorizontalPass(horizontal, columns, this.rows[y], (v - top) * this.width,
+                  red, green, blue);
+        }
+
+        // the second pass, down every column of the rows in this chunk
+        for (int j = chunkStart; j < chunkEnd; j++) {
+          int[] newRow = newRows[j];
+          int base = (j - chunkStart) * this.width;
+          for (int i = 0; i < this.width; i++) {
+            double r = 0;
+            double g = 0;
+            double b = 0;
+            for (int k = 0; k < size; k++) {
+              int index = base + k * this.width + i;
+              r += vertical[k] * red[index];
+              g += vertical[k] * green[index];
+              b += vertical[k] * blue[index];
+            }
+            newRow[i] = this.pack(this.round(r), this.round(g), this.round(b));
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Applies the horizontal weights of a separable kernel across a single row, writing the
+   * unrounded components of each pixel to the given arrays.
+   *
+   * @param horizontal the weights applied across the row
+   * @param columns    the table of where each column takes its pixels from
+   * @param row        the packed pixels of the row
+   * @param base       the index that the first pixel of the row is written to
+   * @param red        the array the red components are written to
+   * @param green      the array the green components are written to
+   * @param blue       the array the blue components are written to
+   */
+  private void applyHorizontalPass(double[] horizontal, int[] columns, int[] row, int base,
+                                   double[] red, double[] green, double[] blue) {
+    int size = horizontal.length;
+    int half = size / 2;
+
+    for (int i = 0; i < this.width; i++) {
+      double r = 0;
+      double g = 0;
+      double b = 0;
+      if (i >= half && i < this.width - half) {
+        for (int k = 0; k < size; k++) {
+          int p = row[i + k - half];
+          r += horizontal[k] * ((p >> 16) & 0xFF);
+          g += horizontal[k] * ((p >> 8) & 0xFF);
+          b += horizontal[k] * (p & 0xFF);
+        }
+      } else {
+        for (int k = 0; k < size; k++) {
+          int x = columns[i + k];
+          if (x < 0) {
+            continue;
+          }
+          int p = row[x];
+          r += horizontal[k] * ((p >> 16) & 0xFF);
+          g += horizontal[k] * ((p >> 8) & 0xFF);
+          b += horizontal[k] * (p & 0xFF);
+        }
+      }
+      red[base + i] = r;
+      green[base + i] = g;
+      blue[base + i] = b;
+    }
+  }
+
+  /**
+   * Applies a kernel by multiplying Fourier transforms, using the overlap-save method. The output
+   * is produced one square block at a time: the block and the margin of pixels around it that the
+   * kernel reaches are transformed, multiplied by the conjugate of the transformed kernel, and
+   * transformed back, which gives the kernel applied to every pixel of the block. Since the
+   * kernel is real, the red and green components are transformed together as the real and
+   * imaginary parts of one grid, and the blue component on its own in a second grid.
+   *
+   * @param kernel  the matrix that provides us with the math necessary to apply the filter
+   * @param columns the table of where each column takes its pixels from
+   * @param rowMap  the table of where each row takes its pixels from
+   * @param newRows the rows that the packed filtered pixels are written to
+   */
+  private void applyFourier(double[][] kernel, int[] columns, int[] rowMap, int[][] newRows) {
+    int size = kernel.length;
+    FFT fft = new FFT(FFT.nextPowerOfTwo(Math.max(64, 4 * size)));
+    int n = fft.getSize();
+    int block = n - (size - 1);
+
+    // transforming the kernel once, laid out so that its rows run along the columns of the grid
+    // just like they run along the columns of the image
+    double[] kernelRe = new double[n * n];
+    double[] kernelIm = new double[n * n];
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        kernelRe[c * n + r] = kernel[r][c];
+      }
+    }
+    fft.transform2D(kernelRe, kernelIm, false);
+
+    RowExecutor.getDefault().forEachRow(this.width, this.height, (start, end) -> {
+      double[] redGreenRe = new double[n * n];
+      double[] redGreenIm = new double[n * n];
+      double[] blueRe = new double[n * n];
+      double[] blueIm = new double[n * n];
+
+      for (int y0 = start; y0 < end; y0 += block) {
+        int blockHeight = Math.min(block, end - y0);
+        for (int x0 = 0; x0 < this.width; x0 += block) {
+          int blockWidth = Math.min(block, this.width - x0);
+
+          // filling the grids with the block and its margin, leaving everything else as zero
+          Arrays.fill(redGreenRe, 0);
+          Arrays.fill(redGreenIm, 0);
+          Arrays.fill(blueRe, 0);
+          Arrays.fill(blueIm, 0);
+          for (int t = 0; t < blockHeight + size - 1; t++) {
+            int y = rowMap[y0 + t];
+            if (y < 0) {
+              continue;
+            }
+            int[] row = this.rows[y];
+            for (int s = 0; s < blockWidth + size - 1; s++) {
+              int x = columns[x0 + s];
+              if (x < 0) {
+                continue;
+              }
+              int p = row[x];
+              redGreenRe[t * n + s] = (p >> 16) & 0xFF;
+              redGreenIm[t * n + s] = (p >> 8) & 0xFF;
+              blueRe[t * n + s] = p & 0xFF;
+            }
+          }
+
+          fft.transform2D(redGreenRe, redGreenIm, false);
+          fft.transform2D(blueRe, blueIm, false);
+          multiplyByConjugate(redGreenRe, redGreenIm, kernelRe, kernelIm);
+          multiplyByConjugate(blueRe, blueIm, kernelRe, kernelIm);
+          fft.transform2D(redGreenRe, redGreenIm, true);
+          fft.transform2D(blueRe, blueIm, true);
+
+          for (int t = 0; t < blockHeight; t++) {
+            int[] newRow = newRows[y0 + t];
+            for (int s = 0; s < blockWidth; s++) {
+              int index = t * n + s;
+              newRow[x0 + s] = this.pack(this.round(redGreenRe[index]),
+                      this.round(redGreenIm[index]), this.round(blueRe[index]));
+            }
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Multiplies every entry of a transformed grid by the complex conjugate of the matching entry of
+   * another transformed grid, which turns a convolution into a correlation.
+   *
+   * @param re      the real parts of the grid being multiplied, which are overwritten
+   * @param im      the imaginary parts of the grid being multiplied, which are overwritten
+   * @param otherRe the real parts of the grid being multiplied by
+   * @param otherIm the imaginary parts of the grid being multiplied by
+   */
+  private static void multiplyByConjugate(double[] re, double[] im, double[] otherRe,
+                                          double[] otherIm) {
+    for (int k = 0; k < re.length; k++) {
+      double a = re[k];
+      double b = im[k];
+      re[k] = a * otherRe[k] + b * otherIm[k];
+      im[k] = b * otherRe[k] - a * otherIm[k];
+    }
+  }
+
+  /**
+   * Determines whether a kernel is separable, meaning that every weight is the product of a
+   * weight for its row and a weight for its column, and if so returns those two sets of weights.
+   *
+   * @param kernel the square kernel to separate
+   * @return an array holding the weights for the rows of the kernel followed by the weights for
+   *         the columns of the kernel, or null if the kernel is not separable
+   */
+  static double[][] separate(double[][] kernel) {
+    int size = kernel.length;
+
+    // using the largest weight as the pivot keeps the division as accurate as possible
+    int pivotRow = 0;
+    int pivotCol = 0;
+    double max = 0;
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        if (Math.abs(kernel[r][c]) > max) {
+          max = Math.abs(kernel[r][c]);
+          pivotRow = r;
+          pivotCol = c;
+        }
+      }
+    }
+    if (max == 0 || Double.isNaN(max) || Double.isInfinite(max)) {
+      return null;
+    }
+
+    double[] rowWeights = new double[size];
+    double[] colWeights = new double[size];
+    for (int r = 0; r < size; r++) {
+      rowWeights[r] = kernel[r][pivotCol];
+    }
+    for (int c = 0; c < size; c++) {
+      colWeights[c] = kernel[pivotRow][c] / kernel[pivotRow][pivotCol];
+    }
+
+    double tolerance = max * 1e-9;
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        if (Math.abs(kernel[r][c] - rowWeights[r] * colWeights[c]) > tolerance) {
+          return null;
+        }
+      }
+    }
+    return new double[][]{rowWeights, colWeights};
+  }
+
+  /**
+   * Rounds a component that was accumulated at full precision and caps it to the valid range.
+   *
+   * @param value the accumulated value of a component
+   * @return the rounded component, between 0 and the limit
+   */
+  private int round(double value) {
+    if (value <= 0) {
+      return 0;
+    } else if (value >= this.limit) {
+      return this.limit;
+    } else {
+      return (int) Math.round(value);
+    }
+  }
+
+  /**
+   * Caps each of the components to the valid range and packs them into a single int.
+   *
+   * @param red   the red component of a pixel
+   * @param green the green component of a pixel
+   * @param blue  the blue component of a pixel
+   * @return the packed pixel
+   */
+  private int pack(int red, int green, int blue) {
+    red = Math.max(0, Math.min(this.limit, red));
+    green = Math.max(0, Math.min(this.limit, green));
+    blue = Math.max(0, Math.min(this.limit, blue));
+    return (red << 16) | (green << 8) | blue;
+  }
+}
@@ -0,0 +1,112 @@
+package model.image;
+
+/**
+ * A class representing an image which is the result of a point operation applied to another
+ * image, but whose pixels are not computed until they are first needed. Applying another point
+ * operation to a deferred image that has not been computed yet fuses the two operations, so a
+ * whole chain of them runs in a single pass over the original image, and none of the images in
+ * between are ever created unless they are read themselves. Once computed, the pixels are kept
+ * and the source is let go, so they are never computed more than once and the source can be
+ * freed if nothing else uses it.
+ */
+// INVARIANT: Exactly one of the source and the result is null, except while the result is being
+//            computed, and the operation is null exactly when the source is. The result is the
+//            source with the operation applied, and once it is set it never changes.
+public final class DeferredImage extends AbstractDerivedImage {
+
+  private volatile Image source;
+  private PointOperation operation;
+  private volatile Image result;
+
+  /**
+   * A constructor which creates an image that is the specified operation applied to the specified
+   * image, without applying it yet.
+   *
+   * @param source    the image to apply the operation to
+   * @param operation the operation to apply
+   * @throws IllegalArgumentException if the source or operation are null
+   */
+  public DeferredImage(Image source, PointOperation operation) throws IllegalArgumentException {
+    if (source == null || operation == null) {
+      throw new IllegalArgumentException("Source and operation cannot be null!");
+    }
+    this.source = source;
+    this.operation = operation;
+  }
+
+  /**
+   * Returns a deferred image which is the specified operation applied to this image. If the
+   * pixels of this image have not been computed yet, the new image applies both operations
+   * straight to the source of this one.
+   *
+   * @param next the operation to apply to this image
+   * @return the deferred image with the operation applied
+   * @throws IllegalArgumentException if the operation is null
+   */
+  public DeferredImage andThen(PointOperation next) throws IllegalArgumentException {
+    Image computed = this.result;
+    if (computed != null) {
+      return new DeferredImage(computed, next);
+    }
+    // the source is only let go while holding the lock, so it cannot disappear in between
+    synchronized (this) {
+      if (this.result != null) {
+        return new DeferredImage(this.result, next);
+      }
+      return new DeferredImage(this.source, this.operation.andThen(next));
+    }
+  }
+
+  /**
+   * Returns the image that the operation is applied to, until the pixels of this image have been
+   * computed.
+   *
+   * @return the source, or null once this image has been computed
+   */
+  public Image getSource() {
+    return this.source;
+  }
+
+  @Override
+  public boolean isComputed() {
+    return this.result != null;
+  }
+
+  @Override
+  protected Image computed() {
+    Image computed = this.result;
+    if (computed == null) {
+      synchronized (this) {
+        computed = this.result;
+        if (computed == null) {
+          computed = this.time(() -> this.source.applyPointOperation(this.operation));
+          this.result = computed;
+
+          // the source is no longer needed, so it can be freed if nothing else uses it
+          this.source = null;
+          this.operation = null;
+        }
+      }
+    }
+    return computed;
+  }
+
+  // the result is always set before the source is let go, so one of them is there to ask
+  @Override
+  public int getWidth() {
+    Image source = this.source;
+    return (source != null) ? source.getWidth() : this.computed().getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    Image source = this.source;
+    return (source != null) ? source.getHeight() : this.computed().getHeight();
+  }
+
+  @Override
+  public int getMaxValue() {
+    Image source = this.source;
+    return (source != null) ? source.getMaxValue() : this.computed().getMaxValue();
+  }
+}
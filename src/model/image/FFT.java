@@ -0,0 +1,129 @@
+package model.image;
+
+/**
+ * A class which performs radix-2 fast Fourier transforms on square grids of complex numbers whose
+ * side length is a power of two. The real and imaginary parts are kept in two separate arrays in
+ * row-major order, and are transformed in place.
+ */
+// INVARIANT: The size is always a positive power of two, and the tables of sines and cosines
+//            always hold size / 2 entries.
+final class FFT {
+
+  private final int size;
+  private final int log;
+  private final double[] cos;
+  private final double[] sin;
+
+  /**
+   * A constructor which prepares to transform grids of the specified size.
+   *
+   * @param size the side length of the grids being transformed
+   * @throws IllegalArgumentException if the size is not a positive power of two
+   */
+  FFT(int size) throws IllegalArgumentException {
+    if (size <= 0 || Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("Size must be a positive power of two!");
+    }
+    this.size = size;
+    this.log = Integer.numberOfTrailingZeros(size);
+    this.cos = new double[Math.max(1, size / 2)];
+    this.sin = new double[this.cos.length];
+    for (int k = 0; k < size / 2; k++) {
+      double angle = -2 * Math.PI * k / size;
+      this.cos[k] = Math.cos(angle);
+      this.sin[k] = Math.sin(angle);
+    }
+  }
+
+  /**
+   * Returns the smallest power of two that is at least the specified value.
+   *
+   * @param value the value to round up
+   * @return the smallest power of two that is not less than the value
+   */
+  static int nextPowerOfTwo(int value) {
+    return (value <= 1) ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+
+  /**
+   * Returns the side length of the grids that this transforms.
+   *
+   * @return the size of this transform
+   */
+  int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Transforms a whole grid in place, first along every row and then along every column. The
+   * inverse transform is scaled so that it exactly undoes the forward transform.
+   *
+   * @param re      the real parts of the grid
+   * @param im      the imaginary parts of the grid
+   * @param inverse whether to apply the inverse transform
+   */
+  void transform2D(double[] re, double[] im, boolean inverse) {
+    for (int row = 0; row < this.size; row++) {
+      this.transform(re, im, row * this.size, 1, inverse);
+    }
+    for (int col = 0; col < this.size; col++) {
+      this.transform(re, im, col, this.size, inverse);
+    }
+    if (inverse) {
+      double scale = 1.0 / ((double) this.size * this.size);
+      for (int k = 0; k < re.length; k++) {
+        re[k] *= scale;
+        im[k] *= scale;
+      }
+    }
+  }
+
+  /**
+   * Transforms one line of a grid in place, where the line starts at the offset and each of its
+   * entries is the stride apart from the next. The result is not scaled.
+   *
+   * @param re      the real parts of the grid
+   * @param im      the imaginary parts of the grid
+   * @param offset  the index of the first entry of the line
+   * @param stride  the distance between consecutive entries of the line
+   * @param inverse whether to apply the inverse transform
+   */
+  private void transform(double[] re, double[] im, int offset, int stride, boolean inverse) {
+    int n = this.size;
+
+    // putting the entries into bit reversed order
+    for (int k = 1; k < n; k++) {
+      int reversed = Integer.reverse(k) >>> (32 - this.log);
+      if (k < reversed) {
+        int a = offset + k * stride;
+        int b = offset + reversed * stride;
+        double tempRe = re[a];
+        re[a] = re[b];
+        re[b] = tempRe;
+        double tempIm = im[a];
+        im[a] = im[b];
+        im[b] = tempIm;
+      }
+    }
+
+    // combining pairs of smaller transforms into bigger ones
+    for (int length = 2; length <= n; length <<= 1) {
+      int halfLength = length >> 1;
+      int step = n / length;
+      for (int start = 0; start < n; start += length) {
+        for (int k = 0; k < halfLength; k++) {
+          double wRe = this.cos[k * step];
+          double wIm = inverse ? -this.sin[k * step] : this.sin[k * step];
+          int a = offset + (start + k) * stride;
+          int b = a + halfLength * stride;
+          double tRe = re[b] * wRe - im[b] * wIm;
+          double tIm = re[b] * wIm + im[b] * wRe;
+          re[b] = re[a] - tRe;
+          im[b] = im[a] - tIm;
+          re[a] += tRe;
+          im[a] += tIm;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package model.image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class representing a sequence of point operations which are applied together in one pass.
+ * Each run of pixels goes through every stage while it is still in the cache, so only the
+ * original and final pixels are ever read from or written to memory. Neighboring lookup tables
+ * are combined into a single table when the sequence is built.
+ */
+// INVARIANT: There are always at least two stages, none of which are null or fused operations
+//            themselves, and no two neighboring stages are both lookup tables.
+final class FusedOperation implements PointOperation {
+
+  private final PointOperation[] stages;
+
+  /**
+   * A constructor which creates an operation applying the specified stages in order.
+   *
+   * @param stages the stages of the operation, in the order they are applied
+   */
+  private FusedOperation(PointOperation[] stages) {
+    this.stages = stages;
+  }
+
+  /**
+   * Returns the operation that applies the first operation and then the second one.
+   *
+   * @param first  the operation to apply first
+   * @param second the operation to apply second
+   * @return the operation combining both
+   * @throws IllegalArgumentException if either operation is null
+   */
+  static PointOperation of(PointOperation first, PointOperation second)
+          throws IllegalArgumentException {
+    if (first == null || second == null) {
+      throw new IllegalArgumentException("Operation cannot be null!");
+    }
+    List<PointOperation> stages = new ArrayList<>();
+    addStages(stages, first);
+    addStages(stages, second);
+    if (stages.size() == 1) {
+      return stages.get(0);
+    }
+    return new FusedOperation(stages.toArray(new PointOperation[0]));
+  }
+
+  /**
+   * A helper method which appends the stages of an operation to a list of stages, combining a
+   * lookup table with the lookup table before it.
+   *
+   * @param stages    the stages so far
+   * @param operation the operation whose stages are being added
+   */
+  private static void addStages(List<PointOperation> stages, PointOperation operation) {
+    if (operation instanceof FusedOperation) {
+      for (PointOperation stage : ((FusedOperation) operation).stages) {
+        addStages(stages, stage);
+      }
+      return;
+    }
+    int last = stages.size() - 1;
+    if (last >= 0 && stages.get(last) instanceof LookupTable
+            && operation instanceof LookupTable) {
+      stages.set(last, ((LookupTable) stages.get(last)).andThen((LookupTable) operation));
+    } else {
+      stages.add(operation);
+    }
+  }
+
+  @Override
+  public boolean isIdentity() {
+    for (PointOperation stage : this.stages) {
+      if (!stage.isIdentity()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int apply(int rgb) {
+    for (PointOperation stage : this.stages) {
+      rgb = stage.apply(rgb);
+    }
+    return rgb;
+  }
+
+  @Override
+  public void apply(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+    this.stages[0].apply(src, srcOffset, dst, dstOffset, length);
+    for (int k = 1; k < this.stages.length; k++) {
+      this.stages[k].apply(dst, dstOffset, dst, dstOffset, length);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package model.image;
+
+import model.enums.GreyscaleComponentType;
+
+/**
+ * A class representing a greyscale, which sets all three components of a pixel to the same
+ * value, computed from the original pixel based on the greyscale type.
+ */
+// INVARIANT: The greyscale type is never null, and the shift is the position of the component
+//            that the type copies, or -1 if the type combines the components.
+public final class GreyscaleOperation implements PointOperation {
+
+  private final GreyscaleComponentType type;
+  private final int shift;
+
+  /**
+   * A constructor which creates a greyscale of the specified type.
+   *
+   * @param type the type of greyscale to apply
+   * @throws IllegalArgumentException if the type is null
+   */
+  public GreyscaleOperation(GreyscaleComponentType type) throws IllegalArgumentException {
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null!");
+    }
+    this.type = type;
+
+    // the red, green, and blue types only copy one component into the other two, so they are
+    // decided once here instead of for every pixel
+    switch (type) {
+      case RED:
+        this.shift = 16;
+        break;
+      case GREEN:
+        this.shift = 8;
+        break;
+      case BLUE:
+        this.shift = 0;
+        break;
+      default:
+        this.shift = -1;
+        break;
+    }
+  }
+
+  @Override
+  public int apply(int rgb) {
+    if (this.shift >= 0) {
+      return ((rgb >> this.shift) & 0xFF) * 0x010101;
+    }
+
+    int red = (rgb >> 16) & 0xFF;
+    int green = (rgb >> 8) & 0xFF;
+    int blue = rgb & 0xFF;
+    int color;
+
+    switch (this.type) {
+      case VALUE:
+        color = Math.max(Math.max(red, green), blue);
+        break;
+      case INTENSITY:
+        color = (int) (Math.round(red + blue + green) / 3.0);
+        break;
+      case LUMA:
+        color = (int) (Math.round((red * 0.2126)
+                + (green * 0.7152)
+                + (blue * 0.0722)));
+        break;
+      default:
+        throw new IllegalArgumentException("Null greyscale type!");
+    }
+
+    return (color << 16) | (color << 8) | color;
+  }
+
+  @Override
+  public void apply(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+    if (this.shift >= 0) {
+      int s = this.shift;
+      for (int k = 0; k < length; k++) {
+        dst[dstOffset + k] = ((src[srcOffset + k] >> s) & 0xFF) * 0x010101;
+      }
+    } else {
+      for (int k = 0; k < length; k++) {
+        dst[dstOffset + k] = this.apply(src[srcOffset + k]);
+      }
+    }
+  }
+}
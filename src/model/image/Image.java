@@ -1,11 +1,14 @@
 package model.image;
 
+import model.enums.BorderMode;
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
 
 /**
  * The interface which contains methods for returning properties of an image and methods for
- * creating new images with certain manipulations done.
+ * creating new images with certain manipulations done. Images are immutable: every manipulation
+ * returns another image and nothing can change the pixels of an existing one, so an image can be
+ * shared freely without being copied.
  */
 public interface Image {
 
@@ -31,12 +34,45 @@ public interface Image {
   int getMaxValue();
 
   /**
-   * Returns a deep copy of the 2D array of pixels that make up this image.
+   * Returns a deep copy of the 2D array of pixels that make up this image. This creates one
+   * pixel object per pixel, so callers that only need to read the image should prefer
+   * {@link #getRGB(int, int)} or {@link #getRGB(int, int, int, int, int[], int, int)}.
    *
    * @return a 2D array of pixels which is a copy of the pixels contained in this image
    */
   Pixel[][] getPixels();
 
+  /**
+   * Returns the pixel at the specified column and row, packed into a single int as 0xRRGGBB, so
+   * the red component is held in bits 16-23, the green component in bits 8-15, and the blue
+   * component in bits 0-7.
+   *
+   * @param x the column of the pixel
+   * @param y the row of the pixel
+   * @return the packed pixel at the specified location
+   * @throws IllegalArgumentException if the location is outside of this image
+   */
+  int getRGB(int x, int y) throws IllegalArgumentException;
+
+  /**
+   * Copies the packed pixels of the specified region of this image into the given array, in the
+   * same 0xRRGGBB format as {@link #getRGB(int, int)}. The pixel at (x + i, y + j) is written to
+   * dst[offset + j * scansize + i], so a caller can read a whole image one row at a time into a
+   * single reused array without allocating anything.
+   *
+   * @param x        the leftmost column of the region
+   * @param y        the topmost row of the region
+   * @param w        the width of the region
+   * @param h        the height of the region
+   * @param dst      the array that the packed pixels are written to
+   * @param offset   the index in the array that the first pixel is written to
+   * @param scansize the distance in the array between the starts of two consecutive rows
+   * @throws IllegalArgumentException if the array is null, if the region is not within this
+   *                                  image, or if the array is too small to hold the region
+   */
+  void getRGB(int x, int y, int w, int h, int[] dst, int offset, int scansize)
+          throws IllegalArgumentException;
+
   /**
    * Returns another image where the pixels have been manipulated to create a certain greyscale
    * version of this image based on the specified greyscale type.
@@ -80,10 +116,31 @@ public interface Image {
    */
   Image darken(int value) throws IllegalArgumentException;
 
+  /**
+   * Returns another image where each component of every pixel has been mapped through the
+   * specified lookup table, such as one for gamma correction, levels, or curves.
+   *
+   * @param table the lookup table that maps each component to its new value
+   * @return another image with the lookup table applied
+   * @throws IllegalArgumentException if the lookup table is null
+   */
+  Image applyLookupTable(LookupTable table) throws IllegalArgumentException;
+
+  /**
+   * Returns another image where every pixel is the result of the specified point operation
+   * applied to the pixel at the same position in this image.
+   *
+   * @param operation the point operation to apply to every pixel
+   * @return another image with the point operation applied
+   * @throws IllegalArgumentException if the operation is null
+   */
+  Image applyPointOperation(PointOperation operation) throws IllegalArgumentException;
 
   /**
    * Returns another image which is the result of this image being filtered, using the specified
-   * kernel.
+   * kernel. Pixels off the edges of the image do not contribute to the result. Kernels wider than
+   * 5 by 5 are accumulated at full precision and rounded once, so separable kernels among them
+   * can be applied in two one dimensional passes, and large ones using Fourier transforms.
    *
    * @param kernel the matrix that provides us with the math necessary to apply the filter
    * @return another image with the filter applied
@@ -91,6 +148,19 @@ public interface Image {
    */
   Image filter(double[][] kernel) throws IllegalArgumentException;
 
+  /**
+   * Returns another image which is the result of this image being filtered, using the specified
+   * kernel and treating the pixels past the edges of the image as the specified border mode
+   * describes. Filtering with {@link BorderMode#ZERO} is the same as {@link #filter(double[][])}.
+   *
+   * @param kernel the matrix that provides us with the math necessary to apply the filter
+   * @param mode   how the pixels past the edges of the image are treated
+   * @return another image with the filter applied
+   * @throws IllegalArgumentException if the kernel or border mode is null, or if the kernel is
+   *                                  not a square matrix with an odd length
+   */
+  Image filter(double[][] kernel, BorderMode mode) throws IllegalArgumentException;
+
   /**
    * Returns another image which is the result of this image being transformed, using the specified
    * matrix.
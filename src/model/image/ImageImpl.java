@@ -1,22 +1,32 @@
 package model.image;
 
+import java.util.Set;
+
+import model.enums.BorderMode;
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
 
 /**
- * A class that represents a singular image by its size and pixels that make up the image.
+ * A class that represents a singular image by its size and pixels that make up the image. The
+ * pixels are stored packed, one int per pixel, in an array per row of the image, rather than as
+ * one object per pixel. Since rows are never changed once an image is made, images share every
+ * row they have in common: a manipulation only allocates the rows it changes and reuses the rest
+ * of the rows of the image it was applied to, so a vertical flip or an operation that leaves most
+ * of an image as it was costs almost no memory, and a point operation that leaves every pixel as
+ * it was gives back the image itself.
  */
 // INVARIANT: The image always has a positive width, height, and maxValue. The 2D array of its
-//            pixels are never null and the none of the actual pixels in the 2D array are ever null
-//            either. It also enforces that the size of the array of pixels is the same as the
-//            width by height.
+//            rows is never null and none of the rows are ever null either. It also enforces
+//            that there are exactly height rows, each of which is exactly width pixels long. Every
+//            pixel is packed as 0xRRGGBB and the rows are never mutated after construction.
 public class ImageImpl implements Image {
 
   private final int width;
   private final int height;
 
   private final int maxValue;
-  private final Pixel[][] pixels;
+  private final int limit;
+  private final int[][] rows;
 
   /**
    * A constructor which sets the fields to the arguments of the constructor to construct an
@@ -37,7 +47,37 @@ public class ImageImpl implements Image {
     this.width = width;
     this.height = height;
     this.maxValue = maxValue;
-    this.pixels = pixels;
+    this.limit = Math.min(maxValue, 255);
+    this.rows = new int[height][width];
+
+    for (int i = 0; i < width; i++) {
+      for (int j = 0; j < height; j++) {
+        Pixel p = pixels[i][j];
+        this.rows[j][i] = pack(p.getRed(), p.getGreen(), p.getBlue());
+      }
+    }
+  }
+
+  /**
+   * A constructor which builds an image directly on top of rows of packed pixels, without
+   * creating any pixel objects. Each pixel is packed as 0xRRGGBB, so the red component is held in
+   * bits 16-23, the green component in bits 8-15, and the blue component in bits 0-7. The width
+   * and height are taken from the rows themselves. The image takes ownership of the rows, so they
+   * must not be modified after being passed in.
+   *
+   * @param rows     the rows of packed pixels making up the image, from top to bottom
+   * @param maxValue the maximum value that a channel of a pixel can be represented by
+   * @throws IllegalArgumentException if the rows or any of its contents are null, if there are no
+   *                                  rows or the rows are empty, if the rows are not all the
+   *                                  same length, or if the maxValue is not a positive integer
+   */
+  public ImageImpl(int[][] rows, int maxValue) throws IllegalArgumentException {
+    this.checkImageConditions(maxValue, rows);
+    this.width = rows[0].length;
+    this.height = rows.length;
+    this.maxValue = maxValue;
+    this.limit = Math.min(maxValue, 255);
+    this.rows = rows;
   }
 
   /**
@@ -60,8 +100,14 @@ public class ImageImpl implements Image {
     if (pixels == null) {
       throw new IllegalArgumentException("2D array of pixels cannot be null!");
     }
+    if (pixels.length != width) {
+      throw new IllegalArgumentException("2D array of pixels must be of size width by height!");
+    }
     for (int i = 0; i < pixels.length; i++) {
-      for (int j = 0; j < pixels[0].length; j++) {
+      if (pixels[i] == null || pixels[i].length != height) {
+        throw new IllegalArgumentException("2D array of pixels must be of size width by height!");
+      }
+      for (int j = 0; j < pixels[i].length; j++) {
         if (pixels[i][j] == null) {
           throw new IllegalArgumentException("Pixels within the 2D array cannot be null!");
         }
@@ -69,6 +115,71 @@ public class ImageImpl implements Image {
     }
   }
 
+  /**
+   * A helper method which enforces the requirements of the constructor taking packed rows.
+   *
+   * @param maxValue the maximum value that a channel of a pixel can be represented by
+   * @param rows     the rows of packed pixels making up the image
+   * @throws IllegalArgumentException if the maxValue is not a positive integer, if the rows or
+   *                                  any of them are null, or if the rows are empty or not all
+   *                                  the same length
+   */
+  private void checkImageConditions(int maxValue, int[][] rows) throws IllegalArgumentException {
+    if (rows == null) {
+      throw new IllegalArgumentException("Rows of pixels cannot be null!");
+    }
+    if (maxValue <= 0 || rows.length == 0 || rows[0] == null || rows[0].length == 0) {
+      throw new IllegalArgumentException("Width and height must both be positive!");
+    }
+    for (int[] row : rows) {
+      if (row == null || row.length != rows[0].length) {
+        throw new IllegalArgumentException("Every row must be non-null and the same length!");
+      }
+    }
+  }
+
+  /**
+   * Packs the three components of a pixel into a single int as 0xRRGGBB.
+   *
+   * @param red   the red component of a pixel
+   * @param green the green component of a pixel
+   * @param blue  the blue component of a pixel
+   * @return the packed representation of the pixel
+   */
+  private static int pack(int red, int green, int blue) {
+    return (red << 16) | (green << 8) | blue;
+  }
+
+  /**
+   * Returns the red component of a packed pixel.
+   *
+   * @param rgb the packed pixel
+   * @return the red component of the pixel
+   */
+  private static int red(int rgb) {
+    return (rgb >> 16) & 0xFF;
+  }
+
+  /**
+   * Returns the green component of a packed pixel.
+   *
+   * @param rgb the packed pixel
+   * @return the green component of the pixel
+   */
+  private static int green(int rgb) {
+    return (rgb >> 8) & 0xFF;
+  }
+
+  /**
+   * Returns the blue component of a packed pixel.
+   *
+   * @param rgb the packed pixel
+   * @return the blue component of the pixel
+   */
+  private static int blue(int rgb) {
+    return rgb & 0xFF;
+  }
+
   @Override
   public int getWidth() {
     return this.width;
@@ -91,117 +202,115 @@ public class ImageImpl implements Image {
 
     for (int i = 0; i < this.width; i++) {
       for (int j = 0; j < this.height; j++) {
-        Pixel p = this.pixels[i][j];
-        Pixel newPixel = new RGBPixel(p.getRed(), p.getGreen(), p.getBlue());
-        temp[i][j] = newPixel;
+        int p = this.rows[j][i];
+        temp[i][j] = new RGBPixel(red(p), green(p), blue(p));
       }
     }
     return temp;
   }
 
   @Override
-  public Image greyscaleComponent(GreyscaleComponentType type) {
-    if (type == null) {
-      throw new IllegalArgumentException("Type cannot be null!");
+  public int getRGB(int x, int y) throws IllegalArgumentException {
+    if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
+      throw new IllegalArgumentException("Location is outside of the image!");
     }
+    return this.rows[y][x];
+  }
 
-    Pixel[][] newPixels = new RGBPixel[this.width][this.height];
-    int color;
-
-    for (int i = 0; i < this.width; i++) {
-      for (int j = 0; j < this.height; j++) {
-        Pixel p = this.pixels[i][j];
-
-        switch (type) {
-          case RED:
-            color = p.getRed();
-            break;
-          case GREEN:
-            color = p.getGreen();
-            break;
-          case BLUE:
-            color = p.getBlue();
-            break;
-          case VALUE:
-            color = this.maxValue(p.getRed(), p.getGreen(), p.getBlue());
-            break;
-          case INTENSITY:
-            color = (int) (Math.round(p.getRed() + p.getBlue() + p.getGreen()) / 3.0);
-            break;
-          case LUMA:
-            color = (int) (Math.round((p.getRed() * 0.2126)
-                    + (p.getGreen() * 0.7152)
-                    + (p.getBlue() * 0.0722)));
-            break;
-          default:
-            throw new IllegalArgumentException("Null greyscale type!");
-        }
-
-        Pixel newPixel = new RGBPixel(color, color, color);
-        newPixels[i][j] = newPixel;
-      }
+  @Override
+  public void getRGB(int x, int y, int w, int h, int[] dst, int offset, int scansize)
+          throws IllegalArgumentException {
+    if (dst == null) {
+      throw new IllegalArgumentException("Destination array cannot be null!");
+    }
+    if (x < 0 || y < 0 || w < 0 || h < 0 || x + w > this.width || y + h > this.height) {
+      throw new IllegalArgumentException("Region is outside of the image!");
+    }
+    if (h > 0 && (offset < 0 || scansize < w
+            || offset + (long) (h - 1) * scansize + w > dst.length)) {
+      throw new IllegalArgumentException("Destination array is too small for the region!");
     }
 
-    Image newImg = new ImageImpl(this.width, this.height, this.maxValue, newPixels);
-    return newImg;
+    for (int j = 0; j < h; j++) {
+      System.arraycopy(this.rows[y + j], x, dst, offset + j * scansize, w);
+    }
   }
 
   /**
-   * Helper method which determines the maximum of three integers, the red, green, and blue
-   * channels of a pixel.
+   * Returns the row of packed pixels at the specified height of this image, without copying it,
+   * so that another image can share it. The row must never be modified.
    *
-   * @param red   the red component of a pixel
-   * @param green the green component of a pixel
-   * @param blue  the blue component of a pixel
-   * @return the maximum of the three components of a pixel
+   * @param y the row to return
+   * @return the row of packed pixels
    */
-  private int maxValue(int red, int green, int blue) {
-    int tempMax = Math.max(red, green);
-    int max = Math.max(tempMax, blue);
-    return max;
+  int[] row(int y) {
+    return this.rows[y];
   }
 
-  @Override
-  public Image brighten(int value) {
-    if (value <= 0) {
-      throw new IllegalArgumentException("Cannot brighten by a negative number!");
+  /**
+   * Returns the bytes of pixels held by the rows of this image that have not been counted yet,
+   * and adds those rows to the rows counted. Rows shared with an image that was counted before
+   * are only counted once, so measuring several images with the same set gives the memory they
+   * hold between them.
+   *
+   * @param counted the rows that have already been counted, compared by identity
+   * @return the bytes of the rows that were not counted before
+   * @throws IllegalArgumentException if the set of counted rows is null
+   */
+  public long countBytes(Set<Object> counted) throws IllegalArgumentException {
+    if (counted == null) {
+      throw new IllegalArgumentException("Counted rows cannot be null!");
     }
-
-    Pixel[][] newPixels = new RGBPixel[this.width][this.height];
-    for (int i = 0; i < this.width; i++) {
-      for (int j = 0; j < this.height; j++) {
-        Pixel p = this.pixels[i][j];
-        int red = Math.min(this.getMaxValue(), (p.getRed() + value));
-        int green = Math.min(this.getMaxValue(), (p.getGreen() + value));
-        int blue = Math.min(this.getMaxValue(), (p.getBlue() + value));
-        Pixel newPixel = new RGBPixel(red, green, blue);
-        newPixels[i][j] = newPixel;
+    long bytes = 0;
+    for (int[] row : this.rows) {
+      if (counted.add(row)) {
+        bytes += 4L * row.length;
       }
     }
+    return bytes;
+  }
 
-    Image newImg = new ImageImpl(this.width, this.height, this.maxValue, newPixels);
-    return newImg;
+  @Override
+  public Image greyscaleComponent(GreyscaleComponentType type) {
+    return this.applyPointOperation(new GreyscaleOperation(type));
+  }
+
+  @Override
+  public Image brighten(int value) {
+    return this.applyLookupTable(LookupTable.brighten(value, this.maxValue));
   }
 
   @Override
   public Image darken(int value) {
-    if (value <= 0) {
-      throw new IllegalArgumentException("Cannot darken by a negative number!");
+    return this.applyLookupTable(LookupTable.darken(value));
+  }
+
+  @Override
+  public Image applyLookupTable(LookupTable table) throws IllegalArgumentException {
+    if (table == null) {
+      throw new IllegalArgumentException("Lookup table cannot be null!");
     }
+    return this.applyPointOperation(table);
+  }
 
-    Pixel[][] newPixels = new RGBPixel[this.width][this.height];
-    for (int i = 0; i < this.width; i++) {
-      for (int j = 0; j < this.height; j++) {
-        Pixel p = this.pixels[i][j];
-        int red = Math.max(0, (p.getRed() - value));
-        int green = Math.max(0, (p.getGreen() - value));
-        int blue = Math.max(0, (p.getBlue() - value));
-        Pixel newPixel = new RGBPixel(red, green, blue);
-        newPixels[i][j] = newPixel;
-      }
+  @Override
+  public Image applyPointOperation(PointOperation operation) throws IllegalArgumentException {
+    if (operation == null) {
+      throw new IllegalArgumentException("Operation cannot be null!");
+    }
+
+    // an operation that leaves every pixel as it was gives this image back rather than a copy
+    if (operation.isIdentity()) {
+      return this;
     }
-    Image newImg = new ImageImpl(this.width, this.height, this.maxValue, newPixels);
-    return newImg;
+
+    int[][] newRows = new int[this.height][this.width];
+    RowExecutor.getDefault().forEachRow(this.width, this.height, (start, end) -> {
+      for (int j = start; j < end; j++) {
+        operation.apply(this.rows[j], 0, newRows[j], 0, this.width);
+      }
+    });
+    return new ImageImpl(newRows, this.maxValue);
   }
 
   @Override
@@ -210,158 +319,48 @@ public class ImageImpl implements Image {
       throw new IllegalArgumentException("Type cannot be null!");
     }
 
-    Pixel[][] newPixels = this.getPixels();
+    int[][] newRows = new int[this.height][];
 
     switch (type) {
       case VERTICAL:
-        for (int i = 0; i < width; i++) {
-          for (int j = 0; j < height / 2; j++) {
-            Pixel temp = newPixels[i][j];
-            newPixels[i][j] = newPixels[i][height - 1 - j];
-            newPixels[i][height - 1 - j] = temp;
-          }
+        // the rows themselves are unchanged, only their order is, so they are all shared
+        for (int j = 0; j < height; j++) {
+          newRows[j] = this.rows[height - 1 - j];
         }
         break;
       case HORIZONTAL:
-        for (int i = 0; i < width / 2; i++) {
-          for (int j = 0; j < height; j++) {
-            Pixel temp = newPixels[i][j];
-            newPixels[i][j] = newPixels[width - 1 - i][j];
-            newPixels[width - 1 - i][j] = temp;
+        for (int j = 0; j < height; j++) {
+          int[] row = this.rows[j];
+          int[] newRow = new int[width];
+          for (int i = 0; i < width; i++) {
+            newRow[i] = row[width - 1 - i];
           }
+          newRows[j] = newRow;
         }
         break;
       default:
         throw new IllegalArgumentException("Invalid flip type!");
     }
 
-    Image img = new ImageImpl(this.width, this.height, this.maxValue, newPixels);
-    return img;
+    return new ImageImpl(newRows, this.maxValue);
   }
 
   @Override
   public Image filter(double[][] kernel) throws IllegalArgumentException {
-    if (kernel == null) {
-      throw new IllegalArgumentException("Kernel is null!");
-    }
-    if ((kernel.length != kernel[0].length) || (kernel.length % 2 != 1)) {
-      throw new IllegalArgumentException("Kernel must be a square matrix and must have an odd " +
-              "length!");
-    }
-
-    Pixel[][] newPixels = new RGBPixel[this.width][this.height];
-
-    for (int i = 0; i < this.getWidth(); i++) {
-      for (int j = 0; j < this.getHeight(); j++) {
-        newPixels[i][j] = this.applyKernelToPixel(i, j, kernel);
-      }
-    }
-    return new ImageImpl(this.width, this.height, this.maxValue, newPixels);
+    return this.filter(kernel, BorderMode.ZERO);
   }
 
-  /**
-   * Applies a filter to every slot at a specific i and j by centering a kernel on a pixel and
-   * then looping through the kernel and its corresponding pixels to calculate the components of
-   * the new pixel, using the components of the pixels around the one we are centered at.
-   *
-   * @param i      the row of the pixel we are filtering
-   * @param j      the column of the pixel we are filtering
-   * @param kernel the matrix that provides us with the math necessary to apply the filter
-   * @return a new Pixel at the specified location after the filter has been applied
-   */
-  private Pixel applyKernelToPixel(int i, int j, double[][] kernel) {
-    int red = 0;
-    int green = 0;
-    int blue = 0;
-
-    int matrixSize = kernel.length;
-
-    for (int r = 0; r < matrixSize; r++) {
-      for (int c = 0; c < matrixSize; c++) {
-
-        try {
-          red += kernel[r][c] * pixels[i + (r - (matrixSize / 2))][j + (c - (matrixSize / 2))]
-                  .getRed();
-          green += kernel[r][c] * pixels[i + (r - (matrixSize / 2))][j + (c - (matrixSize / 2))]
-                  .getGreen();
-          blue += kernel[r][c] * pixels[i + (r - (matrixSize / 2))][j + (c - (matrixSize / 2))]
-                  .getBlue();
-        } catch (ArrayIndexOutOfBoundsException e) {
-          // DO NOTHING if we are trying to access an index out of bounds because that means
-          // that that spot doesn't exist and doesn't contribute to the new value of a component
-        }
-      }
-    }
-    red = this.enforceConstraints(red);
-    green = this.enforceConstraints(green);
-    blue = this.enforceConstraints(blue);
-    return new RGBPixel(red, green, blue);
+  @Override
+  public Image filter(double[][] kernel, BorderMode mode) throws IllegalArgumentException {
+    Convolution.checkKernel(kernel, mode);
+    int[][] newRows = new Convolution(this.rows, this.width, this.height, this.limit)
+            .apply(kernel, mode);
+    return new ImageImpl(newRows, this.maxValue);
   }
 
   @Override
   public Image colorTransformation(double[][] matrix) {
-    if (matrix == null) {
-      throw new IllegalArgumentException("Kernel is null!");
-    }
-
-    // ensuring that the matrix 3 by 3
-    if (matrix.length != 3 || matrix[0].length != 3 || matrix[1].length != 3
-            || matrix[2].length != 3) {
-      throw new IllegalArgumentException("Kernel must be a square matrix and must have an odd " +
-              "length!");
-    }
-
-    Pixel[][] newPixels = new RGBPixel[this.width][this.height];
-
-    for (int i = 0; i < this.getWidth(); i++) {
-      for (int j = 0; j < this.getHeight(); j++) {
-        newPixels[i][j] = this.applyColorTransformationToPixel(i, j, matrix);
-      }
-    }
-    return new ImageImpl(this.width, this.height, this.maxValue, newPixels);
-  }
-
-  /**
-   * Applies a 3 by 3 matrix to a pixel to apply a color transformation.
-   *
-   * @param i      the row of the pixel we are filtering
-   * @param j      the column of the pixel we are filtering
-   * @param matrix the matrix that provides us with the math to get our new components
-   * @return a new pixel which has a color transformation applied to the old pixel.
-   */
-  private Pixel applyColorTransformationToPixel(int i, int j, double[][] matrix) {
-    Pixel p = pixels[i][j];
-
-    int red = (int) (Math.round(p.getRed() * matrix[0][0])
-            + (p.getGreen() * matrix[0][1])
-            + (p.getBlue() * matrix[0][2]));
-    int green = (int) (Math.round(p.getRed() * matrix[1][0])
-            + (p.getGreen() * matrix[1][1])
-            + (p.getBlue() * matrix[1][2]));
-    int blue = (int) (Math.round(p.getRed() * matrix[2][0])
-            + (p.getGreen() * matrix[2][1])
-            + (p.getBlue() * matrix[2][2]));
-    red = this.enforceConstraints(red);
-    green = this.enforceConstraints(green);
-    blue = this.enforceConstraints(blue);
-    return new RGBPixel(red, green, blue);
-  }
-
-  /**
-   * Ensures that a component of a pixel is within the acceptable range by capping its upper
-   * and lower limits based on the max value.
-   *
-   * @param i the value of one of the components of a pixel
-   * @return the value to use for the component based on the constraints
-   */
-  private int enforceConstraints(int i) {
-    if (i < 0) {
-      return 0;
-    } else if (i > this.maxValue) {
-      return this.maxValue;
-    } else {
-      return i;
-    }
+    return this.applyPointOperation(new ColorMatrix(matrix, this.maxValue));
   }
 
   @Override
@@ -370,50 +369,58 @@ public class ImageImpl implements Image {
       throw new IllegalArgumentException("Percent must be between 0 - 100");
     }
 
-    // calculating the size of the new pixel grid of the downsized image and making a new pixel
-    // array of this size
+    // calculating the size of the new pixel grid of the downsized image and making new rows of
+    // this size
     int newWidth = (int) Math.round((this.width * (100 - widthPercent)) / 100.0);
     int newHeight = (int) Math.round((this.height * (100 - heightPercent)) / 100.0);
-    Pixel[][] newPixels = new RGBPixel[newWidth][newHeight];
-
-    // populating the new pixel array
-    for (int i = 0; i < newWidth; i++) {
-      for (int j = 0; j < newHeight; j++) {
-        Pixel p = this.makeDownsizedPixel(i, j, newWidth, newHeight);
-        newPixels[i][j] = p;
+    int[][] newRows = new int[newHeight][newWidth];
+
+    // populating the new rows
+    RowExecutor.getDefault().forEachRow(newWidth, newHeight, (start, end) -> {
+      for (int j = start; j < end; j++) {
+        for (int i = 0; i < newWidth; i++) {
+          newRows[j][i] = downsizedPixel(this.rows, 0, this.width, this.height, i, j, newWidth,
+                  newHeight);
+        }
       }
-    }
+    });
 
-    return new ImageImpl(newWidth, newHeight, this.maxValue, newPixels);
+    return new ImageImpl(newRows, this.maxValue);
   }
 
   /**
    * Creates a pixel with the correct color components based on the current row and column of the
-   * pixel in the downsized image.
+   * pixel in the downsized image. Only the row that the pixel maps to in the original image and
+   * the rows on either side of it are read, so the rows passed in may start partway down the
+   * image.
    *
-   * @param i         the row of the pixel's components in the new image we are calculating
-   * @param j         the col of the pixel's components in the new image we are calculating
+   * @param rows      rows of the original image, starting with the row at base
+   * @param base      the row of the original image that the first of the rows is
+   * @param width     the width of the original image
+   * @param height    the height of the original image
+   * @param i         the column of the pixel's components in the new image we are calculating
+   * @param j         the row of the pixel's components in the new image we are calculating
    * @param newWidth  the width of the downsized image
    * @param newHeight the height of the downsized image
-   * @return a pixel with the correct components calculated using the pixels around it
+   * @return a packed pixel with the correct components calculated using the pixels around it
    */
-  private Pixel makeDownsizedPixel(int i, int j, int newWidth, int newHeight) {
-    double originalX = (i / (double) newWidth) * this.width;
-    double originalY = (j / (double) newHeight) * this.height;
+  static int downsizedPixel(int[][] rows, int base, int width, int height, int i, int j,
+                            int newWidth, int newHeight) {
+    double originalX = (i / (double) newWidth) * width;
+    double originalY = (j / (double) newHeight) * height;
 
 
     // if both the x and y values map directly to integer valued x and y in the original, the
     // return that mapped pixel
     if (originalX % 1 == 0 && originalY % 1 == 0) {
-      Pixel oldPixel = this.pixels[(int) originalX][(int) originalY];
-      return new RGBPixel(oldPixel.getRed(), oldPixel.getGreen(), oldPixel.getBlue());
+      return rows[(int) originalY - base][(int) originalX];
     }
 
     // if either of the original coordinates are floating-point numbers, then use the surrounding
     // pixels to generate the correct component values
     else {
-      Pixel oldPixel = averageSurroundingPixels((int) originalX, (int) originalY);
-      return oldPixel;
+      return averageSurroundingPixels(rows, base, width, height, (int) originalX,
+              (int) originalY);
     }
   }
 
@@ -421,57 +428,55 @@ public class ImageImpl implements Image {
    * Averages the components of the 4 surrounding pixels of the pixel found at the specified row
    * and column to determine its components.
    *
-   * @param i the row of the pixel whose surroundings we are combining
-   * @param j the column of the pixel whose surroundings we are combining
-   * @return a pixel whose components are those of the surrounding 4 averaged
+   * @param rows   rows of the original image, starting with the row at base
+   * @param base   the row of the original image that the first of the rows is
+   * @param width  the width of the original image
+   * @param height the height of the original image
+   * @param i      the column of the pixel whose surroundings we are combining
+   * @param j      the row of the pixel whose surroundings we are combining
+   * @return a packed pixel whose components are those of the surrounding 4 averaged
    */
-  private Pixel averageSurroundingPixels(int i, int j) {
+  private static int averageSurroundingPixels(int[][] rows, int base, int width, int height,
+                                              int i, int j) {
     int red = 0;
     int green = 0;
     int blue = 0;
     double average = 0.0;
 
-    try {
-      Pixel leftPixel = pixels[i][j - 1];
-      red += leftPixel.getRed();
-      green += leftPixel.getGreen();
-      blue += leftPixel.getBlue();
+    // only the neighbors that are inside of the image contribute to the average
+    if (j > 0) {
+      int leftPixel = rows[j - 1 - base][i];
+      red += red(leftPixel);
+      green += green(leftPixel);
+      blue += blue(leftPixel);
       average++;
-    } catch (IndexOutOfBoundsException e) {
-      // DO NOTHING HERE IF THE PIXEL DOESN'T EXIST
     }
 
-    try {
-      Pixel rightPixel = pixels[i][j + 1];
-      red += rightPixel.getRed();
-      green += rightPixel.getGreen();
-      blue += rightPixel.getBlue();
+    if (j + 1 < height) {
+      int rightPixel = rows[j + 1 - base][i];
+      red += red(rightPixel);
+      green += green(rightPixel);
+      blue += blue(rightPixel);
       average++;
-    } catch (IndexOutOfBoundsException e) {
-      // DO NOTHING HERE IF THE PIXEL DOESN'T EXIST
     }
 
-    try {
-      Pixel upPixel = pixels[i - 1][j];
-      red += upPixel.getRed();
-      green += upPixel.getGreen();
-      blue += upPixel.getBlue();
+    if (i > 0) {
+      int upPixel = rows[j - base][i - 1];
+      red += red(upPixel);
+      green += green(upPixel);
+      blue += blue(upPixel);
       average++;
-    } catch (IndexOutOfBoundsException e) {
-      // DO NOTHING HERE IF THE PIXEL DOESN'T EXIST
     }
 
-    try {
-      Pixel downPixel = pixels[i + 1][j];
-      red += downPixel.getRed();
-      green += downPixel.getGreen();
-      blue += downPixel.getBlue();
+    if (i + 1 < width) {
+      int downPixel = rows[j - base][i + 1];
+      red += red(downPixel);
+      green += green(downPixel);
+      blue += blue(downPixel);
       average++;
-    } catch (IndexOutOfBoundsException e) {
-      // DO NOTHING HERE IF THE PIXEL DOESN'T EXIST
     }
 
-    return new RGBPixel((int) (Math.round(red / average)),
+    return pack((int) (Math.round(red / average)),
             (int) (Math.round(green / average)),
             (int) (Math.round(blue / average)));
   }
@@ -0,0 +1,85 @@
+package model.image;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A class representing a node in a graph of images, which is the result of a manipulation applied
+ * to a parent image, but whose pixels are not computed until something reads them. The parent
+ * may itself be a lazy image, so a whole chain of manipulations is only run once its result is
+ * saved or displayed, and a chain that is never read is never run at all. Once computed, the
+ * pixels are kept and the parent is let go, so an image that several others are derived from is
+ * only ever computed once. The manipulation must keep the max value of its parent, as every
+ * manipulation of an image does, so that the max value can be known without computing anything.
+ */
+// INVARIANT: Exactly one of the parent and the result is null, except while the result is being
+//            computed, and the operation is null exactly when the parent is. Once the result is
+//            set it never changes.
+public final class LazyImage extends AbstractDerivedImage {
+
+  private volatile Image parent;
+  private UnaryOperator<Image> operation;
+  private volatile Image result;
+
+  /**
+   * A constructor which creates an image that is the specified manipulation applied to the
+   * specified parent image, without applying it yet.
+   *
+   * @param parent    the image that the manipulation is applied to
+   * @param operation the manipulation that creates this image from its parent
+   * @throws IllegalArgumentException if the parent or the operation are null
+   */
+  public LazyImage(Image parent, UnaryOperator<Image> operation)
+          throws IllegalArgumentException {
+    if (parent == null || operation == null) {
+      throw new IllegalArgumentException("Parent and operation cannot be null!");
+    }
+    this.parent = parent;
+    this.operation = operation;
+  }
+
+  /**
+   * Returns the image that the manipulation is applied to, until the pixels of this image have
+   * been computed.
+   *
+   * @return the parent, or null once this image has been computed
+   */
+  public Image getParent() {
+    return this.parent;
+  }
+
+  @Override
+  public boolean isComputed() {
+    return this.result != null;
+  }
+
+  @Override
+  protected Image computed() {
+    Image computed = this.result;
+    if (computed == null) {
+      synchronized (this) {
+        computed = this.result;
+        if (computed == null) {
+          computed = this.time(() -> this.operation.apply(this.parent));
+          if (computed == null) {
+            throw new IllegalStateException("Manipulation did not produce an image!");
+          }
+          this.result = computed;
+
+          // the parent is no longer needed, so it can be freed if nothing else uses it
+          this.parent = null;
+          this.operation = null;
+        }
+      }
+    }
+    return computed;
+  }
+
+  @Override
+  public int getMaxValue() {
+    Image parent = this.parent;
+    if (parent != null) {
+      return parent.getMaxValue();
+    }
+    return this.computed().getMaxValue();
+  }
+}
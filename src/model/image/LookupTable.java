@@ -0,0 +1,272 @@
+package model.image;
+
+/**
+ * A class representing a point operation that maps every possible value of each component of a
+ * pixel to a new value, with a separate table for the red, green, and blue components. Applying
+ * it to a pixel takes a single array lookup per component, so any operation that computes each
+ * component from that same component alone, such as brightening, darkening, gamma correction,
+ * levels, and curves, can be built into a table once and then applied very cheaply.
+ */
+// INVARIANT: Each of the three tables always holds exactly 256 entries, every one of which is
+//            between 0 and 255, and the tables are never changed after construction. The red and
+//            green tables are stored already shifted into place within a packed pixel.
+public final class LookupTable implements PointOperation {
+
+  /**
+   * The number of possible values of a component of a pixel.
+   */
+  public static final int SIZE = 256;
+
+  private final int[] red;
+  private final int[] green;
+  private final int[] blue;
+  private final boolean identity;
+
+  /**
+   * A constructor which creates a lookup table that maps each component through its own table.
+   *
+   * @param red   the new value for every possible value of the red component
+   * @param green the new value for every possible value of the green component
+   * @param blue  the new value for every possible value of the blue component
+   * @throws IllegalArgumentException if any of the tables are null, do not have exactly 256
+   *                                  entries, or have an entry that is not between 0 and 255
+   */
+  public LookupTable(int[] red, int[] green, int[] blue) throws IllegalArgumentException {
+    this.checkTable(red);
+    this.checkTable(green);
+    this.checkTable(blue);
+    this.red = new int[SIZE];
+    this.green = new int[SIZE];
+    this.blue = blue.clone();
+    boolean identity = true;
+    for (int v = 0; v < SIZE; v++) {
+      this.red[v] = red[v] << 16;
+      this.green[v] = green[v] << 8;
+      identity &= red[v] == v && green[v] == v && blue[v] == v;
+    }
+    this.identity = identity;
+  }
+
+  /**
+   * A constructor which creates a lookup table that maps all three components through the same
+   * table.
+   *
+   * @param table the new value for every possible value of a component
+   * @throws IllegalArgumentException if the table is null, does not have exactly 256 entries, or
+   *                                  has an entry that is not between 0 and 255
+   */
+  public LookupTable(int[] table) throws IllegalArgumentException {
+    this(table, table, table);
+  }
+
+  /**
+   * A helper method which ensures that a table can be used for a component of a pixel.
+   *
+   * @param table the table to check
+   * @throws IllegalArgumentException if the table is null, does not have exactly 256 entries, or
+   *                                  has an entry that is not between 0 and 255
+   */
+  private void checkTable(int[] table) throws IllegalArgumentException {
+    if (table == null || table.length != SIZE) {
+      throw new IllegalArgumentException("A lookup table must have exactly 256 entries!");
+    }
+    for (int value : table) {
+      if (value < 0 || value > 255) {
+        throw new IllegalArgumentException("Lookup table entries must be between 0 and 255!");
+      }
+    }
+  }
+
+  /**
+   * Returns a lookup table which brightens each component by the specified value, capping it at
+   * the max value.
+   *
+   * @param value    the increment for how much the components are increasing by
+   * @param maxValue the max value that a component can go up to
+   * @return the lookup table for brightening
+   * @throws IllegalArgumentException if the value or the max value is not a positive integer
+   */
+  public static LookupTable brighten(int value, int maxValue) throws IllegalArgumentException {
+    if (value <= 0) {
+      throw new IllegalArgumentException("Cannot brighten by a negative number!");
+    }
+    int limit = limit(maxValue);
+    int[] table = new int[SIZE];
+    for (int v = 0; v < SIZE; v++) {
+      table[v] = (int) Math.min(limit, (long) v + value);
+    }
+    return new LookupTable(table);
+  }
+
+  /**
+   * Returns a lookup table which darkens each component by the specified value, stopping at 0.
+   *
+   * @param value the increment for how much the components are decreasing by
+   * @return the lookup table for darkening
+   * @throws IllegalArgumentException if the value is not a positive integer
+   */
+  public static LookupTable darken(int value) throws IllegalArgumentException {
+    if (value <= 0) {
+      throw new IllegalArgumentException("Cannot darken by a negative number!");
+    }
+    int[] table = new int[SIZE];
+    for (int v = 0; v < SIZE; v++) {
+      table[v] = Math.max(0, v - value);
+    }
+    return new LookupTable(table);
+  }
+
+  /**
+   * Returns a lookup table which applies gamma correction to each component, raising it to the
+   * power of one over the gamma as a fraction of the max value. A gamma above 1 lightens the
+   * image and a gamma below 1 darkens it.
+   *
+   * @param gamma    the gamma to correct by
+   * @param maxValue the max value that a component can go up to
+   * @return the lookup table for gamma correction
+   * @throws IllegalArgumentException if the gamma is not a positive number or the max value is
+   *                                  not a positive integer
+   */
+  public static LookupTable gamma(double gamma, int maxValue) throws IllegalArgumentException {
+    return levels(0, limit(maxValue), gamma, maxValue);
+  }
+
+  /**
+   * Returns a lookup table which adjusts the levels of each component: every value at or below
+   * the black point becomes 0, every value at or above the white point becomes the max value, and
+   * the values in between are stretched across the whole range and gamma corrected.
+   *
+   * @param black    the value that becomes 0
+   * @param white    the value that becomes the max value
+   * @param gamma    the gamma to correct the values in between by
+   * @param maxValue the max value that a component can go up to
+   * @return the lookup table for adjusting the levels
+   * @throws IllegalArgumentException if the black point is not below the white point, if either
+   *                                  point is not between 0 and 255, if the gamma is not a
+   *                                  positive number, or if the max value is not positive
+   */
+  public static LookupTable levels(int black, int white, double gamma, int maxValue)
+          throws IllegalArgumentException {
+    if (black < 0 || white > 255 || black >= white) {
+      throw new IllegalArgumentException("Black point must be below the white point and both "
+              + "must be between 0 and 255!");
+    }
+    if (!(gamma > 0) || Double.isInfinite(gamma)) {
+      throw new IllegalArgumentException("Gamma must be a positive number!");
+    }
+    int limit = limit(maxValue);
+    int[] table = new int[SIZE];
+    for (int v = 0; v < SIZE; v++) {
+      double fraction = (Math.min(Math.max(v, black), white) - black) / (double) (white - black);
+      table[v] = (int) Math.round(limit * Math.pow(fraction, 1 / gamma));
+    }
+    return new LookupTable(table);
+  }
+
+  /**
+   * Returns a lookup table which maps each component along a curve that passes through the
+   * specified points and is a straight line between each pair of neighboring points. Values
+   * before the first point or after the last point take the value of that point.
+   *
+   * @param inputs   the values of a component at each point of the curve, in increasing order
+   * @param outputs  the values each of the inputs are mapped to
+   * @param maxValue the max value that a component can go up to
+   * @return the lookup table for the curve
+   * @throws IllegalArgumentException if either array is null or empty, if they are not the same
+   *                                  length, if the inputs are not strictly increasing or not
+   *                                  between 0 and 255, if an output is negative, or if the max
+   *                                  value is not a positive integer
+   */
+  public static LookupTable curve(int[] inputs, int[] outputs, int maxValue)
+          throws IllegalArgumentException {
+    if (inputs == null || outputs == null || inputs.length == 0
+            || inputs.length != outputs.length) {
+      throw new IllegalArgumentException("A curve needs the same number of inputs and outputs!");
+    }
+    for (int k = 0; k < inputs.length; k++) {
+      if (inputs[k] < 0 || inputs[k] > 255 || outputs[k] < 0
+              || (k > 0 && inputs[k] <= inputs[k - 1])) {
+        throw new IllegalArgumentException("Curve inputs must be increasing and between 0 and "
+                + "255, and outputs cannot be negative!");
+      }
+    }
+    int limit = limit(maxValue);
+    int[] table = new int[SIZE];
+    int segment = 0;
+    for (int v = 0; v < SIZE; v++) {
+      double value;
+      if (v <= inputs[0]) {
+        value = outputs[0];
+      } else if (v >= inputs[inputs.length - 1]) {
+        value = outputs[outputs.length - 1];
+      } else {
+        while (v > inputs[segment + 1]) {
+          segment++;
+        }
+        double t = (v - inputs[segment]) / (double) (inputs[segment + 1] - inputs[segment]);
+        value = outputs[segment] + t * (outputs[segment + 1] - outputs[segment]);
+      }
+      table[v] = (int) Math.min(limit, Math.round(value));
+    }
+    return new LookupTable(table);
+  }
+
+  /**
+   * A helper method which returns the highest value a component can take for the specified max
+   * value, since a component is never more than 255.
+   *
+   * @param maxValue the max value of an image
+   * @return the highest value a component of that image can take
+   * @throws IllegalArgumentException if the max value is not a positive integer
+   */
+  private static int limit(int maxValue) throws IllegalArgumentException {
+    if (maxValue <= 0) {
+      throw new IllegalArgumentException("Max value must be positive!");
+    }
+    return Math.min(maxValue, 255);
+  }
+
+  /**
+   * Returns the lookup table that applies this table and then the specified table, which maps
+   * each component exactly as applying the two one after the other would.
+   *
+   * @param next the table to apply after this one
+   * @return the lookup table combining both
+   * @throws IllegalArgumentException if the next table is null
+   */
+  public LookupTable andThen(LookupTable next) throws IllegalArgumentException {
+    if (next == null) {
+      throw new IllegalArgumentException("Lookup table cannot be null!");
+    }
+    int[] red = new int[SIZE];
+    int[] green = new int[SIZE];
+    int[] blue = new int[SIZE];
+    for (int v = 0; v < SIZE; v++) {
+      red[v] = next.red[this.red[v] >> 16] >> 16;
+      green[v] = next.green[this.green[v] >> 8] >> 8;
+      blue[v] = next.blue[this.blue[v]];
+    }
+    return new LookupTable(red, green, blue);
+  }
+
+  @Override
+  public boolean isIdentity() {
+    return this.identity;
+  }
+
+  @Override
+  public int apply(int rgb) {
+    return this.red[(rgb >> 16) & 0xFF] | this.green[(rgb >> 8) & 0xFF] | this.blue[rgb & 0xFF];
+  }
+
+  @Override
+  public void apply(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+    int[] r = this.red;
+    int[] g = this.green;
+    int[] b = this.blue;
+    for (int k = 0; k < length; k++) {
+      int p = src[srcOffset + k];
+      dst[dstOffset + k] = r[(p >> 16) & 0xFF] | g[(p >> 8) & 0xFF] | b[p & 0xFF];
+    }
+  }
+}
@@ -0,0 +1,519 @@
+package model.image;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import model.enums.BorderMode;
+import model.enums.FlipType;
+import model.enums.GreyscaleComponentType;
+
+/**
+ * A class representing an image whose pixels stay in a file and are mapped into memory, rather
+ * than being held on the heap, so that it can be far larger than the heap. The pixels are stored
+ * as in the body of a binary P6 .ppm file: three bytes per pixel, red, green, and blue, row by row
+ * from the top. Every manipulation reads this image a band of rows at a time and writes its result
+ * to a new mapped .ppm file in the result directory, so no manipulation ever holds more than a few
+ * rows of either image on the heap. Asking for every pixel at once through {@link #getPixels()}
+ * still creates them all on the heap.
+ *
+ * <p>A file is mapped in segments of whole rows that are each under a gigabyte, since a single
+ * mapping cannot be larger than 2 gigabytes.</p>
+ *
+ * <p>The file of a result is deleted by {@link #delete()} once nothing needs the result any more,
+ * or else when the program exits. Files that were opened rather than created are never
+ * deleted.</p>
+ */
+// INVARIANT: The width, height, and maxValue are positive, the maxValue is at most 255, and the
+//            segments together map exactly height rows of 3 * width bytes each until the image is
+//            deleted, and none of them afterwards. The pixels of a result are only written while
+//            it is being computed, before it is returned.
+public final class MappedImage implements Image {
+
+  private static final long SEGMENT_BYTES = 1L << 30;
+  private static final int BAND_PIXELS = 1 << 20;
+
+  private final Path file;
+  private final Path resultDirectory;
+  private final int width;
+  private final int height;
+  private final int maxValue;
+  private final int limit;
+  private final int rowBytes;
+  private final int rowsPerSegment;
+  private final MappedByteBuffer[] segments;
+  private final boolean created;
+
+  /**
+   * A constructor which maps the pixels of an image from a file.
+   *
+   * @param channel         the channel of the file, open for reading and for writing if
+   *                        writable
+   * @param file            the path of the file
+   * @param offset          the position in the file of the first byte of the first pixel
+   * @param width           the width of the image
+   * @param height          the height of the image
+   * @param maxValue        the maximum value that a channel of a pixel can be represented by
+   * @param writable        whether the pixels are mapped so that they can be written
+   * @param resultDirectory the directory that the results of manipulations are written to, or
+   *                        null for the default temporary directory
+   * @throws IOException if the file could not be mapped
+   */
+  private MappedImage(FileChannel channel, Path file, long offset, int width, int height,
+                      int maxValue, boolean writable, Path resultDirectory) throws IOException {
+    this.file = file;
+    this.resultDirectory = resultDirectory;
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+    this.limit = Math.min(maxValue, 255);
+    this.rowBytes = 3 * width;
+    this.rowsPerSegment = (int) Math.max(1, Math.min(height, SEGMENT_BYTES / this.rowBytes));
+    this.created = writable;
+    int segmentCount = (height + this.rowsPerSegment - 1) / this.rowsPerSegment;
+    this.segments = new MappedByteBuffer[segmentCount];
+
+    FileChannel.MapMode mode = writable
+            ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+    for (int k = 0; k < this.segments.length; k++) {
+      int rows = Math.min(this.rowsPerSegment, height - k * this.rowsPerSegment);
+      long position = offset + (long) k * this.rowsPerSegment * this.rowBytes;
+      this.segments[k] = channel.map(mode, position, (long) rows * this.rowBytes);
+    }
+  }
+
+  /**
+   * Maps the pixels of an existing file, such as a raw dump of pixels or the body of a binary
+   * P6 .ppm file, for reading.
+   *
+   * @param file            the file holding the pixels
+   * @param offset          the position in the file of the first byte of the first pixel
+   * @param width           the width of the image
+   * @param height          the height of the image
+   * @param maxValue        the maximum value that a channel of a pixel can be represented by
+   * @param resultDirectory the directory that the results of manipulations are written to, or
+   *                        null for the default temporary directory
+   * @return the mapped image
+   * @throws IllegalArgumentException if the file is null, if the offset is negative, if the
+   *                                  width, height, or maxValue is not positive or the maxValue
+   *                                  is above 255, or if the file is too short or could not be
+   *                                  mapped
+   */
+  public static MappedImage open(Path file, long offset, int width, int height, int maxValue,
+                                 Path resultDirectory) throws IllegalArgumentException {
+    checkImageConditions(file, width, height, maxValue);
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset cannot be negative!");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < offset + 3L * width * height) {
+        throw new IllegalArgumentException("File is too short for the image!");
+      }
+      return new MappedImage(channel, file, offset, width, height, maxValue, false,
+              resultDirectory);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to map the file!");
+    }
+  }
+
+  /**
+   * Creates a new binary P6 .ppm file of the specified size and maps its pixels for writing.
+   *
+   * @param file            the file to create, which is replaced if it already exists
+   * @param width           the width of the image
+   * @param height          the height of the image
+   * @param maxValue        the maximum value that a channel of a pixel can be represented by
+   * @param resultDirectory the directory that the results of manipulations are written to, or
+   *                        null for the default temporary directory
+   * @return the mapped image, whose pixels are all black
+   * @throws IllegalArgumentException if the file is null, if the width, height, or maxValue is
+   *                                  not positive or the maxValue is above 255, or if the file
+   *                                  could not be created
+   */
+  static MappedImage create(Path file, int width, int height, int maxValue,
+                            Path resultDirectory) throws IllegalArgumentException {
+    checkImageConditions(file, width, height, maxValue);
+    byte[] header = ("P6\n" + width + " " + height + "\n" + maxValue + "\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.wrap(header);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      return new MappedImage(channel, file, header.length, width, height, maxValue, true,
+              resultDirectory);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to map the file!");
+    }
+  }
+
+  /**
+   * A helper method which enforces the requirements of a mapped image.
+   *
+   * @param file     the file holding the pixels
+   * @param width    the width of the image
+   * @param height   the height of the image
+   * @param maxValue the maximum value that a channel of a pixel can be represented by
+   * @throws IllegalArgumentException if the file is null, if the width, height, or maxValue is
+   *                                  not positive, or if the maxValue is above 255
+   */
+  private static void checkImageConditions(Path file, int width, int height, int maxValue)
+          throws IllegalArgumentException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null!");
+    }
+    if (width <= 0 || height <= 0 || maxValue <= 0) {
+      throw new IllegalArgumentException("Width and height must both be positive!");
+    }
+    if (maxValue > 255 || 3L * width > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Only images with 8 bit samples can be mapped!");
+    }
+  }
+
+  /**
+   * Returns the file that the pixels of this image are mapped from.
+   *
+   * @return the file of this image
+   */
+  public Path getFile() {
+    return this.file;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+
+  @Override
+  public Pixel[][] getPixels() {
+    Pixel[][] temp = new RGBPixel[this.width][this.height];
+    byte[] bytes = new byte[this.rowBytes];
+    int[] row = new int[this.width];
+    for (int j = 0; j < this.height; j++) {
+      this.readRow(j, bytes, row, 0);
+      for (int i = 0; i < this.width; i++) {
+        int p = row[i];
+        temp[i][j] = new RGBPixel((p >> 16) & 0xFF, (p >> 8) & 0xFF, p & 0xFF);
+      }
+    }
+    return temp;
+  }
+
+  @Override
+  public int getRGB(int x, int y) throws IllegalArgumentException {
+    if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
+      throw new IllegalArgumentException("Location is outside of the image!");
+    }
+    ByteBuffer segment = this.segment(y);
+    int p = (y % this.rowsPerSegment) * this.rowBytes + 3 * x;
+    return ((segment.get(p) & 0xFF) << 16) | ((segment.get(p + 1) & 0xFF) << 8)
+            | (segment.get(p + 2) & 0xFF);
+  }
+
+  @Override
+  public void getRGB(int x, int y, int w, int h, int[] dst, int offset, int scansize)
+          throws IllegalArgumentException {
+    if (dst == null) {
+      throw new IllegalArgumentException("Destination array cannot be null!");
+    }
+    if (x < 0 || y < 0 || w < 0 || h < 0 || x + w > this.width || y + h > this.height) {
+      throw new IllegalArgumentException("Region is outside of the image!");
+    }
+    if (h > 0 && (offset < 0 || scansize < w
+            || offset + (long) (h - 1) * scansize + w > dst.length)) {
+      throw new IllegalArgumentException("Destination array is too small for the region!");
+    }
+
+    byte[] bytes = new byte[3 * w];
+    for (int j = 0; j < h; j++) {
+      ByteBuffer segment = this.segment(y + j);
+      segment.get(((y + j) % this.rowsPerSegment) * this.rowBytes + 3 * x, bytes);
+      unpack(bytes, dst, offset + j * scansize, w);
+    }
+  }
+
+  /**
+   * A helper method which returns the mapped segment that holds a row of this image.
+   *
+   * @param y the row
+   * @return the segment holding the row
+   * @throws IllegalStateException if this image has been deleted
+   */
+  private ByteBuffer segment(int y) throws IllegalStateException {
+    ByteBuffer segment = this.segments[y / this.rowsPerSegment];
+    if (segment == null) {
+      throw new IllegalStateException("Image has been deleted!");
+    }
+    return segment;
+  }
+
+  /**
+   * Deletes the file of this image if it was created for the result of a manipulation, and lets
+   * go of its mapping so that the space on disk can be reclaimed. The image cannot be read after
+   * it is deleted. An image mapped from a file that was opened leaves that file alone.
+   *
+   * @return whether the file was deleted
+   */
+  public synchronized boolean delete() {
+    if (!this.created || this.segments[0] == null) {
+      return false;
+    }
+    Arrays.fill(this.segments, null);
+    try {
+      return Files.deleteIfExists(this.file);
+    } catch (IOException e) {
+      // the file is deleted when the program exits anyway
+      return false;
+    }
+  }
+
+  /**
+   * A helper method which reads a whole row of this image as packed pixels.
+   *
+   * @param y      the row to read
+   * @param bytes  a buffer of at least 3 * width bytes to read the samples into
+   * @param dst    the array the packed pixels are written to
+   * @param offset the position in the array of the first pixel of the row
+   */
+  private void readRow(int y, byte[] bytes, int[] dst, int offset) {
+    this.segment(y).get((y % this.rowsPerSegment) * this.rowBytes, bytes, 0, this.rowBytes);
+    unpack(bytes, dst, offset, this.width);
+  }
+
+  /**
+   * A helper method which overwrites a whole row of this image with packed pixels.
+   *
+   * @param y     the row to write
+   * @param row   the packed pixels of the row
+   * @param bytes a buffer of at least 3 * width bytes to write the samples from
+   */
+  private void writeRow(int y, int[] row, byte[] bytes) {
+    for (int i = 0, p = 0; i < this.width; i++, p += 3) {
+      int rgb = row[i];
+      bytes[p] = (byte) (rgb >> 16);
+      bytes[p + 1] = (byte) (rgb >> 8);
+      bytes[p + 2] = (byte) rgb;
+    }
+    this.segment(y).put((y % this.rowsPerSegment) * this.rowBytes, bytes, 0, this.rowBytes);
+  }
+
+  /**
+   * A helper method which packs three bytes per pixel into ints as 0xRRGGBB.
+   *
+   * @param bytes  the samples of the pixels
+   * @param dst    the array the packed pixels are written to
+   * @param offset the position in the array of the first pixel
+   * @param count  the number of pixels
+   */
+  private static void unpack(byte[] bytes, int[] dst, int offset, int count) {
+    for (int i = 0, p = 0; i < count; i++, p += 3) {
+      dst[offset + i] = ((bytes[p] & 0xFF) << 16) | ((bytes[p + 1] & 0xFF) << 8)
+              | (bytes[p + 2] & 0xFF);
+    }
+  }
+
+  /**
+   * A helper method which creates a new mapped image in the result directory that the result of
+   * a manipulation is written to.
+   *
+   * @param width  the width of the result
+   * @param height the height of the result
+   * @return the mapped image to write the result to
+   * @throws IllegalStateException if the file of the result could not be created
+   */
+  private MappedImage newResult(int width, int height) throws IllegalStateException {
+    try {
+      Path result = (this.resultDirectory == null)
+              ? Files.createTempFile("mapped", ".ppm")
+              : Files.createTempFile(this.resultDirectory, "mapped", ".ppm");
+      result.toFile().deleteOnExit();
+      return create(result, width, height, this.maxValue, this.resultDirectory);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new IllegalStateException("Unable to create a file for the result!");
+    }
+  }
+
+  /**
+   * A helper method which returns the number of rows of this image that make up a band, so that
+   * a band holds about the same number of pixels however wide the image is.
+   *
+   * @return the number of rows in a band
+   */
+  private int bandRows() {
+    return Math.max(1, BAND_PIXELS / this.width);
+  }
+
+  @Override
+  public Image greyscaleComponent(GreyscaleComponentType type) {
+    return this.applyPointOperation(new GreyscaleOperation(type));
+  }
+
+  @Override
+  public Image brighten(int value) {
+    return this.applyLookupTable(LookupTable.brighten(value, this.maxValue));
+  }
+
+  @Override
+  public Image darken(int value) {
+    return this.applyLookupTable(LookupTable.darken(value));
+  }
+
+  @Override
+  public Image applyLookupTable(LookupTable table) throws IllegalArgumentException {
+    if (table == null) {
+      throw new IllegalArgumentException("Lookup table cannot be null!");
+    }
+    return this.applyPointOperation(table);
+  }
+
+  @Override
+  public Image applyPointOperation(PointOperation operation) throws IllegalArgumentException {
+    if (operation == null) {
+      throw new IllegalArgumentException("Operation cannot be null!");
+    }
+
+    MappedImage result = this.newResult(this.width, this.height);
+    RowExecutor.getDefault().forEachRow(this.width, this.height, (start, end) -> {
+      byte[] bytes = new byte[this.rowBytes];
+      int[] row = new int[this.width];
+      for (int j = start; j < end; j++) {
+        this.readRow(j, bytes, row, 0);
+        operation.apply(row, 0, row, 0, this.width);
+        result.writeRow(j, row, bytes);
+      }
+    });
+    return result;
+  }
+
+  @Override
+  public Image flip(FlipType type) {
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null!");
+    }
+
+    MappedImage result = this.newResult(this.width, this.height);
+    RowExecutor.getDefault().forEachRow(this.width, this.height, (start, end) -> {
+      byte[] bytes = new byte[this.rowBytes];
+      int[] row = new int[this.width];
+      for (int j = start; j < end; j++) {
+        switch (type) {
+          case VERTICAL:
+            this.readRow(this.height - 1 - j, bytes, row, 0);
+            break;
+          case HORIZONTAL:
+            this.readRow(j, bytes, row, 0);
+            for (int i = 0, k = this.width - 1; i < k; i++, k--) {
+              int swap = row[i];
+              row[i] = row[k];
+              row[k] = swap;
+            }
+            break;
+          default:
+            throw new IllegalArgumentException("Invalid flip type!");
+        }
+        result.writeRow(j, row, bytes);
+      }
+    });
+    return result;
+  }
+
+  @Override
+  public Image filter(double[][] kernel) throws IllegalArgumentException {
+    return this.filter(kernel, BorderMode.ZERO);
+  }
+
+  // filters a band of rows at a time, along with the rows above and below it that the kernel
+  // reaches, which are taken from wherever the border mode says so that every row of the band is
+  // filtered exactly as it would be in the whole image
+  @Override
+  public Image filter(double[][] kernel, BorderMode mode) throws IllegalArgumentException {
+    Convolution.checkKernel(kernel, mode);
+
+    MappedImage result = this.newResult(this.width, this.height);
+    int half = kernel.length / 2;
+    int[] rowMap = Convolution.borderMap(this.height, half, mode);
+    int band = this.bandRows();
+    byte[] bytes = new byte[this.rowBytes];
+    int[] zeros = new int[this.width];
+
+    for (int start = 0; start < this.height; start += band) {
+      int end = Math.min(this.height, start + band);
+      int[][] rows = new int[end - start + 2 * half][];
+      for (int r = 0; r < rows.length; r++) {
+        int source = rowMap[start + r];
+        if (source < 0) {
+          rows[r] = zeros;
+        } else {
+          rows[r] = new int[this.width];
+          this.readRow(source, bytes, rows[r], 0);
+        }
+      }
+
+      int[][] filtered = new Convolution(rows, this.width, rows.length, this.limit)
+              .apply(kernel, mode);
+      for (int j = start; j < end; j++) {
+        result.writeRow(j, filtered[j - start + half], bytes);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Image colorTransformation(double[][] matrix) {
+    return this.applyPointOperation(new ColorMatrix(matrix, this.maxValue));
+  }
+
+  // reads only the row that each row of the result maps to and the rows on either side of it,
+  // which are all that a downsized pixel is computed from
+  @Override
+  public Image downsize(int widthPercent, int heightPercent) throws IllegalArgumentException {
+    if (widthPercent < 0 || widthPercent >= 100 || heightPercent < 0 || heightPercent >= 100) {
+      throw new IllegalArgumentException("Percent must be between 0 - 100");
+    }
+
+    int newWidth = (int) Math.round((this.width * (100 - widthPercent)) / 100.0);
+    int newHeight = (int) Math.round((this.height * (100 - heightPercent)) / 100.0);
+    if (newWidth == 0 || newHeight == 0) {
+      throw new IllegalArgumentException("Width and height must both be positive!");
+    }
+    MappedImage result = this.newResult(newWidth, newHeight);
+
+    RowExecutor.getDefault().forEachRow(newWidth, newHeight, (start, end) -> {
+      byte[] bytes = new byte[this.rowBytes];
+      byte[] newBytes = new byte[3 * newWidth];
+      int[][] rows = new int[3][this.width];
+      int[] newRow = new int[newWidth];
+      for (int j = start; j < end; j++) {
+        int y = (int) ((j / (double) newHeight) * this.height);
+        int base = Math.max(0, y - 1);
+        for (int k = base; k <= Math.min(this.height - 1, y + 1); k++) {
+          this.readRow(k, bytes, rows[k - base], 0);
+        }
+        for (int i = 0; i < newWidth; i++) {
+          newRow[i] = ImageImpl.downsizedPixel(rows, base, this.width, this.height,
+                  i, j, newWidth, newHeight);
+        }
+        result.writeRow(j, newRow, newBytes);
+      }
+    });
+    return result;
+  }
+}
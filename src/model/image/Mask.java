@@ -0,0 +1,163 @@
+package model.image;
+
+import java.util.BitSet;
+
+/**
+ * A class representing the pixels of an image that a manipulation is limited to, either every
+ * pixel of a rectangle or an arbitrary set of pixels taken from a mask image. A manipulation
+ * limited to a mask only computes the pixels inside the bounds of the mask, and every pixel that
+ * is not selected keeps its value from the original image.
+ */
+// INVARIANT: The bounds are never empty and never start at a negative position, and the selected
+//            pixels are either null, meaning that every pixel in the bounds is selected, or hold
+//            one bit per pixel of the bounds, row by row, with at least one bit set.
+public final class Mask {
+
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+  private final BitSet selected;
+
+  /**
+   * A constructor which creates a mask from its bounds and the pixels it selects.
+   *
+   * @param x        the column of the top left corner of the bounds
+   * @param y        the row of the top left corner of the bounds
+   * @param width    the width of the bounds
+   * @param height   the height of the bounds
+   * @param selected the pixels selected within the bounds, or null to select all of them
+   */
+  private Mask(int x, int y, int width, int height, BitSet selected) {
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.selected = selected;
+  }
+
+  /**
+   * Creates a mask which selects every pixel of a rectangle.
+   *
+   * @param x      the column of the top left corner of the rectangle
+   * @param y      the row of the top left corner of the rectangle
+   * @param width  the width of the rectangle
+   * @param height the height of the rectangle
+   * @return the mask
+   * @throws IllegalArgumentException if the rectangle starts at a negative position or its width
+   *                                  or height is not positive
+   */
+  public static Mask rectangle(int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    if (x < 0 || y < 0 || width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Invalid region!");
+    }
+    return new Mask(x, y, width, height, null);
+  }
+
+  /**
+   * Creates a mask which selects every pixel of a mask image that is not black.
+   *
+   * @param image the mask image
+   * @return the mask
+   * @throws IllegalArgumentException if the image is null or is entirely black
+   */
+  public static Mask of(Image image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Mask image cannot be null!");
+    }
+    int imageWidth = image.getWidth();
+    int imageHeight = image.getHeight();
+    int left = imageWidth;
+    int right = -1;
+    int top = imageHeight;
+    int bottom = -1;
+    int[] row = new int[imageWidth];
+    for (int j = 0; j < imageHeight; j++) {
+      image.getRGB(0, j, imageWidth, 1, row, 0, imageWidth);
+      for (int i = 0; i < imageWidth; i++) {
+        if (row[i] != 0) {
+          left = Math.min(left, i);
+          right = Math.max(right, i);
+          top = Math.min(top, j);
+          bottom = j;
+        }
+      }
+    }
+    if (right < 0) {
+      throw new IllegalArgumentException("Mask selects no pixels!");
+    }
+
+    int width = right - left + 1;
+    int height = bottom - top + 1;
+    BitSet selected = new BitSet(width * height);
+    row = new int[width];
+    for (int j = 0; j < height; j++) {
+      image.getRGB(left, top + j, width, 1, row, 0, width);
+      for (int i = 0; i < width; i++) {
+        if (row[i] != 0) {
+          selected.set(j * width + i);
+        }
+      }
+    }
+    return new Mask(left, top, width, height, selected);
+  }
+
+  /**
+   * Returns the column of the top left corner of the bounds of this mask.
+   *
+   * @return the left edge of the bounds
+   */
+  public int getX() {
+    return this.x;
+  }
+
+  /**
+   * Returns the row of the top left corner of the bounds of this mask.
+   *
+   * @return the top edge of the bounds
+   */
+  public int getY() {
+    return this.y;
+  }
+
+  /**
+   * Returns the width of the bounds of this mask.
+   *
+   * @return the width of the bounds
+   */
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of the bounds of this mask.
+   *
+   * @return the height of the bounds
+   */
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Determines whether this mask selects the pixel at the specified location.
+   *
+   * @param x the column of the pixel
+   * @param y the row of the pixel
+   * @return true if the pixel is selected, false otherwise
+   */
+  public boolean contains(int x, int y) {
+    int i = x - this.x;
+    int j = y - this.y;
+    if (i < 0 || j < 0 || i >= this.width || j >= this.height) {
+      return false;
+    }
+    return this.selected == null || this.selected.get(j * this.width + i);
+  }
+
+  @Override
+  public String toString() {
+    return ((this.selected == null) ? "rectangle " : "mask bounded by ") + this.x + " " + this.y
+            + " " + this.width + " " + this.height;
+  }
+}
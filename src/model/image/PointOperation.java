@@ -0,0 +1,57 @@
+package model.image;
+
+/**
+ * An interface representing a manipulation that computes each pixel of the result from the pixel
+ * at the same position in the original image alone, such as brightening, greyscaling, or a color
+ * transformation. Since no pixel depends on any of its neighbors, several point operations in a
+ * row can be fused and applied in a single pass over an image, without creating any of the
+ * images in between.
+ */
+public interface PointOperation {
+
+  /**
+   * Applies this operation to a single pixel.
+   *
+   * @param rgb the pixel, packed as 0xRRGGBB
+   * @return the resulting pixel, packed as 0xRRGGBB
+   */
+  int apply(int rgb);
+
+  /**
+   * Applies this operation to a run of pixels. The source and destination may be the same array
+   * at the same offset, in which case the pixels are replaced in place.
+   *
+   * @param src       the array holding the pixels to apply this operation to
+   * @param srcOffset the index of the first pixel to apply this operation to
+   * @param dst       the array the resulting pixels are written to
+   * @param dstOffset the index that the first resulting pixel is written to
+   * @param length    the number of pixels to apply this operation to
+   */
+  default void apply(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+    for (int k = 0; k < length; k++) {
+      dst[dstOffset + k] = this.apply(src[srcOffset + k]);
+    }
+  }
+
+  /**
+   * Returns whether this operation leaves every pixel exactly as it was, in which case applying
+   * it to an image can give back the image itself.
+   *
+   * @return true if this operation changes no pixel, false if it may change some
+   */
+  default boolean isIdentity() {
+    return false;
+  }
+
+  /**
+   * Returns the operation that applies this operation and then the specified one, which gives
+   * exactly the same pixels as applying the two one after the other would.
+   *
+   * @param next the operation to apply after this one
+   * @return the operation combining both
+   * @throws IllegalArgumentException if the next operation is null
+   */
+  default PointOperation andThen(PointOperation next) throws IllegalArgumentException {
+    return FusedOperation.of(this, next);
+  }
+}
@@ -0,0 +1,229 @@
+package model.image;
+
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * A class representing an image which is a manipulation applied only to the pixels that a mask
+ * selects. The manipulation is only run on the bounds of the mask, plus the margin of pixels
+ * around them that it reads, and only the manipulated pixels within the bounds are kept. Every
+ * other pixel is read straight from the source image, so the pixels the manipulation does not
+ * change are shared with the source rather than copied. Reading pixels never copies the whole
+ * image; only manipulating this image further combines the two into an image of its own, and
+ * even then every row the mask leaves alone is shared with the source when it is held on the
+ * heap. Once combined, the source and patch are let go and every pixel is read from the
+ * combined image, so the source can be freed if nothing else uses it.
+ */
+// INVARIANT: The mask is never null, and the source and patch are either both set or, once the
+//            combined image is set, both null. The bounds of the mask lie within the source, and
+//            the patch holds one row of packed pixels per row of those bounds, each as wide as
+//            the bounds. Once the combined image is set it never changes.
+public final class RegionImage extends AbstractDerivedImage {
+
+  private volatile Image source;
+  private final Mask mask;
+  private volatile int[][] patch;
+  private volatile Image result;
+
+  /**
+   * A constructor which creates an image that is the source image with the pixels the mask
+   * selects taken from the patch instead.
+   *
+   * @param source the image that every pixel the mask does not select is taken from
+   * @param mask   the pixels which are taken from the patch
+   * @param patch  the manipulated pixels of the bounds of the mask, row by row
+   */
+  private RegionImage(Image source, Mask mask, int[][] patch) {
+    this.source = source;
+    this.mask = mask;
+    this.patch = patch;
+  }
+
+  /**
+   * Applies a manipulation to only the pixels of an image that a mask selects. The bounds of the
+   * mask, grown by the margin on every side and cut off at the edges of the image, are copied
+   * into an image of their own which the manipulation is applied to, so a filter reads the same
+   * pixels around the bounds that it would when applied to the whole image.
+   *
+   * @param source    the image to manipulate
+   * @param mask      the pixels to manipulate
+   * @param operation the manipulation, which must keep the size of the image it is given
+   * @param margin    the number of pixels around each pixel that the manipulation reads
+   * @return the image with only the selected pixels manipulated
+   * @throws IllegalArgumentException if any argument is null, if the margin is negative, if the
+   *                                  bounds of the mask are not within the image, or if the
+   *                                  manipulation changes the size of the image
+   */
+  public static Image apply(Image source, Mask mask, UnaryOperator<Image> operation, int margin)
+          throws IllegalArgumentException {
+    if (source == null || mask == null || operation == null) {
+      throw new IllegalArgumentException("Image, mask, and manipulation cannot be null!");
+    }
+    if (margin < 0) {
+      throw new IllegalArgumentException("Margin cannot be negative!");
+    }
+    int width = source.getWidth();
+    int height = source.getHeight();
+    if ((long) mask.getX() + mask.getWidth() > width
+            || (long) mask.getY() + mask.getHeight() > height) {
+      throw new IllegalArgumentException("Region is outside of the image!");
+    }
+
+    int left = Math.max(0, mask.getX() - margin);
+    int top = Math.max(0, mask.getY() - margin);
+    int right = Math.min(width, mask.getX() + mask.getWidth() + margin);
+    int bottom = Math.min(height, mask.getY() + mask.getHeight() + margin);
+    int[][] rows = new int[bottom - top][right - left];
+    for (int j = 0; j < rows.length; j++) {
+      source.getRGB(left, top + j, rows[j].length, 1, rows[j], 0, rows[j].length);
+    }
+
+    Image manipulated = operation.apply(new ImageImpl(rows, source.getMaxValue()));
+    if (manipulated.getWidth() != right - left || manipulated.getHeight() != bottom - top) {
+      throw new IllegalArgumentException("Manipulation must keep the size of the image!");
+    }
+    int[][] patch = new int[mask.getHeight()][mask.getWidth()];
+    for (int j = 0; j < patch.length; j++) {
+      manipulated.getRGB(mask.getX() - left, mask.getY() - top + j, patch[j].length, 1,
+              patch[j], 0, patch[j].length);
+    }
+    return new RegionImage(source, mask, patch);
+  }
+
+  /**
+   * Returns the number of bytes of manipulated pixels this image keeps, not counting the pixels
+   * it shares with its source.
+   *
+   * @return the bytes of the patch, or 0 once it has been combined into an image of its own
+   */
+  public long getPatchBytes() {
+    return (this.patch == null) ? 0 : 4L * this.mask.getWidth() * this.mask.getHeight();
+  }
+
+  /**
+   * Returns the image that every pixel the mask does not select is read from, until this image
+   * has been combined into an image of its own.
+   *
+   * @return the source, or null once this image has been combined
+   */
+  public Image getSource() {
+    return this.source;
+  }
+
+  @Override
+  public boolean isComputed() {
+    return this.result != null;
+  }
+
+  @Override
+  protected Image computed() {
+    Image computed = this.result;
+    if (computed == null) {
+      synchronized (this) {
+        computed = this.result;
+        if (computed == null) {
+          computed = this.time(this::combine);
+          this.result = computed;
+
+          // every pixel is now read from the combined image, so the source and patch can be
+          // freed if nothing else uses them
+          this.source = null;
+          this.patch = null;
+        }
+      }
+    }
+    return computed;
+  }
+
+  /**
+   * A helper method which combines the patch with the pixels of the source outside of it into an
+   * image of its own, which shares every row outside of the bounds of the mask with the source
+   * when the source is held on the heap.
+   *
+   * @return the combined image
+   */
+  private Image combine() {
+    Image base = this.source;
+    while (base instanceof AbstractDerivedImage) {
+      base = ((AbstractDerivedImage) base).computed();
+    }
+    ImageImpl shared = (base instanceof ImageImpl) ? (ImageImpl) base : null;
+
+    int width = this.getWidth();
+    int top = this.mask.getY();
+    int bottom = top + this.mask.getHeight();
+    int[][] rows = new int[this.getHeight()][];
+    for (int j = 0; j < rows.length; j++) {
+      if (shared != null && (j < top || j >= bottom)) {
+        rows[j] = shared.row(j);
+        continue;
+      }
+      rows[j] = new int[width];
+      this.getRGB(0, j, width, 1, rows[j], 0, width);
+      if (shared != null && Arrays.equals(rows[j], shared.row(j))) {
+        rows[j] = shared.row(j);
+      }
+    }
+    return new ImageImpl(rows, this.getMaxValue());
+  }
+
+
+  // the combined image is always set before the source and patch are let go, so whenever either
+  // of them is missing, the combined image is there to read instead
+  @Override
+  public int getWidth() {
+    Image source = this.source;
+    return (source != null) ? source.getWidth() : this.result.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    Image source = this.source;
+    return (source != null) ? source.getHeight() : this.result.getHeight();
+  }
+
+  @Override
+  public int getMaxValue() {
+    Image source = this.source;
+    return (source != null) ? source.getMaxValue() : this.result.getMaxValue();
+  }
+
+  @Override
+  public int getRGB(int x, int y) throws IllegalArgumentException {
+    int[][] patch = this.patch;
+    Image source = this.source;
+    if (patch == null || source == null) {
+      return this.result.getRGB(x, y);
+    }
+    if (this.mask.contains(x, y)) {
+      return patch[y - this.mask.getY()][x - this.mask.getX()];
+    }
+    return source.getRGB(x, y);
+  }
+
+  @Override
+  public void getRGB(int x, int y, int w, int h, int[] dst, int offset, int scansize)
+          throws IllegalArgumentException {
+    int[][] patch = this.patch;
+    Image source = this.source;
+    if (patch == null || source == null) {
+      this.result.getRGB(x, y, w, h, dst, offset, scansize);
+      return;
+    }
+    // the source checks the region and the array, then the selected pixels are written over it
+    source.getRGB(x, y, w, h, dst, offset, scansize);
+    int left = Math.max(x, this.mask.getX());
+    int right = Math.min(x + w, this.mask.getX() + this.mask.getWidth());
+    int top = Math.max(y, this.mask.getY());
+    int bottom = Math.min(y + h, this.mask.getY() + this.mask.getHeight());
+    for (int j = top; j < bottom; j++) {
+      int[] row = patch[j - this.mask.getY()];
+      int start = offset + (j - y) * scansize - x;
+      for (int i = left; i < right; i++) {
+        if (this.mask.contains(i, j)) {
+          dst[start + i] = row[i - this.mask.getX()];
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package model.image;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A class which runs work that is split up by the rows of an image, either on the calling thread
+ * or in parallel bands of rows on a fork-join pool. Images that have fewer pixels than the
+ * threshold are always processed on the calling thread, since splitting them up costs more than
+ * it saves. Since every band writes to its own rows of the result, the output is exactly the same
+ * no matter how many threads are used. The default executor uses the number of threads given by
+ * the "image.parallelism" system property, or the number of available processors if it is not
+ * set or is not positive.
+ */
+// INVARIANT: The parallelism and threshold are always positive, and the pool is null exactly when
+//            the parallelism is 1.
+public final class RowExecutor {
+
+  /**
+   * An interface representing a piece of work that is applied to a band of rows of an image.
+   */
+  public interface RowTask {
+
+    /**
+     * Processes every row from the start row up to but not including the end row.
+     *
+     * @param startRow the first row to process
+     * @param endRow   the row after the last row to process
+     */
+    void apply(int startRow, int endRow);
+  }
+
+  /**
+   * The default number of pixels an image must have before it is split up across threads.
+   */
+  public static final int DEFAULT_THRESHOLD = 256 * 256;
+
+  private static volatile RowExecutor defaultExecutor =
+          new RowExecutor(defaultParallelism(), DEFAULT_THRESHOLD);
+
+  private final int parallelism;
+  private final int threshold;
+  private final ForkJoinPool pool;
+
+  /**
+   * A constructor which creates an executor that uses the specified number of threads for
+   * images that have at least the specified number of pixels.
+   *
+   * @param parallelism the number of threads to split the rows of an image across
+   * @param threshold   the minimum number of pixels an image must have to be split up
+   * @throws IllegalArgumentException if the parallelism or threshold are not positive integers
+   */
+  public RowExecutor(int parallelism, int threshold) throws IllegalArgumentException {
+    if (parallelism <= 0 || threshold <= 0) {
+      throw new IllegalArgumentException("Parallelism and threshold must both be positive!");
+    }
+    this.parallelism = parallelism;
+    this.threshold = threshold;
+    this.pool = (parallelism == 1) ? null : new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * A helper method which reads the number of threads the default executor uses from the
+   * "image.parallelism" system property, falling back to the number of available processors if
+   * it is not set or is not positive, so that a bad value never stops images from being
+   * manipulated.
+   *
+   * @return the parallelism of the default executor
+   */
+  private static int defaultParallelism() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    Integer requested = Integer.getInteger("image.parallelism");
+    if (requested == null) {
+      return processors;
+    }
+    if (requested < 1) {
+      System.err.println("image.parallelism of " + requested + " is not positive, using the "
+              + processors + " available processors instead!");
+      return processors;
+    }
+    return requested;
+  }
+
+  /**
+   * Returns the executor that images use for their manipulations.
+   *
+   * @return the default executor
+   */
+  public static RowExecutor getDefault() {
+    return defaultExecutor;
+  }
+
+  /**
+   * Sets the executor that images use for their manipulations. The executor it replaces is left
+   * running, since it may be set again later, so the caller must {@link #shutdown()} it once it
+   * is no longer needed.
+   *
+   * @param executor the executor to use from now on
+   * @throws IllegalArgumentException if the executor is null
+   */
+  public static void setDefault(RowExecutor executor) throws IllegalArgumentException {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null!");
+    }
+    defaultExecutor = executor;
+  }
+
+  /**
+   * Stops the threads of this executor once the work they are running finishes. Work given to
+   * the executor after this runs on the calling thread, as though its parallelism were 1.
+   */
+  public void shutdown() {
+    if (this.pool != null) {
+      this.pool.shutdown();
+    }
+  }
+
+  /**
+   * Returns the number of threads that this executor splits work across.
+   *
+   * @return the parallelism of this executor
+   */
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * Applies the task to every row of an image of the specified size, splitting the rows into
+   * bands that are run in parallel if the image is big enough. This only returns once every row
+   * has been processed.
+   *
+   * @param width  the width of the image being processed
+   * @param height the number of rows of the image being processed
+   * @param task   the work to apply to the rows
+   * @throws IllegalArgumentException if the task is null
+   */
+  public void forEachRow(int width, int height, RowTask task) throws IllegalArgumentException {
+    if (task == null) {
+      throw new IllegalArgumentException("Task cannot be null!");
+    }
+    if (this.pool == null || this.pool.isShutdown() || height < 2
+            || (long) width * height < this.threshold) {
+      task.apply(0, height);
+      return;
+    }
+
+    // splitting into a few bands per thread so that uneven bands still balance out, while
+    // never making a band so small that it isn't worth its own task
+    int bands = this.parallelism * 4;
+    int minRows = Math.max(1, this.threshold / (4 * Math.max(1, width)));
+    int grain = Math.max(minRows, (height + bands - 1) / bands);
+    try {
+      this.pool.invoke(new RowBand(task, 0, height, grain));
+    } catch (RejectedExecutionException | CancellationException e) {
+      // the executor was shut down after it was checked above, before any band was run
+      task.apply(0, height);
+    }
+  }
+
+  /**
+   * A fork-join action which processes a band of rows, splitting it in half until it is no bigger
+   * than the grain size.
+   */
+  private static final class RowBand extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RowTask task;
+    private final int startRow;
+    private final int endRow;
+    private final int grain;
+
+    private RowBand(RowTask task, int startRow, int endRow, int grain) {
+      this.task = task;
+      this.startRow = startRow;
+      this.endRow = endRow;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.endRow - this.startRow <= this.grain) {
+        this.task.apply(this.startRow, this.endRow);
+        return;
+      }
+      int middle = (this.startRow + this.endRow) >>> 1;
+      RowBand second = new RowBand(this.task, middle, this.endRow, this.grain);
+      second.fork();
+      new RowBand(this.task, this.startRow, middle, this.grain).compute();
+      try {
+        second.join();
+      } catch (CancellationException e) {
+        // the executor was shut down before any thread took the band, so it never ran
+        second.compute();
+      }
+    }
+  }
+}
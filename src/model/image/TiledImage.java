@@ -0,0 +1,486 @@
+package model.image;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import model.enums.BorderMode;
+import model.enums.FlipType;
+import model.enums.GreyscaleComponentType;
+
+/**
+ * A class representing an image split into square tiles, 256 pixels wide by default, whose
+ * manipulations do no work up front. The result of a manipulation is another tiled image that
+ * only computes a tile the first time one of its pixels is read, from just the pixels of the
+ * image it was made from that the tile depends on, and then keeps the tile. Reading part of an
+ * image, whether for display or to save a region, therefore only pays for the tiles it touches,
+ * all the way back up the chain of manipulations.
+ *
+ * <p>A chain starts with {@link #of(Image)}, which reads its tiles straight from the image it
+ * wraps without keeping copies of them. The tiles kept by the images further down the chain can
+ * be discarded at any time to free memory, and are computed again if they are needed.</p>
+ */
+// INVARIANT: The width, height, maxValue, and tile size are positive. Exactly one of the source
+//            and the cache of tiles is null, and the parent is set exactly when the cache is.
+//            Every tile in the cache is either null or holds exactly the pixels of its tile, row
+//            by row. The cached bytes are always the bytes of the tiles in the cache.
+public final class TiledImage implements Image {
+
+  /**
+   * The width and height of the tiles of an image when none is given.
+   */
+  public static final int DEFAULT_TILE_SIZE = 256;
+
+  /**
+   * A function which computes the pixels of a region of an image.
+   */
+  private interface TileComputer {
+
+    /**
+     * Computes the packed pixels of a region of the image, row by row.
+     *
+     * @param x   the column of the top left corner of the region
+     * @param y   the row of the top left corner of the region
+     * @param w   the width of the region
+     * @param h   the height of the region
+     * @param dst the array of at least w * h pixels to write the pixels to
+     */
+    void compute(int x, int y, int w, int h, int[] dst);
+  }
+
+  private final int width;
+  private final int height;
+  private final int maxValue;
+  private final int limit;
+  private final int tileSize;
+  private final int tilesAcross;
+  private final int tilesDown;
+  private final Image source;
+  private final TiledImage parent;
+  private final TileComputer computer;
+  private final AtomicReferenceArray<int[]> tiles;
+  private final AtomicLong cachedBytes;
+
+  /**
+   * A constructor which creates a tiled image that either wraps a source image or computes its
+   * tiles.
+   *
+   * @param width    the width of the image
+   * @param height   the height of the image
+   * @param maxValue the maximum value that a channel of a pixel can be represented by
+   * @param tileSize the width and height of a tile
+   * @param source   the image being wrapped, or null if the tiles are computed
+   * @param parent   the image the tiles are computed from, or null if a source is wrapped
+   * @param computer the function computing the tiles, or null if a source is wrapped
+   */
+  private TiledImage(int width, int height, int maxValue, int tileSize, Image source,
+                     TiledImage parent, TileComputer computer) {
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+    this.limit = Math.min(maxValue, 255);
+    this.tileSize = tileSize;
+    this.tilesAcross = (width + tileSize - 1) / tileSize;
+    this.tilesDown = (height + tileSize - 1) / tileSize;
+    this.source = source;
+    this.parent = parent;
+    this.computer = computer;
+    this.tiles = (source == null)
+            ? new AtomicReferenceArray<>(this.tilesAcross * this.tilesDown) : null;
+    this.cachedBytes = new AtomicLong();
+  }
+
+  /**
+   * Wraps an image so that it is manipulated a tile at a time, using tiles of the default size.
+   *
+   * @param source the image to wrap
+   * @return the tiled image
+   * @throws IllegalArgumentException if the image is null
+   */
+  public static TiledImage of(Image source) throws IllegalArgumentException {
+    return of(source, DEFAULT_TILE_SIZE);
+  }
+
+  /**
+   * Wraps an image so that it is manipulated a tile at a time, using tiles of the specified size.
+   * An image that is already tiled with that size is returned as it is.
+   *
+   * @param source   the image to wrap
+   * @param tileSize the width and height of a tile
+   * @return the tiled image
+   * @throws IllegalArgumentException if the image is null or the tile size is not positive
+   */
+  public static TiledImage of(Image source, int tileSize) throws IllegalArgumentException {
+    if (source == null) {
+      throw new IllegalArgumentException("Image cannot be null!");
+    }
+    if (tileSize <= 0) {
+      throw new IllegalArgumentException("Tile size must be positive!");
+    }
+    if (source instanceof TiledImage && ((TiledImage) source).tileSize == tileSize) {
+      return (TiledImage) source;
+    }
+    return new TiledImage(source.getWidth(), source.getHeight(), source.getMaxValue(), tileSize,
+            source, null, null);
+  }
+
+  /**
+   * A helper method which creates a tiled image whose tiles are computed, with the same tile
+   * size as this image.
+   *
+   * @param width    the width of the new image
+   * @param height   the height of the new image
+   * @param computer the function computing the tiles of the new image
+   * @return the new tiled image
+   */
+  private TiledImage derive(int width, int height, TileComputer computer) {
+    return new TiledImage(width, height, this.maxValue, this.tileSize, null, this, computer);
+  }
+
+  /**
+   * Returns the width and height of the tiles of this image.
+   *
+   * @return the tile size
+   */
+  public int getTileSize() {
+    return this.tileSize;
+  }
+
+  /**
+   * Returns the bytes of the tiles that this image currently keeps in memory. An image made by
+   * {@link #of(Image)} keeps no tiles of its own.
+   *
+   * @return the bytes of the cached tiles
+   */
+  public long getCachedBytes() {
+    return this.cachedBytes.get();
+  }
+
+  /**
+   * Returns the image this wraps, if it was made by {@link #of(Image)}.
+   *
+   * @return the wrapped image, or null if the tiles of this image are computed
+   */
+  public Image getSource() {
+    return this.source;
+  }
+
+  /**
+   * Returns the image the tiles of this image are computed from, which is kept for as long as
+   * this image is, so that tiles that are discarded can be computed again.
+   *
+   * @return the parent image, or null if this image was made by {@link #of(Image)}
+   */
+  public TiledImage getParent() {
+    return this.parent;
+  }
+
+  /**
+   * Drops every tile this image keeps in memory. Tiles that are read again are computed again.
+   *
+   * @return the bytes of the tiles that were dropped
+   */
+  public long discardTiles() {
+    if (this.tiles == null) {
+      return 0;
+    }
+    long freed = 0;
+    for (int k = 0; k < this.tiles.length(); k++) {
+      int[] tile = this.tiles.getAndSet(k, null);
+      if (tile != null) {
+        freed += 4L * tile.length;
+      }
+    }
+    this.cachedBytes.addAndGet(-freed);
+    return freed;
+  }
+
+  /**
+   * Computes every tile overlapping the specified region ahead of time, splitting the tiles
+   * across threads.
+   *
+   * @param x the column of the top left corner of the region
+   * @param y the row of the top left corner of the region
+   * @param w the width of the region
+   * @param h the height of the region
+   * @throws IllegalArgumentException if the region is outside of the image
+   */
+  public void prefetch(int x, int y, int w, int h) throws IllegalArgumentException {
+    if (x < 0 || y < 0 || w < 0 || h < 0 || x + w > this.width || y + h > this.height) {
+      throw new IllegalArgumentException("Region is outside of the image!");
+    }
+    if (this.tiles == null || w == 0 || h == 0) {
+      return;
+    }
+    int firstColumn = x / this.tileSize;
+    int lastColumn = (x + w - 1) / this.tileSize;
+    int firstRow = y / this.tileSize;
+    int lastRow = (y + h - 1) / this.tileSize;
+    int pixelsPerTileRow = (lastColumn - firstColumn + 1) * this.tileSize * this.tileSize;
+
+    RowExecutor.getDefault().forEachRow(pixelsPerTileRow, lastRow - firstRow + 1,
+        (start, end) -> {
+          for (int ty = firstRow + start; ty < firstRow + end; ty++) {
+            for (int tx = firstColumn; tx <= lastColumn; tx++) {
+              this.tile(tx, ty);
+            }
+          }
+        });
+  }
+
+  /**
+   * A helper method which returns the pixels of a tile, computing and keeping them if they have
+   * not been yet. Two threads that ask for the same tile at once may both compute it, but they
+   * compute the same pixels and only one of them is kept.
+   *
+   * @param tx the column of the tile
+   * @param ty the row of the tile
+   * @return the pixels of the tile, row by row
+   */
+  private int[] tile(int tx, int ty) {
+    int k = ty * this.tilesAcross + tx;
+    int[] tile = this.tiles.get(k);
+    if (tile != null) {
+      return tile;
+    }
+
+    int x = tx * this.tileSize;
+    int y = ty * this.tileSize;
+    int w = Math.min(this.tileSize, this.width - x);
+    int h = Math.min(this.tileSize, this.height - y);
+    int[] computed = new int[w * h];
+    this.computer.compute(x, y, w, h, computed);
+    if (this.tiles.compareAndSet(k, null, computed)) {
+      this.cachedBytes.addAndGet(4L * computed.length);
+      return computed;
+    }
+    tile = this.tiles.get(k);
+    return (tile == null) ? computed : tile;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+
+  @Override
+  public Pixel[][] getPixels() {
+    Pixel[][] temp = new RGBPixel[this.width][this.height];
+    int[] row = new int[this.width];
+    for (int j = 0; j < this.height; j++) {
+      this.getRGB(0, j, this.width, 1, row, 0, this.width);
+      for (int i = 0; i < this.width; i++) {
+        int p = row[i];
+        temp[i][j] = new RGBPixel((p >> 16) & 0xFF, (p >> 8) & 0xFF, p & 0xFF);
+      }
+    }
+    return temp;
+  }
+
+  @Override
+  public int getRGB(int x, int y) throws IllegalArgumentException {
+    if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
+      throw new IllegalArgumentException("Location is outside of the image!");
+    }
+    if (this.source != null) {
+      return this.source.getRGB(x, y);
+    }
+    int tx = x / this.tileSize;
+    int ty = y / this.tileSize;
+    int w = Math.min(this.tileSize, this.width - tx * this.tileSize);
+    return this.tile(tx, ty)[(y - ty * this.tileSize) * w + (x - tx * this.tileSize)];
+  }
+
+  // copies the part of every tile that overlaps the region, computing only those tiles
+  @Override
+  public void getRGB(int x, int y, int w, int h, int[] dst, int offset, int scansize)
+          throws IllegalArgumentException {
+    if (this.source != null) {
+      this.source.getRGB(x, y, w, h, dst, offset, scansize);
+      return;
+    }
+    if (dst == null) {
+      throw new IllegalArgumentException("Destination array cannot be null!");
+    }
+    if (x < 0 || y < 0 || w < 0 || h < 0 || x + w > this.width || y + h > this.height) {
+      throw new IllegalArgumentException("Region is outside of the image!");
+    }
+    if (h > 0 && (offset < 0 || scansize < w
+            || offset + (long) (h - 1) * scansize + w > dst.length)) {
+      throw new IllegalArgumentException("Destination array is too small for the region!");
+    }
+    if (w == 0 || h == 0) {
+      return;
+    }
+
+    for (int ty = y / this.tileSize; ty <= (y + h - 1) / this.tileSize; ty++) {
+      int tileY = ty * this.tileSize;
+      int top = Math.max(y, tileY);
+      int bottom = Math.min(y + h, tileY + this.tileSize);
+      for (int tx = x / this.tileSize; tx <= (x + w - 1) / this.tileSize; tx++) {
+        int tileX = tx * this.tileSize;
+        int tileWidth = Math.min(this.tileSize, this.width - tileX);
+        int left = Math.max(x, tileX);
+        int right = Math.min(x + w, tileX + this.tileSize);
+        int[] tile = this.tile(tx, ty);
+        for (int j = top; j < bottom; j++) {
+          System.arraycopy(tile, (j - tileY) * tileWidth + (left - tileX), dst,
+                  offset + (j - y) * scansize + (left - x), right - left);
+        }
+      }
+    }
+  }
+
+  @Override
+  public Image greyscaleComponent(GreyscaleComponentType type) {
+    return this.applyPointOperation(new GreyscaleOperation(type));
+  }
+
+  @Override
+  public Image brighten(int value) {
+    return this.applyLookupTable(LookupTable.brighten(value, this.maxValue));
+  }
+
+  @Override
+  public Image darken(int value) {
+    return this.applyLookupTable(LookupTable.darken(value));
+  }
+
+  @Override
+  public Image applyLookupTable(LookupTable table) throws IllegalArgumentException {
+    if (table == null) {
+      throw new IllegalArgumentException("Lookup table cannot be null!");
+    }
+    return this.applyPointOperation(table);
+  }
+
+  @Override
+  public Image applyPointOperation(PointOperation operation) throws IllegalArgumentException {
+    if (operation == null) {
+      throw new IllegalArgumentException("Operation cannot be null!");
+    }
+    return this.derive(this.width, this.height, (x, y, w, h, dst) -> {
+      this.getRGB(x, y, w, h, dst, 0, w);
+      operation.apply(dst, 0, dst, 0, w * h);
+    });
+  }
+
+  @Override
+  public Image flip(FlipType type) {
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null!");
+    }
+
+    switch (type) {
+      case VERTICAL:
+        return this.derive(this.width, this.height, (x, y, w, h, dst) -> {
+          for (int j = 0; j < h; j++) {
+            this.getRGB(x, this.height - 1 - (y + j), w, 1, dst, j * w, w);
+          }
+        });
+      case HORIZONTAL:
+        return this.derive(this.width, this.height, (x, y, w, h, dst) -> {
+          this.getRGB(this.width - x - w, y, w, h, dst, 0, w);
+          for (int j = 0; j < h; j++) {
+            for (int i = j * w, k = i + w - 1; i < k; i++, k--) {
+              int swap = dst[i];
+              dst[i] = dst[k];
+              dst[k] = swap;
+            }
+          }
+        });
+      default:
+        throw new IllegalArgumentException("Invalid flip type!");
+    }
+  }
+
+  @Override
+  public Image filter(double[][] kernel) throws IllegalArgumentException {
+    return this.filter(kernel, BorderMode.ZERO);
+  }
+
+  // filters each tile along with the margin around it that the kernel reaches, taking the margin
+  // from wherever the border mode says so that the tile is filtered exactly as it would be in the
+  // whole image
+  @Override
+  public Image filter(double[][] kernel, BorderMode mode) throws IllegalArgumentException {
+    Convolution.checkKernel(kernel, mode);
+    int half = kernel.length / 2;
+    int[] columnMap = Convolution.borderMap(this.width, half, mode);
+    int[] rowMap = Convolution.borderMap(this.height, half, mode);
+
+    return this.derive(this.width, this.height, (x, y, w, h, dst) -> {
+      int blockWidth = w + 2 * half;
+      int left = Math.max(0, x - half);
+      int right = Math.min(this.width, x + w + half);
+      int[][] block = new int[h + 2 * half][blockWidth];
+      for (int r = 0; r < block.length; r++) {
+        int sourceRow = rowMap[y + r];
+        if (sourceRow < 0) {
+          continue;
+        }
+        int[] row = block[r];
+        this.getRGB(left, sourceRow, right - left, 1, row, left - (x - half), blockWidth);
+        for (int c = 0; c < blockWidth; c++) {
+          int p = x - half + c;
+          if (p < 0 || p >= this.width) {
+            int sourceColumn = columnMap[x + c];
+            row[c] = (sourceColumn < 0) ? 0 : this.getRGB(sourceColumn, sourceRow);
+          }
+        }
+      }
+
+      int[][] filtered = new Convolution(block, blockWidth, block.length, this.limit)
+              .apply(kernel, mode);
+      for (int j = 0; j < h; j++) {
+        System.arraycopy(filtered[half + j], half, dst, j * w, w);
+      }
+    });
+  }
+
+  @Override
+  public Image colorTransformation(double[][] matrix) {
+    return this.applyPointOperation(new ColorMatrix(matrix, this.maxValue));
+  }
+
+  // reads only the part of the three rows around the row each row of a tile maps to that the tile
+  // depends on
+  @Override
+  public Image downsize(int widthPercent, int heightPercent) throws IllegalArgumentException {
+    if (widthPercent < 0 || widthPercent >= 100 || heightPercent < 0 || heightPercent >= 100) {
+      throw new IllegalArgumentException("Percent must be between 0 - 100");
+    }
+    int newWidth = (int) Math.round((this.width * (100 - widthPercent)) / 100.0);
+    int newHeight = (int) Math.round((this.height * (100 - heightPercent)) / 100.0);
+    if (newWidth == 0 || newHeight == 0) {
+      throw new IllegalArgumentException("Width and height must both be positive!");
+    }
+
+    return this.derive(newWidth, newHeight, (x, y, w, h, dst) -> {
+      int left = Math.max(0, (int) ((x / (double) newWidth) * this.width) - 1);
+      int right = Math.min(this.width - 1,
+              (int) (((x + w - 1) / (double) newWidth) * this.width) + 1);
+      int[][] rows = new int[3][this.width];
+      for (int j = 0; j < h; j++) {
+        int originalY = (int) (((y + j) / (double) newHeight) * this.height);
+        int base = Math.max(0, originalY - 1);
+        for (int k = base; k <= Math.min(this.height - 1, originalY + 1); k++) {
+          this.getRGB(left, k, right - left + 1, 1, rows[k - base], left, this.width);
+        }
+        for (int i = 0; i < w; i++) {
+          dst[j * w + i] = ImageImpl.downsizedPixel(rows, base, this.width, this.height,
+                  x + i, y + j, newWidth, newHeight);
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,49 @@
+package model.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class representing a count that only ever goes up, such as the number of images loaded. It
+ * can be increased from many threads at once without them waiting on each other.
+ */
+// INVARIANT: The count is never negative.
+public final class Counter {
+
+  private final LongAdder count;
+
+  /**
+   * A constructor which creates a counter that starts at zero.
+   */
+  Counter() {
+    this.count = new LongAdder();
+  }
+
+  /**
+   * Increases this counter by one.
+   */
+  public void inc() {
+    this.count.increment();
+  }
+
+  /**
+   * Increases this counter by the specified amount.
+   *
+   * @param amount the amount to increase by
+   * @throws IllegalArgumentException if the amount is negative
+   */
+  public void inc(long amount) throws IllegalArgumentException {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Counters can only go up!");
+    }
+    this.count.add(amount);
+  }
+
+  /**
+   * Returns the current count of this counter.
+   *
+   * @return the count
+   */
+  public long get() {
+    return this.count.sum();
+  }
+}
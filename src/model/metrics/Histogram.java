@@ -0,0 +1,84 @@
+package model.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class representing the distribution of a value that is observed many times, such as how long
+ * an operation takes. Each observation is counted in the first bucket whose upper bound it does
+ * not exceed, or in none if it exceeds them all, and is added to the sum and count of every
+ * observation. It can be observed from many threads at once without them waiting on each other.
+ */
+// INVARIANT: The bounds are in increasing order, and there is one bucket per bound.
+public final class Histogram {
+
+  private final double[] bounds;
+  private final LongAdder[] buckets;
+  private final LongAdder count;
+  private final DoubleAdder sum;
+
+  /**
+   * A constructor which creates a histogram with nothing observed yet.
+   *
+   * @param bounds the upper bound of each bucket, in increasing order
+   */
+  Histogram(double[] bounds) {
+    this.bounds = bounds;
+    this.buckets = new LongAdder[bounds.length];
+    for (int i = 0; i < bounds.length; i++) {
+      this.buckets[i] = new LongAdder();
+    }
+    this.count = new LongAdder();
+    this.sum = new DoubleAdder();
+  }
+
+  /**
+   * Counts a value in this histogram.
+   *
+   * @param value the value that was observed
+   */
+  public void observe(double value) {
+    for (int i = 0; i < this.bounds.length; i++) {
+      if (value <= this.bounds[i]) {
+        this.buckets[i].increment();
+        break;
+      }
+    }
+    this.count.increment();
+    this.sum.add(value);
+  }
+
+  /**
+   * Returns the number of values observed.
+   *
+   * @return the count of observations
+   */
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  /**
+   * Returns the sum of the values observed.
+   *
+   * @return the sum of observations
+   */
+  public double getSum() {
+    return this.sum.sum();
+  }
+
+  /**
+   * Returns the number of values observed that do not exceed each bound, which is the sum of the
+   * bucket of that bound and of every bucket before it.
+   *
+   * @return the cumulative count of each bucket, in the order of the bounds
+   */
+  long[] getCumulativeCounts() {
+    long[] counts = new long[this.buckets.length];
+    long total = 0;
+    for (int i = 0; i < this.buckets.length; i++) {
+      total += this.buckets[i].sum();
+      counts[i] = total;
+    }
+    return counts;
+  }
+}
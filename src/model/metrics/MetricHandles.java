@@ -0,0 +1,79 @@
+package model.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * A class representing the series of the default registry that something records into, looked up
+ * once for each key, such as the name of an operation, and then kept. Looking a series up in a
+ * registry checks its name and labels under a lock, so code that records into the same series
+ * over and over keeps them here instead. The series are looked up again whenever the default
+ * registry is replaced.
+ *
+ * @param <K> the type of the keys that the series are looked up by
+ * @param <T> the type holding the series for a key
+ */
+// INVARIANT: The function creating the series is never null. The kept series are always those of
+//            the registry they are kept with.
+public final class MetricHandles<K, T> {
+
+  private final BiFunction<MetricsRegistry, K, T> create;
+  private volatile Kept<K, T> kept;
+
+  /**
+   * A class representing the series looked up so far in one registry.
+   *
+   * @param <K> the type of the keys that the series are looked up by
+   * @param <T> the type holding the series for a key
+   */
+  private static final class Kept<K, T> {
+    private final MetricsRegistry registry;
+    private final Map<K, T> series;
+
+    /**
+     * A constructor which creates an empty set of series of the specified registry.
+     *
+     * @param registry the registry the series are looked up in
+     */
+    private Kept(MetricsRegistry registry) {
+      this.registry = registry;
+      this.series = new ConcurrentHashMap<>();
+    }
+  }
+
+  /**
+   * A constructor which creates handles that look the series for a key up with the specified
+   * function the first time the key is used.
+   *
+   * @param create the function which looks up the series for a key in a registry
+   * @throws IllegalArgumentException if the function is null
+   */
+  public MetricHandles(BiFunction<MetricsRegistry, K, T> create) throws IllegalArgumentException {
+    if (create == null) {
+      throw new IllegalArgumentException("Function cannot be null!");
+    }
+    this.create = create;
+  }
+
+  /**
+   * Returns the series for the specified key in the default registry, looking them up only if
+   * they have not been looked up in that registry before.
+   *
+   * @param key the key of the series
+   * @return the series for the key
+   * @throws IllegalArgumentException if the key is null
+   */
+  public T get(K key) throws IllegalArgumentException {
+    if (key == null) {
+      throw new IllegalArgumentException("Key cannot be null!");
+    }
+    MetricsRegistry registry = MetricsRegistry.getDefault();
+    Kept<K, T> kept = this.kept;
+    if (kept == null || kept.registry != registry) {
+      kept = new Kept<>(registry);
+      this.kept = kept;
+    }
+    return kept.series.computeIfAbsent(key, k -> this.create.apply(registry, k));
+  }
+}
@@ -0,0 +1,430 @@
+package model.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A class representing the metrics that the program keeps about itself, such as how many times
+ * each operation ran, how long it took, and how many images and bytes are held, which can be
+ * written out in the Prometheus text format to a file or served over HTTP. Each metric has a
+ * name, a line of help, and a type, and holds one series for every combination of label values
+ * it is recorded with.
+ *
+ * <p>Counters and histograms are created the first time they are asked for and are the same
+ * object from then on, so that code can record into them without holding on to them. Gauges, and
+ * counters that are kept elsewhere, are read from a supplier every time the metrics are written,
+ * and registering one again replaces the supplier from before.
+ */
+// INVARIANT: The map of metrics is never null, and each metric only holds series of its type.
+public final class MetricsRegistry {
+
+  /**
+   * The upper bounds, in seconds, of the buckets of the histograms of how long operations take,
+   * from a millisecond up to ten seconds.
+   */
+  public static final double[] LATENCY_BUCKETS = new double[]
+      {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+  private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+  private static final Pattern LABEL = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+  private static volatile MetricsRegistry defaultRegistry = new MetricsRegistry();
+
+  private final Map<String, Metric> metrics;
+
+  /**
+   * A class representing one metric and every series of it, by the labels of the series.
+   */
+  private static final class Metric {
+    private final String help;
+    private final String type;
+    private final double[] bounds;
+    private final Map<String, Object> series;
+
+    /**
+     * A constructor which creates a metric that has no series yet.
+     *
+     * @param help   the line of help of the metric
+     * @param type   the Prometheus type of the metric
+     * @param bounds the upper bounds of the buckets if the metric is a histogram, or null
+     */
+    private Metric(String help, String type, double[] bounds) {
+      this.help = help;
+      this.type = type;
+      this.bounds = bounds;
+      this.series = new LinkedHashMap<>();
+    }
+  }
+
+  /**
+   * A constructor which creates a registry that has no metrics in it.
+   */
+  public MetricsRegistry() {
+    this.metrics = new TreeMap<>();
+  }
+
+  /**
+   * Returns the registry that the model and the image formats record their metrics in.
+   *
+   * @return the default registry
+   */
+  public static MetricsRegistry getDefault() {
+    return defaultRegistry;
+  }
+
+  /**
+   * Sets the registry that the model and the image formats record their metrics in.
+   *
+   * @param registry the registry to use from now on
+   * @throws IllegalArgumentException if the registry is null
+   */
+  public static void setDefault(MetricsRegistry registry) throws IllegalArgumentException {
+    if (registry == null) {
+      throw new IllegalArgumentException("Registry cannot be null!");
+    }
+    defaultRegistry = registry;
+  }
+
+  /**
+   * Returns the counter with the specified name and labels, creating it if it doesn't exist.
+   *
+   * @param name   the name of the counter, which by convention ends in _total
+   * @param help   the line of help of the counter
+   * @param labels the names and values of the labels of the counter, alternating
+   * @return the counter
+   * @throws IllegalArgumentException if the name or labels are invalid, or if a metric of another
+   *                                  type already has the name
+   */
+  public Counter counter(String name, String help, String... labels)
+          throws IllegalArgumentException {
+    return (Counter) this.series(name, help, "counter", null, labels, Counter::new, false);
+  }
+
+  /**
+   * Registers a counter with the specified name and labels whose count is kept elsewhere and is
+   * read from the specified supplier whenever the metrics are written.
+   *
+   * @param name   the name of the counter, which by convention ends in _total
+   * @param help   the line of help of the counter
+   * @param count  the supplier of the count
+   * @param labels the names and values of the labels of the counter, alternating
+   * @throws IllegalArgumentException if the name, labels, or supplier are invalid, or if a metric
+   *                                  of another type already has the name
+   */
+  public void counter(String name, String help, DoubleSupplier count, String... labels)
+          throws IllegalArgumentException {
+    if (count == null) {
+      throw new IllegalArgumentException("Supplier cannot be null!");
+    }
+    this.series(name, help, "counter", null, labels, () -> count, true);
+  }
+
+  /**
+   * Registers a gauge with the specified name and labels, a value that can go up and down, which
+   * is read from the specified supplier whenever the metrics are written.
+   *
+   * @param name   the name of the gauge
+   * @param help   the line of help of the gauge
+   * @param value  the supplier of the value
+   * @param labels the names and values of the labels of the gauge, alternating
+   * @throws IllegalArgumentException if the name, labels, or supplier are invalid, or if a metric
+   *                                  of another type already has the name
+   */
+  public void gauge(String name, String help, DoubleSupplier value, String... labels)
+          throws IllegalArgumentException {
+    if (value == null) {
+      throw new IllegalArgumentException("Supplier cannot be null!");
+    }
+    this.series(name, help, "gauge", null, labels, () -> value, true);
+  }
+
+  /**
+   * Returns the histogram with the specified name and labels, creating it if it doesn't exist.
+   *
+   * @param name   the name of the histogram
+   * @param help   the line of help of the histogram
+   * @param bounds the upper bound of each bucket, in increasing order, which must be the same for
+   *               every series of the histogram
+   * @param labels the names and values of the labels of the histogram, alternating
+   * @return the histogram
+   * @throws IllegalArgumentException if the name, labels, or bounds are invalid, or if a metric
+   *                                  of another type or with other bounds already has the name
+   */
+  public Histogram histogram(String name, String help, double[] bounds, String... labels)
+          throws IllegalArgumentException {
+    if (bounds == null || bounds.length == 0) {
+      throw new IllegalArgumentException("Histograms must have at least one bucket!");
+    }
+    for (int i = 1; i < bounds.length; i++) {
+      if (!(bounds[i] > bounds[i - 1])) {
+        throw new IllegalArgumentException("Bounds must be in increasing order!");
+      }
+    }
+    double[] copy = bounds.clone();
+    return (Histogram) this.series(name, help, "histogram", copy, labels,
+            () -> new Histogram(copy), false);
+  }
+
+  /**
+   * A helper method which finds the series of a metric with the specified labels, creating the
+   * metric and the series if they don't exist.
+   *
+   * @param name    the name of the metric
+   * @param help    the line of help of the metric
+   * @param type    the Prometheus type of the metric
+   * @param bounds  the upper bounds of the buckets if the metric is a histogram, or null
+   * @param labels  the names and values of the labels of the series, alternating
+   * @param create  the supplier of a new series
+   * @param replace whether a new series replaces one that already exists
+   * @return the series
+   * @throws IllegalArgumentException if the name or labels are invalid, or if a metric of another
+   *                                  type or with other bounds already has the name
+   */
+  private synchronized Object series(String name, String help, String type, double[] bounds,
+                                     String[] labels, Supplier<Object> create,
+                                     boolean replace) throws IllegalArgumentException {
+    if (name == null || !NAME.matcher(name).matches()) {
+      throw new IllegalArgumentException("Invalid metric name!");
+    }
+    if (help == null) {
+      throw new IllegalArgumentException("Help cannot be null!");
+    }
+    String key = labelsOf(labels);
+
+    Metric metric = this.metrics.computeIfAbsent(name, n -> new Metric(help, type, bounds));
+    if (!metric.type.equals(type) || !Arrays.equals(metric.bounds, bounds)) {
+      throw new IllegalArgumentException("A different metric is already named " + name + "!");
+    }
+    if (replace) {
+      metric.series.put(key, create.get());
+    }
+    return metric.series.computeIfAbsent(key, k -> create.get());
+  }
+
+  /**
+   * A helper method which formats the labels of a series as they are written after its name.
+   *
+   * @param labels the names and values of the labels, alternating
+   * @return the formatted labels, or an empty string if there are none
+   * @throws IllegalArgumentException if there is a name without a value, or a name or value is
+   *                                  invalid
+   */
+  private static String labelsOf(String[] labels) throws IllegalArgumentException {
+    if (labels == null || labels.length % 2 != 0) {
+      throw new IllegalArgumentException("Every label must have a name and a value!");
+    }
+    StringBuilder formatted = new StringBuilder();
+    for (int i = 0; i < labels.length; i += 2) {
+      if (labels[i] == null || !LABEL.matcher(labels[i]).matches()
+              || labels[i].equals("le") || labels[i + 1] == null) {
+        throw new IllegalArgumentException("Invalid label!");
+      }
+      formatted.append((i == 0) ? "{" : ",").append(labels[i]).append("=\"")
+              .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")
+                      .replace("\n", "\\n"))
+              .append('"');
+    }
+    return (labels.length == 0) ? "" : formatted.append('}').toString();
+  }
+
+  /**
+   * Returns every metric in the Prometheus text format, in order of name.
+   *
+   * @return the metrics as text
+   */
+  public synchronized String scrape() {
+    StringBuilder text = new StringBuilder();
+    for (Map.Entry<String, Metric> entry : this.metrics.entrySet()) {
+      String name = entry.getKey();
+      Metric metric = entry.getValue();
+      text.append("# HELP ").append(name).append(' ')
+              .append(metric.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+      text.append("# TYPE ").append(name).append(' ').append(metric.type).append('\n');
+
+      for (Map.Entry<String, Object> series : metric.series.entrySet()) {
+        String labels = series.getKey();
+        Object value = series.getValue();
+        if (value instanceof Counter) {
+          sample(text, name, labels, ((Counter) value).get());
+        } else if (value instanceof DoubleSupplier) {
+          sample(text, name, labels, ((DoubleSupplier) value).getAsDouble());
+        } else {
+          Histogram histogram = (Histogram) value;
+          long[] counts = histogram.getCumulativeCounts();
+          for (int i = 0; i < counts.length; i++) {
+            sample(text, name + "_bucket", withBound(labels, format(metric.bounds[i])),
+                    counts[i]);
+          }
+          long count = histogram.getCount();
+          sample(text, name + "_bucket", withBound(labels, "+Inf"), count);
+          sample(text, name + "_sum", labels, histogram.getSum());
+          sample(text, name + "_count", labels, count);
+        }
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * A helper method which adds the bound of a bucket to the labels of a series of a histogram.
+   *
+   * @param labels the formatted labels of the series
+   * @param bound  the formatted upper bound of the bucket
+   * @return the labels of the bucket
+   */
+  private static String withBound(String labels, String bound) {
+    String le = "le=\"" + bound + "\"";
+    return labels.isEmpty() ? "{" + le + "}"
+            : labels.substring(0, labels.length() - 1) + "," + le + "}";
+  }
+
+  /**
+   * A helper method which writes one sample line.
+   *
+   * @param text   the text being written
+   * @param name   the name of the sample
+   * @param labels the formatted labels of the sample
+   * @param value  the value of the sample
+   */
+  private static void sample(StringBuilder text, String name, String labels, double value) {
+    text.append(name).append(labels).append(' ').append(format(value)).append('\n');
+  }
+
+  /**
+   * A helper method which formats a value, writing whole numbers without a fraction.
+   *
+   * @param value the value to format
+   * @return the formatted value
+   */
+  private static String format(double value) {
+    if (Double.isNaN(value)) {
+      return "NaN";
+    }
+    if (Double.isInfinite(value)) {
+      return (value > 0) ? "+Inf" : "-Inf";
+    }
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return Double.toString(value);
+  }
+
+  /**
+   * Writes every metric in the Prometheus text format to the specified file, replacing it in one
+   * step so that something reading the file never sees it half written.
+   *
+   * @param file the file to write to
+   * @throws IllegalArgumentException if the file is null or cannot be written
+   */
+  public void write(Path file) throws IllegalArgumentException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null!");
+    }
+    Path absolute = file.toAbsolutePath();
+    try {
+      Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(),
+              ".tmp");
+      try {
+        Files.write(temp, this.scrape().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to write to a file!");
+    }
+  }
+
+  /**
+   * Serves every metric in the Prometheus text format over HTTP on the specified port of the
+   * loopback address, at /metrics, from a background daemon thread, so that serving never keeps
+   * the program from exiting.
+   *
+   * @param port the port to serve on, or 0 for any free port
+   * @return the server, which stops serving once it is closed
+   * @throws IllegalArgumentException if the port is out of range or cannot be bound
+   */
+  public MetricsServer serve(int port) throws IllegalArgumentException {
+    if (port < 0 || port > 65535) {
+      throw new IllegalArgumentException("Invalid port!");
+    }
+    HttpServer server;
+    try {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to serve on port " + port + "!");
+    }
+    server.createContext("/metrics", exchange -> {
+      byte[] body = this.scrape().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type",
+              "text/plain; version=0.0.4; charset=utf-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+
+    // the server takes on whether the thread that starts it is a daemon for the thread it serves
+    // from, so it is started from a daemon thread
+    Thread starter = new Thread(server::start, "metrics-server-start");
+    starter.setDaemon(true);
+    starter.start();
+    try {
+      starter.join();
+    } catch (InterruptedException e) {
+      server.stop(0);
+      Thread.currentThread().interrupt();
+      throw new IllegalArgumentException("Interrupted while starting to serve!");
+    }
+    return new MetricsServer(server);
+  }
+
+  /**
+   * A class representing a server of the metrics of a registry over HTTP.
+   */
+  public static final class MetricsServer implements Closeable {
+
+    private final HttpServer server;
+
+    /**
+     * A constructor which wraps a server that has been started.
+     *
+     * @param server the server
+     */
+    private MetricsServer(HttpServer server) {
+      this.server = server;
+    }
+
+    /**
+     * Returns the port that the metrics are served on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+      return this.server.getAddress().getPort();
+    }
+
+    // stops serving straight away, without waiting for requests in progress
+    @Override
+    public void close() {
+      this.server.stop(0);
+    }
+  }
+}
@@ -8,7 +8,6 @@ import java.util.Arrays;
 import javax.swing.JPanel;
 
 import model.image.Image;
-import model.image.Pixel;
 
 /**
  * An implementation of a histogram, which is a JPanel, and uses arrays to keep track of the
@@ -57,14 +56,16 @@ public class HistogramImpl extends JPanel implements Histogram {
 
     // populating the bins of the histogram by going through every pixel of the image and adding
     // to the correct classification
-    Pixel[][] pixels = img.getPixels();
-    for (int i = 0; i < img.getWidth(); i++) {
-      for (int j = 0; j < img.getHeight(); j++) {
-        Pixel p = pixels[i][j];
-        int red = p.getRed();
-        int green = p.getGreen();
-        int blue = p.getBlue();
-        int intensity = (int) (Math.round(p.getRed() + p.getBlue() + p.getGreen()) / 3.0);
+    int width = img.getWidth();
+    int[] row = new int[width];
+    for (int j = 0; j < img.getHeight(); j++) {
+      img.getRGB(0, j, width, 1, row, 0, width);
+      for (int i = 0; i < width; i++) {
+        int p = row[i];
+        int red = (p >> 16) & 0xFF;
+        int green = (p >> 8) & 0xFF;
+        int blue = p & 0xFF;
+        int intensity = (int) (Math.round(red + blue + green) / 3.0);
 
         redValues[red] += 1;
         greenValues[green] += 1;
@@ -3,7 +3,6 @@ package view.gui;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
 import java.awt.Dimension;
-import java.awt.Color;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
 
@@ -18,7 +17,6 @@ import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 
 import model.image.Image;
-import model.image.Pixel;
 
 /**
  * An implementation of an ImageGUIView which uses JSwing components to put together the specific
@@ -242,23 +240,15 @@ public class ImageGUIViewImpl extends JFrame implements ImageGUIView {
       throw new IllegalArgumentException("Image cannot be null!");
     }
 
-    Pixel[][] pixels = img.getPixels();
+    int width = img.getWidth();
     BufferedImage image =
-            new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_RGB);
+            new BufferedImage(width, img.getHeight(), BufferedImage.TYPE_INT_RGB);
 
-    // populating the buffered image with the correct values
+    // populating the buffered image with the correct values one row at a time
+    int[] row = new int[width];
     for (int i = 0; i < img.getHeight(); i++) {
-      for (int j = 0; j < img.getWidth(); j++) {
-        Pixel p = pixels[j][i];
-        int r = p.getRed();
-        int g = p.getGreen();
-        int b = p.getBlue();
-
-        Color c = new Color(r, g, b);
-        int color = c.getRGB();
-
-        image.setRGB(j, i, color);
-      }
+      img.getRGB(0, i, width, 1, row, 0, width);
+      image.setRGB(0, i, width, 1, row, 0, width);
     }
 
     // setting the icon of the image label so that it now displays the image
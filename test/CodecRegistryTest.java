@@ -0,0 +1,135 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import controller.commands.Load;
+import controller.inputoutput.BMPImageInputOutput;
+import controller.inputoutput.CodecRegistry;
+import controller.inputoutput.ImageInputOutput;
+import controller.inputoutput.JPGImageInputOutput;
+import controller.inputoutput.PNGImageInputOutput;
+import controller.inputoutput.PPMImageInputOutput;
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.image.Image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for {@link CodecRegistry}.
+ */
+public class CodecRegistryTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  // testing that the default registry is shared
+  @Test
+  public void testDefaultIsShared() {
+    assertSame(CodecRegistry.getDefault(), CodecRegistry.getDefault());
+  }
+
+  // testing that each built in format is recognized by its contents whatever the file is called
+  @Test
+  public void testDetectsByMagicBytes() throws IOException {
+    CodecRegistry registry = CodecRegistry.getDefault();
+    assertTrue(registry.forLoading(this.copy("res/family/family.png", "family"))
+            instanceof PNGImageInputOutput);
+    assertTrue(registry.forLoading(this.copy("res/family/family.jpg", "family.png"))
+            instanceof JPGImageInputOutput);
+    assertTrue(registry.forLoading(this.copy("res/family/family.bmp", "family.ppm"))
+            instanceof BMPImageInputOutput);
+    assertTrue(registry.forLoading(this.copy("res/family/family.ppm", "family.jpg"))
+            instanceof PPMImageInputOutput);
+  }
+
+  // testing that the extension is used when the contents are not recognized
+  @Test
+  public void testFallsBackToExtension() throws IOException {
+    File empty = folder.newFile("empty.PNG");
+    assertTrue(CodecRegistry.getDefault().forLoading(empty.getPath())
+            instanceof PNGImageInputOutput);
+  }
+
+  // testing for an exception when neither the contents nor the extension are recognized
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownFormat() throws IOException {
+    File file = folder.newFile("notes.txt");
+    Files.write(file.toPath(), "hello".getBytes());
+    CodecRegistry.getDefault().forLoading(file.getPath());
+  }
+
+  // testing for an exception when the file to load does not exist
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingFile() {
+    CodecRegistry.getDefault().forLoading("res/family/missing.png");
+  }
+
+  // testing that saving picks the codec by extension, ignoring case
+  @Test
+  public void testForSaving() {
+    CodecRegistry registry = CodecRegistry.getDefault();
+    assertTrue(registry.forSaving("out.JPEG") instanceof JPGImageInputOutput);
+    assertTrue(registry.forSaving("dir.png/out.bmp") instanceof BMPImageInputOutput);
+    assertSame(registry.forSaving("a.ppm"), registry.forSaving("b.ppm"));
+  }
+
+  // testing for an exception when saving to a path without an extension
+  @Test(expected = IllegalArgumentException.class)
+  public void testForSavingWithoutExtension() {
+    CodecRegistry.getDefault().forSaving("dir.png/out");
+  }
+
+  // testing that a registered codec takes precedence over the ones registered before it
+  @Test
+  public void testRegisteredCodecTakesPrecedence() throws IOException {
+    CodecRegistry registry = new CodecRegistry();
+    ImageInputOutput png = new PNGImageInputOutput();
+    ImageInputOutput other = new PNGImageInputOutput() {
+      @Override
+      public List<String> getExtensions() {
+        return List.of("png", "img");
+      }
+    };
+    registry.register(png);
+    registry.register(other);
+    assertSame(other, registry.forSaving("out.png"));
+    assertSame(other, registry.forSaving("out.img"));
+    assertSame(other, registry.forLoading("res/family/family.png"));
+  }
+
+  // testing for an exception when registering a null codec
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegisterNull() {
+    new CodecRegistry().register(null);
+  }
+
+  // testing that the load command loads a mislabelled file by its contents
+  @Test
+  public void testLoadMislabelledFile() throws IOException {
+    ImageModel model = new ImageModelImpl();
+    new Load(this.copy("res/family/family.ppm", "family.png"), "family").execute(model);
+    Image expected = new PPMImageInputOutput().load("res/family/family.ppm");
+    Image actual = model.getImage("family");
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    assertEquals(expected.getRGB(3, 4), actual.getRGB(3, 4));
+  }
+
+  /**
+   * Copies a file into the temporary folder under the specified name and returns its path.
+   */
+  private String copy(String from, String name) throws IOException {
+    File file = new File(folder.getRoot(), name);
+    Files.copy(Paths.get(from), file.toPath());
+    return file.getPath();
+  }
+}
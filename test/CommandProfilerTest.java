@@ -0,0 +1,112 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import controller.text.CommandProfiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for {@link CommandProfiler}s.
+ */
+public class CommandProfilerTest {
+
+  // testing for an exception when a measurement has no name or a negative wall time
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRecord() {
+    new CommandProfiler().record("blur", -1, 0, 0);
+  }
+
+  // testing for an exception when there is nothing to measure
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMeasure() {
+    new CommandProfiler().measure("blur", null);
+  }
+
+  // testing for an exception when the profile is written to a file that is neither JSON nor CSV
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFile() {
+    new CommandProfiler().write(Path.of("profile.txt"));
+  }
+
+  // testing that a file that is neither JSON nor CSV is rejected before anything is measured,
+  // whatever the case of its extension
+  @Test
+  public void testCheckFile() {
+    CommandProfiler.checkFile(Path.of("profile.json"));
+    CommandProfiler.checkFile(Path.of("out", "PROFILE.CSV"));
+    int thrown = 0;
+    for (Path file : new Path[]{Path.of("profile.txt"), Path.of("json"), null}) {
+      try {
+        CommandProfiler.checkFile(file);
+      } catch (IllegalArgumentException e) {
+        thrown++;
+      }
+    }
+    assertEquals(3, thrown);
+  }
+
+  // testing that measurements are summed up by command in the order the commands first ran, and
+  // that an unknown measurement makes the sum unknown
+  @Test
+  public void testRecord() {
+    CommandProfiler profiler = new CommandProfiler();
+    profiler.record("load", 3000000, 2000000, 1000);
+    profiler.record("blur", 1000000, 1000000, 500);
+    profiler.record("load", 5000000, -1, 3000);
+
+    assertEquals("command,count,wall_nanos,cpu_nanos,allocated_bytes,max_wall_nanos\n"
+            + "load,2,8000000,-1,4000,5000000\n"
+            + "blur,1,1000000,1000000,500,1000000\n", profiler.toCsv());
+    assertEquals("[\n"
+            + "  {\"command\": \"load\", \"count\": 2, \"wallNanos\": 8000000, \"cpuNanos\": -1, "
+            + "\"allocatedBytes\": 4000, \"maxWallNanos\": 5000000},\n"
+            + "  {\"command\": \"blur\", \"count\": 1, \"wallNanos\": 1000000, \"cpuNanos\": "
+            + "1000000, \"allocatedBytes\": 500, \"maxWallNanos\": 1000000}\n"
+            + "]\n", profiler.toJson());
+
+    String[] rows = profiler.summaryTable().split(System.lineSeparator());
+    assertEquals(4, rows.length);
+    assertTrue(rows[1].matches("load\\s+2\\s+8\\.000\\s+-1\\s+0\\.004\\s+5\\.000"));
+    assertTrue(rows[3].matches("total\\s+3\\s+9\\.000\\s+-1\\s+0\\.005\\s+5\\.000"));
+  }
+
+  // testing that measuring a command runs it once and records its allocation
+  @Test
+  public void testMeasure() {
+    CommandProfiler profiler = new CommandProfiler();
+    int[][] holder = new int[1][];
+    profiler.measure("allocate", () -> holder[0] = new int[1 << 20]);
+
+    assertEquals(1 << 20, holder[0].length);
+    String[] row = profiler.toCsv().split("\n")[1].split(",");
+    assertEquals("allocate", row[0]);
+    assertEquals("1", row[1]);
+    long allocated = Long.parseLong(row[4]);
+    assertTrue(allocated == -1 || allocated >= 4 << 20);
+  }
+
+  // testing that the profile is written as JSON or CSV by the name of the file
+  @Test
+  public void testWrite() throws IOException {
+    CommandProfiler profiler = new CommandProfiler();
+    profiler.record("sepia", 10, 10, 10);
+    Path dir = Files.createTempDirectory("profile");
+    try {
+      profiler.write(dir.resolve("profile.csv"));
+      profiler.write(dir.resolve("profile.JSON"));
+      assertEquals(profiler.toCsv(), new String(Files.readAllBytes(dir.resolve("profile.csv")),
+              StandardCharsets.UTF_8));
+      assertEquals(profiler.toJson(), new String(Files.readAllBytes(dir.resolve("profile.JSON")),
+              StandardCharsets.UTF_8));
+    } finally {
+      Files.deleteIfExists(dir.resolve("profile.csv"));
+      Files.deleteIfExists(dir.resolve("profile.JSON"));
+      Files.delete(dir);
+    }
+  }
+}
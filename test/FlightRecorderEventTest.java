@@ -0,0 +1,132 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import controller.commands.Blur;
+import controller.commands.Brighten;
+import controller.commands.Load;
+import controller.commands.Save;
+import controller.gui.ImageGUIControllerImpl;
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.image.Image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for the flight recorder events of the model, the image formats, and the GUI.
+ */
+public class FlightRecorderEventTest {
+
+  private Recording recording;
+  private Path dir;
+
+  @Before
+  public void init() throws IOException {
+    dir = Files.createTempDirectory("jfr");
+    recording = new Recording();
+    recording.enable("imagemanipulator.ImageOperation").withoutThreshold();
+    recording.enable("imagemanipulator.ImageIO").withoutThreshold();
+    recording.enable("imagemanipulator.ViewUpdate").withoutThreshold();
+  }
+
+  @After
+  public void cleanUp() throws IOException {
+    recording.close();
+    for (Path file : Files.list(dir).collect(Collectors.toList())) {
+      Files.delete(file);
+    }
+    Files.delete(dir);
+  }
+
+  /**
+   * A helper method which stops the recording and reads back the events it recorded by the
+   * specified name.
+   *
+   * @param name the name of the events to read
+   * @return the events, in the order they were recorded
+   * @throws IOException if the recording could not be written or read
+   */
+  private List<RecordedEvent> events(String name) throws IOException {
+    recording.stop();
+    Path file = dir.resolve("recording.jfr");
+    recording.dump(file);
+    return RecordingFile.readAllEvents(file).stream()
+            .filter(e -> e.getEventType().getName().equals(name))
+            .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+            .collect(Collectors.toList());
+  }
+
+  // testing that manipulations of the model are recorded with their size and whether their
+  // result is deferred, and that an image that has not been computed is not computed to record it
+  @Test
+  public void testModelEvents() throws IOException {
+    ImageModel model = new ImageModelImpl();
+    new Load("res/Square.ppm", "square").execute(model);
+    recording.start();
+    new Blur("square", "blurred").execute(model);
+    new Brighten(10, "blurred", "bright").execute(model);
+    new Brighten(10, "bright", "brighter").execute(model);
+
+    List<RecordedEvent> events = events("imagemanipulator.ImageOperation");
+    assertEquals(3, events.size());
+    Image square = model.getImage("square");
+    assertEquals("blur", events.get(0).getString("operation"));
+    assertEquals(square.getWidth(), events.get(0).getInt("width"));
+    assertEquals(square.getHeight(), events.get(0).getInt("height"));
+    assertEquals(4L * square.getWidth() * square.getHeight(), events.get(0).getLong("bytes"));
+    assertFalse(events.get(0).getBoolean("deferred"));
+    assertEquals("brighten", events.get(1).getString("operation"));
+    assertTrue(events.get(1).getBoolean("deferred"));
+    assertEquals(-1, events.get(2).getInt("width"));
+    assertEquals(Thread.currentThread().getName(),
+            events.get(0).getThread().getJavaName());
+  }
+
+  // testing that loading and saving are recorded with the format and size of the file
+  @Test
+  public void testInputOutputEvents() throws IOException {
+    ImageModel model = new ImageModelImpl();
+    Path out = dir.resolve("square.png");
+    recording.start();
+    new Load("res/Square.ppm", "square").execute(model);
+    new Save(out.toString(), "square").execute(model);
+
+    List<RecordedEvent> events = events("imagemanipulator.ImageIO");
+    assertEquals(2, events.size());
+    assertEquals("load", events.get(0).getString("operation"));
+    assertEquals("ppm", events.get(0).getString("format"));
+    assertEquals(Files.size(Path.of("res/Square.ppm")), events.get(0).getLong("bytes"));
+    assertEquals("save", events.get(1).getString("operation"));
+    assertEquals("png", events.get(1).getString("format"));
+    assertEquals(Files.size(out), events.get(1).getLong("bytes"));
+    assertEquals(model.getImage("square").getWidth(), events.get(1).getInt("width"));
+  }
+
+  // testing that the GUI drawing an image is recorded with the size of the image
+  @Test
+  public void testViewUpdateEvent() throws IOException {
+    ImageModel model = new ImageModelImpl();
+    new Load("res/Square.ppm", "guiImage").execute(model);
+    ImageGUIControllerImpl c = new ImageGUIControllerImpl(model, new MockView());
+    recording.start();
+    c.actionPerformed(new ActionEvent("", 0, "blur"));
+
+    List<RecordedEvent> events = events("imagemanipulator.ViewUpdate");
+    assertEquals(1, events.size());
+    assertEquals(model.getImage("guiImage").getHeight(), events.get(0).getInt("height"));
+  }
+}
@@ -0,0 +1,111 @@
+import java.util.Random;
+
+import model.enums.BorderMode;
+import model.image.Image;
+import model.image.ImageImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A class of helper methods for tests which check that an image stored off of the heap gives the
+ * same pixels as the same image held on the heap.
+ */
+public final class HeapEquivalence {
+
+  /**
+   * The widths of the kernels that filters are checked with, which cover the kernels applied
+   * with the original truncation, the wider ones accumulated at full precision, and the ones wide
+   * enough to be applied using Fourier transforms.
+   */
+  private static final int[] KERNEL_SIZES = {3, 5, 7, 9};
+
+  /**
+   * A constructor which keeps this class of helper methods from being instantiated.
+   */
+  private HeapEquivalence() {
+  }
+
+  /**
+   * Creates rows of random packed pixels, which are always the same for the same seed.
+   *
+   * @param width  the number of pixels in each row
+   * @param height the number of rows
+   * @param seed   the seed of the pixels
+   * @return the rows of pixels
+   */
+  public static int[][] randomRows(int width, int height, long seed) {
+    Random random = new Random(seed);
+    int[][] rows = new int[height][width];
+    for (int[] row : rows) {
+      for (int i = 0; i < width; i++) {
+        row[i] = random.nextInt(0x1000000);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Creates an image on the heap with a max value of 255 filled with random pixels, which are
+   * always the same for the same seed.
+   *
+   * @param width  the width of the image
+   * @param height the height of the image
+   * @param seed   the seed of the pixels
+   * @return the image
+   */
+  public static Image randomImage(int width, int height, long seed) {
+    return new ImageImpl(randomRows(width, height, seed), 255);
+  }
+
+  /**
+   * Asserts that filtering an image gives the same pixels as filtering the same image on the
+   * heap, and an image of the same kind, for kernels of every width in {@link #KERNEL_SIZES} and
+   * for every border mode. The kernels are random, so none of them are separable.
+   *
+   * @param heap  the image on the heap
+   * @param image the same image stored some other way
+   * @param type  the kind of image that filtering the image should give
+   */
+  public static void assertFilterMatchesHeap(Image heap, Image image,
+                                             Class<? extends Image> type) {
+    for (int size : KERNEL_SIZES) {
+      double[][] kernel = new double[size][size];
+      Random random = new Random(size);
+      for (double[] row : kernel) {
+        for (int i = 0; i < size; i++) {
+          row[i] = random.nextDouble() / size;
+        }
+      }
+      for (BorderMode mode : BorderMode.values()) {
+        Image filtered = image.filter(kernel, mode);
+        assertTrue(type.isInstance(filtered));
+        assertSamePixels(heap.filter(kernel, mode), filtered);
+      }
+    }
+  }
+
+  /**
+   * Asserts that two images are the same size and have exactly the same pixels, whether they are
+   * read one at a time or all at once.
+   *
+   * @param expected the image with the expected pixels
+   * @param actual   the image being checked
+   */
+  public static void assertSamePixels(Image expected, Image actual) {
+    int width = expected.getWidth();
+    int height = expected.getHeight();
+    assertEquals(width, actual.getWidth());
+    assertEquals(height, actual.getHeight());
+    assertEquals(expected.getMaxValue(), actual.getMaxValue());
+
+    int[] region = new int[width * height];
+    actual.getRGB(0, 0, width, height, region, 0, width);
+    for (int j = 0; j < height; j++) {
+      for (int i = 0; i < width; i++) {
+        assertEquals(expected.getRGB(i, j), actual.getRGB(i, j));
+        assertEquals(expected.getRGB(i, j), region[j * width + i]);
+      }
+    }
+  }
+}
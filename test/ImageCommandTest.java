@@ -521,7 +521,7 @@ public class ImageCommandTest {
   @Test
   public void testLoadAndSaveFromPPM() {
     // load as ppm
-    load = new Load("res/squareAllFileTypes/square.ppm", "squarePPM");
+    load = new Load("res/squareAllFileTypes/Square.ppm", "squarePPM");
     load.execute(m);
     Image squarePPM = m.getImage("squarePPM");
 
@@ -4,6 +4,7 @@ import org.junit.Test;
 import controller.commands.Load;
 import model.ImageModel;
 import model.ImageModelImpl;
+import model.enums.BorderMode;
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
 import model.image.Image;
@@ -13,6 +14,7 @@ import model.image.RGBPixel;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -27,7 +29,7 @@ public class ImageImplTest {
   @Before
   public void init() {
     m = new ImageModelImpl();
-    new Load("res/square.ppm", "square").execute(m);
+    new Load("res/Square.ppm", "square").execute(m);
     square = m.getImage("square");
   }
 
@@ -74,6 +76,47 @@ public class ImageImplTest {
     Image img = new ImageImpl(100, 100, 255, new RGBPixel[1000][45]);
   }
 
+  // testing for an exception when the packed rows are null
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPackedConstruction1() {
+    Image img = new ImageImpl(null, 255);
+  }
+
+  // testing for an exception when there are no packed rows
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPackedConstruction2() {
+    Image img = new ImageImpl(new int[0][10], 255);
+  }
+
+  // testing for an exception when the packed rows are not all the same length
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPackedConstruction3() {
+    Image img = new ImageImpl(new int[][]{{0, 0, 0}, {0, 0}}, 255);
+  }
+
+  // testing for an exception when maxValue is not a positive integer for packed rows
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPackedConstruction4() {
+    Image img = new ImageImpl(new int[2][2], 0);
+  }
+
+  // testing that an image built from packed rows unpacks to the correct pixels
+  @Test
+  public void testValidPackedConstruction() {
+    Image img = new ImageImpl(new int[][]{{0xFF0000, 0x00FF00, 0x0000FF}, {0x123456, 0, 0xFFFFFF}},
+            255);
+    assertEquals(3, img.getWidth());
+    assertEquals(2, img.getHeight());
+    assertEquals(255, img.getPixels()[0][0].getRed());
+    assertEquals(255, img.getPixels()[1][0].getGreen());
+    assertEquals(255, img.getPixels()[2][0].getBlue());
+    assertEquals(0x12, img.getPixels()[0][1].getRed());
+    assertEquals(0x34, img.getPixels()[0][1].getGreen());
+    assertEquals(0x56, img.getPixels()[0][1].getBlue());
+    assertEquals(0, img.getPixels()[1][1].getRed());
+    assertEquals(255, img.getPixels()[2][1].getGreen());
+  }
+
   // testing the method getWidth on images
   @Test
   public void testGetWidth() {
@@ -129,6 +172,53 @@ public class ImageImplTest {
     assertEquals(255, square.getPixels()[3][3].getBlue());
   }
 
+  // testing that getRGB returns the same packed components as getPixels for every pixel
+  @Test
+  public void testGetRGB() {
+    for (int i = 0; i < square.getWidth(); i++) {
+      for (int j = 0; j < square.getHeight(); j++) {
+        Pixel p = square.getPixels()[i][j];
+        int rgb = square.getRGB(i, j);
+        assertEquals(p.getRed(), (rgb >> 16) & 0xFF);
+        assertEquals(p.getGreen(), (rgb >> 8) & 0xFF);
+        assertEquals(p.getBlue(), rgb & 0xFF);
+      }
+    }
+    assertEquals(0xFF00FF, square.getRGB(0, 3));
+    assertEquals(0x000FAF, square.getRGB(2, 2));
+  }
+
+  // testing that reading a region copies it row by row at the given offset and scansize
+  @Test
+  public void testGetRGBRegion() {
+    int[] region = new int[1 + 3 * 5];
+    square.getRGB(1, 1, 3, 3, region, 1, 5);
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(square.getRGB(1 + i, 1 + j), region[1 + j * 5 + i]);
+      }
+    }
+    assertEquals(0, region[0]);
+  }
+
+  // testing for an exception when getting a pixel outside of the image
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetRGBOutOfBounds() {
+    square.getRGB(4, 0);
+  }
+
+  // testing for an exception when reading a region that extends past the image
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetRGBRegionOutOfBounds() {
+    square.getRGB(2, 2, 3, 1, new int[3], 0, 3);
+  }
+
+  // testing for an exception when the destination array is too small for the region
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetRGBRegionTooSmall() {
+    square.getRGB(0, 0, 4, 4, new int[15], 0, 4);
+  }
+
   // testing for an exception when the greyscaleComponent method is passed a null type
   @Test(expected = IllegalArgumentException.class)
   public void testFailedGreyscale() {
@@ -521,6 +611,187 @@ public class ImageImplTest {
     }
   }
 
+  // testing that a wide separable kernel, which is applied in two passes, matches applying the
+  // whole kernel at once at full precision
+  @Test
+  public void testWideSeparableFilter() {
+    new Load("res/family/family.ppm", "family").execute(m);
+    family = m.getImage("family");
+
+    double[] weights = new double[]{1, 8, 28, 56, 70, 56, 28, 8, 1};
+    double[][] kernel = new double[9][9];
+    for (int r = 0; r < 9; r++) {
+      for (int c = 0; c < 9; c++) {
+        kernel[r][c] = weights[r] * weights[c] / 65536.0;
+      }
+    }
+
+    this.assertFilterWithinTolerance(family, kernel, BorderMode.ZERO, 1);
+  }
+
+  // testing that a wide kernel which is not separable is applied at full precision
+  @Test
+  public void testWideNonSeparableFilter() {
+    double[][] kernel = new double[7][7];
+    for (int r = 0; r < 7; r++) {
+      for (int c = 0; c < 7; c++) {
+        kernel[r][c] = ((r * 7 + c) % 5 - 2) / 20.0;
+      }
+    }
+    kernel[3][3] = 1.5;
+
+    this.assertFilterWithinTolerance(square, kernel, BorderMode.ZERO, 0);
+  }
+
+  // testing that a large kernel which is not separable, which is applied using Fourier
+  // transforms, matches applying the whole kernel directly for every border mode
+  @Test
+  public void testLargeKernelFilter() {
+    new Load("res/family/family.ppm", "family").execute(m);
+    family = m.getImage("family");
+
+    double[][] kernel = new double[31][31];
+    for (int r = 0; r < 31; r++) {
+      for (int c = 0; c < 31; c++) {
+        int distance = Math.abs(r - 15) + Math.abs(c - 15);
+        kernel[r][c] = (distance <= 15) ? 1.0 / 481 : 0;
+      }
+    }
+    kernel[3][20] = -0.05;
+
+    for (BorderMode mode : BorderMode.values()) {
+      this.assertFilterWithinTolerance(family, kernel, mode, 1);
+    }
+  }
+
+  /**
+   * Asserts that filtering an image with the specified kernel and border mode matches applying
+   * the kernel to every pixel at full precision and rounding once, to within the specified
+   * tolerance.
+   */
+  private void assertFilterWithinTolerance(Image img, double[][] kernel, BorderMode mode,
+                                           int tolerance) {
+    Image filtered = img.filter(kernel, mode);
+    int half = kernel.length / 2;
+
+    for (int i = 0; i < img.getWidth(); i++) {
+      for (int j = 0; j < img.getHeight(); j++) {
+        double[] sums = new double[3];
+        for (int r = 0; r < kernel.length; r++) {
+          for (int c = 0; c < kernel.length; c++) {
+            int x = this.borderPosition(i + r - half, img.getWidth(), mode);
+            int y = this.borderPosition(j + c - half, img.getHeight(), mode);
+            if (x >= 0 && y >= 0) {
+              int p = img.getRGB(x, y);
+              sums[0] += kernel[r][c] * ((p >> 16) & 0xFF);
+              sums[1] += kernel[r][c] * ((p >> 8) & 0xFF);
+              sums[2] += kernel[r][c] * (p & 0xFF);
+            }
+          }
+        }
+        int p = filtered.getRGB(i, j);
+        int[] actual = new int[]{(p >> 16) & 0xFF, (p >> 8) & 0xFF, p & 0xFF};
+        for (int k = 0; k < 3; k++) {
+          int expected = (int) Math.min(Math.max(Math.round(sums[k]), 0), 255);
+          assertTrue(Math.abs(expected - actual[k]) <= tolerance);
+        }
+      }
+    }
+  }
+
+  // testing every border mode with a small kernel that moves each pixel one column to the right,
+  // so the leftmost column shows exactly where each mode takes the pixels past the edge from
+  @Test
+  public void testBorderModesSmallKernel() {
+    double[][] kernel = new double[3][3];
+    kernel[0][1] = 1;
+    this.assertShifted(square, kernel, 1);
+  }
+
+  // testing every border mode with a wide kernel that moves each pixel three columns to the
+  // right, which reaches past the edge of the 4 by 4 image by almost the whole image
+  @Test
+  public void testBorderModesWideKernel() {
+    double[][] kernel = new double[7][7];
+    kernel[0][3] = 1;
+    this.assertShifted(square, kernel, 3);
+  }
+
+  /**
+   * Asserts that filtering with a kernel that moves every pixel the specified number of columns
+   * to the right takes the pixels past the left edge from the right place for every border mode.
+   */
+  private void assertShifted(Image img, double[][] kernel, int shift) {
+    int width = img.getWidth();
+    for (BorderMode mode : BorderMode.values()) {
+      Image shifted = img.filter(kernel, mode);
+      for (int i = 0; i < width; i++) {
+        for (int j = 0; j < img.getHeight(); j++) {
+          int x = i - shift;
+          int expected;
+          if (x >= 0) {
+            expected = img.getRGB(x, j);
+          } else if (mode == BorderMode.ZERO) {
+            expected = 0;
+          } else if (mode == BorderMode.CLAMP) {
+            expected = img.getRGB(0, j);
+          } else if (mode == BorderMode.MIRROR) {
+            expected = img.getRGB(-x, j);
+          } else {
+            expected = img.getRGB(x + width, j);
+          }
+          assertEquals(expected, shifted.getRGB(i, j));
+        }
+      }
+    }
+  }
+
+  // testing that filtering with the zero border mode is the same as filtering without a mode
+  @Test
+  public void testZeroBorderModeMatchesFilter() {
+    double[][] kernel = new double[][]
+        {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
+    Image blurred = square.filter(kernel);
+    Image zeroBlurred = square.filter(kernel, BorderMode.ZERO);
+    for (int i = 0; i < square.getWidth(); i++) {
+      for (int j = 0; j < square.getHeight(); j++) {
+        assertEquals(blurred.getRGB(i, j), zeroBlurred.getRGB(i, j));
+      }
+    }
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNullBorderModeForFilter() {
+    square.filter(new double[3][3], null);
+  }
+
+  /**
+   * Returns the position that a pixel at the specified position takes its value from under the
+   * specified border mode, or -1 if it contributes nothing.
+   */
+  private int borderPosition(int p, int length, BorderMode mode) {
+    while (p < 0 || p >= length) {
+      switch (mode) {
+        case ZERO:
+          return -1;
+        case CLAMP:
+          return (p < 0) ? 0 : length - 1;
+        case MIRROR:
+          p = (p < 0) ? -p : 2 * (length - 1) - p;
+          break;
+        default:
+          p = (p < 0) ? p + length : p - length;
+          break;
+      }
+    }
+    return p;
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testRaggedKernelForFilter() {
+    square.filter(new double[][]{{0, 0, 0}, {0, 1}, {0, 0, 0}});
+  }
+
   @Test (expected = IllegalArgumentException.class)
   public void testNullKernelForFilter() {
     square.filter(null);
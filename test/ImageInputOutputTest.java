@@ -1,12 +1,21 @@
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import controller.inputoutput.BMPImageInputOutput;
 import controller.inputoutput.ImageInputOutput;
 import controller.inputoutput.JPGImageInputOutput;
+import controller.inputoutput.LoadOptions;
 import controller.inputoutput.PNGImageInputOutput;
 import controller.inputoutput.PPMImageInputOutput;
 import model.image.Image;
+import model.image.ImageImpl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -16,6 +25,9 @@ import static org.junit.Assert.assertTrue;
  */
 public class ImageInputOutputTest {
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   private ImageInputOutput ppmIO;
   private ImageInputOutput jpgIO;
   private ImageInputOutput bmpIO;
@@ -220,4 +232,314 @@ public class ImageInputOutputTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  // testing that comments are skipped anywhere in a ppm file, including right after a token
+  @Test
+  public void testLoadPPMWithComments() throws IOException {
+    Image img = ppmIO.load(this.writePPM("# leading comment\nP3# after the magic\n"
+            + "2 # between the width and height\n1\n# before the max value\n255\n"
+            + "255 0 0 # a red pixel\n\n  0\t128\r\n255"));
+    assertEquals(2, img.getWidth());
+    assertEquals(1, img.getHeight());
+    assertEquals(255, img.getMaxValue());
+    assertEquals(0xFF0000, img.getRGB(0, 0));
+    assertEquals(0x0080FF, img.getRGB(1, 0));
+  }
+
+  // testing that loading a ppm image gives the same pixels as the file contains
+  @Test
+  public void testLoadPPMPixels() throws IOException {
+    StringBuilder content = new StringBuilder("P3\n300 200\n255\n");
+    for (int k = 0; k < 300 * 200; k++) {
+      content.append(k % 256).append(' ').append((k / 7) % 256).append(' ').append(k % 97)
+              .append('\n');
+    }
+    Image img = ppmIO.load(this.writePPM(content.toString()));
+    for (int j = 0; j < 200; j++) {
+      for (int i = 0; i < 300; i++) {
+        int k = j * 300 + i;
+        assertEquals(((k % 256) << 16) | (((k / 7) % 256) << 8) | (k % 97), img.getRGB(i, j));
+      }
+    }
+  }
+
+  // testing for an exception when a ppm file does not exist
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadMissingPPM() {
+    ppmIO.load("res/doesNotExist.ppm");
+  }
+
+  // testing for an exception when a ppm file ends before all of its samples
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadTruncatedPPM() throws IOException {
+    ppmIO.load(this.writePPM("P3 2 2 255 1 2 3 4 5 6 7 8 9"));
+  }
+
+  // testing for an exception when a ppm file has a token that is not a number
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadPPMWithBadSample() throws IOException {
+    ppmIO.load(this.writePPM("P3 1 1 255 1 2x 3"));
+  }
+
+  // testing for an exception when a ppm file does not start with P3
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadPPMWithBadMagic() throws IOException {
+    ppmIO.load(this.writePPM("P7 1 1 255 1 2 3"));
+  }
+
+  // testing that an image saved in the binary form is loaded back with exactly the same pixels
+  @Test
+  public void testSaveAndLoadBinaryPPM() throws IOException {
+    Image family = ppmIO.load("res/family/family.ppm");
+    String path = folder.newFile("family.ppm").getPath();
+    new PPMImageInputOutput(true).save(path, family);
+
+    byte[] bytes = Files.readAllBytes(new File(path).toPath());
+    String header = "P6\n" + family.getWidth() + " " + family.getHeight() + "\n255\n";
+    assertEquals(header, new String(bytes, 0, header.length(), StandardCharsets.US_ASCII));
+    assertEquals(header.length() + 3 * family.getWidth() * family.getHeight(), bytes.length);
+    this.assertSamePixels(family, ppmIO.load(path));
+  }
+
+  // testing that a binary ppm file with a comment in its header and 16 bit samples is loaded and
+  // scaled down to 8 bits
+  @Test
+  public void testLoadSixteenBitBinaryPPM() throws IOException {
+    byte[] header = "P6 # sixteen bits\n2 1 65535\n".getBytes(StandardCharsets.US_ASCII);
+    byte[] samples = new byte[]{(byte) 0xFF, (byte) 0xFF, 0, 0, (byte) 0x80, (byte) 0x80,
+        0x01, 0x01, 0x10, 0x10, (byte) 0xFF, (byte) 0xFE};
+    File file = folder.newFile();
+    byte[] contents = new byte[header.length + samples.length];
+    System.arraycopy(header, 0, contents, 0, header.length);
+    System.arraycopy(samples, 0, contents, header.length, samples.length);
+    Files.write(file.toPath(), contents);
+
+    Image img = ppmIO.load(file.getPath());
+    assertEquals(65535, img.getMaxValue());
+    assertEquals(0xFF0080, img.getRGB(0, 0));
+    assertEquals(0x0110FF, img.getRGB(1, 0));
+  }
+
+  // testing that an image with 16 bit samples keeps its pixels when saved and loaded again in
+  // either form
+  @Test
+  public void testSaveAndLoadSixteenBitPPM() throws IOException {
+    int[][] rows = new int[3][5];
+    for (int j = 0; j < 3; j++) {
+      for (int i = 0; i < 5; i++) {
+        rows[j][i] = (i * 50 << 16) | (j * 120 << 8) | (i * j * 17);
+      }
+    }
+    Image img = new ImageImpl(rows, 1023);
+    String binaryPath = folder.newFile("wide6.ppm").getPath();
+    String plainPath = folder.newFile("wide3.ppm").getPath();
+    new PPMImageInputOutput(true).save(binaryPath, img);
+    new PPMImageInputOutput(false).save(plainPath, img);
+
+    assertEquals(this.headerLength(5, 3, 1023) + 6 * 5 * 3,
+            Files.size(new File(binaryPath).toPath()));
+    Image binary = ppmIO.load(binaryPath);
+    Image plain = ppmIO.load(plainPath);
+    assertEquals(1023, binary.getMaxValue());
+    assertEquals(1023, plain.getMaxValue());
+    this.assertSamePixels(img, binary);
+    this.assertSamePixels(img, plain);
+  }
+
+  // testing that an image with a max value too large for a ppm file is saved with a max value of
+  // 65535 in either form, and keeps its pixels
+  @Test
+  public void testSaveHugeMaxValuePPM() throws IOException {
+    Image img = new ImageImpl(new int[][]{{0xFF0080, 0x01FE7F}}, 10_000_000);
+    String binaryPath = folder.newFile("huge6.ppm").getPath();
+    String plainPath = folder.newFile("huge3.ppm").getPath();
+    new PPMImageInputOutput(true).save(binaryPath, img);
+    new PPMImageInputOutput(false).save(plainPath, img);
+
+    Image binary = ppmIO.load(binaryPath);
+    Image plain = ppmIO.load(plainPath);
+    assertEquals(65535, binary.getMaxValue());
+    assertEquals(65535, plain.getMaxValue());
+    this.assertSamePixels(img, binary);
+    this.assertSamePixels(img, plain);
+  }
+
+  // testing for an exception when a binary ppm file ends before all of its samples
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadTruncatedBinaryPPM() throws IOException {
+    ppmIO.load(this.writePPM("P6\n2 2\n255\nabcdefghij"));
+  }
+
+  // testing for an exception when a 16 bit sample is above the max value
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadBinaryPPMAboveMaxValue() throws IOException {
+    ppmIO.load(this.writePPM("P6\n1 1\n1000\n\u0010\u0000\u0000\u0000\u0000\u0000"));
+  }
+
+  // testing that a plain ppm file is written with its header and one sample per line
+  @Test
+  public void testSavePlainPPMFormat() throws IOException {
+    Image img = new ImageImpl(new int[][]{{0xFF0A00, 0x000001}, {0x7B2D09, 0x646464}}, 255);
+    String path = folder.newFile().getPath();
+    ppmIO.save(path, img);
+    String n = System.lineSeparator();
+    assertEquals("P3" + n + "2 2" + n + "255" + n
+            + "255" + n + "10" + n + "0" + n + "0" + n + "0" + n + "1" + n
+            + "123" + n + "45" + n + "9" + n + "100" + n + "100" + n + "100" + n,
+            new String(Files.readAllBytes(new File(path).toPath()), StandardCharsets.US_ASCII));
+  }
+
+  // testing that a large image is saved and loaded back in the plain form with the same pixels
+  @Test
+  public void testSaveAndLoadLargePlainPPM() throws IOException {
+    int[][] rows = new int[321][457];
+    for (int j = 0; j < rows.length; j++) {
+      for (int i = 0; i < rows[j].length; i++) {
+        rows[j][i] = (i * 31 + j * 7) & 0xFFFFFF;
+      }
+    }
+    Image img = new ImageImpl(rows, 255);
+    String path = folder.newFile().getPath();
+    ppmIO.save(path, img);
+    this.assertSamePixels(img, ppmIO.load(path));
+  }
+
+  // testing for an exception when a plain ppm file cannot be written
+  @Test(expected = IllegalArgumentException.class)
+  public void testSavePlainPPMFails() throws IOException {
+    ppmIO.save(new File(folder.getRoot(), "missing/image.ppm").getPath(),
+            new ImageImpl(new int[][]{{0}}, 255));
+  }
+
+  // testing for an exception when a binary ppm file cannot be written
+  @Test(expected = IllegalArgumentException.class)
+  public void testSaveBinaryPPMFails() throws IOException {
+    new PPMImageInputOutput(true).save(folder.getRoot().getPath(),
+            new ImageImpl(new int[][]{{0}}, 255));
+  }
+
+  // testing that loading a region of a png decodes exactly the pixels of that region
+  @Test
+  public void testLoadRegion() {
+    Image whole = pngIO.load("res/family/family.png");
+    Image region = pngIO.load("res/family/family.png", LoadOptions.region(20, 30, 50, 40));
+    assertEquals(50, region.getWidth());
+    assertEquals(40, region.getHeight());
+    for (int j = 0; j < 40; j++) {
+      for (int i = 0; i < 50; i++) {
+        assertEquals(whole.getRGB(20 + i, 30 + j), region.getRGB(i, j));
+      }
+    }
+  }
+
+  // testing that a region which runs past the edge of the image is cut off at the edge
+  @Test
+  public void testLoadRegionPastEdge() {
+    Image whole = pngIO.load("res/family/family.png");
+    Image region = pngIO.load("res/family/family.png",
+            LoadOptions.region(whole.getWidth() - 10, 0, 100, 5));
+    assertEquals(10, region.getWidth());
+    assertEquals(5, region.getHeight());
+  }
+
+  // testing for an exception when the region lies outside of the image
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadRegionOutside() {
+    pngIO.load("res/family/family.png", LoadOptions.region(100000, 0, 10, 10));
+  }
+
+  // testing that loading with subsampling keeps every nth pixel of every nth row, for formats
+  // decoded by ImageIO and for ppm files alike
+  @Test
+  public void testLoadSubsampled() {
+    Image whole = pngIO.load("res/family/family.png");
+    String ppm = new File(folder.getRoot(), "family.ppm").getPath();
+    ppmIO.save(ppm, whole);
+
+    for (ImageInputOutput io : new ImageInputOutput[]{pngIO, ppmIO}) {
+      String path = (io == pngIO) ? "res/family/family.png" : ppm;
+      Image small = io.load(path, LoadOptions.subsampled(3));
+      assertEquals((whole.getWidth() + 2) / 3, small.getWidth());
+      assertEquals((whole.getHeight() + 2) / 3, small.getHeight());
+      for (int j = 0; j < small.getHeight(); j++) {
+        for (int i = 0; i < small.getWidth(); i++) {
+          assertEquals(whole.getRGB(3 * i, 3 * j), small.getRGB(i, j));
+        }
+      }
+    }
+  }
+
+  // testing that loading with a target size gives an image of exactly that size
+  @Test
+  public void testLoadSize() {
+    Image thumbnail = pngIO.load("res/family/family.png", LoadOptions.size(64, 48));
+    assertEquals(64, thumbnail.getWidth());
+    assertEquals(48, thumbnail.getHeight());
+
+    Image bmp = bmpIO.load("res/family/family.bmp", LoadOptions.size(7, 5));
+    assertEquals(7, bmp.getWidth());
+    assertEquals(5, bmp.getHeight());
+  }
+
+  // testing for an exception when loading with null options
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadNullOptions() {
+    pngIO.load("res/family/family.png", null);
+  }
+
+  // testing for an exception when loading a missing file with options
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadMissingWithOptions() {
+    pngIO.load("res/family/missing.png", LoadOptions.subsampled(2));
+  }
+
+  // testing for exceptions when creating invalid options
+  @Test
+  public void testInvalidOptions() {
+    int thrown = 0;
+    Runnable[] invalid = new Runnable[]{
+        () -> LoadOptions.subsampled(0),
+        () -> LoadOptions.region(-1, 0, 5, 5),
+        () -> LoadOptions.region(0, 0, 0, 5),
+        () -> LoadOptions.size(0, 5),
+        () -> new LoadOptions(1, null, 5, 0),
+        () -> new LoadOptions(2, null, 5, 5)};
+    for (Runnable r : invalid) {
+      try {
+        r.run();
+      } catch (IllegalArgumentException e) {
+        thrown++;
+      }
+    }
+    assertEquals(invalid.length, thrown);
+  }
+
+  /**
+   * Returns the length of the header of a binary ppm file saved by this program.
+   */
+  private int headerLength(int width, int height, int maxValue) {
+    return ("P6\n" + width + " " + height + "\n" + maxValue + "\n").length();
+  }
+
+  /**
+   * Asserts that two images are the same size and have exactly the same pixels.
+   */
+  private void assertSamePixels(Image expected, Image actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    for (int j = 0; j < expected.getHeight(); j++) {
+      for (int i = 0; i < expected.getWidth(); i++) {
+        assertEquals(expected.getRGB(i, j), actual.getRGB(i, j));
+      }
+    }
+  }
+
+  /**
+   * Writes the specified contents to a new .ppm file and returns its path.
+   */
+  private String writePPM(String content) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+    return file.getPath();
+  }
+}
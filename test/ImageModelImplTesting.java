@@ -1,16 +1,23 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.ref.WeakReference;
+
 import controller.commands.Load;
 import model.ImageModel;
 import model.ImageModelImpl;
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
+import model.image.DeferredImage;
 import model.image.Image;
+import model.image.LookupTable;
+import model.image.LazyImage;
 import model.image.Pixel;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * A JUnit test class for {@link ImageModelImpl}s.
@@ -33,19 +40,19 @@ public class ImageModelImplTesting {
   @Before
   public void init() {
     this.m = new ImageModelImpl();
-    new Load("res/square.ppm", "square").execute(m);
+    new Load("res/Square.ppm", "square").execute(m);
     square = m.getImage("square");
   }
 
-  // ensuring that getImage returns a deep copy such that it is not referencing the deep copy
-  // created last time it was called, which shows that a new object is created everytime
+  // ensuring that getImage returns the stored image itself rather than a copy, since images are
+  // immutable and can be shared without being copied
   @Test
   public void testGetImage() {
-    Image imgCopy = m.getImage("square");
-    assertFalse(imgCopy == square);
+    Image img = m.getImage("square");
+    assertSame(square, img);
     for (int i = 0; i < square.getWidth(); i++) {
       for (int j = 0; j < square.getHeight(); j++) {
-        assertFalse(imgCopy.getPixels()[i][j] == square.getPixels()[i][j]);
+        assertEquals(square.getRGB(i, j), img.getRGB(i, j));
       }
     }
   }
@@ -492,4 +499,129 @@ public class ImageModelImplTesting {
       }
     }
   }
+
+  // testing that a chain of point operations gives exactly the same pixels as applying each one
+  // to a whole image in turn, and that the images in between are never created
+  @Test
+  public void testFusedChain() {
+    Image family = this.loadFamily();
+    m.brighten(25, "family", "bright");
+    m.sepia("bright", "brightSepia");
+    m.darken(10, "brightSepia", "darker");
+    m.greyscaleComponent(GreyscaleComponentType.LUMA, "darker", "result");
+
+    Image expected = family.brighten(25)
+            .colorTransformation(new double[][]
+                {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}})
+            .darken(10)
+            .greyscaleComponent(GreyscaleComponentType.LUMA);
+    this.assertSamePixels(expected, m.getImage("result"));
+
+    assertTrue(((DeferredImage) m.getImage("result")).isComputed());
+    assertFalse(((DeferredImage) m.getImage("bright")).isComputed());
+    assertFalse(((DeferredImage) m.getImage("brightSepia")).isComputed());
+    assertFalse(((DeferredImage) m.getImage("darker")).isComputed());
+  }
+
+  // testing that a deferred image lets go of its source once it has been computed, and still
+  // knows its size from its result
+  @Test
+  public void testComputedDeferredImageReleasesSource() {
+    Image family = this.loadFamily();
+    Image source = family.brighten(1);
+    WeakReference<Image> reference = new WeakReference<>(source);
+    DeferredImage deferred = new DeferredImage(source, LookupTable.darken(5));
+    source = null;
+
+    this.assertSamePixels(family.brighten(1).darken(5), deferred);
+    assertTrue(Reachability.isCollected(reference));
+    assertEquals(family.getWidth(), deferred.getWidth());
+    assertEquals(family.getHeight(), deferred.getHeight());
+    assertEquals(family.getMaxValue(), deferred.getMaxValue());
+    this.assertSamePixels(family.brighten(1).darken(5).brighten(3),
+            deferred.andThen(LookupTable.brighten(3, 255)));
+  }
+
+  // testing that an image in the middle of a chain can still be read on its own, and that
+  // operations applied after it is read give the same pixels
+  @Test
+  public void testReadingMiddleOfChain() {
+    Image family = this.loadFamily();
+    double[][] matrix = new double[][]
+        {{0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722}};
+    m.greyscaleColorTransformation("family", "grey");
+    m.brighten(40, "grey", "greyBright");
+    this.assertSamePixels(family.colorTransformation(matrix), m.getImage("grey"));
+
+    m.darken(15, "greyBright", "result");
+    m.flip(FlipType.VERTICAL, "result", "flipped");
+    this.assertSamePixels(family.colorTransformation(matrix).brighten(40).darken(15)
+            .flip(FlipType.VERTICAL), m.getImage("flipped"));
+  }
+
+  // testing that an invalid point operation is still rejected right away
+  @Test (expected = IllegalArgumentException.class)
+  public void testInvalidDeferredBrighten() {
+    m.brighten(0, "square", "bright");
+  }
+
+  // testing that in lazy mode nothing is computed until it is read, that the result matches
+  // computing every step right away, and that an image used twice is computed only once
+  @Test
+  public void testLazyMode() {
+    Image family = this.loadFamily();
+    this.m = new ImageModelImpl(true);
+    this.m.setImage("family", family);
+    m.flip(FlipType.HORIZONTAL, "family", "flipped");
+    m.blur("flipped", "blurred");
+    m.downsize(30, 10, "blurred", "small");
+    m.sharpen("blurred", "sharp");
+    m.brighten(20, "sharp", "bright");
+
+    LazyImage blurred = (LazyImage) m.getImage("blurred");
+    assertFalse(blurred.isComputed());
+    assertFalse(((LazyImage) m.getImage("small")).isComputed());
+
+    Image eagerBlurred = family.flip(FlipType.HORIZONTAL).filter(new double[][]
+        {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}});
+    this.assertSamePixels(eagerBlurred.downsize(30, 10), m.getImage("small"));
+    assertTrue(blurred.isComputed());
+    assertFalse(((LazyImage) m.getImage("sharp")).isComputed());
+
+    this.assertSamePixels(eagerBlurred.filter(new double[][]
+        {{-0.125, -0.125, -0.125, -0.125, -0.125},
+                {-0.125, 0.25, 0.25, 0.25, -0.125},
+                {-0.125, 0.25, 1, 0.25, -0.125},
+                {-0.125, 0.25, 0.25, 0.25, -0.125},
+                {-0.125, -0.125, -0.125, -0.125, -0.125}}).brighten(20), m.getImage("bright"));
+  }
+
+  // testing that an invalid manipulation is still rejected right away in lazy mode
+  @Test (expected = IllegalArgumentException.class)
+  public void testInvalidLazyDownsize() {
+    this.m = new ImageModelImpl(true);
+    this.m.setImage("square", square);
+    m.downsize(100, 10, "square", "small");
+  }
+
+  /**
+   * Loads the family image into the model under the name family and returns it.
+   */
+  private Image loadFamily() {
+    new Load("res/family/family.ppm", "family").execute(m);
+    return m.getImage("family");
+  }
+
+  /**
+   * Asserts that two images are the same size and have exactly the same pixels.
+   */
+  private void assertSamePixels(Image expected, Image actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    for (int j = 0; j < expected.getHeight(); j++) {
+      for (int i = 0; i < expected.getWidth(); i++) {
+        assertEquals(expected.getRGB(i, j), actual.getRGB(i, j));
+      }
+    }
+  }
 }
@@ -0,0 +1,274 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+
+import controller.commands.Load;
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.ImageStore;
+import model.enums.FlipType;
+import model.image.DeferredImage;
+import model.image.Image;
+import model.image.LookupTable;
+import model.image.Mask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for {@link ImageStore}s.
+ */
+public class ImageStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Image family;
+  private long familyBytes;
+  private Path spill;
+
+  @Before
+  public void init() throws Exception {
+    ImageModel m = new ImageModelImpl();
+    new Load("res/family/family.ppm", "family").execute(m);
+    family = m.getImage("family");
+    familyBytes = 4L * family.getWidth() * family.getHeight();
+    spill = folder.newFolder("spill").toPath();
+  }
+
+  // testing for an exception when the budget is negative
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBudget() {
+    new ImageStore(-1, null);
+  }
+
+  // testing for an exception when storing a null image
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullImage() {
+    new ImageStore().put("a", null);
+  }
+
+  // testing that a name which was never stored gives back null
+  @Test
+  public void testMissingImage() {
+    assertNull(new ImageStore().get("a"));
+  }
+
+  // testing that a store with room for everything keeps every image in memory
+  @Test
+  public void testWithinBudget() {
+    ImageStore store = new ImageStore(3 * familyBytes, spill);
+    store.put("a", family);
+    store.put("b", family);
+    assertSame(family, store.get("a"));
+    assertSame(family, store.get("b"));
+    assertEquals(2, store.getHits());
+    assertEquals(0, store.getMisses());
+    assertEquals(0, store.getSpills());
+
+    // the same image stored by two names shares all of its rows, so it is only counted once
+    assertEquals(familyBytes, store.getResidentBytes());
+    assertEquals(0, spill.toFile().list().length);
+  }
+
+  // testing that a store whose budget cannot be exceeded measures its images when asked to, the
+  // same way as a store which charges them as they are stored and used
+  @Test
+  public void testUnboundedStoreMeasuresWhenAsked() {
+    ImageStore unbounded = new ImageStore();
+    ImageStore bounded = new ImageStore(Long.MAX_VALUE - 1, spill);
+    DeferredImage deferred = new DeferredImage(family, LookupTable.darken(5));
+    for (ImageStore store : new ImageStore[]{unbounded, bounded}) {
+      store.put("a", family);
+      store.put("unchanged", family.applyLookupTable(LookupTable.gamma(1, family.getMaxValue())));
+      store.put("b", deferred);
+      store.get("a");
+      store.put("c", family.flip(FlipType.VERTICAL));
+    }
+    assertEquals(familyBytes, bounded.getResidentBytes());
+    assertEquals(familyBytes, unbounded.getResidentBytes());
+
+    // once it is read, the deferred image is charged for its own pixels, and replacing the other
+    // images lets go of the rows they shared
+    deferred.getRGB(0, 0);
+    assertEquals(2 * familyBytes, bounded.getResidentBytes());
+    assertEquals(2 * familyBytes, unbounded.getResidentBytes());
+    for (ImageStore store : new ImageStore[]{unbounded, bounded}) {
+      store.put("a", family.darken(1));
+      store.put("unchanged", family.darken(2));
+      store.put("c", family.darken(3));
+      store.get("b");
+    }
+    assertEquals(4 * familyBytes, bounded.getResidentBytes());
+    assertEquals(4 * familyBytes, unbounded.getResidentBytes());
+    assertEquals(0, bounded.getSpills());
+  }
+
+  // testing that each manipulation asks the store for the image it manipulates only once, so
+  // that the hits counted and the order of use are those of the commands that were run
+  @Test
+  public void testManipulationReadsStoreOnce() {
+    ImageStore store = new ImageStore();
+    ImageModel model = new ImageModelImpl(false, store);
+    model.setImage("a", family);
+    Mask mask = Mask.rectangle(0, 0, 2, 2);
+    model.brighten(mask, 10, "a", "b");
+    model.sepia(mask, "a", "c");
+    model.brighten(10, "a", "d");
+    model.sepia("a", "e");
+    model.flip(FlipType.VERTICAL, "a", "f");
+    assertEquals(5, store.getHits());
+  }
+
+  // testing that rows shared between images are only counted once, against the image that was
+  // used most recently, and that images sharing every row with another are never spilled
+  @Test
+  public void testSharedRowsCountedOnce() {
+    ImageStore store = new ImageStore(2 * familyBytes, spill);
+    store.put("a", family);
+    store.put("flipped", family.flip(FlipType.VERTICAL));
+    store.put("unchanged", family.applyLookupTable(LookupTable.gamma(1, family.getMaxValue())));
+    assertEquals(familyBytes, store.getResidentBytes());
+    assertEquals(0, store.getSpills());
+
+    // brightening only the top row of the image only adds the bytes of that row, and once it is
+    // combined into an image of its own, it lets go of that row and keeps only its new top row
+    ImageModel model = new ImageModelImpl(false, store);
+    model.brighten(Mask.rectangle(0, 0, family.getWidth(), 1), 20, "a", "top");
+    assertEquals(familyBytes + 4L * family.getWidth(), store.getResidentBytes());
+    model.getImage("top").flip(FlipType.HORIZONTAL);
+    store.get("top");
+    assertEquals(familyBytes + 4L * family.getWidth(), store.getResidentBytes());
+    assertEquals(0, store.getSpills());
+  }
+
+  // testing that the least recently used image is spilled and read back with the same pixels
+  @Test
+  public void testSpillLeastRecentlyUsed() {
+    Image darker = family.darken(50);
+    ImageStore store = new ImageStore(2 * familyBytes, spill);
+    store.put("a", family);
+    store.put("b", darker);
+    store.get("a");
+    store.put("c", family.brighten(50));
+
+    assertEquals(1, store.getSpills());
+    assertEquals(16 + familyBytes, store.getSpilledBytes());
+    assertEquals(2 * familyBytes, store.getResidentBytes());
+    assertEquals(1, spill.toFile().list().length);
+
+    Image reloaded = store.get("b");
+    assertEquals(1, store.getMisses());
+    assertEquals(3, store.size());
+    assertEquals(darker.getMaxValue(), reloaded.getMaxValue());
+    assertEquals(darker.getWidth(), reloaded.getWidth());
+    assertEquals(darker.getHeight(), reloaded.getHeight());
+    for (int j = 0; j < darker.getHeight(); j++) {
+      for (int i = 0; i < darker.getWidth(); i++) {
+        assertEquals(darker.getRGB(i, j), reloaded.getRGB(i, j));
+      }
+    }
+
+    // reading b back in spilled a, which had been used less recently than c
+    assertEquals(2, store.getSpills());
+    store.get("c");
+    assertEquals(1, store.getMisses());
+    store.get("a");
+    assertEquals(2, store.getMisses());
+  }
+
+  // testing that replacing a spilled image deletes its spill file
+  @Test
+  public void testReplaceSpilledImage() {
+    ImageStore store = new ImageStore(familyBytes, spill);
+    store.put("a", family);
+    store.put("b", family.darken(5));
+    assertEquals(1, spill.toFile().list().length);
+    store.put("a", family.darken(10));
+    assertEquals(1, spill.toFile().list().length);
+    assertEquals(2, store.size());
+  }
+
+  // testing that an image whose pixels have not been computed is charged for the image it keeps
+  // in memory, which is then not charged a second time on its own
+  @Test
+  public void testUncomputedImagesChargeTheirSources() {
+    ImageStore store = new ImageStore(familyBytes, spill);
+    store.put("a", family);
+    DeferredImage deferred = new DeferredImage(family, LookupTable.darken(5));
+    store.put("b", deferred);
+    assertEquals(familyBytes, store.getResidentBytes());
+    assertEquals(0, store.getSpills());
+
+    // once it is read, it is charged for its pixels and the other image is spilled
+    deferred.getRGB(0, 0);
+    assertSame(deferred, store.get("b"));
+    assertEquals(familyBytes, store.getResidentBytes());
+    assertEquals(1, store.getSpills());
+  }
+
+  // testing that an image kept in memory by another one is not spilled on its own, and that once
+  // both are spilled nothing keeps it in memory any more
+  @Test
+  public void testSpilledImageIsFreed() {
+    Image copy = family.darken(1);
+    WeakReference<Image> reference = new WeakReference<>(copy);
+    ImageStore store = new ImageStore(familyBytes, spill);
+    store.put("a", copy);
+    store.put("b", new DeferredImage(copy, LookupTable.darken(5)));
+    assertEquals(0, store.getSpills());
+
+    // b keeps a in memory, so b is spilled first, and then a
+    store.put("c", family.brighten(5));
+    assertEquals(2, store.getSpills());
+    assertEquals(familyBytes, store.getResidentBytes());
+    copy = null;
+    assertTrue(Reachability.isCollected(reference));
+    assertEquals(family.darken(1).getRGB(3, 4), store.get("a").getRGB(3, 4));
+  }
+
+  // testing that a tiled image derived from another keeps it in memory until it is spilled
+  @Test
+  public void testSpilledTiledImageIsFreed() {
+    ImageStore store = new ImageStore(familyBytes, spill);
+    ImageModel model = new ImageModelImpl(false, true, store);
+    Image copy = family.darken(1);
+    WeakReference<Image> reference = new WeakReference<>(copy);
+    model.setImage("a", copy);
+    copy = null;
+    model.flip(FlipType.VERTICAL, "a", "flipped");
+    assertEquals(familyBytes, store.getResidentBytes());
+    assertEquals(0, store.getSpills());
+
+    model.setImage("b", family.brighten(5));
+    assertTrue(store.getResidentBytes() <= familyBytes);
+    assertTrue(Reachability.isCollected(reference));
+    assertEquals(family.darken(1).getRGB(3, 4),
+            model.getImage("flipped").getRGB(3, family.getHeight() - 5));
+  }
+
+  // testing that the model works the same when every image but the last one is spilled
+  @Test
+  public void testModelWithTinyBudget() {
+    ImageModel m = new ImageModelImpl(false, new ImageStore(0, spill));
+    m.setImage("family", family);
+    m.flip(FlipType.VERTICAL, "family", "flipped");
+    m.blur("flipped", "blurred");
+    m.brighten(10, "blurred", "bright");
+
+    Image expected = family.flip(FlipType.VERTICAL).filter(new double[][]
+        {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}}).brighten(10);
+    Image actual = m.getImage("bright");
+    for (int j = 0; j < expected.getHeight(); j++) {
+      for (int i = 0; i < expected.getWidth(); i++) {
+        assertEquals(expected.getRGB(i, j), actual.getRGB(i, j));
+      }
+    }
+  }
+}
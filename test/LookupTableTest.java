@@ -0,0 +1,197 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import controller.commands.Load;
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.image.ColorMatrix;
+import model.image.Image;
+import model.image.LookupTable;
+import model.image.PointOperation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for {@link LookupTable}s.
+ */
+public class LookupTableTest {
+
+  private Image family;
+
+  @Before
+  public void init() {
+    ImageModel m = new ImageModelImpl();
+    new Load("res/family/family.ppm", "family").execute(m);
+    family = m.getImage("family");
+  }
+
+  // testing for an exception when a table does not have 256 entries
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongSizeTable() {
+    new LookupTable(new int[255]);
+  }
+
+  // testing for an exception when a table is null
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullTable() {
+    new LookupTable(new int[256], null, new int[256]);
+  }
+
+  // testing for an exception when a table has an entry that is out of range
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfRangeEntry() {
+    int[] table = new int[256];
+    table[3] = 256;
+    new LookupTable(table);
+  }
+
+  // testing for an exception when the black point is not below the white point
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLevels() {
+    LookupTable.levels(100, 100, 1, 255);
+  }
+
+  // testing for an exception when the gamma is not positive
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidGamma() {
+    LookupTable.gamma(0, 255);
+  }
+
+  // testing for an exception when the inputs of a curve are not increasing
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCurve() {
+    LookupTable.curve(new int[]{0, 200, 100}, new int[]{0, 100, 255}, 255);
+  }
+
+  // testing for an exception when applying a null table to an image
+  @Test(expected = IllegalArgumentException.class)
+  public void testApplyNullTable() {
+    family.applyLookupTable(null);
+  }
+
+  // testing that each component goes through its own table
+  @Test
+  public void testSeparateTables() {
+    int[] red = new int[256];
+    int[] green = new int[256];
+    int[] blue = new int[256];
+    for (int v = 0; v < 256; v++) {
+      red[v] = 255 - v;
+      green[v] = v / 2;
+      blue[v] = v;
+    }
+    LookupTable table = new LookupTable(red, green, blue);
+    assertEquals(0xF0_32_07, table.apply(0x0F_64_07));
+  }
+
+  // testing that brightening and darkening through a table match the image methods
+  @Test
+  public void testBrightenAndDarkenTables() {
+    Image brighter = family.applyLookupTable(LookupTable.brighten(40, 255));
+    Image darker = family.applyLookupTable(LookupTable.darken(40));
+    for (int j = 0; j < family.getHeight(); j++) {
+      for (int i = 0; i < family.getWidth(); i++) {
+        int p = family.getRGB(i, j);
+        int r = (p >> 16) & 0xFF;
+        int g = (p >> 8) & 0xFF;
+        int b = p & 0xFF;
+        assertEquals((Math.min(255, r + 40) << 16) | (Math.min(255, g + 40) << 8)
+                | Math.min(255, b + 40), brighter.getRGB(i, j));
+        assertEquals((Math.max(0, r - 40) << 16) | (Math.max(0, g - 40) << 8)
+                | Math.max(0, b - 40), darker.getRGB(i, j));
+      }
+    }
+  }
+
+  // testing that brightening respects a max value below 255
+  @Test
+  public void testBrightenWithLowMaxValue() {
+    LookupTable table = LookupTable.brighten(50, 100);
+    assertEquals(0x64_3C_64, table.apply(0x5A_0A_FF));
+  }
+
+  // testing that brightening by a huge value does not overflow
+  @Test
+  public void testBrightenByHugeValue() {
+    assertEquals(0xFFFFFF, LookupTable.brighten(Integer.MAX_VALUE, 255).apply(0x102030));
+  }
+
+  // testing the levels table at and between its black and white points
+  @Test
+  public void testLevels() {
+    LookupTable table = LookupTable.levels(50, 150, 1, 255);
+    assertEquals(0, table.apply(30) & 0xFF);
+    assertEquals(0, table.apply(50) & 0xFF);
+    assertEquals(128, table.apply(100) & 0xFF);
+    assertEquals(255, table.apply(150) & 0xFF);
+    assertEquals(255, table.apply(220) & 0xFF);
+  }
+
+  // testing that gamma correction keeps the ends fixed and lightens the middle
+  @Test
+  public void testGamma() {
+    LookupTable table = LookupTable.gamma(2.2, 255);
+    assertEquals(0, table.apply(0) & 0xFF);
+    assertEquals(255, table.apply(255) & 0xFF);
+    assertEquals((int) Math.round(255 * Math.pow(128 / 255.0, 1 / 2.2)), table.apply(128) & 0xFF);
+  }
+
+  // testing that a curve goes straight between its points and is flat past its ends
+  @Test
+  public void testCurve() {
+    LookupTable table = LookupTable.curve(new int[]{20, 120, 220},
+            new int[]{10, 210, 110}, 255);
+    assertEquals(10, table.apply(0) & 0xFF);
+    assertEquals(10, table.apply(20) & 0xFF);
+    assertEquals(110, table.apply(70) & 0xFF);
+    assertEquals(210, table.apply(120) & 0xFF);
+    assertEquals(160, table.apply(170) & 0xFF);
+    assertEquals(110, table.apply(250) & 0xFF);
+  }
+
+  // testing that combining two tables is the same as applying them one after the other
+  @Test
+  public void testAndThen() {
+    LookupTable first = LookupTable.levels(30, 200, 0.8, 255);
+    LookupTable second = LookupTable.brighten(25, 255);
+    Image twice = family.applyLookupTable(first).applyLookupTable(second);
+    Image once = family.applyLookupTable(first.andThen(second));
+    for (int j = 0; j < family.getHeight(); j++) {
+      for (int i = 0; i < family.getWidth(); i++) {
+        assertEquals(twice.getRGB(i, j), once.getRGB(i, j));
+      }
+    }
+  }
+
+  // testing that fusing two lookup tables as point operations gives back a single table
+  @Test
+  public void testFusedTablesCombine() {
+    PointOperation first = LookupTable.brighten(10, 255);
+    PointOperation fused = first.andThen((PointOperation) LookupTable.darken(30));
+    assertTrue(fused instanceof LookupTable);
+    assertEquals(0x000000, fused.apply(0x141414));
+    assertEquals(0xE1E1E1, fused.apply(0xFFFFFF));
+  }
+
+  // testing that an operation which leaves every pixel as it was gives back the image itself,
+  // while one that changes some pixels does not
+  @Test
+  public void testIdentityGivesBackImage() {
+    PointOperation identity = LookupTable.gamma(1, 255)
+            .andThen(new ColorMatrix(new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, 255));
+    assertTrue(identity.isIdentity());
+    assertSame(family, family.applyPointOperation(identity));
+    assertSame(family, family.applyLookupTable(LookupTable.levels(0, 255, 1, 255)));
+
+    PointOperation sepia = new ColorMatrix(new double[][]{{0.393, 0.769, 0.189},
+        {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}}, 255);
+    assertFalse(sepia.isIdentity());
+    assertFalse(LookupTable.darken(1).isIdentity());
+    assertFalse(identity.andThen(sepia).isIdentity());
+    assertNotSame(family, family.applyLookupTable(LookupTable.darken(1)));
+  }
+}
@@ -0,0 +1,248 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import controller.commands.LoadMapped;
+import controller.inputoutput.PPMImageInputOutput;
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.ImageStore;
+import model.enums.BorderMode;
+import model.enums.FlipType;
+import model.enums.GreyscaleComponentType;
+import model.image.AbstractDerivedImage;
+import model.image.Image;
+import model.image.LookupTable;
+import model.image.MappedImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A JUnit test class for {@link MappedImage}.
+ */
+public class MappedImageTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Image heap;
+  private Image mapped;
+
+  @Before
+  public void init() throws IOException {
+    this.heap = HeapEquivalence.randomImage(37, 23, 1);
+    this.mapped = this.map(this.heap);
+  }
+
+  // testing that the pixels of a mapped image are those of the file
+  @Test
+  public void testPixels() {
+    HeapEquivalence.assertSamePixels(this.heap, this.mapped);
+    assertEquals(this.heap.getRGB(36, 22), this.mapped.getRGB(36, 22));
+    assertEquals(this.heap.getPixels()[5][7].getGreen(),
+            this.mapped.getPixels()[5][7].getGreen());
+
+    int[] region = new int[4 * 3];
+    this.mapped.getRGB(10, 5, 4, 3, region, 0, 4);
+    for (int j = 0; j < 3; j++) {
+      for (int i = 0; i < 4; i++) {
+        assertEquals(this.heap.getRGB(10 + i, 5 + j), region[j * 4 + i]);
+      }
+    }
+  }
+
+  // testing that every manipulation of a mapped image gives the same pixels as manipulating the
+  // image on the heap, and writes its result to another mapped file
+  @Test
+  public void testManipulationsMatchHeap() {
+    for (GreyscaleComponentType type : GreyscaleComponentType.values()) {
+      this.assertSameResult(this.heap.greyscaleComponent(type),
+              this.mapped.greyscaleComponent(type));
+    }
+    for (FlipType type : FlipType.values()) {
+      this.assertSameResult(this.heap.flip(type), this.mapped.flip(type));
+    }
+    this.assertSameResult(this.heap.brighten(40), this.mapped.brighten(40));
+    this.assertSameResult(this.heap.darken(40), this.mapped.darken(40));
+    this.assertSameResult(this.heap.applyLookupTable(LookupTable.gamma(2.2, 255)),
+            this.mapped.applyLookupTable(LookupTable.gamma(2.2, 255)));
+
+    double[][] sepia = new double[][]{{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168},
+        {0.272, 0.534, 0.131}};
+    this.assertSameResult(this.heap.colorTransformation(sepia),
+            this.mapped.colorTransformation(sepia));
+    this.assertSameResult(this.heap.downsize(40, 70), this.mapped.downsize(40, 70));
+    this.assertSameResult(this.heap.downsize(0, 0), this.mapped.downsize(0, 0));
+  }
+
+  // testing that filtering a mapped image gives the same pixels as filtering the image on the
+  // heap, for every border mode and for kernels of every width up to those wide enough to be
+  // applied using Fourier transforms
+  @Test
+  public void testFilterMatchesHeap() {
+    HeapEquivalence.assertFilterMatchesHeap(this.heap, this.mapped, MappedImage.class);
+  }
+
+  // testing that an image filtered a few rows at a time gives the same pixels as one filtered
+  // whole, including the rows at the edges of each band
+  @Test
+  public void testFilterAcrossBands() throws IOException {
+    Image wide = HeapEquivalence.randomImage(1 << 18, 10, 2);
+    Image wideMapped = this.map(wide);
+    double[][] kernel = new double[][]{{0.04, 0.04, 0.04, 0.04, 0.04},
+        {0.04, 0.04, 0.04, 0.04, 0.04}, {0.04, 0.04, 0.2, 0.04, 0.04},
+        {0.04, 0.04, 0.04, 0.04, 0.04}, {0.04, 0.04, 0.04, 0.04, 0.04}};
+    for (BorderMode mode : BorderMode.values()) {
+      HeapEquivalence.assertSamePixels(wide.filter(kernel, mode), wideMapped.filter(kernel, mode));
+    }
+  }
+
+  // testing for an exception when mapping a file that is too short for the image
+  @Test(expected = IllegalArgumentException.class)
+  public void testFileTooShort() throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), new byte[10]);
+    MappedImage.open(file.toPath(), 0, 2, 2, 255, null);
+  }
+
+  // testing for an exception when mapping an image with 16 bit samples
+  @Test(expected = IllegalArgumentException.class)
+  public void testWideSamples() throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), new byte[24]);
+    MappedImage.open(file.toPath(), 0, 2, 2, 1023, null);
+  }
+
+  // testing for an exception when mapping a plain ppm file
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadMappedPlain() {
+    new PPMImageInputOutput().loadMapped("res/family/family.ppm", null);
+  }
+
+  // testing that the load mapped command maps a binary ppm file into the model
+  @Test
+  public void testLoadMappedCommand() throws IOException {
+    Path file = folder.newFile().toPath();
+    new PPMImageInputOutput(true).save(file.toString(), this.heap);
+    ImageModel model = new ImageModelImpl();
+    new LoadMapped(file.toString(), "scan", folder.getRoot().toPath()).execute(model);
+    assertTrue(model.getImage("scan") instanceof MappedImage);
+    HeapEquivalence.assertSamePixels(this.heap, model.getImage("scan"));
+  }
+
+  // testing for an exception when the load mapped command is given a file that is not a ppm file
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadMappedCommandNotPPM() {
+    new LoadMapped("res/family/family.png", "scan").execute(new ImageModelImpl());
+  }
+
+  // testing that a model in tiled mode does not copy mapped images or their results into tiles
+  @Test
+  public void testTiledModelKeepsMappedImages() {
+    ImageModel model = new ImageModelImpl(false, true, new ImageStore());
+    model.setImage("scan", this.mapped);
+    model.flip(FlipType.VERTICAL, "scan", "flipped");
+    assertSame(this.mapped, model.getImage("scan"));
+    this.assertSameResult(this.heap.flip(FlipType.VERTICAL), model.getImage("flipped"));
+  }
+
+  // testing for an exception when a manipulation is given invalid arguments
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidKernel() {
+    this.mapped.filter(new double[][]{{1, 1}, {1, 1}});
+  }
+
+  // testing that the model keeps mapped images and their results off of its budget
+  @Test
+  public void testModelDoesNotChargeMappedImages() {
+    ImageStore store = new ImageStore(0, folder.getRoot().toPath());
+    ImageModel model = new ImageModelImpl(false, store);
+    model.setImage("scan", this.mapped);
+    model.brighten(10, "scan", "bright");
+    model.flip(FlipType.VERTICAL, "bright", "flipped");
+    HeapEquivalence.assertSamePixels(this.heap.brighten(10).flip(FlipType.VERTICAL),
+            model.getImage("flipped"));
+    assertEquals(0, store.getResidentBytes());
+    assertEquals(0, store.getSpills());
+  }
+
+  // testing that deleting a result deletes its file and that it cannot be read afterwards, while
+  // deleting an image mapped from an existing file leaves the file alone
+  @Test
+  public void testDelete() {
+    MappedImage result = (MappedImage) this.mapped.brighten(10);
+    assertTrue(result.delete());
+    assertFalse(Files.exists(result.getFile()));
+    assertFalse(result.delete());
+    try {
+      result.getRGB(0, 0);
+      fail("A deleted image was read!");
+    } catch (IllegalStateException e) {
+      // the image is gone
+    }
+
+    assertFalse(((MappedImage) this.mapped).delete());
+    assertTrue(Files.exists(((MappedImage) this.mapped).getFile()));
+    HeapEquivalence.assertSamePixels(this.heap, this.mapped);
+  }
+
+  // testing that the store deletes the file of a result once nothing in it keeps the result, but
+  // not while an image that has not been computed yet is derived from it
+  @Test
+  public void testStoreDeletesReplacedResults() {
+    ImageStore store = new ImageStore(0, folder.getRoot().toPath());
+    ImageModel model = new ImageModelImpl(true, store);
+    model.setImage("scan", this.mapped);
+    model.brighten(10, "scan", "bright");
+    Image bright = model.getImage("bright");
+    bright.getRGB(0, 0);
+    Path brightFile = ((MappedImage) ((AbstractDerivedImage) bright).getComputedImage())
+            .getFile();
+    model.flip(FlipType.VERTICAL, "bright", "flipped");
+    model.setImage("bright", this.heap);
+    assertTrue(Files.exists(brightFile));
+
+    // computing the flipped image lets go of the brightened one, whose file is deleted the next
+    // time the store changes, and replacing the flipped image deletes the file of its own result
+    Image flipped = model.getImage("flipped");
+    HeapEquivalence.assertSamePixels(this.heap.brighten(10).flip(FlipType.VERTICAL), flipped);
+    Path flippedFile = ((MappedImage) ((AbstractDerivedImage) flipped).getComputedImage())
+            .getFile();
+    model.setImage("other", this.heap);
+    assertFalse(Files.exists(brightFile));
+    assertTrue(Files.exists(flippedFile));
+    model.setImage("flipped", this.heap);
+    assertFalse(Files.exists(flippedFile));
+    assertTrue(Files.exists(((MappedImage) this.mapped).getFile()));
+  }
+
+  /**
+   * Asserts that the result of a manipulation of a mapped image is itself mapped, and has the
+   * same pixels as the result of the manipulation on the heap.
+   */
+  private void assertSameResult(Image expected, Image actual) {
+    assertTrue(actual instanceof MappedImage);
+    assertTrue(Files.exists(((MappedImage) actual).getFile()));
+    HeapEquivalence.assertSamePixels(expected, actual);
+  }
+
+  /**
+   * Saves an image as a binary ppm file and maps it back in, writing results to the temporary
+   * folder.
+   */
+  private Image map(Image img) throws IOException {
+    Path file = folder.newFile().toPath();
+    new PPMImageInputOutput(true).save(file.toString(), img);
+    return new PPMImageInputOutput().loadMapped(file.toString(), folder.getRoot().toPath());
+  }
+}
@@ -0,0 +1,209 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import controller.commands.Blur;
+import controller.commands.Brighten;
+import controller.commands.Load;
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.ImageStore;
+import model.metrics.Counter;
+import model.metrics.Histogram;
+import model.metrics.MetricsRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for {@link MetricsRegistry}s.
+ */
+public class MetricsRegistryTest {
+
+  private MetricsRegistry original;
+  private MetricsRegistry registry;
+
+  @Before
+  public void init() {
+    original = MetricsRegistry.getDefault();
+    registry = new MetricsRegistry();
+  }
+
+  @After
+  public void restore() {
+    MetricsRegistry.setDefault(original);
+  }
+
+  // testing for an exception when a metric name is invalid
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidName() {
+    registry.counter("images loaded", "help");
+  }
+
+  // testing for an exception when a label has no value
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLabels() {
+    registry.counter("loads_total", "help", "format");
+  }
+
+  // testing for an exception when a metric is asked for as another type
+  @Test(expected = IllegalArgumentException.class)
+  public void testTypeConflict() {
+    registry.counter("loads_total", "help");
+    registry.gauge("loads_total", "help", () -> 1);
+  }
+
+  // testing for an exception when the bounds of a histogram are not in increasing order
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBounds() {
+    registry.histogram("latency_seconds", "help", new double[]{1, 1});
+  }
+
+  // testing for an exception when a counter is decreased
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeIncrement() {
+    registry.counter("loads_total", "help").inc(-1);
+  }
+
+  // testing that counters, gauges, and histograms are written in the Prometheus text format, in
+  // order of name, with label values escaped
+  @Test
+  public void testScrape() {
+    Counter counter = registry.counter("loads_total", "Images loaded", "format", "ppm");
+    counter.inc();
+    counter.inc(2);
+    assertSame(counter, registry.counter("loads_total", "Images loaded", "format", "ppm"));
+    registry.counter("loads_total", "Images loaded", "format", "a\"b\\c\nd").inc();
+    registry.gauge("images", "Images held\nnow", () -> 1.5);
+    registry.gauge("images", "Images held\nnow", () -> 2);
+    registry.counter("hits_total", "Cache hits", () -> 7);
+    Histogram histogram = registry.histogram("latency_seconds", "Latency",
+            new double[]{0.1, 1}, "operation", "blur");
+    histogram.observe(0.05);
+    histogram.observe(0.5);
+    histogram.observe(5);
+
+    assertEquals("# HELP hits_total Cache hits\n"
+            + "# TYPE hits_total counter\n"
+            + "hits_total 7\n"
+            + "# HELP images Images held\\nnow\n"
+            + "# TYPE images gauge\n"
+            + "images 2\n"
+            + "# HELP latency_seconds Latency\n"
+            + "# TYPE latency_seconds histogram\n"
+            + "latency_seconds_bucket{operation=\"blur\",le=\"0.1\"} 1\n"
+            + "latency_seconds_bucket{operation=\"blur\",le=\"1\"} 2\n"
+            + "latency_seconds_bucket{operation=\"blur\",le=\"+Inf\"} 3\n"
+            + "latency_seconds_sum{operation=\"blur\"} 5.55\n"
+            + "latency_seconds_count{operation=\"blur\"} 3\n"
+            + "# HELP loads_total Images loaded\n"
+            + "# TYPE loads_total counter\n"
+            + "loads_total{format=\"ppm\"} 3\n"
+            + "loads_total{format=\"a\\\"b\\\\c\\nd\"} 1\n", registry.scrape());
+  }
+
+  // testing that the model and the image formats record their operations in the default
+  // registry, and that only the store registered in it reports the images it holds, whatever
+  // other models are created afterwards
+  @Test
+  public void testModelAndCodecMetrics() {
+    MetricsRegistry.setDefault(registry);
+    ImageStore store = new ImageStore();
+    store.registerMetrics(registry);
+    ImageModel model = new ImageModelImpl(false, store);
+    new Load("res/Square.ppm", "square").execute(model);
+    new Blur("square", "blurred").execute(model);
+    new Blur("blurred", "blurred").execute(model);
+    new ImageModelImpl().setImage("other", model.getImage("square"));
+
+    String text = registry.scrape();
+    assertTrue(text.contains("\nimage_io_operations_total{operation=\"load\",format=\"ppm\"} 1\n"));
+    assertTrue(text.contains("\nimage_operations_total{operation=\"blur\"} 2\n"));
+    assertTrue(text.contains("\nimage_operation_duration_seconds_count{operation=\"blur\"} 2\n"));
+    assertTrue(text.contains("\nimage_store_images 2\n"));
+    assertTrue(text.contains("\nimage_store_hits_total 3\n"));
+  }
+
+  // testing that a manipulation whose pixels are computed later is counted when it is run, but
+  // only timed once its pixels are computed, in lazy mode as well
+  @Test
+  public void testDeferredManipulationsTimedWhenComputed() {
+    MetricsRegistry.setDefault(registry);
+    ImageModel eager = new ImageModelImpl(false);
+    ImageModel lazy = new ImageModelImpl(true);
+    for (ImageModel model : new ImageModel[]{eager, lazy}) {
+      new Load("res/Square.ppm", "square").execute(model);
+      new Brighten(10, "square", "bright").execute(model);
+      new Blur("bright", "blurred").execute(model);
+    }
+    String text = registry.scrape();
+    assertTrue(text.contains("\nimage_operations_total{operation=\"brighten\"} 2\n"));
+    assertTrue(text.contains("\nimage_operations_total{operation=\"blur\"} 2\n"));
+
+    // blurring computed the brightened image in eager mode, but nothing was computed in lazy mode
+    assertTrue(text.contains(
+            "\nimage_operation_duration_seconds_count{operation=\"brighten\"} 1\n"));
+    assertTrue(text.contains(
+            "\nimage_operation_duration_seconds_count{operation=\"blur\"} 1\n"));
+
+    // reading the blurred image in lazy mode computes both of them
+    lazy.getImage("blurred").getRGB(0, 0);
+    text = registry.scrape();
+    assertTrue(text.contains(
+            "\nimage_operation_duration_seconds_count{operation=\"brighten\"} 2\n"));
+    assertTrue(text.contains(
+            "\nimage_operation_duration_seconds_count{operation=\"blur\"} 2\n"));
+  }
+
+  // testing that the metrics can be written to a file and read over HTTP
+  @Test
+  public void testWriteAndServe() throws IOException {
+    registry.counter("loads_total", "Images loaded").inc();
+    Path dir = Files.createTempDirectory("metrics");
+    Path file = dir.resolve("image.prom");
+    try {
+      registry.write(file);
+      assertEquals(registry.scrape(), new String(Files.readAllBytes(file),
+              StandardCharsets.UTF_8));
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(dir);
+    }
+
+    try (MetricsRegistry.MetricsServer server = registry.serve(0)) {
+      URL url = new URL("http://127.0.0.1:" + server.getPort() + "/metrics");
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      assertEquals(200, connection.getResponseCode());
+      assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+      try (InputStream in = connection.getInputStream()) {
+        assertEquals(registry.scrape(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  // testing that serving the metrics never keeps the program from exiting, even if it ends
+  // without closing the server
+  @Test
+  public void testServeOnDaemonThreads() {
+    try (MetricsRegistry.MetricsServer server = registry.serve(0)) {
+      assertTrue(server.getPort() > 0);
+      int serving = 0;
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        if (thread.getName().startsWith("HTTP-Dispatcher")) {
+          assertTrue(thread.isDaemon());
+          serving++;
+        }
+      }
+      assertTrue(serving > 0);
+    }
+  }
+}
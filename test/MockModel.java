@@ -4,6 +4,7 @@ import model.ImageModel;
 import model.enums.FlipType;
 import model.enums.GreyscaleComponentType;
 import model.image.Image;
+import model.image.Mask;
 
 /**
  * A mock model to confirm that the correct methods are being called by the controller.
@@ -91,4 +92,58 @@ public class MockModel implements ImageModel {
             " and its height downsized by " + heightPercent + " and was saved as "
             + newFileName + ".\n");
   }
+
+  @Override
+  public void brighten(Mask mask, int value, String oldFileName, String newFileName) throws
+          IllegalArgumentException {
+    log.append("Image with name " + oldFileName + " was brightened by " + value + " within " +
+            mask + " and saved as " + newFileName + ".\n");
+  }
+
+  @Override
+  public void darken(Mask mask, int value, String oldFileName, String newFileName) throws
+          IllegalArgumentException {
+    log.append("Image with name " + oldFileName + " was darkened by " + value + " within " +
+            mask + " and saved as " + newFileName + ".\n");
+  }
+
+  @Override
+  public void greyscaleComponent(Mask mask, GreyscaleComponentType type, String oldFileName,
+                                 String newFileName) throws IllegalArgumentException {
+    log.append("Image with name " + oldFileName + " was greyscaled component wise by " + type +
+            " within " + mask + " and saved as " + newFileName + ".\n");
+  }
+
+  @Override
+  public void flip(Mask mask, FlipType type, String oldFileName, String newFileName) throws
+          IllegalArgumentException {
+    log.append("Image with name " + oldFileName + " was flipped " + type + " within " + mask +
+            " and saved as " + newFileName + ".\n");
+  }
+
+  @Override
+  public void blur(Mask mask, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
+    log.append("Image with name " + oldFileName + " was blurred within " + mask +
+            " and saved as " + newFileName + ".\n");
+  }
+
+  @Override
+  public void sharpen(Mask mask, String oldFileName, String newFileName)
+          throws IllegalArgumentException {
+    log.append("Image with name " + oldFileName + " was sharpened within " + mask +
+            " and saved as " + newFileName + ".\n");
+  }
+
+  @Override
+  public void greyscaleColorTransformation(Mask mask, String oldFileName, String newFileName) {
+    log.append("Image with name " + oldFileName + " was greyscaled with a color transformation " +
+            "within " + mask + " and saved as " + newFileName + ".\n");
+  }
+
+  @Override
+  public void sepia(Mask mask, String oldFileName, String newFileName) {
+    log.append("Image with name " + oldFileName + " has a sepia filter called to it within " +
+            mask + " and saved as " + newFileName + ".\n");
+  }
 }
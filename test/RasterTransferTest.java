@@ -0,0 +1,86 @@
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import controller.inputoutput.RasterTransfer;
+import model.image.Image;
+import model.image.ImageImpl;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A JUnit test class for {@link RasterTransfer}.
+ */
+public class RasterTransferTest {
+
+  // testing for an exception when copying a null buffered image
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullBufferedImage() {
+    RasterTransfer.toRows(null);
+  }
+
+  // testing for an exception when copying a null image
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullImage() {
+    RasterTransfer.toBufferedImage(null);
+  }
+
+  // testing that every layout is copied into exactly the pixels that getRGB reports, ignoring
+  // the alpha component
+  @Test
+  public void testToRowsMatchesGetRGB() {
+    int[] types = new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+        BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR,
+        BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_USHORT_565_RGB};
+    for (int type : types) {
+      BufferedImage image = this.randomImage(37, 23, type);
+      this.assertRowsMatch(image, RasterTransfer.toRows(image));
+    }
+  }
+
+  // testing that a buffered image which is only part of a bigger raster is copied correctly
+  @Test
+  public void testToRowsOfSubimage() {
+    BufferedImage image = this.randomImage(40, 30, BufferedImage.TYPE_3BYTE_BGR)
+            .getSubimage(5, 7, 20, 11);
+    this.assertRowsMatch(image, RasterTransfer.toRows(image));
+  }
+
+  // testing that an image is copied into a buffered image with the same pixels
+  @Test
+  public void testToBufferedImage() {
+    int[][] rows = HeapEquivalence.randomRows(29, 13, 7);
+    Image img = new ImageImpl(rows, 255);
+    BufferedImage image = RasterTransfer.toBufferedImage(img);
+    assertEquals(BufferedImage.TYPE_INT_RGB, image.getType());
+    this.assertRowsMatch(image, rows);
+  }
+
+  /**
+   * Creates a buffered image of the specified type filled with random pixels.
+   */
+  private BufferedImage randomImage(int width, int height, int type) {
+    BufferedImage image = new BufferedImage(width, height, type);
+    Random random = new Random(type);
+    for (int j = 0; j < height; j++) {
+      for (int i = 0; i < width; i++) {
+        image.setRGB(i, j, random.nextInt());
+      }
+    }
+    return image;
+  }
+
+  /**
+   * Asserts that rows of packed pixels hold the same colors as a buffered image.
+   */
+  private void assertRowsMatch(BufferedImage image, int[][] rows) {
+    assertEquals(image.getHeight(), rows.length);
+    for (int j = 0; j < image.getHeight(); j++) {
+      assertEquals(image.getWidth(), rows[j].length);
+      for (int i = 0; i < image.getWidth(); i++) {
+        assertEquals(image.getRGB(i, j) & 0xFFFFFF, rows[j][i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,33 @@
+import java.lang.ref.Reference;
+
+/**
+ * A class of helper methods for tests which check that an object is no longer held in memory.
+ */
+public final class Reachability {
+
+  /**
+   * A constructor which keeps this class of helper methods from being instantiated.
+   */
+  private Reachability() {
+  }
+
+  /**
+   * Asks for garbage collection until the object of the specified reference has been collected,
+   * giving up after a number of tries.
+   *
+   * @param reference a weak reference to the object
+   * @return true if the object was collected, false if it is still reachable
+   */
+  public static boolean isCollected(Reference<?> reference) {
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc();
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return reference.get() == null;
+  }
+}
@@ -0,0 +1,220 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.enums.FlipType;
+import model.enums.GreyscaleComponentType;
+import model.image.Image;
+import model.image.ImageImpl;
+import model.image.Mask;
+import model.image.RegionImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for {@link RegionImage}s, {@link Mask}s, and the manipulations of the model
+ * that are limited to a mask.
+ */
+public class RegionImageTest {
+
+  private static final double[][] BLUR = new double[][]
+      {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
+
+  private Image image;
+  private ImageModel model;
+
+  @Before
+  public void init() {
+    this.image = HeapEquivalence.randomImage(23, 19, 5);
+    this.model = new ImageModelImpl();
+    this.model.setImage("image", this.image);
+  }
+
+  // testing for exceptions when creating a rectangle that is empty or starts off the image
+  @Test
+  public void testInvalidRectangle() {
+    int thrown = 0;
+    int[][] rectangles = new int[][]{{-1, 0, 2, 2}, {0, -1, 2, 2}, {0, 0, 0, 2}, {0, 0, 2, -1}};
+    for (int[] r : rectangles) {
+      try {
+        Mask.rectangle(r[0], r[1], r[2], r[3]);
+      } catch (IllegalArgumentException e) {
+        thrown++;
+      }
+    }
+    assertEquals(4, thrown);
+  }
+
+  // testing that a mask image selects exactly its pixels that are not black, bounded tightly
+  @Test
+  public void testMaskOfImage() {
+    int[][] rows = new int[4][5];
+    rows[1][3] = 0x010000;
+    rows[2][1] = 0x000001;
+    Mask mask = Mask.of(new ImageImpl(rows, 255));
+    assertEquals(1, mask.getX());
+    assertEquals(1, mask.getY());
+    assertEquals(3, mask.getWidth());
+    assertEquals(2, mask.getHeight());
+    assertTrue(mask.contains(3, 1));
+    assertTrue(mask.contains(1, 2));
+    assertFalse(mask.contains(2, 1));
+    assertFalse(mask.contains(0, 0));
+  }
+
+  // testing for an exception when a mask image is entirely black
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlackMask() {
+    Mask.of(new ImageImpl(new int[3][3], 255));
+  }
+
+  // testing that a filter limited to a region reads the pixels around it, so the region has the
+  // same pixels as the whole image filtered, and every other pixel is that of the source
+  @Test
+  public void testFilterRegion() {
+    Mask mask = Mask.rectangle(4, 3, 7, 5);
+    Image region = RegionImage.apply(this.image, mask, i -> i.filter(BLUR), 1);
+    this.assertMasked(this.image.filter(BLUR), mask, region);
+
+    // a region at the corner is filtered the way the edges of the whole image are
+    mask = Mask.rectangle(0, 0, 3, 3);
+    this.assertMasked(this.image.filter(BLUR), mask,
+            RegionImage.apply(this.image, mask, i -> i.filter(BLUR), 1));
+  }
+
+  // testing that a region is only ever as large as its bounds, however large the image is
+  @Test
+  public void testRegionOnlyHoldsItsBounds() {
+    RegionImage region = (RegionImage) RegionImage.apply(this.image, Mask.rectangle(2, 2, 3, 4),
+        i -> i.brighten(10), 0);
+    assertEquals(4L * 3 * 4, region.getPatchBytes());
+    assertFalse(region.isComputed());
+    region.getRGB(0, 0, 23, 19, new int[23 * 19], 0, 23);
+    assertFalse(region.isComputed());
+
+    // manipulating the region further combines it into an image of its own
+    Image flipped = region.flip(FlipType.HORIZONTAL);
+    assertTrue(region.isComputed());
+    assertEquals(this.image.brighten(10).getRGB(3, 3), flipped.getRGB(19, 3));
+    assertEquals(this.image.getRGB(22, 0), flipped.getRGB(0, 0));
+  }
+
+  // testing for exceptions when a region reaches off the image or its manipulation changes size
+  @Test
+  public void testInvalidRegion() {
+    int thrown = 0;
+    try {
+      RegionImage.apply(this.image, Mask.rectangle(20, 0, 4, 1), i -> i, 0);
+    } catch (IllegalArgumentException e) {
+      thrown++;
+    }
+    try {
+      RegionImage.apply(this.image, Mask.rectangle(0, 0, 10, 10), i -> i.downsize(50, 50), 0);
+    } catch (IllegalArgumentException e) {
+      thrown++;
+    }
+    try {
+      this.model.blur(Mask.rectangle(0, 16, 1, 4), "image", "blurred");
+    } catch (IllegalArgumentException e) {
+      thrown++;
+    }
+    try {
+      this.model.blur(null, "image", "blurred");
+    } catch (IllegalArgumentException e) {
+      thrown++;
+    }
+    assertEquals(4, thrown);
+  }
+
+  // testing that every manipulation of the model limited to a mask only changes the pixels the
+  // mask selects, and changes them the way the manipulation of the whole image does
+  @Test
+  public void testModelManipulationsInMask() {
+    int[][] rows = new int[19][23];
+    for (int j = 3; j < 15; j++) {
+      for (int i = j; i < 20; i += 2) {
+        rows[j][i] = 0xFFFFFF;
+      }
+    }
+    Mask mask = Mask.of(new ImageImpl(rows, 255));
+
+    this.model.brighten(mask, 30, "image", "out");
+    this.assertMasked(this.image.brighten(30), mask, this.model.getImage("out"));
+    this.model.darken(mask, 30, "image", "out");
+    this.assertMasked(this.image.darken(30), mask, this.model.getImage("out"));
+    for (GreyscaleComponentType type : GreyscaleComponentType.values()) {
+      this.model.greyscaleComponent(mask, type, "image", "out");
+      this.assertMasked(this.image.greyscaleComponent(type), mask, this.model.getImage("out"));
+    }
+    this.model.blur(mask, "image", "out");
+    this.assertMasked(this.image.filter(BLUR), mask, this.model.getImage("out"));
+    this.model.sharpen(mask, "image", "out");
+    this.assertMasked(this.image.filter(new double[][]{{-0.125, -0.125, -0.125, -0.125, -0.125},
+        {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, 0.25, 1, 0.25, -0.125},
+        {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, -0.125, -0.125, -0.125, -0.125}}), mask,
+            this.model.getImage("out"));
+    this.model.greyscaleColorTransformation(mask, "image", "out");
+    this.assertMasked(this.image.colorTransformation(new double[][]{{0.2126, 0.7152, 0.0722},
+        {0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722}}), mask, this.model.getImage("out"));
+    this.model.sepia(mask, "image", "out");
+    this.assertMasked(this.image.colorTransformation(new double[][]{{0.393, 0.769, 0.189},
+        {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}}), mask, this.model.getImage("out"));
+  }
+
+  // testing that a flip limited to a region flips the pixels within the region in place
+  @Test
+  public void testFlipRegion() {
+    this.model.flip(Mask.rectangle(5, 2, 4, 3), FlipType.HORIZONTAL, "image", "flipped");
+    Image flipped = this.model.getImage("flipped");
+    for (int j = 0; j < 19; j++) {
+      for (int i = 0; i < 23; i++) {
+        boolean inside = i >= 5 && i < 9 && j >= 2 && j < 5;
+        assertEquals(this.image.getRGB(inside ? 13 - i : i, j), flipped.getRGB(i, j));
+      }
+    }
+  }
+
+  // testing that the model gives the same results limited to a region in lazy mode, and only
+  // checks the region once the result is read
+  @Test
+  public void testLazyModel() {
+    ImageModel lazy = new ImageModelImpl(true);
+    lazy.setImage("image", this.image);
+    Mask mask = Mask.rectangle(1, 1, 9, 9);
+    lazy.blur(mask, "image", "blurred");
+    this.assertMasked(this.image.filter(BLUR), mask, lazy.getImage("blurred"));
+
+    lazy.blur(Mask.rectangle(20, 0, 9, 9), "image", "outside");
+    try {
+      lazy.getImage("outside").getRGB(0, 0);
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+    throw new AssertionError("Region outside of the image was not rejected!");
+  }
+
+  /**
+   * Asserts that an image has the pixels of the manipulated image wherever the mask selects them
+   * and the pixels of the original image everywhere else, reading it both pixel by pixel and a
+   * whole region at a time.
+   */
+  private void assertMasked(Image manipulated, Mask mask, Image actual) {
+    int width = this.image.getWidth();
+    int height = this.image.getHeight();
+    assertEquals(width, actual.getWidth());
+    assertEquals(height, actual.getHeight());
+
+    int[] region = new int[(width + 2) * height];
+    actual.getRGB(0, 0, width, height, region, 2, width + 2);
+    for (int j = 0; j < height; j++) {
+      for (int i = 0; i < width; i++) {
+        int expected = mask.contains(i, j) ? manipulated.getRGB(i, j) : this.image.getRGB(i, j);
+        assertEquals(expected, actual.getRGB(i, j));
+        assertEquals(expected, region[2 + j * (width + 2) + i]);
+      }
+    }
+  }
+}
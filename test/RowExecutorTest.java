@@ -0,0 +1,179 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import controller.commands.Load;
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.enums.FlipType;
+import model.enums.GreyscaleComponentType;
+import model.image.Image;
+import model.image.RowExecutor;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A JUnit test class for {@link RowExecutor}s.
+ */
+public class RowExecutorTest {
+
+  private RowExecutor original;
+  private Image family;
+
+  @Before
+  public void init() {
+    original = RowExecutor.getDefault();
+    ImageModel m = new ImageModelImpl();
+    new Load("res/family/family.ppm", "family").execute(m);
+    family = m.getImage("family");
+  }
+
+  @After
+  public void restore() {
+    RowExecutor.setDefault(original);
+  }
+
+  // testing for an exception when the parallelism is not positive
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidParallelism() {
+    new RowExecutor(0, 100);
+  }
+
+  // testing for an exception when the threshold is not positive
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidThreshold() {
+    new RowExecutor(4, 0);
+  }
+
+  // testing for an exception when the default executor is set to null
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDefault() {
+    RowExecutor.setDefault(null);
+  }
+
+  // testing for an exception when the task is null
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullTask() {
+    new RowExecutor(4, 1).forEachRow(10, 10, null);
+  }
+
+  // testing that every row is processed exactly once when split across threads
+  @Test
+  public void testEveryRowProcessedOnce() {
+    AtomicIntegerArray counts = new AtomicIntegerArray(1001);
+    new RowExecutor(4, 1).forEachRow(3, 1001, (start, end) -> {
+      for (int j = start; j < end; j++) {
+        counts.incrementAndGet(j);
+      }
+    });
+    for (int j = 0; j < counts.length(); j++) {
+      assertEquals(1, counts.get(j));
+    }
+  }
+
+  // testing that an image below the threshold is processed in a single band on this thread
+  @Test
+  public void testSequentialFallback() {
+    int[] calls = new int[1];
+    Thread caller = Thread.currentThread();
+    new RowExecutor(4, 1000).forEachRow(10, 10, (start, end) -> {
+      assertEquals(caller, Thread.currentThread());
+      assertEquals(0, start);
+      assertEquals(10, end);
+      calls[0]++;
+    });
+    assertEquals(1, calls[0]);
+  }
+
+  // testing that an executor that has been shut down still processes every row, on the calling
+  // thread
+  @Test
+  public void testShutdown() {
+    RowExecutor executor = new RowExecutor(4, 1);
+    executor.shutdown();
+    Thread caller = Thread.currentThread();
+    int[] rows = new int[1];
+    executor.forEachRow(3, 1001, (start, end) -> {
+      assertEquals(caller, Thread.currentThread());
+      rows[0] += end - start;
+    });
+    assertEquals(1001, rows[0]);
+  }
+
+  // testing that shutting an executor down while work is being given to it never fails the work,
+  // which runs on the calling thread if the executor stopped before it could take it
+  @Test
+  public void testShutdownWhileRunning() throws InterruptedException {
+    for (int k = 0; k < 200; k++) {
+      RowExecutor executor = new RowExecutor(4, 1);
+      Thread stopper = new Thread(executor::shutdown);
+      int[] rows = new int[1];
+      stopper.start();
+      for (int run = 0; run < 20; run++) {
+        executor.forEachRow(3, 101, (start, end) -> {
+          synchronized (rows) {
+            rows[0] += end - start;
+          }
+        });
+      }
+      stopper.join();
+      assertEquals(20 * 101, rows[0]);
+    }
+  }
+
+  // testing that every manipulation gives exactly the same pixels in parallel as sequentially
+  @Test
+  public void testParallelMatchesSequential() {
+    double[][] blur = new double[][]
+        {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
+    double[][] sepia = new double[][]
+        {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
+
+    RowExecutor single = new RowExecutor(1, 1);
+    RowExecutor.setDefault(single);
+    Image[] sequential = this.applyAll(blur, sepia);
+    RowExecutor four = new RowExecutor(4, 1);
+    RowExecutor.setDefault(four);
+    Image[] parallel = this.applyAll(blur, sepia);
+    RowExecutor.setDefault(original);
+    single.shutdown();
+    four.shutdown();
+
+    for (int k = 0; k < sequential.length; k++) {
+      this.assertSamePixels(sequential[k], parallel[k]);
+    }
+  }
+
+  /**
+   * Applies every manipulation to the family image using the current default executor.
+   */
+  private Image[] applyAll(double[][] blur, double[][] sepia) {
+    GreyscaleComponentType[] types = GreyscaleComponentType.values();
+    Image[] results = new Image[6 + types.length];
+    results[0] = family.brighten(30);
+    results[1] = family.darken(30);
+    results[2] = family.filter(blur);
+    results[3] = family.colorTransformation(sepia);
+    results[4] = family.downsize(33, 17);
+    results[5] = family.flip(FlipType.HORIZONTAL);
+    for (int k = 0; k < types.length; k++) {
+      results[6 + k] = family.greyscaleComponent(types[k]);
+    }
+    return results;
+  }
+
+  /**
+   * Asserts that two images are the same size and have exactly the same pixels.
+   */
+  private void assertSamePixels(Image expected, Image actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    for (int j = 0; j < expected.getHeight(); j++) {
+      for (int i = 0; i < expected.getWidth(); i++) {
+        assertEquals(expected.getRGB(i, j), actual.getRGB(i, j));
+      }
+    }
+  }
+}
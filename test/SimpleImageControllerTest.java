@@ -3,6 +3,8 @@ import org.junit.Test;
 
 import java.io.StringReader;
 
+import controller.inputoutput.PNGImageInputOutput;
+import controller.text.CommandProfiler;
 import controller.text.ImageTextController;
 import controller.text.ImageTextControllerImpl;
 import model.ImageModel;
@@ -91,6 +93,100 @@ public class SimpleImageControllerTest {
     corruptViewController.start();
   }
 
+  // testing that the load options can be used from a script
+  @Test
+  public void testLoadWithOptionsThroughController() {
+    Readable readable = new StringReader(
+            "load-region 1 2 3 4 res/family/family.png region \n" +
+                    "load-subsampled 2 res/family/family.png half \n" +
+                    "load-size 10 6 res/family/family.png thumbnail \n");
+
+    ImageTextController c = new ImageTextControllerImpl(model, view, readable);
+    c.start();
+
+    assertEquals(3, model.getImage("region").getWidth());
+    assertEquals(4, model.getImage("region").getHeight());
+    assertEquals(10, model.getImage("thumbnail").getWidth());
+    assertEquals(6, model.getImage("thumbnail").getHeight());
+    Image family = new PNGImageInputOutput().load("res/family/family.png");
+    assertEquals((family.getWidth() + 1) / 2, model.getImage("half").getWidth());
+  }
+
+  // testing that a profiled script measures only the commands that ran and displays the summary
+  // once it ends, whether by quitting or by running out of input
+  @Test
+  public void testProfiledScript() {
+    CommandProfiler profiler = new CommandProfiler();
+    Readable readable = new StringReader("load res/Square.ppm square \n"
+            + "blur square blurred \n"
+            + "blur blurred blurred \n"
+            + "blur missing blurred \n"
+            + "q \n");
+    ImageTextController c = new ImageTextControllerImpl(model, view, readable, profiler);
+    c.start();
+
+    assertTrue(profiler.toCsv().contains("\nload,1,"));
+    assertTrue(profiler.toCsv().contains("\nblur,2,"));
+    String output = ap.toString();
+    assertTrue(output.indexOf("Command") < output.indexOf("Application quit!"));
+    assertTrue(output.contains(System.lineSeparator() + "total "));
+
+    ap = new StringBuilder();
+    view = new ImageTextViewImpl(ap);
+    c = new ImageTextControllerImpl(model, view, new StringReader("sepia square sepia"),
+            new CommandProfiler());
+    c.start();
+    assertTrue(ap.toString().contains(System.lineSeparator() + "sepia "));
+  }
+
+  // testing that a manipulation after a region or mask is limited to it, and that anything other
+  // than a manipulation after a region is an invalid command
+  @Test
+  public void testRegionAndMaskThroughController() {
+    StringBuilder log = new StringBuilder();
+    Readable readable = new StringReader(
+            "region 1 2 3 4 blur square blurred \n"
+                    + "region 0 0 2 2 vertical-flip square flipped \n"
+                    + "region 0 0 2 2 downsize 50 50 square small \n"
+                    + "region 0 0 2 2 save out.ppm square \n"
+                    + "region 0 0 0 2 sepia square sepia \n"
+                    + "region 0 0 2 2 unknown square sepia \n");
+    ImageTextController c = new ImageTextControllerImpl(new MockModel(log), view, readable);
+    c.start();
+
+    assertEquals("Image with name square was blurred within rectangle 1 2 3 4 and saved as "
+            + "blurred.\n"
+            + "Image with name square was flipped VERTICAL within rectangle 0 0 2 2 and saved as "
+            + "flipped.\n", log.toString());
+    assertEquals(4, ap.toString().split("Invalid command sequence: ").length - 1);
+
+    readable = new StringReader("load res/Square.ppm square \n"
+            + "region 0 0 2 2 brighten 10 square bright \n"
+            + "mask bright sharpen square sharp \n");
+    c = new ImageTextControllerImpl(model, view, readable);
+    c.start();
+    Image square = model.getImage("square");
+    Image bright = model.getImage("bright");
+    Image sharp = model.getImage("sharp");
+    for (int j = 0; j < square.getHeight(); j++) {
+      for (int i = 0; i < square.getWidth(); i++) {
+        if (i < 2 && j < 2) {
+          assertEquals(square.brighten(10).getRGB(i, j), bright.getRGB(i, j));
+        } else {
+          assertEquals(square.getRGB(i, j), bright.getRGB(i, j));
+        }
+        if (bright.getRGB(i, j) == 0) {
+          assertEquals(square.getRGB(i, j), sharp.getRGB(i, j));
+        } else {
+          assertEquals(square.filter(new double[][]{{-0.125, -0.125, -0.125, -0.125, -0.125},
+              {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, 0.25, 1, 0.25, -0.125},
+              {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, -0.125, -0.125, -0.125, -0.125}})
+                  .getRGB(i, j), sharp.getRGB(i, j));
+        }
+      }
+    }
+  }
+
   // see the imagesToTestSaveFunctionality/ folder within the res/ folder to view the saved image
   // in ppm format at the specified local destination
   @Test
@@ -0,0 +1,164 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import model.ImageModel;
+import model.ImageModelImpl;
+import model.ImageStore;
+import model.enums.FlipType;
+import model.enums.GreyscaleComponentType;
+import model.image.Image;
+import model.image.LookupTable;
+import model.image.TiledImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A JUnit test class for {@link TiledImage}.
+ */
+public class TiledImageTest {
+
+  private Image heap;
+  private TiledImage tiled;
+
+  @Before
+  public void init() {
+    this.heap = HeapEquivalence.randomImage(37, 23, 3);
+    this.tiled = TiledImage.of(this.heap, 8);
+  }
+
+  // testing for exceptions when wrapping a null image or using tiles that are not positive
+  @Test
+  public void testInvalidWrap() {
+    int thrown = 0;
+    try {
+      TiledImage.of(null);
+    } catch (IllegalArgumentException e) {
+      thrown++;
+    }
+    try {
+      TiledImage.of(this.heap, 0);
+    } catch (IllegalArgumentException e) {
+      thrown++;
+    }
+    assertEquals(2, thrown);
+  }
+
+  // testing that wrapping an image that is already tiled the same way returns it as it is
+  @Test
+  public void testWrapTiled() {
+    assertSame(this.tiled, TiledImage.of(this.tiled, 8));
+    assertEquals(TiledImage.DEFAULT_TILE_SIZE, TiledImage.of(this.tiled).getTileSize());
+  }
+
+  // testing that every manipulation of a tiled image gives the same pixels as manipulating the
+  // image on the heap
+  @Test
+  public void testManipulationsMatchHeap() {
+    for (GreyscaleComponentType type : GreyscaleComponentType.values()) {
+      this.assertSameResult(this.heap.greyscaleComponent(type),
+              this.tiled.greyscaleComponent(type));
+    }
+    for (FlipType type : FlipType.values()) {
+      this.assertSameResult(this.heap.flip(type), this.tiled.flip(type));
+    }
+    this.assertSameResult(this.heap.brighten(40), this.tiled.brighten(40));
+    this.assertSameResult(this.heap.darken(40), this.tiled.darken(40));
+    this.assertSameResult(this.heap.applyLookupTable(LookupTable.gamma(0.5, 255)),
+            this.tiled.applyLookupTable(LookupTable.gamma(0.5, 255)));
+
+    double[][] sepia = new double[][]{{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168},
+        {0.272, 0.534, 0.131}};
+    this.assertSameResult(this.heap.colorTransformation(sepia),
+            this.tiled.colorTransformation(sepia));
+    this.assertSameResult(this.heap.downsize(40, 70), this.tiled.downsize(40, 70));
+    this.assertSameResult(this.heap.downsize(13, 0), this.tiled.downsize(13, 0));
+  }
+
+  // testing that filtering a tiled image gives the same pixels as filtering the image on the
+  // heap, including at the edges of every tile, for every border mode and for kernels wide
+  // enough to be applied using Fourier transforms
+  @Test
+  public void testFilterMatchesHeap() {
+    HeapEquivalence.assertFilterMatchesHeap(this.heap, this.tiled, TiledImage.class);
+  }
+
+  // testing that manipulations compute nothing until they are read, and that reading one pixel
+  // at the end of a chain only computes the tiles that pixel depends on
+  @Test
+  public void testOnlyTouchedTilesAreComputed() {
+    TiledImage bright = (TiledImage) this.tiled.brighten(10);
+    TiledImage flipped = (TiledImage) bright.flip(FlipType.HORIZONTAL);
+    TiledImage blurred = (TiledImage) flipped.filter(new double[][]{{0.0625, 0.125, 0.0625},
+        {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}});
+    assertEquals(0, blurred.getCachedBytes());
+    assertEquals(0, bright.getCachedBytes());
+
+    // a pixel in the middle of the top left tile of the blurred image needs the four tiles of the
+    // flipped image around the corner the kernel reaches into, which in turn need the tiles of
+    // the brightened image that the mirrored columns 21-36 and rows 0-15 fall in
+    assertEquals(this.heap.brighten(10).flip(FlipType.HORIZONTAL).filter(new double[][]{
+        {0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}}).getRGB(3, 3),
+            blurred.getRGB(3, 3));
+    assertEquals(4L * 8 * 8, blurred.getCachedBytes());
+    assertEquals(4L * 4 * 8 * 8, flipped.getCachedBytes());
+    assertEquals(4L * (8 + 8 + 5) * 16, bright.getCachedBytes());
+    assertEquals(0, this.tiled.getCachedBytes());
+  }
+
+  // testing that dropping the tiles frees them and that they are computed again when read
+  @Test
+  public void testDiscardTiles() {
+    TiledImage bright = (TiledImage) this.tiled.brighten(10);
+    bright.prefetch(0, 0, 37, 23);
+    assertEquals(4L * 37 * 23, bright.getCachedBytes());
+    assertEquals(4L * 37 * 23, bright.discardTiles());
+    assertEquals(0, bright.getCachedBytes());
+    HeapEquivalence.assertSamePixels(this.heap.brighten(10), bright);
+    assertEquals(0, this.tiled.discardTiles());
+  }
+
+  // testing for an exception when prefetching outside of the image
+  @Test(expected = IllegalArgumentException.class)
+  public void testPrefetchOutside() {
+    this.tiled.brighten(10);
+    ((TiledImage) this.tiled.brighten(10)).prefetch(30, 0, 10, 1);
+  }
+
+  // testing that the model tiles what it is given in tiled mode and drops computed tiles rather
+  // than spilling them when it goes over its budget, which leaves room for the image every tiled
+  // image is derived from, since they all keep it in memory
+  @Test
+  public void testModelInTiledMode() {
+    ImageStore store = new ImageStore(4L * this.heap.getWidth() * this.heap.getHeight(), null);
+    ImageModel model = new ImageModelImpl(false, true, store);
+    model.setImage("square", this.heap);
+    assertTrue(model.getImage("square") instanceof TiledImage);
+
+    model.flip(FlipType.VERTICAL, "square", "flipped");
+    model.blur("flipped", "blurred");
+    TiledImage flipped = (TiledImage) model.getImage("flipped");
+    HeapEquivalence.assertSamePixels(this.heap.flip(FlipType.VERTICAL), flipped);
+    assertTrue(flipped.getCachedBytes() > 0);
+    long spills = store.getSpills();
+
+    // using another image takes the store over its budget, so the tiles of the flipped image are
+    // dropped, and they are computed again when the blurred image reads them
+    model.getImage("blurred");
+    assertEquals(0, flipped.getCachedBytes());
+    assertEquals(spills, store.getSpills());
+    HeapEquivalence.assertSamePixels(this.heap.flip(FlipType.VERTICAL).filter(new double[][]{
+        {0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}}),
+            model.getImage("blurred"));
+  }
+
+  /**
+   * Asserts that the result of a manipulation of a tiled image is itself tiled, and has the same
+   * pixels as the result of the manipulation on the heap.
+   */
+  private void assertSameResult(Image expected, Image actual) {
+    assertTrue(actual instanceof TiledImage);
+    HeapEquivalence.assertSamePixels(expected, actual);
+  }
+}